@@ -0,0 +1,182 @@
+package com.jpmc.theater;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * This class runs the theater's JMH benchmarks with the GC profiler, so every score comes with its allocation rate,
+ * once per requested thread count, and compares the scores with a saved baseline.
+ * <p>
+ * Options, followed by any JMH option or benchmark regex:
+ * <ul>
+ * <li>--threads 1,4,16 - the thread counts to run every benchmark with, 1 by default</li>
+ * <li>--save-baseline FILE - saves the scores as the baseline of later runs</li>
+ * <li>--baseline FILE - compares the scores with the baseline and exits with status 1 if one regressed</li>
+ * <li>--max-regression PERCENT - how much worse than its baseline a score may be, 10 by default</li>
+ * </ul>
+ * A throughput score regresses when it drops, any other mode's score when it grows.
+ *
+ * @author coder050519123
+ */
+public final class BenchmarkRunner {
+    private static final double DEFAULT_MAX_REGRESSION_PERCENT = 10;
+    private static final String ALLOCATION_PER_OPERATION = "gc.alloc.rate.norm";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>();
+        List<Integer> threadCounts = new ArrayList<>();
+        Path baseline = null;
+        Path saveBaseline = null;
+        double maxRegressionPercent = DEFAULT_MAX_REGRESSION_PERCENT;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads":
+                    for (String threads : value(args, ++i).split(",")) {
+                        threadCounts.add(Integer.parseInt(threads.trim()));
+                    }
+                    break;
+                case "--baseline":
+                    baseline = Paths.get(value(args, ++i));
+                    break;
+                case "--save-baseline":
+                    saveBaseline = Paths.get(value(args, ++i));
+                    break;
+                case "--max-regression":
+                    maxRegressionPercent = Double.parseDouble(value(args, ++i));
+                    break;
+                default:
+                    jmhArgs.add(args[i]);
+            }
+        }
+        if (threadCounts.isEmpty()) {
+            threadCounts.add(1);
+        }
+
+        CommandLineOptions jmhOptions = new CommandLineOptions(jmhArgs.toArray(new String[0]));
+        if (jmhOptions.shouldHelp()) {
+            jmhOptions.showHelp();
+            System.out.println("Theater options: --threads 1,4,16  --save-baseline FILE  --baseline FILE  --max-regression PERCENT");
+            return;
+        }
+        if (jmhOptions.shouldList()) {
+            new Runner(jmhOptions).list();
+            return;
+        }
+
+        Map<String, RunResult> results = new TreeMap<>();
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                    .parent(jmhOptions)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .build();
+            for (RunResult result : new Runner(options).run()) {
+                results.put(key(result.getParams(), threads), result);
+            }
+        }
+
+        printAllocations(results);
+        if (saveBaseline != null) {
+            saveBaseline(results, saveBaseline);
+        }
+        if (baseline != null && !compareWithBaseline(results, baseline, maxRegressionPercent)) {
+            System.exit(1);
+        }
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option " + args[index - 1] + "!");
+        }
+        return args[index];
+    }
+
+    /**
+     * @return the benchmark name followed by its parameters and thread count, the same in every run
+     */
+    private static String key(BenchmarkParams params, int threads) {
+        StringBuilder key = new StringBuilder(params.getBenchmark());
+        List<String> names = new ArrayList<>(params.getParamsKeys());
+        names.sort(null);
+        for (String name : names) {
+            key.append(',').append(name).append('=').append(params.getParam(name));
+        }
+        return key.append(",threads=").append(threads).toString();
+    }
+
+    private static void printAllocations(Map<String, RunResult> results) {
+        System.out.println();
+        System.out.println("Allocation per operation (" + ALLOCATION_PER_OPERATION + "):");
+        for (Map.Entry<String, RunResult> entry : results.entrySet()) {
+            Result<?> allocation = entry.getValue().getSecondaryResults().get(ALLOCATION_PER_OPERATION);
+            if (allocation != null) {
+                System.out.printf("  %-100s %12.1f %s%n", entry.getKey(), allocation.getScore(), allocation.getScoreUnit());
+            }
+        }
+    }
+
+    private static void saveBaseline(Map<String, RunResult> results, Path file) throws IOException {
+        Properties scores = new Properties();
+        for (Map.Entry<String, RunResult> entry : results.entrySet()) {
+            scores.setProperty(entry.getKey(), Double.toString(entry.getValue().getPrimaryResult().getScore()));
+        }
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            scores.store(writer, "Theater benchmark baseline");
+        }
+        System.out.println("Saved the baseline of " + scores.size() + " scores to " + file);
+    }
+
+    /**
+     * This method prints how each score moved from its baseline.
+     * @return false if a score is worse than its baseline by more than the maximum regression
+     */
+    private static boolean compareWithBaseline(Map<String, RunResult> results, Path file, double maxRegressionPercent) throws IOException {
+        Properties baseline = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            baseline.load(reader);
+        }
+        System.out.println();
+        System.out.println("Comparison with the baseline " + file + " (maximum regression " + maxRegressionPercent + "%):");
+        int regressions = 0;
+        for (Map.Entry<String, RunResult> entry : results.entrySet()) {
+            String baselineScore = baseline.getProperty(entry.getKey());
+            if (baselineScore == null) {
+                System.out.printf("  %-100s %12s%n", entry.getKey(), "new");
+                continue;
+            }
+            double before = Double.parseDouble(baselineScore);
+            double after = entry.getValue().getPrimaryResult().getScore();
+            boolean higherIsBetter = entry.getValue().getParams().getMode() == Mode.Throughput;
+            double improvementPercent = (higherIsBetter ? after - before : before - after) / before * 100;
+            boolean regressed = improvementPercent < -maxRegressionPercent;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("  %-100s %+11.1f%%%s%n", entry.getKey(), improvementPercent, regressed ? "  REGRESSION" : "");
+        }
+        System.out.println(regressions == 0 ? "No regression." : regressions + " benchmarks regressed.");
+        return regressions == 0;
+    }
+}
@@ -0,0 +1,82 @@
+package com.jpmc.theater;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class builds the schedules and discount rules the benchmarks run against.
+ *
+ * @author coder050519123
+ */
+final class BenchmarkSchedules {
+    /**
+     * Sequences of the day of each auditorium, 90 minutes apart from 9 am.
+     */
+    private static final int SHOWINGS_PER_AUDITORIUM = 10;
+    private static final int AUDITORIUMS_PER_DAY = 100;
+    private static final int MOVIES = 64;
+
+    /**
+     * Discount rule sets the benchmarks are parameterized with.
+     */
+    enum RuleMix {
+        /**
+         * The theater's default rules: special movie, 1st/2nd/7th show, and the 11 am to 4 pm window.
+         */
+        DEFAULT,
+        /**
+         * Only the sequence of the day rules, priced in cents without BigDecimal.
+         */
+        SEQUENCE_ONLY,
+        /**
+         * No discount at all.
+         */
+        NONE;
+
+        DiscountRuleEngine createEngine() {
+            switch (this) {
+                case DEFAULT:
+                    return new DiscountRuleEngine(MovieDiscountCalculator.getDefaultDiscountRules());
+                case SEQUENCE_ONLY:
+                    return new DiscountRuleEngine(List.of(
+                            new ShowingSequenceDiscountRule(1, new BigDecimal("3")),
+                            new ShowingSequenceDiscountRule(2, new BigDecimal("2")),
+                            new ShowingSequenceDiscountRule(7, new BigDecimal("1"))));
+                default:
+                    return new DiscountRuleEngine(List.of());
+            }
+        }
+    }
+
+    private BenchmarkSchedules() {
+    }
+
+    /**
+     * @param showings - the number of showings of the schedule
+     * @param capacity - the number of seats of each showing
+     * @param calculator - the calculator pricing the showings
+     * @return a schedule of 10 showings per auditorium and 100 auditoriums per day from today on, of 64 movies, a quarter of them special
+     */
+    static List<Showing> createSchedule(int showings, int capacity, MovieDiscountCalculator calculator) {
+        List<Movie> movies = new ArrayList<>(MOVIES);
+        for (int i = 0; i < MOVIES; i++) {
+            movies.add(new Movie("Movie " + i, "Benchmark movie " + i, Duration.ofMinutes(80 + i % 40),
+                    BigDecimal.valueOf(900 + i * 25L, 2), i % 4 == 0 ? 1 : 0));
+        }
+        List<Showing> schedule = new ArrayList<>(showings);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < showings; i++) {
+            int sequence = i % SHOWINGS_PER_AUDITORIUM + 1;
+            int auditorium = i / SHOWINGS_PER_AUDITORIUM % AUDITORIUMS_PER_DAY + 1;
+            LocalDate date = today.plusDays(i / (SHOWINGS_PER_AUDITORIUM * AUDITORIUMS_PER_DAY));
+            LocalDateTime start = LocalDateTime.of(date, LocalTime.of(9, 0)).plusMinutes(90L * (sequence - 1));
+            schedule.add(new Showing(movies.get(i % MOVIES), sequence, start, auditorium, capacity, calculator));
+        }
+        return schedule;
+    }
+}
@@ -0,0 +1,102 @@
+package com.jpmc.theater;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the MovieDiscountCalculator and the showing price cache, by schedule size and discount rule mix.
+ *
+ * @author coder050519123
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingBenchmark {
+    /**
+     * Schedule shared by every benchmark thread.
+     */
+    @State(Scope.Benchmark)
+    public static class ScheduleState {
+        @Param({"10", "1000", "100000", "1000000"})
+        public int showings;
+
+        @Param({"DEFAULT", "SEQUENCE_ONLY", "NONE"})
+        public String ruleMix;
+
+        MovieDiscountCalculator calculator;
+        Showing[] schedule;
+        Theater theater;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            calculator = new MovieDiscountCalculator(BenchmarkSchedules.RuleMix.valueOf(ruleMix).createEngine());
+            List<Showing> showingList = BenchmarkSchedules.createSchedule(showings, 1, calculator);
+            schedule = showingList.toArray(new Showing[0]);
+            theater = new Theater(showingList, calculator);
+        }
+    }
+
+    /**
+     * Position of a thread in the schedule, so threads walk the showings independently.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int position;
+
+        Showing next(Showing[] schedule) {
+            Showing showing = schedule[position];
+            position = position + 1 == schedule.length ? 0 : position + 1;
+            return showing;
+        }
+    }
+
+    /**
+     * Discount of one showing evaluated by the calculator on every call, as a showing price cache miss does.
+     */
+    @Benchmark
+    public BigDecimal calculateTicketPriceDiscount(ScheduleState state, Cursor cursor) {
+        return state.calculator.calculateTicketPriceDiscount(cursor.next(state.schedule));
+    }
+
+    /**
+     * Final price of one showing served from the showing's cache once warmed up.
+     */
+    @Benchmark
+    public long cachedFinalShowingPriceInCents(ScheduleState state, Cursor cursor) {
+        return cursor.next(state.schedule).getFinalShowingPriceInCents();
+    }
+
+    /**
+     * Final price of one showing as a BigDecimal, served from the showing's cache once warmed up.
+     */
+    @Benchmark
+    public BigDecimal cachedFinalShowingPrice(ScheduleState state, Cursor cursor) {
+        return cursor.next(state.schedule).getFinalShowingPrice();
+    }
+
+    /**
+     * Price table of the whole schedule; with a million showings one call is one large unit of work.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void calculateSchedulePrices(ScheduleState state, Blackhole blackhole) {
+        blackhole.consume(state.theater.calculateSchedulePrices());
+    }
+}
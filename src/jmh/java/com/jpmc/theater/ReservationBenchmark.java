@@ -0,0 +1,113 @@
+package com.jpmc.theater;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of reservation fees and of the seat allocation path of reservations, by schedule size and discount rule mix.
+ * Seats are held and released rather than reserved, so the showings never sell out however long the benchmark runs;
+ * holds go through the same showing lookup, admission, and seat allocation as createReservation.
+ *
+ * @author coder050519123
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationBenchmark {
+    private static final int SEATS_PER_SHOWING = 400;
+    private static final int RESERVATIONS = 1024;
+
+    /**
+     * Theater shared by every benchmark thread, with RESERVATIONS reservations of 1 or 2 tickets spread over the showings.
+     */
+    @State(Scope.Benchmark)
+    public static class TheaterState {
+        @Param({"10", "1000", "100000", "1000000"})
+        public int showings;
+
+        @Param({"DEFAULT", "SEQUENCE_ONLY", "NONE"})
+        public String ruleMix;
+
+        Theater theater;
+        ShowingKey[] keys;
+        Reservation[] reservations;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            MovieDiscountCalculator calculator = new MovieDiscountCalculator(BenchmarkSchedules.RuleMix.valueOf(ruleMix).createEngine());
+            List<Showing> schedule = BenchmarkSchedules.createSchedule(showings, SEATS_PER_SHOWING, calculator);
+            theater = new Theater(schedule, calculator);
+            keys = new ShowingKey[schedule.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = schedule.get(i).getShowingKey();
+            }
+            Customer customer = new Customer("Benchmark Customer", "benchmark-customer");
+            List<Reservation> made = new ArrayList<>(RESERVATIONS);
+            for (int i = 0; i < RESERVATIONS; i++) {
+                ShowingKey key = keys[i % keys.length];
+                made.add(theater.createReservation(customer, key.getDate(), key.getAuditorium(), key.getSequenceOfTheDay(), i % 2 + 1));
+            }
+            reservations = made.toArray(new Reservation[0]);
+        }
+    }
+
+    /**
+     * Position and customer of a thread, so threads walk the showings independently.
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final Customer customer = new Customer("Benchmark Customer " + Thread.currentThread().getId(), "customer-" + Thread.currentThread().getId());
+        int position;
+
+        int next(int length) {
+            int current = position % length;
+            position = current + 1;
+            return current;
+        }
+    }
+
+    /**
+     * Fee of a reservation as a BigDecimal, priced through the showing's cached price.
+     */
+    @Benchmark
+    public BigDecimal calculateTotalReservationFee(TheaterState state, ThreadState thread) {
+        return state.reservations[thread.next(state.reservations.length)].calculateTotalReservationFee();
+    }
+
+    /**
+     * Fee of a reservation in cents, without allocating.
+     */
+    @Benchmark
+    public long calculateTotalReservationFeeInCents(TheaterState state, ThreadState thread) {
+        return state.reservations[thread.next(state.reservations.length)].calculateTotalReservationFeeInCents();
+    }
+
+    /**
+     * Seats of a party of 2 taken and given back in one showing.
+     */
+    @Benchmark
+    public boolean holdAndReleaseSeats(TheaterState state, ThreadState thread) {
+        ShowingKey key = state.keys[thread.next(state.keys.length)];
+        LocalDate date = key.getDate();
+        SeatHold hold = state.theater.holdSeats(thread.customer, date, key.getAuditorium(), key.getSequenceOfTheDay(), 2);
+        return state.theater.releaseHold(hold);
+    }
+}
@@ -0,0 +1,94 @@
+package com.jpmc.theater;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the JSON schedule: printing it, serving its cached render, and serializing it from scratch, by schedule size.
+ * System.out is swapped for a stream discarding its bytes while the benchmarks run.
+ *
+ * @author coder050519123
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScheduleSerializationBenchmark {
+    /**
+     * Stream dropping every byte written to it.
+     */
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int showings;
+
+    @Param({"DEFAULT", "SEQUENCE_ONLY", "NONE"})
+    public String ruleMix;
+
+    private Theater theater;
+    private PrintStream originalSystemOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MovieDiscountCalculator calculator = new MovieDiscountCalculator(BenchmarkSchedules.RuleMix.valueOf(ruleMix).createEngine());
+        theater = new Theater(BenchmarkSchedules.createSchedule(showings, 1, calculator), calculator);
+        originalSystemOut = System.out;
+        System.setOut(new PrintStream(DISCARD));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalSystemOut);
+    }
+
+    /**
+     * Schedule printed to System.out in JSON, from the cached render once warmed up.
+     */
+    @Benchmark
+    public void printScheduleToJson() {
+        theater.printScheduleToJson();
+    }
+
+    /**
+     * Cached JSON render of the schedule.
+     */
+    @Benchmark
+    public ByteBuffer renderScheduleJson() {
+        return theater.renderSchedule(ScheduleFormat.JSON);
+    }
+
+    /**
+     * JSON schedule serialized from scratch, pricing included.
+     */
+    @Benchmark
+    public void writeScheduleJson() throws IOException {
+        theater.writeScheduleJson(DISCARD);
+    }
+}
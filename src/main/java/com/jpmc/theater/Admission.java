@@ -0,0 +1,23 @@
+package com.jpmc.theater;
+
+/**
+ * This enum represents the decisions of an AdmissionController on a reservation call.
+ *
+ * @author coder050519123
+ */
+public enum Admission {
+    /**
+     * The call is within budget and can go ahead.
+     */
+    ADMITTED,
+
+    /**
+     * The customer made too many calls lately.
+     */
+    CUSTOMER_OVER_BUDGET,
+
+    /**
+     * The showing received too many calls lately.
+     */
+    SHOWING_OVER_BUDGET
+}
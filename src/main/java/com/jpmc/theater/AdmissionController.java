@@ -0,0 +1,202 @@
+package com.jpmc.theater;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class sheds reservation calls with token buckets, one budget per customer id and one per showing, so a few clients
+ * flooding the theater cannot starve everyone else. Every call takes a token from its customer's bucket, then from its showing's bucket;
+ * buckets refill at a fixed rate up to their burst size.
+ * <p>
+ * Buckets live in fixed-size tables, each bucket holding the key it belongs to and its state in one long
+ * (last refill time in the high 40 bits, thousandths of a token in the low 24 bits) updated by compare-and-set, on its own cache line.
+ * A key is looked for in the few buckets after the one its hash points to, and takes over one of them that is unused or full:
+ * a full bucket is the same as a new one, so a key that stopped calling gives its bucket away without anyone's budget changing.
+ * Only when every one of those buckets belongs to another key still drawing on its budget does a key share the bucket of its hash,
+ * so memory stays fixed whatever the number of customers, and keys only share a budget while the table is saturated.
+ * A rejected call does not write to its bucket, does not allocate, and does not throw.
+ *
+ * @author coder050519123
+ */
+public final class AdmissionController {
+    /**
+     * Number of buckets of each table when none is provided.
+     */
+    public static final int DEFAULT_STRIPES = 16384;
+
+    /**
+     * Most tokens a bucket can hold.
+     */
+    public static final int MAX_BURST = (1 << 24) / 1000 - 1;
+
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long MILLI_TOKENS_PER_TOKEN = 1000;
+    /**
+     * Longs between two buckets, so each bucket sits on its own 64 byte cache line.
+     */
+    private static final int SPACING = 8;
+    /**
+     * Buckets a key is looked for in, from the one its hash points to.
+     */
+    private static final int PROBES = 8;
+
+    private final Clock clock;
+    private final long startMillis;
+    private final Buckets customerBuckets;
+    private final Buckets showingBuckets;
+    private final LongAdder rejectedCalls = new LongAdder();
+
+    /**
+     * Constructs a new AdmissionController with DEFAULT_STRIPES buckets per table.
+     * @param clock - the clock buckets refill by
+     * @param customerCallsPerSecond - the calls per second allowed to each customer
+     * @param customerBurst - the calls a customer can make at once after being idle
+     * @param showingCallsPerSecond - the calls per second allowed for each showing
+     * @param showingBurst - the calls a showing can receive at once after being idle
+     * @throws IllegalArgumentException if the clock is null, a rate is less than 1, or a burst is less than 1 or more than MAX_BURST
+     */
+    public AdmissionController(Clock clock, int customerCallsPerSecond, int customerBurst, int showingCallsPerSecond, int showingBurst) {
+        this(clock, customerCallsPerSecond, customerBurst, showingCallsPerSecond, showingBurst, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Constructs a new AdmissionController.
+     * @param clock - the clock buckets refill by
+     * @param customerCallsPerSecond - the calls per second allowed to each customer
+     * @param customerBurst - the calls a customer can make at once after being idle
+     * @param showingCallsPerSecond - the calls per second allowed for each showing
+     * @param showingBurst - the calls a showing can receive at once after being idle
+     * @param stripes - the number of buckets of each table, a power of 2
+     * @throws IllegalArgumentException if the clock is null, a rate is less than 1, a burst is less than 1 or more than MAX_BURST,
+     * or the number of stripes is not a power of 2
+     */
+    public AdmissionController(Clock clock, int customerCallsPerSecond, int customerBurst, int showingCallsPerSecond, int showingBurst, int stripes) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null!");
+        }
+        if (stripes < 1 || Integer.bitCount(stripes) != 1 || stripes > (1 << 24)) {
+            throw new IllegalArgumentException("Number of stripes must be a power of 2!");
+        }
+        this.clock = clock;
+        // time starts past the longest refill, so buckets never used (refill time 0) start full
+        this.startMillis = clock.millis() - (1L << TOKEN_BITS);
+        this.customerBuckets = new Buckets(customerCallsPerSecond, customerBurst, stripes);
+        this.showingBuckets = new Buckets(showingCallsPerSecond, showingBurst, stripes);
+    }
+
+    /**
+     * This method takes a token from the customer's bucket, then from the showing's bucket.
+     * A customer over budget does not use the showing's budget; a showing over budget still uses the customer's token.
+     * @param customerId - the id of the calling customer, null to only check the showing
+     * @param showingKey - the key of the requested showing, null to only check the customer
+     * @return ADMITTED if the call can go ahead, or which budget it is over
+     */
+    public Admission tryAdmit(String customerId, ShowingKey showingKey) {
+        long now = clock.millis() - startMillis;
+        if (customerId != null && !customerBuckets.tryTake(customerId, now)) {
+            rejectedCalls.increment();
+            return Admission.CUSTOMER_OVER_BUDGET;
+        }
+        if (showingKey != null && !showingBuckets.tryTake(showingKey, now)) {
+            rejectedCalls.increment();
+            return Admission.SHOWING_OVER_BUDGET;
+        }
+        return Admission.ADMITTED;
+    }
+
+    /**
+     * @return the number of calls rejected so far
+     */
+    public long getRejectedCallCount() {
+        return rejectedCalls.sum();
+    }
+
+    /**
+     * Table of token buckets sharing one refill rate and burst size.
+     */
+    private static final class Buckets {
+        private final AtomicReferenceArray<Object> keys;
+        private final AtomicLongArray states;
+        private final int mask;
+        private final long milliTokensPerMilli;
+        private final long capacity;
+
+        private Buckets(int callsPerSecond, int burst, int stripes) {
+            if (callsPerSecond < 1) {
+                throw new IllegalArgumentException("Calls per second cannot be less than 1!");
+            }
+            if (burst < 1 || burst > MAX_BURST) {
+                throw new IllegalArgumentException("Burst must be between 1 and " + MAX_BURST + "!");
+            }
+            this.keys = new AtomicReferenceArray<>(stripes);
+            this.states = new AtomicLongArray(stripes * SPACING);
+            this.mask = stripes - 1;
+            // thousandths of a token per millisecond is the same number as tokens per second
+            this.milliTokensPerMilli = callsPerSecond;
+            this.capacity = burst * MILLI_TOKENS_PER_TOKEN;
+        }
+
+        /**
+         * This method takes a token from the bucket of the key, taking over a bucket for the key if it has none.
+         */
+        private boolean tryTake(Object key, long now) {
+            int hash = key.hashCode();
+            int home = (hash ^ hash >>> 16) & mask;
+            while (true) {
+                int free = -1;
+                Object freeOwner = null;
+                for (int probe = 0; probe < PROBES && probe <= mask; probe++) {
+                    int bucket = (home + probe) & mask;
+                    Object owner = keys.get(bucket);
+                    if (key.equals(owner)) {
+                        return tryTake(bucket, now);
+                    }
+                    if (free < 0 && (owner == null || available(states.get(bucket * SPACING), now) == capacity)) {
+                        free = bucket;
+                        freeOwner = owner;
+                    }
+                }
+                if (free < 0) {
+                    // every bucket around is drawn on by another key, share the one of the hash until one is full again
+                    return tryTake(home, now);
+                }
+                // a full bucket needs no reset, at worst the key giving it away takes one last token from it
+                if (keys.compareAndSet(free, freeOwner, key)) {
+                    return tryTake(free, now);
+                }
+            }
+        }
+
+        /**
+         * This method takes a token from the bucket, refilling it for the time elapsed since its last refill.
+         */
+        private boolean tryTake(int bucket, long now) {
+            int index = bucket * SPACING;
+            long state = states.get(index);
+            while (true) {
+                long available = available(state, now);
+                if (available < MILLI_TOKENS_PER_TOKEN) {
+                    return false;
+                }
+                long updated = Math.max(now, state >>> TOKEN_BITS) << TOKEN_BITS | (available - MILLI_TOKENS_PER_TOKEN);
+                long witness = states.compareAndExchange(index, state, updated);
+                if (witness == state) {
+                    return true;
+                }
+                state = witness;
+            }
+        }
+
+        /**
+         * @return the thousandths of a token of the bucket state once refilled up to now
+         */
+        private long available(long state, long now) {
+            long tokens = state & TOKEN_MASK;
+            long elapsed = Math.max(0, now - (state >>> TOKEN_BITS));
+            return elapsed >= capacity / milliTokensPerMilli + 1 ? capacity : Math.min(capacity, tokens + elapsed * milliTokensPerMilli);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.jpmc.theater;
+
+/**
+ * This exception is thrown by a theater when its AdmissionController sheds a reservation call.
+ * There is one shared instance per decision without a stack trace or suppressed exceptions, so shedding a flood of calls costs no allocation
+ * and no caller can grow the shared instance. Callers that would rather not catch it can use Theater.tryCreateReservation instead.
+ *
+ * @author coder050519123
+ */
+public final class AdmissionRejectedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private static final AdmissionRejectedException CUSTOMER_OVER_BUDGET = new AdmissionRejectedException(Admission.CUSTOMER_OVER_BUDGET);
+    private static final AdmissionRejectedException SHOWING_OVER_BUDGET = new AdmissionRejectedException(Admission.SHOWING_OVER_BUDGET);
+
+    private final Admission admission;
+
+    private AdmissionRejectedException(Admission admission) {
+        super("Reservation call rejected: " + admission, null, false, false);
+        this.admission = admission;
+    }
+
+    /**
+     * @param admission - a rejecting decision
+     * @return the shared exception of the decision
+     * @throws IllegalArgumentException if the decision is ADMITTED
+     */
+    static AdmissionRejectedException of(Admission admission) {
+        switch (admission) {
+            case CUSTOMER_OVER_BUDGET:
+                return CUSTOMER_OVER_BUDGET;
+            case SHOWING_OVER_BUDGET:
+                return SHOWING_OVER_BUDGET;
+            default:
+                throw new IllegalArgumentException("Admitted calls are not rejected!");
+        }
+    }
+
+    /**
+     * @return the decision that rejected the call
+     */
+    public Admission getAdmission() {
+        return admission;
+    }
+}
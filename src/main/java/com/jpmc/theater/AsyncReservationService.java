@@ -0,0 +1,321 @@
+package com.jpmc.theater;
+
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * This class is an asynchronous facade over a Theater: reservations, pricing, and schedule queries return CompletableFutures
+ * and run on an executor instead of the caller's thread. Exceptions the theater would throw complete the futures exceptionally.
+ * <p>
+ * At most a fixed number of reservations run at the same time for each showing; the others wait in the showing's queue
+ * as plain tasks, not as blocked threads, so 100k requests in flight only hold 100k queued tasks.
+ * Without a provided executor, the service runs on virtual threads when the Java runtime has them,
+ * and on a fixed pool of daemon platform threads otherwise.
+ *
+ * @author coder050519123
+ */
+public final class AsyncReservationService implements AutoCloseable {
+    /**
+     * Number of reservations of one showing running at the same time when no limit is provided.
+     */
+    public static final int DEFAULT_CONCURRENCY_PER_SHOWING = 4;
+
+    private static final int PLATFORM_THREADS_PER_PROCESSOR = 4;
+
+    private final Theater theater;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final int concurrencyPerShowing;
+    private final ConcurrentHashMap<ShowingKey, ShowingLane> lanes = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new AsyncReservationService running on virtual threads, or on daemon platform threads if the runtime has none.
+     * The service owns its executor and shuts it down when closed.
+     * @param theater - the theater to call
+     * @throws IllegalArgumentException if the theater is null
+     */
+    public AsyncReservationService(Theater theater) {
+        this(theater, defaultExecutor(), DEFAULT_CONCURRENCY_PER_SHOWING, true);
+    }
+
+    /**
+     * Constructs a new AsyncReservationService running on the provided executor, which stays open when the service is closed.
+     * @param theater - the theater to call
+     * @param executor - the executor running the calls to the theater
+     * @param concurrencyPerShowing - the number of reservations of one showing running at the same time
+     * @throws IllegalArgumentException if the theater or executor is null, or the concurrency is less than 1
+     */
+    public AsyncReservationService(Theater theater, Executor executor, int concurrencyPerShowing) {
+        this(theater, executor, concurrencyPerShowing, false);
+    }
+
+    private AsyncReservationService(Theater theater, Executor executor, int concurrencyPerShowing, boolean ownsExecutor) {
+        if (theater == null || executor == null) {
+            throw new IllegalArgumentException("Theater and executor cannot be null!");
+        }
+        if (concurrencyPerShowing < 1) {
+            throw new IllegalArgumentException("Concurrency per showing cannot be less than 1!");
+        }
+        this.theater = theater;
+        this.executor = executor;
+        this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+        this.concurrencyPerShowing = concurrencyPerShowing;
+    }
+
+    /**
+     * @return the theater the service calls
+     */
+    public Theater getTheater() {
+        return theater;
+    }
+
+    /**
+     * Method to create a reservation asynchronously, as Theater.createReservation would
+     * @param customer - customer initiating reservation request
+     * @param date - the date of the selected showing
+     * @param auditorium - the auditorium of the selected showing
+     * @param sequence - the selected showing sequence
+     * @param ticketAmount - the requested party size of the reservation
+     * @return the future reservation, completed exceptionally with the exception the theater throws
+     */
+    public CompletableFuture<Reservation> createReservation(Customer customer, LocalDate date, int auditorium, int sequence, int ticketAmount) {
+        if (date == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Showing date cannot be null!"));
+        }
+        return submit(new ShowingKey(date, auditorium, sequence),
+                () -> theater.createReservation(customer, date, auditorium, sequence, ticketAmount));
+    }
+
+    /**
+     * Method to create a batch of reservations asynchronously, as Theater.createReservations would
+     * @param requests - the reservations asked for
+     * @return the future results of the requests, in the order of the requests
+     */
+    public CompletableFuture<List<ReservationResult>> createReservations(List<ReservationRequest> requests) {
+        return supply(() -> theater.createReservations(requests));
+    }
+
+    /**
+     * Method to price the whole schedule asynchronously, as Theater.calculateSchedulePrices would
+     * @return the future price table of the schedule
+     */
+    public CompletableFuture<SchedulePriceTable> calculateSchedulePrices() {
+        return supply(theater::calculateSchedulePrices);
+    }
+
+    /**
+     * @param key - the showing key to look up
+     * @return the future showing with the given key, if scheduled
+     */
+    public CompletableFuture<Optional<Showing>> findShowing(ShowingKey key) {
+        return supply(() -> theater.getScheduleIndex().findShowing(key));
+    }
+
+    /**
+     * @param date - the date to list the showings of
+     * @return the future showings of the date ordered by auditorium and sequence of the day
+     */
+    public CompletableFuture<List<Showing>> findShowingsOn(LocalDate date) {
+        return supply(() -> theater.getScheduleIndex().findShowingsOn(date));
+    }
+
+    /**
+     * @return the number of showings with reservations running or waiting
+     */
+    public int getBusyShowingCount() {
+        return lanes.size();
+    }
+
+    /**
+     * Closes the service: later calls complete exceptionally with a RejectedExecutionException. Calls made before still complete,
+     * reservations waiting in the queue of their showing included, as the executor the service created is only shut down
+     * once no reservation runs or waits. A call racing with close may be rejected too.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        shutdownIfDrained();
+    }
+
+    private <T> CompletableFuture<T> supply(Supplier<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new RejectedExecutionException("Reservation service is closed!"));
+            return future;
+        }
+        try {
+            executor.execute(() -> run(work, future));
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    /**
+     * This method runs the work on the executor once fewer than concurrencyPerShowing works of the same showing are running.
+     */
+    private <T> CompletableFuture<T> submit(ShowingKey key, Supplier<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new RejectedExecutionException("Reservation service is closed!"));
+            return future;
+        }
+        while (true) {
+            ShowingLane lane = lanes.computeIfAbsent(key, ShowingLane::new);
+            LaneTask<T> task = new LaneTask<>(lane, work, future);
+            boolean start;
+            synchronized (lane) {
+                if (lane.retired) {
+                    // the lane went idle and left the map after we found it, take the new one
+                    continue;
+                }
+                start = lane.running < concurrencyPerShowing;
+                if (start) {
+                    lane.running++;
+                } else {
+                    lane.waiting.add(task);
+                }
+            }
+            if (start) {
+                execute(task);
+            }
+            return future;
+        }
+    }
+
+    /**
+     * This method runs the task on the executor. A rejected task fails its future and hands its lane to the next waiting task,
+     * in a loop rather than recursively, so a lane of 100k waiting tasks drains on a rejecting executor without growing the stack.
+     */
+    private void execute(LaneTask<?> task) {
+        while (task != null) {
+            try {
+                executor.execute(task);
+                return;
+            } catch (RejectedExecutionException ex) {
+                task.future.completeExceptionally(ex);
+                task = next(task.lane);
+            }
+        }
+    }
+
+    /**
+     * This method starts the next waiting work of the lane once a work of the lane is done.
+     */
+    private void finished(ShowingLane lane) {
+        LaneTask<?> next = next(lane);
+        if (next != null) {
+            execute(next);
+        }
+    }
+
+    /**
+     * This method takes the next waiting work of the lane, or retires the lane once nothing runs or waits on it.
+     * @return the next work, or null if none waits
+     */
+    private LaneTask<?> next(ShowingLane lane) {
+        LaneTask<?> next;
+        boolean retired = false;
+        synchronized (lane) {
+            next = lane.waiting.poll();
+            if (next == null && --lane.running == 0) {
+                lane.retired = true;
+                lanes.remove(lane.key, lane);
+                retired = true;
+            }
+        }
+        if (retired) {
+            shutdownIfDrained();
+        }
+        return next;
+    }
+
+    /**
+     * This method shuts down the executor the service created once the service is closed and no reservation runs or waits.
+     * Both close and the retirement of the last lane call it, so whichever comes second shuts the executor down.
+     */
+    private void shutdownIfDrained() {
+        if (closed && ownedExecutor != null && lanes.isEmpty()) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    private static <T> void run(Supplier<T> work, CompletableFuture<T> future) {
+        try {
+            future.complete(work.get());
+        } catch (Throwable ex) {
+            future.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * This method creates an executor starting a virtual thread per task when the runtime supports it,
+     * and a fixed pool of daemon platform threads otherwise.
+     */
+    private static ExecutorService defaultExecutor() {
+        try {
+            Method virtualThreadExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtualThreadExecutor.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            AtomicInteger threadIds = new AtomicInteger();
+            ThreadFactory daemonThreads = runnable -> {
+                Thread thread = new Thread(runnable, "async-reservation-" + threadIds.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * PLATFORM_THREADS_PER_PROCESSOR, daemonThreads);
+        }
+    }
+
+    /**
+     * Works of one showing: the number running, and the ones waiting for a running work to finish.
+     * Guarded by its own monitor; a retired lane is out of the map and takes no more work.
+     */
+    private static final class ShowingLane {
+        private final ShowingKey key;
+        private final ArrayDeque<LaneTask<?>> waiting = new ArrayDeque<>();
+        private int running;
+        private boolean retired;
+
+        private ShowingLane(ShowingKey key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Work of a showing lane, handing its lane over to the next waiting work once done.
+     */
+    private final class LaneTask<T> implements Runnable {
+        private final ShowingLane lane;
+        private final Supplier<T> work;
+        private final CompletableFuture<T> future;
+
+        private LaneTask(ShowingLane lane, Supplier<T> work, CompletableFuture<T> future) {
+            this.lane = lane;
+            this.work = work;
+            this.future = future;
+        }
+
+        @Override
+        public void run() {
+            try {
+                AsyncReservationService.run(work, future);
+            } finally {
+                finished(lane);
+            }
+        }
+    }
+}
@@ -21,6 +21,20 @@ public class Customer {
         this.name = name;
     }
 
+    /**
+     * @return the customer name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the customer id
+     */
+    public String getId() {
+        return id;
+    }
+
     /**
      * Method to compare two Customer objects and see if they are equal in all of their components/members.
      * Customers are equal if their name and id are the same.
@@ -0,0 +1,322 @@
+package com.jpmc.theater;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class registers the customers of a theater under dense int handles, given in registration order and starting at 0,
+ * so reservations and indexes can refer to a customer with one int instead of a Customer object.
+ * Customers are identified by their id: registering an id again returns its existing handle and keeps the registered name.
+ * <p>
+ * Customers are stored in column tables of primitives rather than as objects: the hash of each id, the offset of its strings,
+ * and the packed lengths of its id and name, with the id and name characters copied into one shared byte arena
+ * (one byte per character for Latin-1 text, two otherwise). Ids are found through an open-addressed table of handles
+ * probed linearly and kept at most half full. A customer costs 12 bytes of columns, 8 to 16 bytes of hash table,
+ * and the bytes of its id and name, so 10 million customers with short Latin-1 ids and names fit in a few hundred MB.
+ * <p>
+ * Lookups never lock and never allocate; registrations are serialized on the registry. Customers are never removed.
+ *
+ * @author coder050519123
+ */
+public final class CustomerRegistry {
+    /**
+     * Handle returned by lookups of an id that is not registered.
+     */
+    public static final int NO_HANDLE = -1;
+
+    /**
+     * Longest id or name supported, in characters.
+     */
+    public static final int MAX_STRING_LENGTH = 0x7FFE;
+
+    private static final int WIDE = 0x8000;
+    private static final int NULL_STRING = 0xFFFF;
+    private static final int INITIAL_CAPACITY = 1024;
+    /**
+     * Arena bytes reserved per expected customer, enough for an id and a name of 16 characters each in Latin-1.
+     */
+    private static final long ARENA_BYTES_PER_CUSTOMER = 32;
+
+    private volatile Tables tables;
+    private volatile int size;
+    private int arenaSize;
+
+    /**
+     * Constructs a new empty CustomerRegistry.
+     */
+    public CustomerRegistry() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs a new CustomerRegistry sized for the expected number of customers, so loading them does not grow the tables.
+     * @param expectedCustomers - the number of customers expected to be registered
+     * @throws IllegalArgumentException if the expected number of customers is negative or too big
+     */
+    public CustomerRegistry(int expectedCustomers) {
+        if (expectedCustomers < 0 || expectedCustomers > 1 << 29) {
+            throw new IllegalArgumentException("Expected number of customers must be between 0 and " + (1 << 29) + "!");
+        }
+        int capacity = Math.max(16, expectedCustomers);
+        this.tables = new Tables(capacity, slotCount(capacity), capacity * ARENA_BYTES_PER_CUSTOMER);
+    }
+
+    /**
+     * @param customer - the customer to register
+     * @return the handle of the customer, the existing one if its id is already registered
+     * @throws IllegalArgumentException if the customer or its id is null, or its id or name is longer than MAX_STRING_LENGTH
+     * @throws IllegalStateException if the registry is full
+     */
+    public int register(Customer customer) {
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer cannot be null!");
+        }
+        return register(customer.getId(), customer.getName());
+    }
+
+    /**
+     * @param id - the external id of the customer
+     * @param name - the name of the customer
+     * @return the handle of the customer, the existing one if the id is already registered
+     * @throws IllegalArgumentException if the id is null, or the id or name is longer than MAX_STRING_LENGTH
+     * @throws IllegalStateException if the registry is full
+     */
+    public synchronized int register(String id, String name) {
+        if (id == null) {
+            throw new IllegalArgumentException("Customer id cannot be null!");
+        }
+        if (id.length() > MAX_STRING_LENGTH || name != null && name.length() > MAX_STRING_LENGTH) {
+            throw new IllegalArgumentException("Customer id and name cannot be longer than " + MAX_STRING_LENGTH + " characters!");
+        }
+        int hash = spread(id.hashCode());
+        int handle = find(tables, size, id, hash);
+        if (handle != NO_HANDLE) {
+            return handle;
+        }
+        handle = size;
+        boolean wideId = isWide(id);
+        boolean wideName = name != null && isWide(name);
+        long bytes = (long) id.length() * (wideId ? 2 : 1) + (name == null ? 0 : (long) name.length() * (wideName ? 2 : 1));
+        Tables current = grow(tables, handle + 1, arenaSize + bytes);
+
+        int offset = arenaSize;
+        arenaSize = write(current.arena, offset, id, wideId);
+        if (name != null) {
+            arenaSize = write(current.arena, arenaSize, name, wideName);
+        }
+        current.hashes[handle] = hash;
+        current.offsets[handle] = offset;
+        current.lengths[handle] = packLength(id, wideId) << 16 | (name == null ? NULL_STRING : packLength(name, wideName));
+        int mask = current.slots.length - 1;
+        int slot = hash & mask;
+        while (current.slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        current.slots[slot] = handle + 1;
+        // the tables are published before the size, and the size last, so readers seeing the handle see all of its columns
+        tables = current;
+        size = handle + 1;
+        return handle;
+    }
+
+    /**
+     * @param id - the external id of the customer
+     * @return the handle of the customer, or NO_HANDLE if the id is not registered
+     */
+    public int findHandle(String id) {
+        if (id == null) {
+            return NO_HANDLE;
+        }
+        int registered = size;
+        return find(tables, registered, id, spread(id.hashCode()));
+    }
+
+    /**
+     * @param handle - the handle of a registered customer
+     * @return the external id of the customer
+     * @throws IllegalArgumentException if no customer is registered under the handle
+     */
+    public String getId(int handle) {
+        Tables current = tablesFor(handle);
+        int length = current.lengths[handle] >>> 16;
+        return read(current.arena, current.offsets[handle], length);
+    }
+
+    /**
+     * @param handle - the handle of a registered customer
+     * @return the name of the customer, null if it was registered without one
+     * @throws IllegalArgumentException if no customer is registered under the handle
+     */
+    public String getName(int handle) {
+        Tables current = tablesFor(handle);
+        int lengths = current.lengths[handle];
+        if ((lengths & 0xFFFF) == NULL_STRING) {
+            return null;
+        }
+        return read(current.arena, current.offsets[handle] + byteLength(lengths >>> 16), lengths & 0xFFFF);
+    }
+
+    /**
+     * @param handle - the handle of a registered customer
+     * @return a new customer object with the registered name and id
+     * @throws IllegalArgumentException if no customer is registered under the handle
+     */
+    public Customer getCustomer(int handle) {
+        return new Customer(getName(handle), getId(handle));
+    }
+
+    /**
+     * @return the number of customers registered
+     */
+    public int size() {
+        return size;
+    }
+
+    private Tables tablesFor(int handle) {
+        if (handle < 0 || handle >= size) {
+            throw new IllegalArgumentException("No customer registered with handle " + handle);
+        }
+        // read after the size, so the tables are at least as recent as the size checked
+        return tables;
+    }
+
+    /**
+     * This method probes the hash table for the id, ignoring handles registered after the given size was read.
+     */
+    private static int find(Tables tables, int size, String id, int hash) {
+        int[] slots = tables.slots;
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == 0) {
+                return NO_HANDLE;
+            }
+            int handle = entry - 1;
+            if (handle < size && tables.hashes[handle] == hash && matches(tables.arena, tables.offsets[handle], tables.lengths[handle] >>> 16, id)) {
+                return handle;
+            }
+        }
+    }
+
+    /**
+     * This method returns tables big enough for the number of customers and arena bytes, copying the current tables if they are too small.
+     * The current tables are never changed for customers already published, so lock-free readers can keep using them.
+     */
+    private static Tables grow(Tables current, int customers, long arenaBytes) {
+        if (customers <= current.hashes.length && arenaBytes <= current.arena.length) {
+            return current;
+        }
+        if (arenaBytes > Integer.MAX_VALUE - 8 || customers > 1 << 29) {
+            throw new IllegalStateException("Customer registry is full!");
+        }
+        int capacity = current.hashes.length;
+        while (capacity < customers) {
+            capacity *= 2;
+        }
+        long arenaCapacity = current.arena.length;
+        while (arenaCapacity < arenaBytes) {
+            arenaCapacity *= 2;
+        }
+        Tables grown = new Tables(capacity, slotCount(capacity), Math.min(arenaCapacity, Integer.MAX_VALUE - 8));
+        int registered = customers - 1;
+        System.arraycopy(current.hashes, 0, grown.hashes, 0, registered);
+        System.arraycopy(current.offsets, 0, grown.offsets, 0, registered);
+        System.arraycopy(current.lengths, 0, grown.lengths, 0, registered);
+        System.arraycopy(current.arena, 0, grown.arena, 0, current.arena.length);
+        if (grown.slots.length == current.slots.length) {
+            System.arraycopy(current.slots, 0, grown.slots, 0, current.slots.length);
+        } else {
+            int mask = grown.slots.length - 1;
+            for (int handle = 0; handle < registered; handle++) {
+                int slot = grown.hashes[handle] & mask;
+                while (grown.slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                grown.slots[slot] = handle + 1;
+            }
+        }
+        return grown;
+    }
+
+    private static int slotCount(int capacity) {
+        return Integer.highestOneBit(capacity - 1) << 2;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean isWide(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int packLength(String value, boolean wide) {
+        return value.length() | (wide ? WIDE : 0);
+    }
+
+    private static int byteLength(int packedLength) {
+        return (packedLength & WIDE) == 0 ? packedLength : (packedLength & ~WIDE) * 2;
+    }
+
+    private static int write(byte[] arena, int offset, String value, boolean wide) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (wide) {
+                arena[offset++] = (byte) (c >> 8);
+            }
+            arena[offset++] = (byte) c;
+        }
+        return offset;
+    }
+
+    private static boolean matches(byte[] arena, int offset, int packedLength, String value) {
+        boolean wide = (packedLength & WIDE) != 0;
+        int length = packedLength & ~WIDE;
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = wide ? (char) ((arena[offset + 2 * i] & 0xFF) << 8 | arena[offset + 2 * i + 1] & 0xFF) : (char) (arena[offset + i] & 0xFF);
+            if (c != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String read(byte[] arena, int offset, int packedLength) {
+        if ((packedLength & WIDE) == 0) {
+            return new String(arena, offset, packedLength, StandardCharsets.ISO_8859_1);
+        }
+        int length = packedLength & ~WIDE;
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ((arena[offset + 2 * i] & 0xFF) << 8 | arena[offset + 2 * i + 1] & 0xFF);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Column tables of the registry: hash, arena offset, and packed id and name lengths of each handle,
+     * the open-addressed table of handles plus 1 (0 marks a free slot), and the arena of id and name bytes.
+     */
+    private static final class Tables {
+        private final int[] hashes;
+        private final int[] offsets;
+        private final int[] lengths;
+        private final int[] slots;
+        private final byte[] arena;
+
+        private Tables(int capacity, int slotCount, long arenaCapacity) {
+            this.hashes = new int[capacity];
+            this.offsets = new int[capacity];
+            this.lengths = new int[capacity];
+            this.slots = new int[slotCount];
+            this.arena = new byte[(int) Math.min(arenaCapacity, Integer.MAX_VALUE - 8)];
+        }
+    }
+}
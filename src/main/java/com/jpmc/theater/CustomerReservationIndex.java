@@ -0,0 +1,155 @@
+package com.jpmc.theater;
+
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class indexes reservations by customer id, ordered by show time, so a customer's tickets are found without scanning
+ * every reservation. Each customer's reservations are kept in a sorted long array of keys, the show start minute in the high
+ * 32 bits and the low 32 bits of the reservation id, next to the array of the full reservation ids breaking ties between equal keys
+ * and the array of reservations: an entry costs two longs and one reference.
+ * Inserts find their place by binary search and shift the later entries with one array copy.
+ * <p>
+ * Pages are read with cursors: a cursor is the key of the last reservation of a page, so paging stays stable while reservations are added.
+ * Two reservations of a customer share a key only if they are for the same show minute and their ids differ by a multiple of 2^32;
+ * a page never ends between them, so no cursor skips one.
+ * Customers are independent: adding to and reading the reservations of one customer locks only that customer's entries.
+ *
+ * @author coder050519123
+ */
+public final class CustomerReservationIndex {
+    /**
+     * Cursor of the first page of a customer's reservations.
+     */
+    public static final long FIRST_PAGE = Long.MIN_VALUE;
+
+    private static final int INITIAL_ENTRIES = 4;
+
+    private final ConcurrentHashMap<String, CustomerReservations> reservationsByCustomer = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a reservation to the index of its customer.
+     * @param reservation - the reservation to add
+     * @throws IllegalArgumentException if the reservation, its customer id, or its showing start time is null
+     */
+    public void add(Reservation reservation) {
+        if (reservation == null || reservation.getShowing() == null || reservation.getShowing().getShowStartTime() == null) {
+            throw new IllegalArgumentException("Reservation and its showing start time cannot be null!");
+        }
+        Customer customer = reservation.getCustomer();
+        if (customer == null || customer.getId() == null) {
+            throw new IllegalArgumentException("Reservation customer id cannot be null!");
+        }
+        reservationsByCustomer.computeIfAbsent(customer.getId(), id -> new CustomerReservations()).add(key(reservation), reservation.getReservationId(), reservation);
+    }
+
+    /**
+     * @param customerId - the id of the customer
+     * @param cursor - FIRST_PAGE, or the next cursor of the previous page
+     * @param limit - the most reservations to return
+     * @return the page of the customer's reservations after the cursor, ordered by show time then reservation id,
+     * with more than limit reservations only if the first ones share their key
+     * @throws IllegalArgumentException if the limit is less than 1
+     */
+    public ReservationPage findReservations(String customerId, long cursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit cannot be less than 1!");
+        }
+        CustomerReservations reservations = customerId == null ? null : reservationsByCustomer.get(customerId);
+        if (reservations == null) {
+            return new ReservationPage(List.of(), cursor, false);
+        }
+        return reservations.page(cursor, limit);
+    }
+
+    /**
+     * @param customerId - the id of the customer
+     * @return the number of reservations of the customer
+     */
+    public int countReservations(String customerId) {
+        CustomerReservations reservations = customerId == null ? null : reservationsByCustomer.get(customerId);
+        return reservations == null ? 0 : reservations.size();
+    }
+
+    /**
+     * @return the number of customers with at least one reservation
+     */
+    public int getCustomerCount() {
+        return reservationsByCustomer.size();
+    }
+
+    private static long key(Reservation reservation) {
+        long showStartMinute = Math.floorDiv(reservation.getShowing().getShowStartTime().toEpochSecond(ZoneOffset.UTC), 60);
+        return showStartMinute << 32 | (reservation.getReservationId() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Reservations of one customer: keys and reservation ids sorted together, and the reservation of each entry, guarded by its own monitor.
+     */
+    private static final class CustomerReservations {
+        private long[] keys = new long[INITIAL_ENTRIES];
+        private long[] reservationIds = new long[INITIAL_ENTRIES];
+        private Reservation[] reservations = new Reservation[INITIAL_ENTRIES];
+        private int size;
+
+        private synchronized void add(long key, long reservationId, Reservation reservation) {
+            int index = firstAfter(key);
+            // entries sharing the key are ordered by full reservation id
+            while (index > 0 && keys[index - 1] == key && reservationIds[index - 1] > reservationId) {
+                index--;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                reservationIds = Arrays.copyOf(reservationIds, size * 2);
+                reservations = Arrays.copyOf(reservations, size * 2);
+            }
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(reservationIds, index, reservationIds, index + 1, size - index);
+            System.arraycopy(reservations, index, reservations, index + 1, size - index);
+            keys[index] = key;
+            reservationIds[index] = reservationId;
+            reservations[index] = reservation;
+            size++;
+        }
+
+        private synchronized ReservationPage page(long cursor, int limit) {
+            int from = cursor == FIRST_PAGE ? 0 : firstAfter(cursor);
+            int to = (int) Math.min((long) from + limit, size);
+            if (from >= to) {
+                return new ReservationPage(List.of(), cursor, false);
+            }
+            if (to < size && keys[to] == keys[to - 1]) {
+                // the next cursor would skip the entries sharing the last key: end the page before them, or take them all if they start it
+                int groupStart = to - 1;
+                while (groupStart > from && keys[groupStart - 1] == keys[to - 1]) {
+                    groupStart--;
+                }
+                to = groupStart > from ? groupStart : firstAfter(keys[to - 1]);
+            }
+            return new ReservationPage(List.of(Arrays.copyOfRange(reservations, from, to)), keys[to - 1], to < size);
+        }
+
+        /**
+         * @return the index of the first entry whose key is greater than the given key
+         */
+        private int firstAfter(long key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle] <= key) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private synchronized int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.jpmc.theater;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * This interface represents a single promotion that a showing can be eligible for.
+ * A rule is made of a condition (isApplicable) and a discount (type and value), and
+ * the value of a rule must not depend on the showing so the DiscountRuleEngine can order rules up front.
+ * New promotions are added by implementing this interface and handing the rule to a DiscountRuleEngine.
+ *
+ * @author coder050519123
+ */
+public interface DiscountRule {
+    /**
+     * @return the kind of discount this rule gives (fixed dollar amount or percentage)
+     */
+    DiscountType getDiscountType();
+
+    /**
+     * @return the dollar amount (i.e. 3 for $3 off) or the fraction (i.e. 0.25 for 25% off) of this rule's discount
+     */
+    BigDecimal getDiscountValue();
+
+    /**
+     * This method checks whether the showing is eligible for this rule's discount.
+     *
+     * @param showing - the showing being priced, its movie and ticket price have already been validated
+     * @param businessDate - the current business day of the theater
+     * @return true if the showing is eligible for the discount, false if not
+     */
+    boolean isApplicable(Showing showing, LocalDate businessDate);
+}
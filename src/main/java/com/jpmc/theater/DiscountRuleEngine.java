@@ -0,0 +1,342 @@
+package com.jpmc.theater;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * This class evaluates a set of DiscountRules against a showing and returns the biggest discount it is eligible for.
+ * The rule set is compiled once, when the engine is constructed, into an immutable evaluation plan:
+ * fixed amount rules and percentage rules are split into two flat arrays, each sorted from the biggest to the smallest value.
+ * The built-in rules are compiled further into lookups of the best rule for a showing: an array indexed by sequence of the day,
+ * a sorted array of special codes, and the sorted boundaries of the time windows, so their cost does not grow with their number.
+ * Only the other rules have their condition checked, from the biggest value down: the first eligible rule of each array is the best one of that array,
+ * and as soon as a rule cannot beat the current best discount for the ticket price, the rest of its array is skipped.
+ * The plan is also compiled to primitive arrays (fixed amounts in 1/10000 of a cent and percentages in basis points) for the cents pricing path,
+ * which evaluates the rules without allocating and rounds exactly like the BigDecimal path.
+ * The engine is immutable and safe to share between threads; a new rule set means a new engine.
+ *
+ * @author coder050519123
+ */
+public final class DiscountRuleEngine {
+    /**
+     * Number of basis points in 100%, and number of discount units in a cent for the cents pricing path.
+     * Discounts are evaluated in 1/10000 of a cent so both cent amounts and basis point percentages of a price in cents are exact.
+     */
+    static final long BASIS_POINTS_PER_UNIT = 10_000L;
+    /**
+     * Sequence rules for sequences from 0 up to this one are looked up in an array, others have their condition checked.
+     */
+    private static final int MAX_INDEXED_SEQUENCE = 1024;
+    /**
+     * Rank of no rule in the lookups, worse than every rank of the plan.
+     */
+    private static final int NO_RULE = Integer.MAX_VALUE;
+    /**
+     * Orders rules from the biggest to the smallest discount value, rules with the same value keep their registration order.
+     */
+    private static final Comparator<DiscountRule> BIGGEST_DISCOUNT_FIRST =
+            Comparator.comparing(DiscountRule::getDiscountValue).reversed();
+
+    private final List<DiscountRule> rules;
+    private final DiscountRule[] fixedAmountRules;
+    private final BigDecimal[] fixedAmounts;
+    private final DiscountRule[] percentageRules;
+    private final BigDecimal[] percentages;
+    private final long[] fixedAmountsInDiscountUnits;
+    private final long[] percentagesInBasisPoints;
+    /**
+     * Lookups of the rank, in fixedAmountRules or percentageRules, of the best built-in rule a showing is eligible for.
+     */
+    private final int[] bestFixedAmountBySequence;
+    private final int[] specialCodes;
+    private final int[] bestPercentageBySpecialCode;
+    private final long[] timeWindowBoundaries;
+    private final int[] bestPercentageByTimeRegion;
+    /**
+     * Ranks of the rules without a lookup, in ascending order, i.e. from the biggest to the smallest value.
+     */
+    private final int[] checkedFixedAmountRanks;
+    private final int[] checkedPercentageRanks;
+
+    /**
+     * Constructs a new DiscountRuleEngine and compiles the provided rules into its evaluation plan.
+     * @param rules - the active discount rules, can be empty but cannot be null or contain null rules
+     * @throws IllegalArgumentException if the rule list or any rule in it is null, or a rule has an invalid discount value
+     */
+    public DiscountRuleEngine(List<? extends DiscountRule> rules) {
+        if (rules == null) {
+            throw new IllegalArgumentException("Discount rules cannot be null!");
+        }
+        List<DiscountRule> fixedAmountPlan = new ArrayList<>();
+        List<DiscountRule> percentagePlan = new ArrayList<>();
+        for (DiscountRule rule : rules) {
+            if (rule == null || rule.getDiscountType() == null) {
+                throw new IllegalArgumentException("Discount rule and its discount type cannot be null!");
+            }
+            rule.getDiscountType().validateDiscountValue(rule.getDiscountValue());
+            if (rule.getDiscountType() == DiscountType.FIXED_AMOUNT) {
+                fixedAmountPlan.add(rule);
+            } else {
+                percentagePlan.add(rule);
+            }
+        }
+        fixedAmountPlan.sort(BIGGEST_DISCOUNT_FIRST);
+        percentagePlan.sort(BIGGEST_DISCOUNT_FIRST);
+
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+        this.fixedAmountRules = fixedAmountPlan.toArray(new DiscountRule[0]);
+        this.fixedAmounts = discountValuesOf(this.fixedAmountRules);
+        this.percentageRules = percentagePlan.toArray(new DiscountRule[0]);
+        this.percentages = discountValuesOf(this.percentageRules);
+        this.fixedAmountsInDiscountUnits = scaledValuesOf(this.fixedAmounts, 6);
+        this.percentagesInBasisPoints = scaledValuesOf(this.percentages, 4);
+
+        int maxSequence = -1;
+        for (DiscountRule rule : fixedAmountRules) {
+            maxSequence = Math.max(maxSequence, indexedSequenceOf(rule));
+        }
+        this.bestFixedAmountBySequence = new int[maxSequence + 1];
+        Arrays.fill(bestFixedAmountBySequence, NO_RULE);
+        List<Integer> checkedFixedAmounts = new ArrayList<>();
+        for (int rank = 0; rank < fixedAmountRules.length; rank++) {
+            int sequence = indexedSequenceOf(fixedAmountRules[rank]);
+            if (sequence < 0) {
+                checkedFixedAmounts.add(rank);
+            } else if (bestFixedAmountBySequence[sequence] == NO_RULE) {
+                bestFixedAmountBySequence[sequence] = rank;
+            }
+        }
+        this.checkedFixedAmountRanks = checkedFixedAmounts.stream().mapToInt(Integer::intValue).toArray();
+
+        TreeMap<Integer, Integer> bestBySpecialCode = new TreeMap<>();
+        List<ShowingTimeWindowDiscountRule> timeWindows = new ArrayList<>();
+        List<Integer> timeWindowRanks = new ArrayList<>();
+        TreeSet<Long> boundaries = new TreeSet<>();
+        List<Integer> checkedPercentages = new ArrayList<>();
+        for (int rank = 0; rank < percentageRules.length; rank++) {
+            DiscountRule rule = percentageRules[rank];
+            if (rule.getClass() == SpecialMovieDiscountRule.class) {
+                bestBySpecialCode.putIfAbsent(((SpecialMovieDiscountRule) rule).getSpecialCode(), rank);
+            } else if (rule.getClass() == ShowingTimeWindowDiscountRule.class) {
+                ShowingTimeWindowDiscountRule timeWindow = (ShowingTimeWindowDiscountRule) rule;
+                timeWindows.add(timeWindow);
+                timeWindowRanks.add(rank);
+                boundaries.add(timeWindow.getLowerBound().toNanoOfDay());
+                boundaries.add(timeWindow.getUpperBound().toNanoOfDay());
+            } else {
+                checkedPercentages.add(rank);
+            }
+        }
+        this.specialCodes = bestBySpecialCode.keySet().stream().mapToInt(Integer::intValue).toArray();
+        this.bestPercentageBySpecialCode = bestBySpecialCode.values().stream().mapToInt(Integer::intValue).toArray();
+        this.timeWindowBoundaries = boundaries.stream().mapToLong(Long::longValue).toArray();
+        this.bestPercentageByTimeRegion = bestByTimeRegion(timeWindowBoundaries, timeWindows, timeWindowRanks);
+        this.checkedPercentageRanks = checkedPercentages.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @return the rules of this engine in the order they were registered
+     */
+    public List<DiscountRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * This method calculates the biggest discount the showing is eligible for.
+     * The showing and its movie's ticket price are expected to be validated by the caller.
+     *
+     * @param showing - the showing to price
+     * @param businessDate - the current business day of the theater
+     * @return the biggest discount the showing is eligible for, zero if no rule applies
+     */
+    public BigDecimal calculateDiscount(Showing showing, LocalDate businessDate) {
+        BigDecimal ticketPrice = showing.getMovie().getTicketPrice();
+
+        int fixedAmountRank = bestFixedAmountRank(showing, businessDate);
+        BigDecimal bestDiscount = fixedAmountRank == NO_RULE ? BigDecimal.ZERO : fixedAmounts[fixedAmountRank];
+
+        int percentageRank = bestPercentageRank(showing, businessDate);
+        for (int i = 0; i < checkedPercentageRanks.length && checkedPercentageRanks[i] < percentageRank; i++) {
+            int rank = checkedPercentageRanks[i];
+            if (ticketPrice.multiply(percentages[rank]).compareTo(bestDiscount) <= 0) {
+                break; // every following percentage gives a smaller or equal discount
+            }
+            if (percentageRules[rank].isApplicable(showing, businessDate)) {
+                percentageRank = rank;
+                break;
+            }
+        }
+        if (percentageRank != NO_RULE) {
+            BigDecimal discount = ticketPrice.multiply(percentages[percentageRank]);
+            if (discount.compareTo(bestDiscount) > 0) {
+                bestDiscount = discount;
+            }
+        }
+
+        // biggest discount wins
+        return bestDiscount;
+    }
+
+    /**
+     * @return true if every rule's value fits the cents pricing path (amounts in whole 1/10000 of a cent and percentages in whole basis points)
+     */
+    public boolean supportsPricingInCents() {
+        return fixedAmountsInDiscountUnits != null && percentagesInBasisPoints != null;
+    }
+
+    /**
+     * This method calculates the final ticket price in cents of a showing, after the biggest discount it is eligible for.
+     * The evaluation is the same as calculateDiscount but on primitive values, so it does not allocate,
+     * and the result is rounded HALF_UP to a whole cent exactly like the BigDecimal path.
+     * The showing and its movie's ticket price are expected to be validated by the caller.
+     *
+     * @param showing - the showing to price, its movie's ticket price must be a whole number of cents
+     * @param businessDate - the current business day of the theater
+     * @return the final ticket price in cents
+     * @throws IllegalStateException if the rules or the ticket price do not support the cents pricing path
+     */
+    public long calculateFinalPriceInCents(Showing showing, LocalDate businessDate) {
+        if (!supportsPricingInCents()) {
+            throw new IllegalStateException("Discount rules cannot be evaluated in cents!");
+        }
+        long ticketPriceInCents = showing.getMovie().getTicketPriceInCents();
+
+        int fixedAmountRank = bestFixedAmountRank(showing, businessDate);
+        long bestDiscount = fixedAmountRank == NO_RULE ? 0L : fixedAmountsInDiscountUnits[fixedAmountRank];
+
+        int percentageRank = bestPercentageRank(showing, businessDate);
+        for (int i = 0; i < checkedPercentageRanks.length && checkedPercentageRanks[i] < percentageRank; i++) {
+            int rank = checkedPercentageRanks[i];
+            if (ticketPriceInCents * percentagesInBasisPoints[rank] <= bestDiscount) {
+                break; // every following percentage gives a smaller or equal discount
+            }
+            if (percentageRules[rank].isApplicable(showing, businessDate)) {
+                percentageRank = rank;
+                break;
+            }
+        }
+        if (percentageRank != NO_RULE) {
+            bestDiscount = Math.max(bestDiscount, ticketPriceInCents * percentagesInBasisPoints[percentageRank]);
+        }
+
+        // biggest discount wins
+        return roundHalfUp(ticketPriceInCents * BASIS_POINTS_PER_UNIT - bestDiscount, BASIS_POINTS_PER_UNIT);
+    }
+
+    /**
+     * This method finds the rank of the biggest fixed amount rule the showing is eligible for, NO_RULE if none.
+     * Rules without a lookup are only checked while they are bigger than the rule found by sequence.
+     */
+    private int bestFixedAmountRank(Showing showing, LocalDate businessDate) {
+        int sequence = showing.getSequenceOfTheDay();
+        int best = sequence >= 0 && sequence < bestFixedAmountBySequence.length ? bestFixedAmountBySequence[sequence] : NO_RULE;
+        for (int i = 0; i < checkedFixedAmountRanks.length && checkedFixedAmountRanks[i] < best; i++) {
+            if (fixedAmountRules[checkedFixedAmountRanks[i]].isApplicable(showing, businessDate)) {
+                return checkedFixedAmountRanks[i]; // every following fixed amount is smaller or equal
+            }
+        }
+        return best;
+    }
+
+    /**
+     * This method finds the rank of the biggest built-in percentage rule the showing is eligible for, NO_RULE if none.
+     */
+    private int bestPercentageRank(Showing showing, LocalDate businessDate) {
+        int best = NO_RULE;
+        int specialCode = Arrays.binarySearch(specialCodes, showing.getMovie().getSpecialCode());
+        if (specialCode >= 0) {
+            best = bestPercentageBySpecialCode[specialCode];
+        }
+        LocalDateTime showStartTime = showing.getShowStartTime();
+        if (timeWindowBoundaries.length > 0 && showStartTime != null && showStartTime.toLocalDate().equals(businessDate)) {
+            best = Math.min(best, bestPercentageByTimeRegion[timeRegionOf(timeWindowBoundaries, showStartTime.toLocalTime().toNanoOfDay())]);
+        }
+        return best;
+    }
+
+    /**
+     * This method returns the sequence of the day a built-in sequence rule is looked up by, -1 if the rule has no lookup.
+     * Subclasses may override the condition, so they are checked like any other rule.
+     */
+    private static int indexedSequenceOf(DiscountRule rule) {
+        if (rule.getClass() != ShowingSequenceDiscountRule.class) {
+            return -1;
+        }
+        int sequence = ((ShowingSequenceDiscountRule) rule).getSequenceOfTheDay();
+        return sequence <= MAX_INDEXED_SEQUENCE ? sequence : -1;
+    }
+
+    /**
+     * This method numbers the regions cut by the boundaries: region 2i+1 is the i-th boundary itself,
+     * and region 2i is the open range between the boundaries i-1 and i (before the first one for i = 0, after the last one for i = length).
+     */
+    private static int timeRegionOf(long[] boundaries, long nanoOfDay) {
+        int index = Arrays.binarySearch(boundaries, nanoOfDay);
+        return index >= 0 ? 2 * index + 1 : 2 * (-index - 1);
+    }
+
+    /**
+     * This method finds, for every region of the boundaries, the rank of the biggest time window strictly containing it.
+     */
+    private static int[] bestByTimeRegion(long[] boundaries, List<ShowingTimeWindowDiscountRule> timeWindows, List<Integer> ranks) {
+        int[] bestByRegion = new int[2 * boundaries.length + 1];
+        Arrays.fill(bestByRegion, NO_RULE);
+        // ranks are ascending, so the first window covering a region is its best one
+        for (int i = timeWindows.size() - 1; i >= 0; i--) {
+            // the bounds are exclusive, so a window covers the regions strictly between its two boundary regions
+            int lowerRegion = timeRegionOf(boundaries, timeWindows.get(i).getLowerBound().toNanoOfDay());
+            int upperRegion = timeRegionOf(boundaries, timeWindows.get(i).getUpperBound().toNanoOfDay());
+            for (int region = lowerRegion + 1; region < upperRegion; region++) {
+                bestByRegion[region] = ranks.get(i);
+            }
+        }
+        return bestByRegion;
+    }
+
+    /**
+     * This method divides and rounds half away from zero, the same as BigDecimal's HALF_UP rounding mode.
+     */
+    static long roundHalfUp(long dividend, long divisor) {
+        long half = divisor / 2;
+        return dividend >= 0 ? (dividend + half) / divisor : -((-dividend + half) / divisor);
+    }
+
+    /**
+     * This method collects the discount values of the rules into a flat array matching the rules' order.
+     */
+    private static BigDecimal[] discountValuesOf(DiscountRule[] rules) {
+        BigDecimal[] values = new BigDecimal[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            values[i] = rules[i].getDiscountValue();
+        }
+        return values;
+    }
+
+    /**
+     * This method converts discount values to whole numbers after moving their decimal point to the right.
+     * @return the scaled values, or null if a value has more decimals than the scale or is too big for the cents pricing path
+     */
+    private static long[] scaledValuesOf(BigDecimal[] values, int scale) {
+        long[] scaledValues = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            BigDecimal scaledValue = values[i].movePointRight(scale);
+            if (scaledValue.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0) {
+                return null;
+            }
+            try {
+                scaledValues[i] = scaledValue.longValueExact();
+            } catch (ArithmeticException ex) {
+                return null;
+            }
+        }
+        return scaledValues;
+    }
+}
@@ -0,0 +1,42 @@
+package com.jpmc.theater;
+
+import java.math.BigDecimal;
+
+/**
+ * This enum represents the kind of discount a DiscountRule gives.
+ * A discount is either a fixed dollar amount off the ticket price, or a percentage of the ticket price.
+ *
+ * @author coder050519123
+ */
+public enum DiscountType {
+    /**
+     * The discount value is a dollar amount taken off the ticket price i.e. $3
+     */
+    FIXED_AMOUNT {
+        @Override
+        public void validateDiscountValue(BigDecimal discountValue) {
+            if (discountValue == null || discountValue.signum() < 0) {
+                throw new IllegalArgumentException("Discount amount cannot be null or negative!");
+            }
+        }
+    },
+    /**
+     * The discount value is a fraction of the ticket price i.e. 0.25 for 25% off
+     */
+    PERCENTAGE {
+        @Override
+        public void validateDiscountValue(BigDecimal discountValue) {
+            if (discountValue == null || discountValue.signum() < 0 || discountValue.compareTo(BigDecimal.ONE) > 0) {
+                throw new IllegalArgumentException("Discount percentage cannot be null and must be between 0 and 1!");
+            }
+        }
+    };
+
+    /**
+     * This method validates a discount value for this type.
+     *
+     * @param discountValue - the rule's discount value
+     * @throws IllegalArgumentException if the value is null or out of range for this type
+     */
+    public abstract void validateDiscountValue(BigDecimal discountValue);
+}
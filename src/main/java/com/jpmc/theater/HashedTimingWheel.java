@@ -0,0 +1,154 @@
+package com.jpmc.theater;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * This class is a hashed timing wheel: a ring of buckets, one per tick, holding the tasks that are due in that tick.
+ * Scheduling and cancelling a task are O(1) (a task is linked into or out of its bucket's doubly linked list),
+ * and moving time forward only visits the buckets of the ticks that went by, never the whole set of pending tasks.
+ * Tasks due more than one rotation away stay in their bucket until the wheel comes around to their deadline tick.
+ * The wheel has no thread of its own: time only moves when the owner calls advance with the current time,
+ * and tasks are never expired before their deadline, at most one tick after it.
+ *
+ * @param <T> the type of the scheduled tasks
+ * @author coder050519123
+ */
+final class HashedTimingWheel<T> {
+    private final long tickMillis;
+    private final long startMillis;
+    private final int mask;
+    private final Timeout<T>[] buckets;
+    private long lastTick;
+    private int size;
+
+    /**
+     * Constructs a new HashedTimingWheel.
+     * @param tickMillis - the duration of a tick in milliseconds, the precision of the wheel
+     * @param ticksPerWheel - the number of buckets, rounded up to a power of 2
+     * @param startMillis - the time of tick 0
+     * @throws IllegalArgumentException if the tick duration or the number of buckets is less than 1
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    HashedTimingWheel(long tickMillis, int ticksPerWheel, long startMillis) {
+        if (tickMillis <= 0 || ticksPerWheel <= 0 || ticksPerWheel > 1 << 30) {
+            throw new IllegalArgumentException("Tick duration and number of ticks per wheel must be positive!");
+        }
+        int bucketCount = ticksPerWheel == 1 ? 1 : Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.mask = bucketCount - 1;
+        this.buckets = new Timeout[bucketCount];
+    }
+
+    /**
+     * This method schedules a task to expire at the given deadline.
+     * A deadline that already went by expires on the next tick.
+     *
+     * @param task - the task to expire
+     * @param deadlineMillis - the time the task is due
+     * @return the handle to cancel the task with
+     */
+    synchronized Timeout<T> schedule(T task, long deadlineMillis) {
+        long elapsed = Math.max(0, deadlineMillis - startMillis);
+        long deadlineTick = Math.max(lastTick + 1, elapsed / tickMillis + (elapsed % tickMillis == 0 ? 0 : 1));
+        Timeout<T> timeout = new Timeout<>(task, deadlineTick);
+        int bucket = (int) (deadlineTick & mask);
+        timeout.next = buckets[bucket];
+        if (timeout.next != null) {
+            timeout.next.previous = timeout;
+        }
+        buckets[bucket] = timeout;
+        size++;
+        return timeout;
+    }
+
+    /**
+     * This method removes a task from the wheel before it expires.
+     *
+     * @param timeout - the handle returned when scheduling the task
+     * @return true if the task was removed, false if it already expired or was cancelled
+     */
+    synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.removed) {
+            return false;
+        }
+        unlink(timeout);
+        return true;
+    }
+
+    /**
+     * This method moves the wheel forward to the given time and hands every task due by then to the consumer.
+     * The consumer is called after the wheel has been updated and outside of its monitor,
+     * so it can schedule or cancel other tasks.
+     *
+     * @param nowMillis - the current time
+     * @param expired - the consumer of the expired tasks
+     * @return the number of expired tasks
+     */
+    int advance(long nowMillis, Consumer<? super T> expired) {
+        List<T> expiredTasks;
+        synchronized (this) {
+            long currentTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+            if (currentTick <= lastTick) {
+                return 0;
+            }
+            // after a long pause, every bucket is visited once instead of once per tick that went by
+            long ticksToVisit = Math.min(currentTick - lastTick, buckets.length);
+            expiredTasks = new ArrayList<>();
+            for (long tick = lastTick + 1; tick <= lastTick + ticksToVisit; tick++) {
+                Timeout<T> timeout = buckets[(int) (tick & mask)];
+                while (timeout != null) {
+                    Timeout<T> next = timeout.next;
+                    if (timeout.deadlineTick <= currentTick) {
+                        unlink(timeout);
+                        expiredTasks.add(timeout.task);
+                    }
+                    timeout = next;
+                }
+            }
+            lastTick = currentTick;
+        }
+        expiredTasks.forEach(expired);
+        return expiredTasks.size();
+    }
+
+    /**
+     * @return the number of tasks waiting on the wheel
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        if (timeout.previous != null) {
+            timeout.previous.next = timeout.next;
+        } else {
+            buckets[(int) (timeout.deadlineTick & mask)] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.previous = timeout.previous;
+        }
+        timeout.previous = null;
+        timeout.next = null;
+        timeout.removed = true;
+        size--;
+    }
+
+    /**
+     * Handle of a task scheduled on the wheel, and its node in the bucket list.
+     */
+    static final class Timeout<T> {
+        private final T task;
+        private final long deadlineTick;
+        private Timeout<T> previous;
+        private Timeout<T> next;
+        private boolean removed;
+
+        private Timeout(T task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.jpmc.theater;
+
+/**
+ * This class is an immutable copy of the latencies recorded by a LatencyHistogram.
+ * Percentiles are reported as the upper bound of the bucket they fall in, capped by the highest latency recorded.
+ *
+ * @author coder050519123
+ */
+public final class HistogramSnapshot {
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(long[] counts, long count, long sum, long max) {
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * @return the number of latencies recorded
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sum of the latencies recorded, in nanoseconds
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * @return the mean latency in nanoseconds, 0 if nothing was recorded
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @return the highest latency recorded in nanoseconds, 0 if nothing was recorded
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @param percentile - the percentile to read, between 0 and 100
+     * @return the latency in nanoseconds that the given percentage of recordings do not exceed, 0 if nothing was recorded
+     * @throws IllegalArgumentException if the percentile is not between 0 and 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100!");
+        }
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return Math.min(max, LatencyHistogram.bucketUpperBound(bucket));
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + " mean=" + Math.round(getMean()) + " p50=" + getValueAtPercentile(50) + " p99=" + getValueAtPercentile(99)
+                + " p999=" + getValueAtPercentile(99.9) + " max=" + max;
+    }
+}
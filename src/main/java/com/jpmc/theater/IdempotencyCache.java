@@ -0,0 +1,162 @@
+package com.jpmc.theater;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * This class runs an action at most once per idempotency key, so a client retrying a call after a timeout gets the original
+ * result instead of a second execution. A retry arriving while the first call is still running waits for its result.
+ * An action that throws, RuntimeException or Error, is forgotten, so it can be retried.
+ * <p>
+ * The cache holds at most maxEntries keys, split over striped segments each kept in insertion order under its own lock,
+ * so memory stays bounded during retry storms. Keys expire once the time to live went by. A key is never dropped before that,
+ * as a retry would run its action again: a segment full of live keys rejects new keys until its oldest key expires.
+ *
+ * @param <V> the type of the results
+ * @author coder050519123
+ */
+public final class IdempotencyCache<V> {
+    private static final int SEGMENTS = 16;
+
+    private final Segment<V>[] segments;
+    private final int maxEntriesPerSegment;
+    private final long timeToLiveMillis;
+    private final Clock clock;
+
+    /**
+     * Constructs a new IdempotencyCache.
+     * @param maxEntries - the most keys remembered at the same time
+     * @param timeToLive - how long a key is remembered after its first call
+     * @param clock - the clock giving the time keys expire at
+     * @throws IllegalArgumentException if the maximum number of entries is less than 1, the time to live is null or not positive, or the clock is null
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public IdempotencyCache(int maxEntries, Duration timeToLive, Clock clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Maximum number of entries cannot be less than 1!");
+        }
+        if (timeToLive == null || timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("Time to live must be positive!");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null!");
+        }
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>();
+        }
+        this.maxEntriesPerSegment = Math.max(1, maxEntries / SEGMENTS);
+        this.timeToLiveMillis = timeToLive.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * This method runs the action unless the key was seen before, in which case it returns the first call's result.
+     * @param key - the idempotency key chosen by the client
+     * @param fingerprint - what the call asks for, a key cannot be reused to ask for something else
+     * @param action - the action to run once per key
+     * @return the result of the action run for the key
+     * @throws IllegalArgumentException if the key or the fingerprint is null
+     * @throws IllegalStateException if the key was seen with another fingerprint, or is new and its segment is full of live keys
+     */
+    public V execute(String key, Object fingerprint, Supplier<V> action) {
+        if (key == null || fingerprint == null) {
+            throw new IllegalArgumentException("Idempotency key and fingerprint cannot be null!");
+        }
+        Segment<V> segment = segments[(key.hashCode() ^ key.hashCode() >>> 16) & (SEGMENTS - 1)];
+        long now = clock.millis();
+        Entry<V> entry;
+        boolean owner = false;
+        synchronized (segment) {
+            segment.expire(now);
+            entry = segment.entries.get(key);
+            if (entry == null) {
+                if (segment.entries.size() >= maxEntriesPerSegment) {
+                    throw new IllegalStateException("Too many idempotency keys remembered, retry the call later!");
+                }
+                entry = new Entry<>(fingerprint, now + timeToLiveMillis);
+                segment.entries.put(key, entry);
+                owner = true;
+            } else if (!entry.fingerprint.equals(fingerprint)) {
+                throw new IllegalStateException("Idempotency key " + key + " was already used for another call!");
+            }
+        }
+        if (owner) {
+            try {
+                V result = action.get();
+                entry.result.complete(result);
+                return result;
+            } catch (Throwable ex) {
+                // completed whatever the action throws, or the retries waiting for the entry would wait forever
+                synchronized (segment) {
+                    segment.entries.remove(key, entry);
+                }
+                entry.result.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        try {
+            return entry.result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : ex;
+        }
+    }
+
+    /**
+     * @return the number of keys remembered, including expired keys not dropped yet
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Keys of one stripe in insertion order, which is also expiry order since every key lives as long.
+     */
+    private static final class Segment<V> {
+        private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>();
+
+        /**
+         * This method drops the expired keys, except the ones whose action is still running, which stay until it completes.
+         */
+        private void expire(long now) {
+            Iterator<Entry<V>> oldest = entries.values().iterator();
+            while (oldest.hasNext()) {
+                Entry<V> entry = oldest.next();
+                if (entry.expiresAtMillis > now) {
+                    return;
+                }
+                if (entry.result.isDone()) {
+                    oldest.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Result of a key, completed once its action returns.
+     */
+    private static final class Entry<V> {
+        private final Object fingerprint;
+        private final long expiresAtMillis;
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+
+        private Entry(Object fingerprint, long expiresAtMillis) {
+            this.fingerprint = fingerprint;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
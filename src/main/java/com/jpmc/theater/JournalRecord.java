@@ -0,0 +1,77 @@
+package com.jpmc.theater;
+
+import java.util.List;
+
+/**
+ * This class represents a reservation as it was written to the ReservationJournal.
+ * Records are read back when a theater recovers its reservations after a restart.
+ *
+ * @author coder050519123
+ */
+public final class JournalRecord {
+    private final long lsn;
+    private final long reservationId;
+    private final ShowingKey showingKey;
+    private final int audienceCount;
+    private final List<Seat> seats;
+    private final String customerName;
+    private final String customerId;
+
+    JournalRecord(long lsn, long reservationId, ShowingKey showingKey, int audienceCount, List<Seat> seats, String customerName, String customerId) {
+        this.lsn = lsn;
+        this.reservationId = reservationId;
+        this.showingKey = showingKey;
+        this.audienceCount = audienceCount;
+        this.seats = seats;
+        this.customerName = customerName;
+        this.customerId = customerId;
+    }
+
+    /**
+     * @return the log sequence number of the record, starting at 1 and without gaps
+     */
+    public long getLsn() {
+        return lsn;
+    }
+
+    /**
+     * @return the identifier the theater gave the reservation
+     */
+    public long getReservationId() {
+        return reservationId;
+    }
+
+    /**
+     * @return the key of the reserved showing
+     */
+    public ShowingKey getShowingKey() {
+        return showingKey;
+    }
+
+    /**
+     * @return the size of the party
+     */
+    public int getAudienceCount() {
+        return audienceCount;
+    }
+
+    /**
+     * @return the reserved seats, empty if the party was spread over too many seat runs to fit the record
+     */
+    public List<Seat> getSeats() {
+        return seats;
+    }
+
+    /**
+     * @return a new customer object with the recorded name and id
+     */
+    public Customer getCustomer() {
+        return new Customer(customerName, customerId);
+    }
+
+    @Override
+    public String toString() {
+        return "JournalRecord {lsn=" + lsn + ", reservationId=" + reservationId + ", showing=" + showingKey +
+                ", audienceCount=" + audienceCount + ", seats=" + seats + '}';
+    }
+}
@@ -0,0 +1,105 @@
+package com.jpmc.theater;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class records latencies in nanoseconds into a fixed number of log-linear buckets: values below 16 get a bucket each,
+ * and every power of 2 above is split into 16 equal buckets, so a bucket is at most 1/16 (6.25%) wider than its lower bound.
+ * Values from 2^40 ns (about 18 minutes) up land in the last bucket. The histogram takes the same memory whatever it records.
+ * <p>
+ * Threads record into striped copies of the buckets picked by thread id, so threads on different stripes never write
+ * to the same counters; reading a snapshot merges the stripes.
+ *
+ * @author coder050519123
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_VALUE_BITS = 40;
+    /**
+     * Number of buckets of a stripe: the linear buckets below SUB_BUCKETS, then SUB_BUCKETS per power of 2 up to 2^MAX_VALUE_BITS.
+     */
+    static final int BUCKETS = (MAX_VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    /**
+     * Slots of a stripe: its buckets, then its count, its sum, and its maximum, padded to its own cache lines.
+     */
+    private static final int STRIPE_SLOTS = BUCKETS + 8;
+    private static final int COUNT = BUCKETS;
+    private static final int SUM = BUCKETS + 1;
+    private static final int MAX = BUCKETS + 2;
+    private static final int MAX_STRIPES = 64;
+
+    private final AtomicLongArray slots;
+    private final int stripeMask;
+
+    /**
+     * Constructs a new LatencyHistogram with a stripe per available processor, rounded up to a power of 2.
+     */
+    public LatencyHistogram() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int stripes = Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, processors * 2 - 1)));
+        this.slots = new AtomicLongArray(stripes * STRIPE_SLOTS);
+        this.stripeMask = stripes - 1;
+    }
+
+    /**
+     * @param nanos - the latency to record, negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        int stripe = (int) (Thread.currentThread().getId() * 0x9E3779B97F4A7C15L >>> 32) & stripeMask;
+        int base = stripe * STRIPE_SLOTS;
+        slots.incrementAndGet(base + bucketOf(value));
+        slots.incrementAndGet(base + COUNT);
+        slots.addAndGet(base + SUM, value);
+        if (value > slots.get(base + MAX)) {
+            slots.accumulateAndGet(base + MAX, value, Math::max);
+        }
+    }
+
+    /**
+     * @return the recorded latencies merged over every stripe, recordings made while reading may be partly included
+     */
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (int base = 0; base < slots.length(); base += STRIPE_SLOTS) {
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                counts[bucket] += slots.get(base + bucket);
+            }
+            count += slots.get(base + COUNT);
+            sum += slots.get(base + SUM);
+            max = Math.max(max, slots.get(base + MAX));
+        }
+        return new HistogramSnapshot(counts, count, sum, max);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent >= MAX_VALUE_BITS) {
+            return BUCKETS - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * @return the highest value recorded in the bucket
+     */
+    static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        if (bucket == BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
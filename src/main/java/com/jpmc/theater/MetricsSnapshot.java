@@ -0,0 +1,76 @@
+package com.jpmc.theater;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * This class is an immutable reading of TheaterMetrics: counters, gauges, and latency histograms by name.
+ * Its string form lists one metric per line, sorted by name, for scraping.
+ *
+ * @author coder050519123
+ */
+public final class MetricsSnapshot {
+    private final Map<String, Long> counters;
+    private final Map<String, Long> gauges;
+    private final Map<String, HistogramSnapshot> histograms;
+
+    MetricsSnapshot(Map<String, Long> counters, Map<String, Long> gauges, Map<String, HistogramSnapshot> histograms) {
+        this.counters = Collections.unmodifiableMap(counters);
+        this.gauges = Collections.unmodifiableMap(gauges);
+        this.histograms = Collections.unmodifiableMap(histograms);
+    }
+
+    /**
+     * @return the counters by name
+     */
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    /**
+     * @return the gauges by name
+     */
+    public Map<String, Long> getGauges() {
+        return gauges;
+    }
+
+    /**
+     * @return the latency histograms by name
+     */
+    public Map<String, HistogramSnapshot> getHistograms() {
+        return histograms;
+    }
+
+    /**
+     * @param name - the name of the counter
+     * @return the value of the counter, 0 if there is none with that name
+     */
+    public long getCounter(String name) {
+        return counters.getOrDefault(name, 0L);
+    }
+
+    /**
+     * @param name - the name of the gauge
+     * @return the value of the gauge, 0 if there is none with that name
+     */
+    public long getGauge(String name) {
+        return gauges.getOrDefault(name, 0L);
+    }
+
+    /**
+     * @param name - the name of the histogram
+     * @return the histogram, null if there is none with that name
+     */
+    public HistogramSnapshot getHistogram(String name) {
+        return histograms.get(name);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        counters.forEach((name, value) -> text.append(name).append(' ').append(value).append('\n'));
+        gauges.forEach((name, value) -> text.append(name).append(' ').append(value).append('\n'));
+        histograms.forEach((name, histogram) -> text.append(name).append(' ').append(histogram).append('\n'));
+        return text.toString();
+    }
+}
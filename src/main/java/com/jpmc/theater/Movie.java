@@ -2,12 +2,17 @@ package com.jpmc.theater;
 
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.util.Comparator;
 import java.util.Objects;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * This is a class representing the Movie entity in a theater.
  * This class holds the information about a movie, including its title, description,
  * running time, ticket price, and special code.
+ * The ticket price is also kept as a whole number of cents for the allocation free pricing path.
+ * The hash code is calculated once, and movies interned by the same MovieCatalog compare by their catalog id.
  * @author coder050519123
  */
 public class Movie {
@@ -16,6 +21,28 @@ public class Movie {
     private final Duration runningTime;
     private final BigDecimal ticketPrice;
     private final int specialCode;
+    private final long ticketPriceInCents;
+    private final int hashCode;
+    private final MovieCatalog catalog;
+    private final int catalogId;
+
+    /**
+     * Marker for a ticket price that cannot be represented as a whole number of cents (null, fractions of a cent or too big).
+     */
+    private static final long NO_PRICE_IN_CENTS = Long.MIN_VALUE;
+    /**
+     * Biggest ticket price in cents supported by the cents pricing path, so discounts in 1/10000 of a cent cannot overflow.
+     */
+    private static final long MAX_TICKET_PRICE_IN_CENTS = Long.MAX_VALUE / DiscountRuleEngine.BASIS_POINTS_PER_UNIT;
+    /**
+     * Order of ticket prices compared by equals: prices that only differ in trailing zeros are equal, and a movie without a price
+     * only equals another movie without a price.
+     */
+    private static final Comparator<BigDecimal> TICKET_PRICE_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+    /**
+     * Catalog id of movies that were not interned by a MovieCatalog.
+     */
+    public static final int NO_CATALOG_ID = -1;
 
     /**
      * Constructs a new Movie object with the provided title, desc, running time, ticket price, and special code values.
@@ -31,6 +58,30 @@ public class Movie {
         this.runningTime = runningTime;
         this.ticketPrice = ticketPrice;
         this.specialCode = specialCode;
+        this.ticketPriceInCents = toCents(ticketPrice);
+        this.hashCode = hash(title, description, runningTime, ticketPrice, specialCode);
+        this.catalog = null;
+        this.catalogId = NO_CATALOG_ID;
+    }
+
+    /**
+     * Constructs the catalog entry of a movie, with the title and description shared through the catalog.
+     * @param movie - the movie to intern
+     * @param title - the shared title, equal to the movie's title
+     * @param description - the shared description, equal to the movie's description
+     * @param catalog - the catalog interning the movie
+     * @param catalogId - the id the catalog gave the movie
+     */
+    Movie(Movie movie, String title, String description, MovieCatalog catalog, int catalogId) {
+        this.title = title;
+        this.description = description;
+        this.runningTime = movie.runningTime;
+        this.ticketPrice = movie.ticketPrice;
+        this.specialCode = movie.specialCode;
+        this.ticketPriceInCents = movie.ticketPriceInCents;
+        this.hashCode = movie.hashCode;
+        this.catalog = catalog;
+        this.catalogId = catalogId;
     }
 
     /**
@@ -60,6 +111,25 @@ public class Movie {
         return ticketPrice;
     }
 
+    /**
+     * @return original ticket price (before discount) of the movie in cents i.e. 2050 for $20.5
+     * @throws IllegalStateException if the ticket price is null or not a whole number of cents
+     */
+    @JsonIgnore
+    public long getTicketPriceInCents() {
+        if (!hasTicketPriceInCents()) {
+            throw new IllegalStateException("Ticket price " + ticketPrice + " cannot be represented in cents!");
+        }
+        return ticketPriceInCents;
+    }
+
+    /**
+     * @return true if the ticket price is a whole number of cents and can be priced with the cents pricing path
+     */
+    boolean hasTicketPriceInCents() {
+        return ticketPriceInCents != NO_PRICE_IN_CENTS;
+    }
+
     /**
      * @return special code of the movie to indicate whether movie is regular or special (special code = 1)
      */
@@ -67,9 +137,25 @@ public class Movie {
         return specialCode;
     }
 
+    /**
+     * @return the id given by the MovieCatalog that interned the movie, or NO_CATALOG_ID if the movie was not interned
+     */
+    @JsonIgnore
+    public int getCatalogId() {
+        return catalogId;
+    }
+
+    /**
+     * @return the catalog that interned the movie, or null if the movie was not interned
+     */
+    MovieCatalog getCatalog() {
+        return catalog;
+    }
+
     /**
      * Method to compare two movies and see if they are equal in all of their components/members.
      * Movies are equal if their title, description, ticketPrice, runningTime, and specialCode values are all the same.
+     * Movies interned by the same catalog are equal only if they have the same catalog id, without comparing their fields.
      *
      * @param o movie object to compare to
      * @return boolean true if movie is equal, false if movie is not equal
@@ -79,7 +165,11 @@ public class Movie {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Movie movie = (Movie) o;
-        return ticketPrice.compareTo(movie.getTicketPrice()) == 0
+        if (catalog != null && catalog == movie.catalog) {
+            return catalogId == movie.catalogId;
+        }
+        return hashCode == movie.hashCode
+                && TICKET_PRICE_ORDER.compare(ticketPrice, movie.ticketPrice) == 0
                 && Objects.equals(title, movie.title)
                 && Objects.equals(description, movie.description)
                 && Objects.equals(runningTime, movie.runningTime)
@@ -87,11 +177,36 @@ public class Movie {
     }
 
     /**
-     * Equal movies will have the same hash code
+     * Equal movies will have the same hash code, calculated once when the movie is created
      * @return hash code for movie object
      */
     @Override
     public int hashCode() {
-        return Objects.hash(title, description, runningTime, ticketPrice, specialCode);
+        return hashCode;
+    }
+
+    /**
+     * This method hashes the fields compared by equals, ticket prices that only differ in trailing zeros hash the same.
+     */
+    private static int hash(String title, String description, Duration runningTime, BigDecimal ticketPrice, int specialCode) {
+        int hash = Objects.hashCode(title);
+        hash = hash * 31 + Objects.hashCode(description);
+        hash = hash * 31 + Objects.hashCode(runningTime);
+        hash = hash * 31 + (ticketPrice == null ? 0 : ticketPrice.stripTrailingZeros().hashCode());
+        return hash * 31 + specialCode;
+    }
+
+    /**
+     * This method converts a dollar amount to cents if it is a whole number of cents within the supported range.
+     */
+    private static long toCents(BigDecimal amount) {
+        if (amount == null || amount.stripTrailingZeros().scale() > 2) {
+            return NO_PRICE_IN_CENTS;
+        }
+        BigDecimal cents = amount.movePointRight(2);
+        if (cents.abs().compareTo(BigDecimal.valueOf(MAX_TICKET_PRICE_IN_CENTS)) > 0) {
+            return NO_PRICE_IN_CENTS;
+        }
+        return cents.longValueExact();
     }
 }
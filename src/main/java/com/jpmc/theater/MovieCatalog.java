@@ -0,0 +1,107 @@
+package com.jpmc.theater;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class interns the movies of a theater: equal movies are replaced by one shared catalog entry with a stable id,
+ * given in the order movies are first interned and starting at 0. Entries of the same catalog compare by id,
+ * so maps keyed by interned movies hash a cached int and compare one int on every lookup.
+ * Titles and descriptions are kept in a string store shared by every entry, so movies with the same description
+ * (re-releases, 3D and IMAX versions) hold it once.
+ * Lookups never lock; interning a new movie is serialized on the catalog. Entries are never removed.
+ *
+ * @author coder050519123
+ */
+public final class MovieCatalog {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final ConcurrentHashMap<Movie, Movie> moviesByValue = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+    private volatile Movie[] moviesById = new Movie[INITIAL_CAPACITY];
+    private volatile int size;
+
+    /**
+     * This method returns the catalog entry equal to the movie, creating it if the movie was never interned.
+     * @param movie - the movie to intern
+     * @return the catalog entry, the same instance for every equal movie
+     * @throws IllegalArgumentException if the movie is null or has no ticket price
+     */
+    public Movie intern(Movie movie) {
+        if (movie == null || movie.getTicketPrice() == null) {
+            throw new IllegalArgumentException("Movie and its ticket price cannot be null!");
+        }
+        if (movie.getCatalog() == this) {
+            return movie;
+        }
+        Movie interned = moviesByValue.get(movie);
+        return interned != null ? interned : add(movie);
+    }
+
+    /**
+     * This method looks up the catalog entry equal to the movie without interning it.
+     * @param movie - a movie
+     * @return the catalog entry equal to the movie, or null if no equal movie was interned
+     */
+    Movie find(Movie movie) {
+        if (movie == null || movie.getTicketPrice() == null) {
+            return null;
+        }
+        return movie.getCatalog() == this ? movie : moviesByValue.get(movie);
+    }
+
+    /**
+     * @param catalogId - the id of the catalog entry
+     * @return the catalog entry with the given id
+     * @throws IllegalArgumentException if no movie was interned with the id
+     */
+    public Movie getMovie(int catalogId) {
+        if (catalogId < 0 || catalogId >= size) {
+            throw new IllegalArgumentException("No movie interned with catalog id " + catalogId);
+        }
+        // read after the size, so the array is at least as recent as the size checked
+        return moviesById[catalogId];
+    }
+
+    /**
+     * @param movie - a movie
+     * @return true if the movie is an entry of this catalog
+     */
+    public boolean contains(Movie movie) {
+        return movie != null && movie.getCatalog() == this;
+    }
+
+    /**
+     * @return the number of movies interned
+     */
+    public int size() {
+        return size;
+    }
+
+    private synchronized Movie add(Movie movie) {
+        Movie interned = moviesByValue.get(movie);
+        if (interned != null) {
+            return interned;
+        }
+        int catalogId = size;
+        interned = new Movie(movie, share(movie.getTitle()), share(movie.getDescription()), this, catalogId);
+        Movie[] movies = moviesById;
+        if (catalogId == movies.length) {
+            movies = Arrays.copyOf(movies, movies.length * 2);
+        }
+        movies[catalogId] = interned;
+        // the array and size are published before the entry can be found by value, so its id always resolves
+        moviesById = movies;
+        size = catalogId + 1;
+        moviesByValue.put(interned, interned);
+        return interned;
+    }
+
+    private String share(String value) {
+        if (value == null) {
+            return null;
+        }
+        String shared = strings.putIfAbsent(value, value);
+        return shared == null ? value : shared;
+    }
+}
@@ -1,14 +1,19 @@
 package com.jpmc.theater;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
 
 /**
  * This class is a "calculator" class used to calculate the discount of a movie's price depending on its codes and corresponding showing.
  * This class holds static values in order to determine what and how much discount a movie is eligible for.
  * The ticket discounts are based on special movie codes, the showing sequence of the day, and the time of the movie.
+ * These default rules are compiled into a DiscountRuleEngine, and a calculator can also be created with a custom rule engine.
  * If a movie is eligible for multiple discounts, only the biggest will be chosen at the very end.
  *
  * @author coder050519123
@@ -48,9 +53,118 @@ public class MovieDiscountCalculator {
     private final static LocalTime EARLY_SHOWING_UPPER_BOUND_HOUR = LocalTime.of(16, 0);
 
     /**
-     * Constructor for the MovieDiscountCalculator class.
+     * The discount rules of the theater, compiled once and shared by every calculator using the default rule set.
+     */
+    private final static DiscountRuleEngine DEFAULT_DISCOUNT_RULE_ENGINE = new DiscountRuleEngine(getDefaultDiscountRules());
+
+    private final Clock clock;
+    private volatile DiscountRuleEngine discountRuleEngine;
+    private volatile BusinessDay businessDay;
+    private volatile TheaterMetrics metrics = TheaterMetrics.DISABLED;
+
+    /**
+     * Constructor for the MovieDiscountCalculator class using the theater's default discount rules.
      */
     public MovieDiscountCalculator() {
+        this(DEFAULT_DISCOUNT_RULE_ENGINE);
+    }
+
+    /**
+     * Constructor for the MovieDiscountCalculator class using a custom set of discount rules.
+     * @param discountRuleEngine - the compiled discount rules to evaluate
+     * @throws IllegalArgumentException if the discount rule engine is null
+     */
+    public MovieDiscountCalculator(DiscountRuleEngine discountRuleEngine) {
+        this(discountRuleEngine, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructor for the MovieDiscountCalculator class using a custom set of discount rules and clock.
+     * @param discountRuleEngine - the compiled discount rules to evaluate
+     * @param clock - the clock the business date of the theater is read from
+     * @throws IllegalArgumentException if the discount rule engine or clock is null
+     */
+    public MovieDiscountCalculator(DiscountRuleEngine discountRuleEngine, Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null!");
+        }
+        setDiscountRuleEngine(discountRuleEngine);
+        this.clock = clock;
+    }
+
+    /**
+     * This method builds the theater's default discount rules:
+     * 20% off special movies, $3/$2/$1 off the 1st/2nd/7th show of the day, and 25% off shows starting between 11 am and 4 pm.
+     *
+     * @return a new list with the default discount rules
+     */
+    public static List<DiscountRule> getDefaultDiscountRules() {
+        return List.of(
+                new SpecialMovieDiscountRule(SPECIAL_MOVIE_CODE, SPECIAL_MOVIE_DISCOUNT_DECIMAL),
+                new ShowingSequenceDiscountRule(1, FIRST_SHOW_DISCOUNT_DOLLAR_AMT),
+                new ShowingSequenceDiscountRule(2, SECOND_SHOW_DISCOUNT_DOLLAR_AMT),
+                new ShowingSequenceDiscountRule(7, SEVENTH_SHOW_DISCOUNT_DOLLAR_AMT),
+                new ShowingTimeWindowDiscountRule(EARLY_SHOWING_LOWER_BOUND_HOUR, EARLY_SHOWING_UPPER_BOUND_HOUR, EARLY_SHOWING_DISCOUNT_DECIMAL));
+    }
+
+    /**
+     * @return the compiled discount rules used by this calculator
+     */
+    public DiscountRuleEngine getDiscountRuleEngine() {
+        return discountRuleEngine;
+    }
+
+    /**
+     * Replaces the discount rules of this calculator.
+     * Showings priced by this calculator notice the new rule set and drop their cached final price on their next price request.
+     * @param discountRuleEngine - the new compiled discount rules to evaluate
+     * @throws IllegalArgumentException if the discount rule engine is null
+     */
+    public void setDiscountRuleEngine(DiscountRuleEngine discountRuleEngine) {
+        if (discountRuleEngine == null) {
+            throw new IllegalArgumentException("Discount rule engine cannot be null!");
+        }
+        this.discountRuleEngine = discountRuleEngine;
+    }
+
+    /**
+     * @return the metrics the showings priced by this calculator record their price lookups to
+     */
+    public TheaterMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Replaces the metrics the showings priced by this calculator record their price lookups to.
+     * @param metrics - the metrics to record to, TheaterMetrics.DISABLED to stop recording
+     * @throws IllegalArgumentException if the metrics are null
+     */
+    public void setMetrics(TheaterMetrics metrics) {
+        if (metrics == null) {
+            throw new IllegalArgumentException("Metrics cannot be null!");
+        }
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return the clock the business date of the theater is read from
+     */
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * The date is only recomputed when the clock leaves the last computed day, so repeated calls do not allocate.
+     * @return the current business date of the theater according to this calculator's clock
+     */
+    public LocalDate getBusinessDate() {
+        long currentMillis = clock.millis();
+        BusinessDay currentBusinessDay = businessDay;
+        if (currentBusinessDay == null || !currentBusinessDay.contains(currentMillis)) {
+            currentBusinessDay = new BusinessDay(LocalDate.ofInstant(Instant.ofEpochMilli(currentMillis), clock.getZone()), clock.getZone());
+            businessDay = currentBusinessDay;
+        }
+        return currentBusinessDay.date;
     }
 
     /**
@@ -61,36 +175,53 @@ public class MovieDiscountCalculator {
      * @throws IllegalArgumentException if the showing or movie object within the showing is null or has missing important values
      */
     public BigDecimal calculateTicketPriceDiscount(Showing showing) {
-        validateShowingObject(showing);
-        Movie movie = showing.getMovie();
-        validateMovieObject(movie);
+        return calculateTicketPriceDiscount(showing, getBusinessDate());
+    }
 
-        BigDecimal finalDiscount = BigDecimal.ZERO;
+    /**
+     * This method calculates the biggest discount a movie is eligible for on the given business date.
+     *
+     * @param showing - the showing object that contains the movie it is showing at that specific time
+     * @param businessDate - the business date to price the showing for
+     * @return the biggest discount the movie is eligible for
+     * @throws IllegalArgumentException if the showing or movie object within the showing is null or has missing important values
+     */
+    public BigDecimal calculateTicketPriceDiscount(Showing showing, LocalDate businessDate) {
+        return calculateTicketPriceDiscount(showing, discountRuleEngine, businessDate);
+    }
 
-        if (movie.getSpecialCode() == SPECIAL_MOVIE_CODE) {
-            BigDecimal specialDiscount = movie.getTicketPrice().multiply(SPECIAL_MOVIE_DISCOUNT_DECIMAL);
-            finalDiscount = specialDiscount.max(finalDiscount);  // 20% discount for special movie
-        }
+    /**
+     * This method calculates the biggest discount a movie is eligible for with a specific snapshot of the discount rules.
+     * Used by callers caching the result against the rules it was calculated with.
+     */
+    BigDecimal calculateTicketPriceDiscount(Showing showing, DiscountRuleEngine discountRuleEngine, LocalDate businessDate) {
+        validateShowingObject(showing);
+        validateMovieObject(showing.getMovie());
 
-        int showingSequenceOfTheDay = showing.getSequenceOfTheDay();
-        if (showingSequenceOfTheDay == 1) {
-            finalDiscount = FIRST_SHOW_DISCOUNT_DOLLAR_AMT.max(finalDiscount); // $3 discount for 1st show of the day
-        } else if (showingSequenceOfTheDay == 2) {
-            finalDiscount = SECOND_SHOW_DISCOUNT_DOLLAR_AMT.max(finalDiscount); // $2 discount for 2nd show of the day
-        } else if (showingSequenceOfTheDay == 7) {
-            finalDiscount = SEVENTH_SHOW_DISCOUNT_DOLLAR_AMT.max(finalDiscount); // $1 discount for 7th show of the day
-        }
+        return discountRuleEngine.calculateDiscount(showing, businessDate);
+    }
 
-        LocalDateTime movieStartTime = showing.getShowStartTime();
-        LocalDateTime lowerBoundStartTime = LocalDateTime.of(LocalDate.now(), EARLY_SHOWING_LOWER_BOUND_HOUR);
-        LocalDateTime upperBoundStartTime = LocalDateTime.of(LocalDate.now(), EARLY_SHOWING_UPPER_BOUND_HOUR);
-        if (movieStartTime.isAfter(lowerBoundStartTime) && movieStartTime.isBefore(upperBoundStartTime)) {
-            BigDecimal earlyShowingDiscount = movie.getTicketPrice().multiply(EARLY_SHOWING_DISCOUNT_DECIMAL); // 25% discount for movie shown in btwn 11am-4pm
-            finalDiscount = earlyShowingDiscount.max(finalDiscount);
-        }
+    /**
+     * This method calculates the final ticket price in cents of a showing with a specific snapshot of the discount rules.
+     * Ticket prices in whole cents are priced with the engine's allocation free cents path, any other price goes
+     * through the BigDecimal path; both round HALF_UP to a whole cent.
+     *
+     * @param showing - the showing to price
+     * @param discountRuleEngine - the discount rules to evaluate
+     * @param businessDate - the business date to price the showing for
+     * @return the final ticket price in cents
+     * @throws IllegalArgumentException if the showing or movie object within the showing is null or has missing important values
+     */
+    long calculateFinalPriceInCents(Showing showing, DiscountRuleEngine discountRuleEngine, LocalDate businessDate) {
+        validateShowingObject(showing);
+        Movie movie = showing.getMovie();
+        validateMovieObject(movie);
 
-        // biggest discount wins
-        return finalDiscount;
+        if (movie.hasTicketPriceInCents() && discountRuleEngine.supportsPricingInCents()) {
+            return discountRuleEngine.calculateFinalPriceInCents(showing, businessDate);
+        }
+        BigDecimal ticketDiscount = discountRuleEngine.calculateDiscount(showing, businessDate);
+        return movie.getTicketPrice().subtract(ticketDiscount).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
     }
 
     /**
@@ -116,4 +247,23 @@ public class MovieDiscountCalculator {
             throw new IllegalArgumentException("Showing object cannot be null or showing schedule cannot be 0!");
         }
     }
+
+    /**
+     * Immutable business day of the calculator's clock with the epoch millisecond range it covers.
+     */
+    private static final class BusinessDay {
+        private final LocalDate date;
+        private final long startMillis;
+        private final long endMillis;
+
+        private BusinessDay(LocalDate date, ZoneId zone) {
+            this.date = date;
+            this.startMillis = date.atStartOfDay(zone).toInstant().toEpochMilli();
+            this.endMillis = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+
+        private boolean contains(long epochMillis) {
+            return epochMillis >= startMillis && epochMillis < endMillis;
+        }
+    }
 }
@@ -1,37 +1,114 @@
 package com.jpmc.theater;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.List;
 
 /**
  * This class represents the reservation to see a showing in the theater.
  * It holds information on the customer, the showing details,
- * and the number of audience in this specific reservation party.
+ * the number of audience in this specific reservation party, and the seats assigned to the party.
+ * A reservation made for a registered customer only holds the customer's handle in its CustomerRegistry.
+ * The showing and party size of a reservation are fixed once made, since its seats were taken from the showing for that party.
  * This class also calculates the total reservation fee for the showing chosen.
  * @author coder050519123
  */
 public class Reservation {
+    private final long reservationId;
     private final Customer customer;
-    private Showing showing;
-    private int audienceCount;
+    private final CustomerRegistry customerRegistry;
+    private final int customerHandle;
+    private final Showing showing;
+    private final int audienceCount;
+    private final List<Seat> seats;
 
     /**
-     * Constructs a new Reservation with the provided customer, showing, and audience count details.
+     * Constructs a new Reservation with the provided customer, showing, and audience count details, without assigned seats.
      * @param customer - the customer details on who is making the reservation
-     * @param showing - the showing chosen by the customer to watch (can be changed)
-     * @param audienceCount - the total party size of this reservation (can be changed) - cannot be negative or 0
+     * @param showing - the showing chosen by the customer to watch
+     * @param audienceCount - the total party size of this reservation - cannot be negative or 0
      */
     public Reservation(Customer customer, Showing showing, int audienceCount) {
-        setAudienceCount(audienceCount);
+        this(customer, showing, audienceCount, List.of());
+    }
+
+    /**
+     * Constructs a new Reservation with the provided customer, showing, audience count, and assigned seats.
+     * @param customer - the customer details on who is making the reservation
+     * @param showing - the showing chosen by the customer to watch
+     * @param audienceCount - the total party size of this reservation - cannot be negative or 0
+     * @param seats - the seats assigned to the party
+     */
+    public Reservation(Customer customer, Showing showing, int audienceCount, List<Seat> seats) {
+        this(0, customer, showing, audienceCount, seats);
+    }
+
+    /**
+     * Constructs a new Reservation issued by a theater, with the provided id, customer, showing, audience count, and assigned seats.
+     * @param reservationId - the identifier the theater gave the reservation
+     * @param customer - the customer details on who is making the reservation
+     * @param showing - the showing chosen by the customer to watch
+     * @param audienceCount - the total party size of this reservation - cannot be negative or 0
+     * @param seats - the seats assigned to the party
+     */
+    public Reservation(long reservationId, Customer customer, Showing showing, int audienceCount, List<Seat> seats) {
+        this(reservationId, customer, null, CustomerRegistry.NO_HANDLE, showing, audienceCount, seats);
+    }
+
+    /**
+     * Constructs a new Reservation issued by a theater for a registered customer, with the provided id, customer handle, showing, audience count, and assigned seats.
+     * @param reservationId - the identifier the theater gave the reservation
+     * @param customerRegistry - the registry the customer is registered in
+     * @param customerHandle - the handle of the customer making the reservation
+     * @param showing - the showing chosen by the customer to watch
+     * @param audienceCount - the total party size of this reservation - cannot be negative or 0
+     * @param seats - the seats assigned to the party
+     * @throws IllegalArgumentException if the registry is null or no customer is registered under the handle
+     */
+    public Reservation(long reservationId, CustomerRegistry customerRegistry, int customerHandle, Showing showing, int audienceCount, List<Seat> seats) {
+        this(reservationId, null, checkRegistered(customerRegistry, customerHandle), customerHandle, showing, audienceCount, seats);
+    }
+
+    private Reservation(long reservationId, Customer customer, CustomerRegistry customerRegistry, int customerHandle,
+                        Showing showing, int audienceCount, List<Seat> seats) {
+        if (audienceCount <= 0) {
+            throw new IllegalArgumentException("Cannot have a reservation with negative or zero audience count!");
+        }
+        this.reservationId = reservationId;
+        this.audienceCount = audienceCount;
         this.customer = customer;
+        this.customerRegistry = customerRegistry;
+        this.customerHandle = customerHandle;
         this.showing = showing;
+        this.seats = List.copyOf(seats);
+    }
+
+    private static CustomerRegistry checkRegistered(CustomerRegistry customerRegistry, int customerHandle) {
+        if (customerRegistry == null) {
+            throw new IllegalArgumentException("Customer registry cannot be null!");
+        }
+        customerRegistry.getId(customerHandle);
+        return customerRegistry;
+    }
+
+    /**
+     * @return the identifier the theater gave the reservation, 0 if it was not issued by a theater
+     */
+    public long getReservationId() {
+        return reservationId;
     }
 
     /**
-     * @return the customer details who made the reservation
+     * @return the customer details who made the reservation, read from the customer registry for a registered customer
      */
     public Customer getCustomer() {
-        return customer;
+        return customerRegistry == null ? customer : customerRegistry.getCustomer(customerHandle);
+    }
+
+    /**
+     * @return the handle of the customer in its CustomerRegistry, or CustomerRegistry.NO_HANDLE if the reservation holds a Customer object
+     */
+    public int getCustomerHandle() {
+        return customerHandle;
     }
 
     /**
@@ -42,10 +119,10 @@ public class Reservation {
     }
 
     /**
-     * @param showing - setter to change the showing of reservation
+     * @return the seats assigned to the party, empty if the reservation was made without seat assignment
      */
-    public void setShowing(Showing showing) {
-        this.showing = showing;
+    public List<Seat> getSeats() {
+        return seats;
     }
 
     /**
@@ -55,24 +132,21 @@ public class Reservation {
         return audienceCount;
     }
 
-    /**
-     * @param audienceCount - setter to change the party size of reservation
-     * @throws IllegalArgumentException if the audience count is less than zero
-     */
-    public void setAudienceCount(int audienceCount) {
-        if (audienceCount <= 0) {
-            throw new IllegalArgumentException("Cannot have a reservation with negative or zero audience count!");
-        }
-        this.audienceCount = audienceCount;
-    }
-
     /**
      * This method calculates the total reservation cost for the showing dependent on the ticket prices and the size of the party.
      * This method calls the showing class for the final showing cost after the discount, then multiplies with number of audience requested.
      * @return the final cost of the reservation
      */
     public BigDecimal calculateTotalReservationFee() {
-        BigDecimal totalMovieFee = showing.getFinalShowingPrice().multiply(BigDecimal.valueOf(audienceCount));
-        return totalMovieFee.setScale(2, RoundingMode.HALF_UP);
+        return BigDecimal.valueOf(calculateTotalReservationFeeInCents(), 2);
+    }
+
+    /**
+     * This method calculates the total reservation cost in cents, without allocating.
+     * @return the final cost of the reservation in cents i.e. 7040 for $70.40
+     * @throws ArithmeticException if the total does not fit in a long
+     */
+    public long calculateTotalReservationFeeInCents() {
+        return Math.multiplyExact(showing.getFinalShowingPriceInCents(), (long) audienceCount);
     }
 }
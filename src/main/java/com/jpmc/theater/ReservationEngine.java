@@ -0,0 +1,301 @@
+package com.jpmc.theater;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class applies the reservations of a theater on single writer threads, for showings so hot that callers competing
+ * for their seats would spend more time contending than reserving.
+ * <p>
+ * Showings are spread over partitions by key. Each partition owns a preallocated ring of reservation commands and one
+ * writer thread: callers claim a slot with one compare-and-set, fill it in, and publish it; the writer takes every
+ * published command at once (up to MAX_BATCH) and applies them as one Theater.createReservations batch, so a burst
+ * of commands shares one journal sync. Slots are reused, so callers claiming them do not allocate beyond their command and future;
+ * the writer allocates per batch, not per command, for the batch's futures, its completion task, and Theater.createReservations.
+ * Callers get the outcome through a CompletableFuture, completed exceptionally with the exception Theater.createReservation would throw.
+ * The futures of a batch are completed on a completion executor, so the stages callers chain on them never run on the writer.
+ * An idle writer parks until a command is published; a caller finding its partition's ring full waits for the writer to free a slot.
+ *
+ * @author coder050519123
+ */
+public final class ReservationEngine implements AutoCloseable {
+    /**
+     * Number of commands a partition's ring holds when no size is provided.
+     */
+    public static final int DEFAULT_RING_SIZE = 1024;
+
+    /**
+     * Most commands applied in one batch.
+     */
+    public static final int MAX_BATCH = 256;
+
+    /**
+     * How long a caller waiting for a free slot parks before checking again.
+     */
+    private static final long PARK_NANOS = 50_000;
+
+    /**
+     * Value of a partition's claimed sequence once the engine is closed, no more slots can be claimed.
+     */
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    private final Theater theater;
+    private final Executor completionExecutor;
+    private final Partition[] partitions;
+
+    /**
+     * Constructs and starts a new ReservationEngine with rings of DEFAULT_RING_SIZE commands.
+     * @param theater - the theater to reserve in
+     * @param partitions - the number of partitions, each with its own writer thread
+     * @throws IllegalArgumentException if the theater is null or the number of partitions is less than 1
+     */
+    public ReservationEngine(Theater theater, int partitions) {
+        this(theater, partitions, DEFAULT_RING_SIZE);
+    }
+
+    /**
+     * Constructs and starts a new ReservationEngine completing its futures on the common fork-join pool.
+     * @param theater - the theater to reserve in
+     * @param partitions - the number of partitions, each with its own writer thread
+     * @param ringSize - the number of commands each partition's ring holds, a power of 2
+     * @throws IllegalArgumentException if the theater is null, the number of partitions is less than 1, or the ring size is not a power of 2
+     */
+    public ReservationEngine(Theater theater, int partitions, int ringSize) {
+        this(theater, partitions, ringSize, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs and starts a new ReservationEngine.
+     * @param theater - the theater to reserve in
+     * @param partitions - the number of partitions, each with its own writer thread
+     * @param ringSize - the number of commands each partition's ring holds, a power of 2
+     * @param completionExecutor - the executor completing the futures of each batch, a writer completes them itself if it rejects them
+     * @throws IllegalArgumentException if the theater or executor is null, the number of partitions is less than 1, or the ring size is not a power of 2
+     */
+    public ReservationEngine(Theater theater, int partitions, int ringSize, Executor completionExecutor) {
+        if (theater == null || completionExecutor == null) {
+            throw new IllegalArgumentException("Theater and completion executor cannot be null!");
+        }
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Number of partitions cannot be less than 1!");
+        }
+        if (ringSize < 1 || Integer.bitCount(ringSize) != 1) {
+            throw new IllegalArgumentException("Ring size must be a power of 2!");
+        }
+        this.theater = theater;
+        this.completionExecutor = completionExecutor;
+        this.partitions = new Partition[partitions];
+        for (int i = 0; i < partitions; i++) {
+            this.partitions[i] = new Partition(i, ringSize);
+        }
+        for (Partition partition : this.partitions) {
+            partition.writer.start();
+        }
+    }
+
+    /**
+     * @return the number of partitions
+     */
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    /**
+     * Method to reserve in the showing with the given date, auditorium, and sequence, on the writer of the showing's partition
+     * @param customer - customer initiating reservation request
+     * @param date - the date of the selected showing
+     * @param auditorium - the auditorium of the selected showing
+     * @param sequence - the selected showing sequence
+     * @param ticketAmount - the requested party size of the reservation
+     * @return the future reservation, completed exceptionally with the exception the theater would throw
+     */
+    public CompletableFuture<Reservation> createReservation(Customer customer, LocalDate date, int auditorium, int sequence, int ticketAmount) {
+        if (date == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Showing date cannot be null!"));
+        }
+        return createReservation(new ReservationRequest(customer, date, auditorium, sequence, ticketAmount));
+    }
+
+    /**
+     * Method to reserve on the writer of the requested showing's partition
+     * @param request - the reservation asked for
+     * @return the future reservation, completed exceptionally with the exception the theater would throw
+     */
+    public CompletableFuture<Reservation> createReservation(ReservationRequest request) {
+        if (request == null || request.getShowingKey() == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Reservation request and its showing cannot be null!"));
+        }
+        CompletableFuture<Reservation> future = new CompletableFuture<>();
+        Partition partition = partitions[Math.floorMod(request.getShowingKey().hashCode(), partitions.length)];
+        if (!partition.publish(request, future)) {
+            future.completeExceptionally(new IllegalStateException("Reservation engine is closed!"));
+        }
+        return future;
+    }
+
+    /**
+     * Stops taking commands, waits for the writers to apply the commands already claimed, and stops the writers.
+     */
+    @Override
+    public void close() {
+        for (Partition partition : partitions) {
+            long lastClaimed = partition.claimed.getAndSet(CLOSED);
+            if (lastClaimed != CLOSED) {
+                partition.lastSequence = lastClaimed;
+            }
+        }
+        boolean interrupted = false;
+        for (Partition partition : partitions) {
+            LockSupport.unpark(partition.writer);
+            while (partition.writer.isAlive()) {
+                try {
+                    partition.writer.join();
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Ring of commands of one partition with its writer. A slot holds the command of sequence s once published[s % size] is s;
+     * callers may reuse the slot of sequence s once the writer applied sequence s - size.
+     */
+    private final class Partition implements Runnable {
+        private final ReservationRequest[] requests;
+        private final Object[] futures;
+        private final AtomicLongArray published;
+        private final int mask;
+        private final AtomicLong claimed = new AtomicLong(-1);
+        private final AtomicLong applied = new AtomicLong(-1);
+        private final Thread writer;
+        private volatile boolean writerParked;
+        private volatile long lastSequence = Long.MAX_VALUE;
+
+        private Partition(int index, int ringSize) {
+            this.requests = new ReservationRequest[ringSize];
+            this.futures = new Object[ringSize];
+            this.published = new AtomicLongArray(ringSize);
+            for (int i = 0; i < ringSize; i++) {
+                published.set(i, -1);
+            }
+            this.mask = ringSize - 1;
+            this.writer = new Thread(this, "reservation-engine-" + index);
+            this.writer.setDaemon(true);
+        }
+
+        /**
+         * This method claims the next slot, waiting for the writer to free it if the ring is full, and publishes the command in it.
+         * @return false if the engine is closed
+         */
+        private boolean publish(ReservationRequest request, CompletableFuture<Reservation> future) {
+            long sequence;
+            do {
+                sequence = claimed.get();
+                if (sequence == CLOSED) {
+                    return false;
+                }
+            } while (!claimed.compareAndSet(sequence, sequence + 1));
+            sequence++;
+            while (sequence - requests.length > applied.get()) {
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            int slot = (int) sequence & mask;
+            requests[slot] = request;
+            futures[slot] = future;
+            published.set(slot, sequence);
+            if (writerParked) {
+                LockSupport.unpark(writer);
+            }
+            return true;
+        }
+
+        @Override
+        public void run() {
+            List<ReservationRequest> batch = new ArrayList<>(MAX_BATCH);
+            while (true) {
+                long next = applied.get() + 1;
+                long last = next - 1;
+                while (last - next + 1 < MAX_BATCH && published.get((int) (last + 1) & mask) == last + 1) {
+                    last++;
+                }
+                if (last < next) {
+                    // commands claimed before close may still be filled in, so stop only once every one of them is applied
+                    if (next > lastSequence) {
+                        return;
+                    }
+                    // a caller publishing after this check sees writerParked and unparks the writer, close unparks it too
+                    writerParked = true;
+                    if (published.get((int) next & mask) != next && next <= lastSequence) {
+                        LockSupport.park(this);
+                    }
+                    writerParked = false;
+                    continue;
+                }
+                apply(next, last, batch);
+            }
+        }
+
+        /**
+         * This method applies the commands of the sequences as one batch and hands their futures to the completion executor.
+         * Whatever the theater throws, Errors included, fails the futures of the batch and leaves the writer running.
+         */
+        @SuppressWarnings("unchecked")
+        private void apply(long first, long last, List<ReservationRequest> batch) {
+            batch.clear();
+            List<CompletableFuture<Reservation>> batchFutures = new ArrayList<>((int) (last - first + 1));
+            for (long sequence = first; sequence <= last; sequence++) {
+                int slot = (int) sequence & mask;
+                batch.add(requests[slot]);
+                batchFutures.add((CompletableFuture<Reservation>) futures[slot]);
+            }
+            List<ReservationResult> results;
+            Throwable failure = null;
+            try {
+                results = theater.createReservations(batch);
+            } catch (Throwable ex) {
+                results = null;
+                failure = ex;
+            }
+            for (long sequence = first; sequence <= last; sequence++) {
+                int slot = (int) sequence & mask;
+                requests[slot] = null;
+                futures[slot] = null;
+            }
+            applied.set(last);
+
+            List<ReservationResult> batchResults = results;
+            Throwable batchFailure = failure;
+            try {
+                completionExecutor.execute(() -> complete(batchFutures, batchResults, batchFailure));
+            } catch (RejectedExecutionException ex) {
+                complete(batchFutures, batchResults, batchFailure);
+            }
+        }
+    }
+
+    private static void complete(List<CompletableFuture<Reservation>> futures, List<ReservationResult> results, Throwable failure) {
+        for (int i = 0; i < futures.size(); i++) {
+            ReservationResult result = results == null ? null : results.get(i);
+            if (result == null) {
+                futures.get(i).completeExceptionally(failure);
+            } else if (result.isSuccess()) {
+                futures.get(i).complete(result.getReservation());
+            } else {
+                futures.get(i).completeExceptionally(result.getFailure());
+            }
+        }
+    }
+}
@@ -0,0 +1,650 @@
+package com.jpmc.theater;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * This class is an append-only journal of reservations, kept in memory-mapped segment files of fixed-size binary records.
+ * Appending a reservation is a copy of its records into the mapped segment under a short lock; making records durable
+ * is a separate group commit: the first thread to sync forces every record appended so far, and the threads that were
+ * waiting behind it find their records already durable, so concurrent reservations share one fsync.
+ * <p>
+ * Every record holds a CRC32 of its content and a log sequence number (LSN) following the previous record without gaps.
+ * When a journal is opened, segments are scanned up to the first record that is missing, out of sequence, or fails its CRC,
+ * which is where a crash tore the tail of the log; everything from there on is wiped and appends resume at that LSN.
+ * <p>
+ * Record layout (big-endian):
+ * <pre>
+ *   0 int   CRC32 of bytes 4 to 255
+ *   4 long  LSN
+ *  12 long  reservation id
+ *  20 long  showing date, as epoch day
+ *  28 int   auditorium
+ *  32 int   sequence of the day
+ *  36 int   audience count
+ *  40 byte  number of seat runs
+ *  41 byte  flags
+ *  42 short customer name length in bytes (0xFFFF for null)
+ *  44 short customer id length in bytes (0xFFFF for null)
+ *  46       8 seat runs of (short row, short first seat number, short length)
+ *  94       UTF-8 customer name then customer id, the first 162 bytes
+ * </pre>
+ * Customer bytes past the first 162 go to continuation records right after the reservation record, flagged as such,
+ * 214 bytes from offset 42 each. The records of a reservation never straddle two segments: when they do not fit the rest
+ * of the segment appended to, its free slots are filled with padding records and the reservation starts a new segment.
+ * A reservation whose sync failed is marked aborted in place (a flag of its first record, with the CRC updated),
+ * so replay skips it and it does not come back after a restart.
+ *
+ * @author coder050519123
+ */
+public final class ReservationJournal implements Closeable {
+    /**
+     * Size of a journal record in bytes.
+     */
+    public static final int RECORD_SIZE = 256;
+
+    /**
+     * Number of records of a segment when none is provided, 64 MiB segments.
+     */
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 18;
+
+    private static final int CRC_OFFSET = 0;
+    private static final int LSN_OFFSET = 4;
+    private static final int RESERVATION_ID_OFFSET = 12;
+    private static final int EPOCH_DAY_OFFSET = 20;
+    private static final int AUDITORIUM_OFFSET = 28;
+    private static final int SEQUENCE_OFFSET = 32;
+    private static final int AUDIENCE_COUNT_OFFSET = 36;
+    private static final int SEAT_RUN_COUNT_OFFSET = 40;
+    private static final int FLAGS_OFFSET = 41;
+    private static final int NAME_LENGTH_OFFSET = 42;
+    private static final int ID_LENGTH_OFFSET = 44;
+    private static final int SEAT_RUNS_OFFSET = 46;
+    private static final int SEAT_RUN_SIZE = 6;
+    private static final int MAX_SEAT_RUNS = 8;
+    private static final int CUSTOMER_OFFSET = SEAT_RUNS_OFFSET + MAX_SEAT_RUNS * SEAT_RUN_SIZE;
+    private static final int MAX_CUSTOMER_BYTES = RECORD_SIZE - CUSTOMER_OFFSET;
+    private static final int CONTINUATION_DATA_OFFSET = FLAGS_OFFSET + 1;
+    private static final int CONTINUATION_BYTES = RECORD_SIZE - CONTINUATION_DATA_OFFSET;
+    private static final int NULL_STRING_LENGTH = 0xFFFF;
+    private static final int MAX_STRING_BYTES = NULL_STRING_LENGTH - 1;
+    private static final int MAX_SEAT_RUN_VALUE = 0xFFFF;
+    private static final byte FLAG_SEATS_NOT_RECORDED = 1;
+    private static final byte FLAG_CONTINUATION = 2;
+    private static final byte FLAG_PADDING = 4;
+    private static final byte FLAG_ABORTED = 8;
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final long recoveredRecordCount;
+    private final SegmentForcer forcer;
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+    /**
+     * Segments that may hold records not forced to disk yet, the last one being the segment appended to. Guarded by appendLock.
+     */
+    private final List<Segment> unsyncedSegments = new ArrayList<>();
+    private long nextLsn;
+    private boolean closed;
+    private volatile long durableLsn;
+
+    /**
+     * Opens the journal of the directory with DEFAULT_RECORDS_PER_SEGMENT records per new segment, creating it if needed.
+     * @param directory - the directory of the segment files
+     * @throws IOException if the directory or a segment cannot be read or written
+     */
+    public ReservationJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    /**
+     * Opens the journal of the directory, creating it if needed, and truncates its torn tail if the last run crashed mid-write.
+     * @param directory - the directory of the segment files
+     * @param recordsPerSegment - the number of records of each new segment file
+     * @throws IllegalArgumentException if the directory is null or the number of records per segment is less than 1
+     * @throws IOException if the directory or a segment cannot be read or written
+     */
+    public ReservationJournal(Path directory, int recordsPerSegment) throws IOException {
+        this(directory, recordsPerSegment, MappedByteBuffer::force);
+    }
+
+    ReservationJournal(Path directory, int recordsPerSegment, SegmentForcer forcer) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("Journal directory cannot be null!");
+        }
+        if (recordsPerSegment <= 0 || recordsPerSegment > Integer.MAX_VALUE / RECORD_SIZE) {
+            throw new IllegalArgumentException("Records per segment must be between 1 and " + Integer.MAX_VALUE / RECORD_SIZE + "!");
+        }
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.forcer = forcer;
+        Files.createDirectories(directory);
+
+        long expectedLsn = 1;
+        Segment tail = null;
+        List<Path> segmentFiles = listSegmentFiles(directory);
+        for (int i = 0; i < segmentFiles.size(); i++) {
+            Path segmentFile = segmentFiles.get(i);
+            if (firstLsnOf(segmentFile) != expectedLsn) {
+                deleteAll(segmentFiles.subList(i, segmentFiles.size()));
+                break;
+            }
+            Segment segment = Segment.open(segmentFile, expectedLsn);
+            if (segment.capacity == 0) {
+                segment.close();
+                deleteAll(segmentFiles.subList(i, segmentFiles.size()));
+                break;
+            }
+            int validRecords = segment.countCompleteRecords(segment.countValidRecords());
+            expectedLsn += validRecords;
+            if (validRecords < segment.capacity) {
+                segment.wipeFrom(validRecords);
+                deleteAll(segmentFiles.subList(i + 1, segmentFiles.size()));
+                tail = segment;
+                break;
+            }
+            segment.close();
+        }
+        if (tail == null) {
+            tail = Segment.create(directory, expectedLsn, recordsPerSegment);
+        }
+        this.unsyncedSegments.add(tail);
+        this.nextLsn = expectedLsn;
+        this.recoveredRecordCount = expectedLsn - 1;
+        this.durableLsn = expectedLsn - 1;
+    }
+
+    /**
+     * @return the number of valid records found in the journal when it was opened
+     */
+    public long getRecoveredRecordCount() {
+        return recoveredRecordCount;
+    }
+
+    /**
+     * @return the LSN of the last appended record, 0 if the journal is empty
+     */
+    public long getLastLsn() {
+        synchronized (appendLock) {
+            return nextLsn - 1;
+        }
+    }
+
+    /**
+     * @return the LSN up to which records are known to be on disk
+     */
+    public long getDurableLsn() {
+        return durableLsn;
+    }
+
+    /**
+     * This method appends a reservation to the journal. The records are visible to replay right away,
+     * but only survive a crash of the machine once sync has been called with the returned LSN.
+     *
+     * @param reservation - the reservation to record, with the id the theater gave it
+     * @return the LSN of the last record of the reservation, the one to sync
+     * @throws IllegalArgumentException if the reservation is null, has no showing key, its customer name or id is longer than
+     * 65534 bytes in UTF-8, or its records do not fit a segment
+     * @throws IllegalStateException if the journal is closed
+     * @throws IOException if a new segment cannot be created
+     */
+    public long append(Reservation reservation) throws IOException {
+        byte[] records = encode(reservation);
+        int recordCount = records.length / RECORD_SIZE;
+        if (recordCount > recordsPerSegment) {
+            throw new IllegalArgumentException("Customer name and id do not fit a journal segment of " + recordsPerSegment + " records!");
+        }
+        CRC32 crc = new CRC32();
+        synchronized (appendLock) {
+            ensureOpen();
+            Segment segment = unsyncedSegments.get(unsyncedSegments.size() - 1);
+            if (segment.getFreeRecords() < recordCount) {
+                byte[] padding = new byte[RECORD_SIZE];
+                padding[FLAGS_OFFSET] = FLAG_PADDING;
+                while (segment.getFreeRecords() > 0) {
+                    put(segment, padding, 0, nextLsn++, crc);
+                }
+                segment = Segment.create(directory, nextLsn, recordsPerSegment);
+                unsyncedSegments.add(segment);
+            }
+            for (int offset = 0; offset < records.length; offset += RECORD_SIZE) {
+                put(segment, records, offset, nextLsn++, crc);
+            }
+            return nextLsn - 1;
+        }
+    }
+
+    /**
+     * This method marks an appended reservation as aborted, so replay skips it and it is not restored after a restart.
+     * It is meant for reservations whose sync failed: their records may reach the disk anyway, and must not come back
+     * once their seats have been given back. The mark is forced to disk before the method returns.
+     *
+     * @param lsn - the LSN append returned for the reservation
+     * @throws IllegalArgumentException if no record was appended with the LSN
+     * @throws IllegalStateException if the journal is closed
+     * @throws IOException if the segment of the reservation cannot be read or forced to disk
+     */
+    public void abort(long lsn) throws IOException {
+        Segment segment = null;
+        boolean opened = false;
+        synchronized (appendLock) {
+            ensureOpen();
+            if (lsn <= 0 || lsn >= nextLsn) {
+                throw new IllegalArgumentException("No record was appended with LSN " + lsn + "!");
+            }
+            for (Segment unsynced : unsyncedSegments) {
+                if (unsynced.firstLsn <= lsn) {
+                    segment = unsynced;
+                }
+            }
+            if (segment == null) {
+                // the segment was sealed and closed by a sync in the meantime
+                Path segmentFile = null;
+                for (Path file : listSegmentFiles(directory)) {
+                    if (firstLsnOf(file) <= lsn) {
+                        segmentFile = file;
+                    }
+                }
+                segment = Segment.open(segmentFile, firstLsnOf(segmentFile));
+                opened = true;
+            }
+            segment.markAborted(lsn);
+        }
+        try {
+            forcer.force(segment.buffer);
+        } finally {
+            if (opened) {
+                segment.close();
+            }
+        }
+    }
+
+    /**
+     * This method makes every record up to the given LSN durable, sharing one fsync with the threads syncing at the same time.
+     *
+     * @param lsn - the LSN that must be on disk when the method returns
+     * @throws IllegalStateException if the journal is closed
+     * @throws IOException if the segments cannot be forced to disk
+     */
+    public void sync(long lsn) throws IOException {
+        if (durableLsn >= lsn) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableLsn >= lsn) {
+                return;
+            }
+            long syncedLsn;
+            List<Segment> segmentsToForce;
+            synchronized (appendLock) {
+                ensureOpen();
+                syncedLsn = nextLsn - 1;
+                segmentsToForce = new ArrayList<>(unsyncedSegments);
+            }
+            for (Segment segment : segmentsToForce) {
+                forcer.force(segment.buffer);
+            }
+            synchronized (appendLock) {
+                // sealed segments are complete on disk now, only the segment appended to stays open
+                while (unsyncedSegments.size() > 1 && segmentsToForce.contains(unsyncedSegments.get(0))) {
+                    unsyncedSegments.remove(0).close();
+                }
+            }
+            durableLsn = syncedLsn;
+        }
+    }
+
+    /**
+     * This method reads every reservation of the journal in LSN order, to rebuild state at startup. Aborted reservations are skipped.
+     *
+     * @param consumer - the consumer of the records
+     * @return the number of records passed to the consumer
+     * @throws IllegalStateException if the journal is closed
+     * @throws IOException if a segment cannot be read
+     */
+    public long replay(Consumer<? super JournalRecord> consumer) throws IOException {
+        long lastLsn;
+        synchronized (appendLock) {
+            ensureOpen();
+            lastLsn = nextLsn - 1;
+        }
+        long lsn = 1;
+        long replayed = 0;
+        for (Path segmentFile : listSegmentFiles(directory)) {
+            if (lsn > lastLsn) {
+                break;
+            }
+            try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                for (int offset = 0; offset + RECORD_SIZE <= buffer.capacity() && lsn <= lastLsn; offset += RECORD_SIZE, lsn++) {
+                    if ((buffer.get(offset + FLAGS_OFFSET) & (FLAG_CONTINUATION | FLAG_PADDING | FLAG_ABORTED)) == 0) {
+                        consumer.accept(decode(buffer, offset));
+                        replayed++;
+                    }
+                }
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Forces every appended record to disk and closes the segments.
+     * @throws IOException if the segments cannot be forced to disk
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (appendLock) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                for (Segment segment : unsyncedSegments) {
+                    forcer.force(segment.buffer);
+                    segment.close();
+                }
+                unsyncedSegments.clear();
+                durableLsn = nextLsn - 1;
+            }
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Reservation journal is closed!");
+        }
+    }
+
+    private static byte[] encode(Reservation reservation) {
+        if (reservation == null || reservation.getShowing() == null || reservation.getShowing().getShowingKey() == null) {
+            throw new IllegalArgumentException("Only reservations of scheduled showings can be journaled!");
+        }
+        Customer customer = reservation.getCustomer();
+        byte[] name = customer == null || customer.getName() == null ? null : customer.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] id = customer == null || customer.getId() == null ? null : customer.getId().getBytes(StandardCharsets.UTF_8);
+        int nameLength = name == null ? 0 : name.length;
+        int idLength = id == null ? 0 : id.length;
+        if (nameLength > MAX_STRING_BYTES || idLength > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Customer name and id cannot be longer than " + MAX_STRING_BYTES + " bytes in UTF-8!");
+        }
+
+        int continuations = continuationsOf(nameLength + idLength);
+        byte[] records = new byte[(1 + continuations) * RECORD_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(records);
+        ShowingKey key = reservation.getShowing().getShowingKey();
+        buffer.putLong(RESERVATION_ID_OFFSET, reservation.getReservationId());
+        buffer.putLong(EPOCH_DAY_OFFSET, key.getDate().toEpochDay());
+        buffer.putInt(AUDITORIUM_OFFSET, key.getAuditorium());
+        buffer.putInt(SEQUENCE_OFFSET, key.getSequenceOfTheDay());
+        buffer.putInt(AUDIENCE_COUNT_OFFSET, reservation.getAudienceCount());
+        int seatRuns = encodeSeatRuns(reservation.getSeats(), buffer);
+        if (seatRuns < 0) {
+            buffer.put(FLAGS_OFFSET, FLAG_SEATS_NOT_RECORDED);
+        } else {
+            buffer.put(SEAT_RUN_COUNT_OFFSET, (byte) seatRuns);
+        }
+        buffer.putShort(NAME_LENGTH_OFFSET, (short) (name == null ? NULL_STRING_LENGTH : name.length));
+        buffer.putShort(ID_LENGTH_OFFSET, (short) (id == null ? NULL_STRING_LENGTH : id.length));
+        byte[] customerBytes = new byte[nameLength + idLength];
+        if (name != null) {
+            System.arraycopy(name, 0, customerBytes, 0, nameLength);
+        }
+        if (id != null) {
+            System.arraycopy(id, 0, customerBytes, nameLength, idLength);
+        }
+        int copied = Math.min(customerBytes.length, MAX_CUSTOMER_BYTES);
+        System.arraycopy(customerBytes, 0, records, CUSTOMER_OFFSET, copied);
+        for (int offset = RECORD_SIZE; offset < records.length; offset += RECORD_SIZE) {
+            int length = Math.min(customerBytes.length - copied, CONTINUATION_BYTES);
+            records[offset + FLAGS_OFFSET] = FLAG_CONTINUATION;
+            System.arraycopy(customerBytes, copied, records, offset + CONTINUATION_DATA_OFFSET, length);
+            copied += length;
+        }
+        return records;
+    }
+
+    /**
+     * This method stamps a record with its LSN and CRC and writes it at the append position of the segment.
+     */
+    private static void put(Segment segment, byte[] records, int offset, long lsn, CRC32 crc) {
+        ByteBuffer record = ByteBuffer.wrap(records);
+        record.putLong(offset + LSN_OFFSET, lsn);
+        crc.reset();
+        crc.update(records, offset + LSN_OFFSET, RECORD_SIZE - LSN_OFFSET);
+        record.putInt(offset + CRC_OFFSET, (int) crc.getValue());
+        segment.buffer.put(records, offset, RECORD_SIZE);
+    }
+
+    /**
+     * @return the number of continuation records holding the customer bytes that do not fit the reservation record
+     */
+    private static int continuationsOf(int customerBytes) {
+        return customerBytes <= MAX_CUSTOMER_BYTES ? 0 : (customerBytes - MAX_CUSTOMER_BYTES + CONTINUATION_BYTES - 1) / CONTINUATION_BYTES;
+    }
+
+    private static int customerBytesOf(ByteBuffer buffer, int offset) {
+        int nameLength = Short.toUnsignedInt(buffer.getShort(offset + NAME_LENGTH_OFFSET));
+        int idLength = Short.toUnsignedInt(buffer.getShort(offset + ID_LENGTH_OFFSET));
+        return (nameLength == NULL_STRING_LENGTH ? 0 : nameLength) + (idLength == NULL_STRING_LENGTH ? 0 : idLength);
+    }
+
+    /**
+     * This method writes the seats as runs of consecutive seats of a row.
+     * @return the number of runs, or -1 if the seats do not fit the record
+     */
+    private static int encodeSeatRuns(List<Seat> seats, ByteBuffer buffer) {
+        int runs = 0;
+        int runStart = 0;
+        for (int i = 1; i <= seats.size(); i++) {
+            if (i < seats.size() && seats.get(i).getRow() == seats.get(i - 1).getRow() && seats.get(i).getNumber() == seats.get(i - 1).getNumber() + 1) {
+                continue;
+            }
+            Seat first = seats.get(runStart);
+            int length = i - runStart;
+            if (runs == MAX_SEAT_RUNS || first.getRow() > MAX_SEAT_RUN_VALUE || first.getNumber() > MAX_SEAT_RUN_VALUE || length > MAX_SEAT_RUN_VALUE) {
+                return -1;
+            }
+            int offset = SEAT_RUNS_OFFSET + runs * SEAT_RUN_SIZE;
+            buffer.putShort(offset, (short) first.getRow());
+            buffer.putShort(offset + 2, (short) first.getNumber());
+            buffer.putShort(offset + 4, (short) length);
+            runs++;
+            runStart = i;
+        }
+        return runs;
+    }
+
+    private static JournalRecord decode(ByteBuffer buffer, int offset) {
+        ShowingKey key = new ShowingKey(LocalDate.ofEpochDay(buffer.getLong(offset + EPOCH_DAY_OFFSET)),
+                buffer.getInt(offset + AUDITORIUM_OFFSET), buffer.getInt(offset + SEQUENCE_OFFSET));
+        List<Seat> seats = new ArrayList<>();
+        if ((buffer.get(offset + FLAGS_OFFSET) & FLAG_SEATS_NOT_RECORDED) == 0) {
+            int runs = buffer.get(offset + SEAT_RUN_COUNT_OFFSET);
+            for (int run = 0; run < runs; run++) {
+                int runOffset = offset + SEAT_RUNS_OFFSET + run * SEAT_RUN_SIZE;
+                int row = Short.toUnsignedInt(buffer.getShort(runOffset));
+                int firstNumber = Short.toUnsignedInt(buffer.getShort(runOffset + 2));
+                int length = Short.toUnsignedInt(buffer.getShort(runOffset + 4));
+                for (int number = firstNumber; number < firstNumber + length; number++) {
+                    seats.add(new Seat(row, number));
+                }
+            }
+        }
+        int nameLength = Short.toUnsignedInt(buffer.getShort(offset + NAME_LENGTH_OFFSET));
+        int idLength = Short.toUnsignedInt(buffer.getShort(offset + ID_LENGTH_OFFSET));
+        byte[] customerBytes = new byte[customerBytesOf(buffer, offset)];
+        int copied = Math.min(customerBytes.length, MAX_CUSTOMER_BYTES);
+        buffer.duplicate().position(offset + CUSTOMER_OFFSET).get(customerBytes, 0, copied);
+        for (int continuationOffset = offset + RECORD_SIZE; copied < customerBytes.length; continuationOffset += RECORD_SIZE) {
+            int length = Math.min(customerBytes.length - copied, CONTINUATION_BYTES);
+            buffer.duplicate().position(continuationOffset + CONTINUATION_DATA_OFFSET).get(customerBytes, copied, length);
+            copied += length;
+        }
+        String name = decodeString(customerBytes, 0, nameLength);
+        String id = decodeString(customerBytes, nameLength == NULL_STRING_LENGTH ? 0 : nameLength, idLength);
+        return new JournalRecord(buffer.getLong(offset + LSN_OFFSET), buffer.getLong(offset + RESERVATION_ID_OFFSET), key,
+                buffer.getInt(offset + AUDIENCE_COUNT_OFFSET), List.copyOf(seats), name, id);
+    }
+
+    private static String decodeString(byte[] bytes, int offset, int length) {
+        return length == NULL_STRING_LENGTH ? null : new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private static List<Path> listSegmentFiles(Path directory) throws IOException {
+        List<Path> segmentFiles = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            files.forEach(segmentFiles::add);
+        }
+        // names are zero padded first LSNs, so name order is LSN order
+        segmentFiles.sort(null);
+        return segmentFiles;
+    }
+
+    private static long firstLsnOf(Path segmentFile) {
+        String name = segmentFile.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private static void deleteAll(List<Path> segmentFiles) throws IOException {
+        for (Path segmentFile : segmentFiles) {
+            Files.deleteIfExists(segmentFile);
+        }
+    }
+
+    /**
+     * Forces a mapped segment to disk, MappedByteBuffer.force outside of tests standing in a failing disk.
+     */
+    interface SegmentForcer {
+        void force(MappedByteBuffer segment) throws IOException;
+    }
+
+    /**
+     * Segment file mapped in memory, appended to through the position of its buffer.
+     */
+    private static final class Segment {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final long firstLsn;
+        private final int capacity;
+
+        private Segment(FileChannel channel, MappedByteBuffer buffer, long firstLsn) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.firstLsn = firstLsn;
+            this.capacity = buffer.capacity() / RECORD_SIZE;
+        }
+
+        private static Segment create(Path directory, long firstLsn, int recordsPerSegment) throws IOException {
+            Path segmentFile = directory.resolve(String.format("%020d%s", firstLsn, SEGMENT_SUFFIX));
+            FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE), firstLsn);
+        }
+
+        private static Segment open(Path segmentFile, long firstLsn) throws IOException {
+            FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = Math.min(channel.size(), (long) Integer.MAX_VALUE / RECORD_SIZE * RECORD_SIZE);
+            return new Segment(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size / RECORD_SIZE * RECORD_SIZE), firstLsn);
+        }
+
+        private int getFreeRecords() {
+            return capacity - buffer.position() / RECORD_SIZE;
+        }
+
+        /**
+         * @return the number of records from the start of the segment with the expected LSN and a valid CRC
+         */
+        private int countValidRecords() {
+            ByteBuffer view = buffer.duplicate();
+            CRC32 crc = new CRC32();
+            for (int record = 0; record < capacity; record++) {
+                int offset = record * RECORD_SIZE;
+                if (buffer.getLong(offset + LSN_OFFSET) != firstLsn + record) {
+                    return record;
+                }
+                crc.reset();
+                view.limit(offset + RECORD_SIZE).position(offset + LSN_OFFSET);
+                crc.update(view);
+                if ((int) crc.getValue() != buffer.getInt(offset + CRC_OFFSET)) {
+                    return record;
+                }
+            }
+            return capacity;
+        }
+
+        /**
+         * @return the number of records from the start of the segment up to the last reservation whose continuation records
+         * are all among the given valid records, as a torn tail may end in the middle of a reservation
+         */
+        private int countCompleteRecords(int validRecords) {
+            int record = 0;
+            while (record < validRecords) {
+                int offset = record * RECORD_SIZE;
+                boolean reservation = (buffer.get(offset + FLAGS_OFFSET) & (FLAG_CONTINUATION | FLAG_PADDING)) == 0;
+                int length = reservation ? 1 + continuationsOf(customerBytesOf(buffer, offset)) : 1;
+                if (record + length > validRecords) {
+                    break;
+                }
+                record += length;
+            }
+            return record;
+        }
+
+        /**
+         * This method flags the reservation owning the record with the given LSN as aborted and updates the CRC of its first record.
+         */
+        private void markAborted(long lsn) {
+            int record = (int) (lsn - firstLsn);
+            while (record > 0 && (buffer.get(record * RECORD_SIZE + FLAGS_OFFSET) & FLAG_CONTINUATION) != 0) {
+                record--;
+            }
+            int offset = record * RECORD_SIZE;
+            buffer.put(offset + FLAGS_OFFSET, (byte) (buffer.get(offset + FLAGS_OFFSET) | FLAG_ABORTED));
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().limit(offset + RECORD_SIZE).position(offset + LSN_OFFSET));
+            buffer.putInt(offset + CRC_OFFSET, (int) crc.getValue());
+        }
+
+        /**
+         * This method zeroes every record slot from the given one that is not blank, so no stale record
+         * of a torn tail can be mistaken for a valid one after later appends, and resumes appending there.
+         */
+        private void wipeFrom(int firstRecord) {
+            byte[] blank = new byte[RECORD_SIZE];
+            boolean wiped = false;
+            for (int record = firstRecord; record < capacity; record++) {
+                int offset = record * RECORD_SIZE;
+                if (buffer.getLong(offset + LSN_OFFSET) != 0 || buffer.getInt(offset + CRC_OFFSET) != 0) {
+                    buffer.position(offset);
+                    buffer.put(blank);
+                    wiped = true;
+                }
+            }
+            if (wiped) {
+                buffer.force();
+            }
+            buffer.position(firstRecord * RECORD_SIZE);
+        }
+
+        private void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.jpmc.theater;
+
+import java.util.List;
+
+/**
+ * This class represents one page of a customer's reservations, ordered by show time,
+ * with the cursor to pass to get the page after it.
+ *
+ * @author coder050519123
+ */
+public final class ReservationPage {
+    private final List<Reservation> reservations;
+    private final long nextCursor;
+    private final boolean hasMore;
+
+    ReservationPage(List<Reservation> reservations, long nextCursor, boolean hasMore) {
+        this.reservations = reservations;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * @return the reservations of the page, ordered by show time then reservation id
+     */
+    public List<Reservation> getReservations() {
+        return reservations;
+    }
+
+    /**
+     * @return the cursor of the page after this one, stable while reservations are added
+     */
+    public long getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @return true if the customer had more reservations after this page when it was read
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
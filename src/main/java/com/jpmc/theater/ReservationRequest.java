@@ -0,0 +1,66 @@
+package com.jpmc.theater;
+
+import java.time.LocalDate;
+
+/**
+ * This class represents one reservation asked for in a batch: the customer, the showing, and the party size.
+ * Requests are not validated when created; the theater validates the whole batch and reports invalid requests in their results.
+ *
+ * @author coder050519123
+ */
+public final class ReservationRequest {
+    private final Customer customer;
+    private final ShowingKey showingKey;
+    private final int ticketAmount;
+
+    /**
+     * Constructs a new ReservationRequest.
+     * @param customer - customer initiating the reservation request
+     * @param showingKey - the key of the selected showing
+     * @param ticketAmount - the requested party size of the reservation
+     */
+    public ReservationRequest(Customer customer, ShowingKey showingKey, int ticketAmount) {
+        this.customer = customer;
+        this.showingKey = showingKey;
+        this.ticketAmount = ticketAmount;
+    }
+
+    /**
+     * Constructs a new ReservationRequest for the showing with the given date, auditorium, and sequence.
+     * @param customer - customer initiating the reservation request
+     * @param date - the date of the selected showing
+     * @param auditorium - the auditorium of the selected showing
+     * @param sequence - the selected showing sequence
+     * @param ticketAmount - the requested party size of the reservation
+     * @throws IllegalArgumentException if the date is null
+     */
+    public ReservationRequest(Customer customer, LocalDate date, int auditorium, int sequence, int ticketAmount) {
+        this(customer, new ShowingKey(date, auditorium, sequence), ticketAmount);
+    }
+
+    /**
+     * @return the customer initiating the reservation request
+     */
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    /**
+     * @return the key of the selected showing
+     */
+    public ShowingKey getShowingKey() {
+        return showingKey;
+    }
+
+    /**
+     * @return the requested party size of the reservation
+     */
+    public int getTicketAmount() {
+        return ticketAmount;
+    }
+
+    @Override
+    public String toString() {
+        return "ReservationRequest {customer=" + customer + ", showing=" + showingKey + ", ticketAmount=" + ticketAmount + '}';
+    }
+}
@@ -0,0 +1,62 @@
+package com.jpmc.theater;
+
+/**
+ * This class represents the outcome of one request of a reservation batch: either the reservation made,
+ * or the exception a single createReservation call would have thrown for the request.
+ *
+ * @author coder050519123
+ */
+public final class ReservationResult {
+    private final ReservationRequest request;
+    private final Reservation reservation;
+    private final RuntimeException failure;
+
+    private ReservationResult(ReservationRequest request, Reservation reservation, RuntimeException failure) {
+        this.request = request;
+        this.reservation = reservation;
+        this.failure = failure;
+    }
+
+    static ReservationResult success(ReservationRequest request, Reservation reservation) {
+        return new ReservationResult(request, reservation, null);
+    }
+
+    static ReservationResult failure(ReservationRequest request, RuntimeException failure) {
+        return new ReservationResult(request, null, failure);
+    }
+
+    /**
+     * @return the request this is the outcome of
+     */
+    public ReservationRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @return true if the reservation was made
+     */
+    public boolean isSuccess() {
+        return reservation != null;
+    }
+
+    /**
+     * @return the reservation made, null if the request failed
+     */
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    /**
+     * @return why the request failed, null if the reservation was made
+     */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess()
+                ? "ReservationResult {reservation=" + reservation.getReservationId() + ", request=" + request + '}'
+                : "ReservationResult {failure=" + failure.getMessage() + ", request=" + request + '}';
+    }
+}
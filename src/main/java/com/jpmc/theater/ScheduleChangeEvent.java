@@ -0,0 +1,63 @@
+package com.jpmc.theater;
+
+/**
+ * This class represents one change made to a theater schedule, with the schedule version it produced.
+ * Versions increase by 1 with every change, so a consumer that applied every event up to version N
+ * is up to date once it applies the events after N.
+ *
+ * @author coder050519123
+ */
+public final class ScheduleChangeEvent {
+    private final long version;
+    private final ScheduleChangeType type;
+    private final Showing showing;
+    private final ShowingKey previousShowingKey;
+
+    ScheduleChangeEvent(long version, ScheduleChangeType type, Showing showing, ShowingKey previousShowingKey) {
+        this.version = version;
+        this.type = type;
+        this.showing = showing;
+        this.previousShowingKey = previousShowingKey;
+    }
+
+    /**
+     * @return the schedule version after the change
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the kind of change
+     */
+    public ScheduleChangeType getType() {
+        return type;
+    }
+
+    /**
+     * @return the added, cancelled, or retimed showing (as scheduled after the change), null when the whole schedule was replaced
+     */
+    public Showing getShowing() {
+        return showing;
+    }
+
+    /**
+     * @return the key of the changed showing after the change, null when the whole schedule was replaced
+     */
+    public ShowingKey getShowingKey() {
+        return showing == null ? null : showing.getShowingKey();
+    }
+
+    /**
+     * @return the key of a retimed showing before the change, null for other changes
+     */
+    public ShowingKey getPreviousShowingKey() {
+        return previousShowingKey;
+    }
+
+    @Override
+    public String toString() {
+        return "ScheduleChangeEvent {version=" + version + ", type=" + type + ", showing=" + getShowingKey() +
+                (previousShowingKey == null ? "" : ", previousShowing=" + previousShowingKey) + '}';
+    }
+}
@@ -0,0 +1,69 @@
+package com.jpmc.theater;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class keeps the most recent changes made to a theater schedule in a fixed size ring, so consumers can catch up
+ * from the version they last applied without reloading the whole schedule. Memory stays bounded by the capacity:
+ * a consumer that fell further behind than the ring reaches is told to reload the schedule with a single REPLACED event.
+ *
+ * @author coder050519123
+ */
+final class ScheduleChangeLog {
+    private final ScheduleChangeEvent[] events;
+    private long lastVersion;
+    private int size;
+
+    /**
+     * Constructs a new ScheduleChangeLog.
+     * @param capacity - the number of most recent changes kept
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    ScheduleChangeLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Schedule change log capacity must be positive!");
+        }
+        this.events = new ScheduleChangeEvent[capacity];
+    }
+
+    /**
+     * Records a change, dropping the oldest one once the ring is full.
+     * @param event - the change, its version must follow the version of the last recorded change
+     * @throws IllegalArgumentException if the version does not follow the last recorded version
+     */
+    synchronized void append(ScheduleChangeEvent event) {
+        if (event.getVersion() != lastVersion + 1) {
+            throw new IllegalArgumentException("Schedule change " + event + " does not follow version " + lastVersion);
+        }
+        lastVersion = event.getVersion();
+        events[slot(lastVersion)] = event;
+        if (size < events.length) {
+            size++;
+        }
+    }
+
+    /**
+     * @param version - the last version the consumer applied
+     * @return the changes after the version in version order, or a single REPLACED event at the latest version
+     * if some of those changes are not kept anymore
+     * @throws IllegalArgumentException if the version is negative or after the latest version
+     */
+    synchronized List<ScheduleChangeEvent> since(long version) {
+        if (version < 0 || version > lastVersion) {
+            throw new IllegalArgumentException("Unknown schedule version " + version + ", latest is " + lastVersion);
+        }
+        if (version < lastVersion - size) {
+            return List.of(new ScheduleChangeEvent(lastVersion, ScheduleChangeType.REPLACED, null, null));
+        }
+        List<ScheduleChangeEvent> changes = new ArrayList<>((int) (lastVersion - version));
+        for (long next = version + 1; next <= lastVersion; next++) {
+            changes.add(events[slot(next)]);
+        }
+        return changes;
+    }
+
+    private int slot(long version) {
+        return (int) (version % events.length);
+    }
+}
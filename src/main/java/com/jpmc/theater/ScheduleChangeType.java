@@ -0,0 +1,28 @@
+package com.jpmc.theater;
+
+/**
+ * This enum represents the kinds of change made to a theater schedule.
+ *
+ * @author coder050519123
+ */
+public enum ScheduleChangeType {
+    /**
+     * A showing was added to the schedule.
+     */
+    ADDED,
+
+    /**
+     * A showing was removed from the schedule.
+     */
+    CANCELLED,
+
+    /**
+     * A showing was moved to a new start time, and to a new key if its date changed.
+     */
+    RETIMED,
+
+    /**
+     * The whole schedule was replaced, consumers have to reload it.
+     */
+    REPLACED
+}
@@ -0,0 +1,18 @@
+package com.jpmc.theater;
+
+/**
+ * This enum represents the formats the theater schedule can be rendered in.
+ *
+ * @author coder050519123
+ */
+public enum ScheduleFormat {
+    /**
+     * Human readable schedule, as printed by Theater.printSchedule().
+     */
+    TEXT,
+
+    /**
+     * JSON schedule, as printed by Theater.printScheduleToJson().
+     */
+    JSON
+}
@@ -0,0 +1,231 @@
+package com.jpmc.theater;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * This class holds the showings of a theater across many days and auditoriums, indexed for fast lookups:
+ * by showing key (date, auditorium, sequence) in O(log n), by movie in O(1), and by start time range in O(log n).
+ * Movies are interned in a MovieCatalog as their showings are added, and the movie index is keyed by the catalog entries,
+ * so a lookup by movie hashes a cached int and compares catalog ids.
+ * Reads never lock and can run while the index is being changed; changes are serialized on the index.
+ *
+ * @author coder050519123
+ */
+public final class ScheduleIndex {
+    private final ConcurrentSkipListMap<ShowingKey, Showing> showingsByKey = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Movie, ConcurrentSkipListMap<ShowingKey, Showing>> showingsByMovie = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<LocalDateTime, ConcurrentSkipListMap<ShowingKey, Showing>> showingsByStartTime = new ConcurrentSkipListMap<>();
+    private final MovieCatalog movieCatalog;
+
+    /**
+     * Constructs a new ScheduleIndex holding the provided showings.
+     * @param showings - the showings of the theater, in any order
+     * @throws IllegalArgumentException if a showing is null, has no start time, or two showings share the same key
+     */
+    public ScheduleIndex(Collection<Showing> showings) {
+        this(showings, new MovieCatalog());
+    }
+
+    /**
+     * Constructs a new ScheduleIndex holding the provided showings, interning their movies in the provided catalog.
+     * @param showings - the showings of the theater, in any order
+     * @param movieCatalog - the catalog interning the movies of the showings
+     * @throws IllegalArgumentException if a showing is null, has no start time, or two showings share the same key
+     */
+    ScheduleIndex(Collection<Showing> showings, MovieCatalog movieCatalog) {
+        this.movieCatalog = movieCatalog;
+        if (showings == null) {
+            throw new IllegalArgumentException("Showings cannot be null!");
+        }
+        for (Showing showing : showings) {
+            add(showing);
+        }
+    }
+
+    /**
+     * @return the number of showings in the index
+     */
+    public int size() {
+        return showingsByKey.size();
+    }
+
+    /**
+     * @return true if the index holds no showing
+     */
+    public boolean isEmpty() {
+        return showingsByKey.isEmpty();
+    }
+
+    /**
+     * @return every showing ordered by date, auditorium, and sequence of the day
+     */
+    public List<Showing> getShowings() {
+        return List.copyOf(showingsByKey.values());
+    }
+
+    /**
+     * @return a live, read-only view of every showing ordered by date, auditorium, and sequence of the day
+     */
+    Collection<Showing> showingsView() {
+        return Collections.unmodifiableCollection(showingsByKey.values());
+    }
+
+    /**
+     * @param key - the showing key to look up
+     * @return the showing with the given key, if scheduled
+     */
+    public Optional<Showing> findShowing(ShowingKey key) {
+        return Optional.ofNullable(showingsByKey.get(key));
+    }
+
+    /**
+     * @param date - the date of the showing
+     * @param auditorium - the auditorium number the showing is in
+     * @param sequenceOfTheDay - the showing's sequence of the day in its auditorium
+     * @return the showing with the given date, auditorium, and sequence, if scheduled
+     */
+    public Optional<Showing> findShowing(LocalDate date, int auditorium, int sequenceOfTheDay) {
+        return findShowing(new ShowingKey(date, auditorium, sequenceOfTheDay));
+    }
+
+    /**
+     * @param date - the date to list the showings of
+     * @return the showings of the date ordered by auditorium and sequence of the day
+     */
+    public List<Showing> findShowingsOn(LocalDate date) {
+        return List.copyOf(showingsByKey.subMap(new ShowingKey(date, Integer.MIN_VALUE, Integer.MIN_VALUE), true,
+                new ShowingKey(date, Integer.MAX_VALUE, Integer.MAX_VALUE), true).values());
+    }
+
+    /**
+     * @param movie - the movie to list the showings of
+     * @return the showings of the movie ordered by date, auditorium, and sequence of the day
+     */
+    public List<Showing> findShowingsOf(Movie movie) {
+        Map<ShowingKey, Showing> showings = movie == null ? null : showingsByMovie.get(catalogEntryOf(movie));
+        return showings == null ? List.of() : List.copyOf(showings.values());
+    }
+
+    /**
+     * @param from - the earliest start time (inclusive)
+     * @param to - the latest start time (exclusive)
+     * @return the showings starting in the range, ordered by start time
+     */
+    public List<Showing> findShowingsStartingBetween(LocalDateTime from, LocalDateTime to) {
+        List<Showing> showings = new ArrayList<>();
+        for (NavigableMap<ShowingKey, Showing> sameStartTime : showingsByStartTime.subMap(from, true, to, false).values()) {
+            showings.addAll(sameStartTime.values());
+        }
+        return showings;
+    }
+
+    /**
+     * Adds a showing to every index.
+     * @param showing - the showing to add
+     * @throws IllegalArgumentException if the showing is null, has no start time, or its key is already scheduled
+     */
+    synchronized void add(Showing showing) {
+        if (showing == null || showing.getShowingKey() == null) {
+            throw new IllegalArgumentException("Showing and its start time cannot be null!");
+        }
+        ShowingKey key = showing.getShowingKey();
+        if (showingsByKey.putIfAbsent(key, showing) != null) {
+            throw new IllegalArgumentException("A showing is already scheduled for " + key);
+        }
+        addToSecondaryIndexes(showing);
+    }
+
+    /**
+     * Replaces a scheduled showing with another one without a moment where readers find neither: a showing with the same key
+     * overwrites the old one in place, otherwise the new showing is added to every index before the old one is removed.
+     * @param key - the key of the showing to replace
+     * @param showing - the showing replacing it
+     * @return the replaced showing
+     * @throws IllegalArgumentException if the showing is null or has no start time, nothing is scheduled for the key,
+     * or the key of the showing is already scheduled for another showing
+     */
+    synchronized Showing replace(ShowingKey key, Showing showing) {
+        if (showing == null || showing.getShowingKey() == null) {
+            throw new IllegalArgumentException("Showing and its start time cannot be null!");
+        }
+        Showing replaced = key == null ? null : showingsByKey.get(key);
+        if (replaced == null) {
+            throw new IllegalArgumentException("No showing is scheduled for " + key);
+        }
+        ShowingKey newKey = showing.getShowingKey();
+        boolean sameKey = newKey.equals(key);
+        if (sameKey) {
+            showingsByKey.put(key, showing);
+        } else if (showingsByKey.putIfAbsent(newKey, showing) != null) {
+            throw new IllegalArgumentException("A showing is already scheduled for " + newKey);
+        }
+        addToSecondaryIndexes(showing);
+        if (replaced.getMovie() != null && !(sameKey && replaced.getMovie().equals(showing.getMovie()))) {
+            removeFrom(showingsByMovie, catalogEntryOf(replaced.getMovie()), key);
+        }
+        if (!(sameKey && replaced.getShowStartTime().equals(showing.getShowStartTime()))) {
+            removeFrom(showingsByStartTime, replaced.getShowStartTime(), key);
+        }
+        if (!sameKey) {
+            showingsByKey.remove(key);
+        }
+        return replaced;
+    }
+
+    /**
+     * Removes a showing from every index.
+     * @param key - the key of the showing to remove
+     * @return the removed showing, or null if nothing was scheduled for the key
+     */
+    synchronized Showing remove(ShowingKey key) {
+        Showing showing = showingsByKey.remove(key);
+        if (showing == null) {
+            return null;
+        }
+        if (showing.getMovie() != null) {
+            removeFrom(showingsByMovie, catalogEntryOf(showing.getMovie()), key);
+        }
+        removeFrom(showingsByStartTime, showing.getShowStartTime(), key);
+        return showing;
+    }
+
+    private void addToSecondaryIndexes(Showing showing) {
+        ShowingKey key = showing.getShowingKey();
+        if (showing.getMovie() != null) {
+            Movie movie = showing.getMovie().getTicketPrice() == null ? showing.getMovie() : movieCatalog.intern(showing.getMovie());
+            showingsByMovie.computeIfAbsent(movie, entry -> new ConcurrentSkipListMap<>()).put(key, showing);
+        }
+        showingsByStartTime.computeIfAbsent(showing.getShowStartTime(), startTime -> new ConcurrentSkipListMap<>()).put(key, showing);
+    }
+
+    /**
+     * @return the catalog entry the movie index is keyed by for the movie, or the movie itself if it was never interned
+     */
+    private Movie catalogEntryOf(Movie movie) {
+        Movie entry = movieCatalog.find(movie);
+        return entry == null ? movie : entry;
+    }
+
+    /**
+     * Removes a key from a secondary index, dropping the index entry once it has no showing left.
+     */
+    private static <K> void removeFrom(Map<K, ConcurrentSkipListMap<ShowingKey, Showing>> index, K indexKey, ShowingKey key) {
+        ConcurrentSkipListMap<ShowingKey, Showing> showings = index.get(indexKey);
+        if (showings != null) {
+            showings.remove(key);
+            if (showings.isEmpty()) {
+                index.remove(indexKey);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.jpmc.theater;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class represents the final prices of every showing of a schedule, calculated in one pass for one business date.
+ * The table is immutable; it does not follow later changes of the schedule or of the discount rules.
+ *
+ * @author coder050519123
+ */
+public final class SchedulePriceTable {
+    private final LocalDate businessDate;
+    private final Showing[] showings;
+    private final long[] finalPricesInCents;
+    private final Map<Showing, Integer> indexByShowing;
+
+    /**
+     * Constructs a new SchedulePriceTable, the arrays are owned by the table from now on.
+     * @param businessDate - the business date the prices were calculated for
+     * @param showings - the priced showings in schedule order
+     * @param finalPricesInCents - the final price in cents of the showing at the same index
+     */
+    SchedulePriceTable(LocalDate businessDate, Showing[] showings, long[] finalPricesInCents) {
+        this.businessDate = businessDate;
+        this.showings = showings;
+        this.finalPricesInCents = finalPricesInCents;
+        this.indexByShowing = new IdentityHashMap<>(showings.length);
+        for (int i = 0; i < showings.length; i++) {
+            indexByShowing.put(showings[i], i);
+        }
+    }
+
+    /**
+     * @return the business date the prices were calculated for
+     */
+    public LocalDate getBusinessDate() {
+        return businessDate;
+    }
+
+    /**
+     * @return the number of showings in the table
+     */
+    public int size() {
+        return showings.length;
+    }
+
+    /**
+     * @param showing - a showing of the priced schedule
+     * @return the final price of the showing in cents
+     * @throws IllegalArgumentException if the showing is not part of the table
+     */
+    public long getFinalShowingPriceInCents(Showing showing) {
+        Integer index = indexByShowing.get(showing);
+        if (index == null) {
+            throw new IllegalArgumentException("Showing is not part of the priced schedule!");
+        }
+        return finalPricesInCents[index];
+    }
+
+    /**
+     * @param showing - a showing of the priced schedule
+     * @return the final price of the showing
+     * @throws IllegalArgumentException if the showing is not part of the table
+     */
+    public BigDecimal getFinalShowingPrice(Showing showing) {
+        return BigDecimal.valueOf(getFinalShowingPriceInCents(showing), 2);
+    }
+
+    /**
+     * @return an unmodifiable map of each showing to its final price, in schedule order
+     */
+    public Map<Showing, BigDecimal> toMap() {
+        Map<Showing, BigDecimal> prices = new LinkedHashMap<>(showings.length * 2);
+        for (int i = 0; i < showings.length; i++) {
+            prices.put(showings[i], BigDecimal.valueOf(finalPricesInCents[i], 2));
+        }
+        return Collections.unmodifiableMap(prices);
+    }
+}
@@ -0,0 +1,302 @@
+package com.jpmc.theater;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class renders the theater schedule in the human readable format printed by Theater.printSchedule():
+ * the business date, a separator line, one "sequence: start time title (h hours m minutes) $price" line per showing, and a separator line.
+ * <p>
+ * The renderer writes straight into a caller supplied Appendable or ByteBuffer (in UTF-8) without building intermediate Strings:
+ * numbers, dates, times, and prices are written digit by digit, and the running time label of each distinct duration is formatted
+ * once and reused. The output is identical to concatenating the toString() of each value.
+ * A renderer is thread-safe and meant to be shared.
+ *
+ * @author coder050519123
+ */
+public final class ScheduleTextRenderer {
+    private static final String SEPARATOR = "===================================================";
+    private static final String NO_SHOWS = "No shows scheduled.";
+
+    /**
+     * Number of distinct running times whose label is kept, the labels of other running times are formatted on every use.
+     */
+    private static final int MAX_DURATION_LABELS = 4096;
+
+    private final String lineSeparator;
+    private final ConcurrentHashMap<Duration, String> durationLabels = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new ScheduleTextRenderer ending lines with the system line separator.
+     */
+    public ScheduleTextRenderer() {
+        this(System.lineSeparator());
+    }
+
+    /**
+     * Constructs a new ScheduleTextRenderer.
+     * @param lineSeparator - the characters ending each line
+     * @throws IllegalArgumentException if the line separator is null
+     */
+    public ScheduleTextRenderer(String lineSeparator) {
+        if (lineSeparator == null) {
+            throw new IllegalArgumentException("Line separator cannot be null!");
+        }
+        this.lineSeparator = lineSeparator;
+    }
+
+    /**
+     * This method formats a running time the way the schedule shows it, i.e. "(1 hour 30 minutes)".
+     * @param duration - the running time
+     * @return the running time label
+     */
+    public static String formatDuration(Duration duration) {
+        long hour = duration.toHours();
+        long remainingMin = duration.toMinutes() - TimeUnit.HOURS.toMinutes(duration.toHours());
+
+        return String.format("(%s hour%s %s minute%s)", hour, handlePluralWords(hour), remainingMin, handlePluralWords(remainingMin));
+    }
+
+    /**
+     * This method renders the schedule into an Appendable.
+     * @param showings - the showings to render, in order
+     * @param businessDate - the date heading the schedule
+     * @param out - the destination of the text
+     * @throws IOException if the Appendable cannot be written to
+     */
+    public void render(Iterable<Showing> showings, LocalDate businessDate, Appendable out) throws IOException {
+        if (!showings.iterator().hasNext()) {
+            out.append(NO_SHOWS).append(lineSeparator);
+            return;
+        }
+        appendDate(out, businessDate);
+        out.append(lineSeparator).append(SEPARATOR).append(lineSeparator);
+        for (Showing showing : showings) {
+            Movie movie = showing.getMovie();
+            appendLong(out, showing.getSequenceOfTheDay());
+            out.append(": ");
+            appendDateTime(out, showing.getShowStartTime());
+            out.append(' ').append(movie.getTitle()).append(' ');
+            out.append(durationLabel(movie.getRunningTime()));
+            out.append(" $");
+            appendPrice(out, movie);
+            out.append(lineSeparator);
+        }
+        out.append(SEPARATOR).append(lineSeparator);
+    }
+
+    /**
+     * This method renders the schedule into a ByteBuffer in UTF-8, from the buffer's position.
+     * @param showings - the showings to render, in order
+     * @param businessDate - the date heading the schedule
+     * @param out - the destination of the text, its position is moved past the written bytes
+     * @throws BufferOverflowException if the buffer does not have enough room left, part of the schedule may have been written
+     * @throws java.nio.ReadOnlyBufferException if the buffer is read-only
+     */
+    public void render(Iterable<Showing> showings, LocalDate businessDate, ByteBuffer out) {
+        try {
+            render(showings, businessDate, new Utf8ByteBufferAppendable(out));
+        } catch (IOException ex) {
+            // writing to a ByteBuffer never throws an IOException
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private String durationLabel(Duration runningTime) {
+        String label = durationLabels.get(runningTime);
+        if (label == null) {
+            label = formatDuration(runningTime);
+            if (durationLabels.size() < MAX_DURATION_LABELS) {
+                durationLabels.putIfAbsent(runningTime, label);
+            }
+        }
+        return label;
+    }
+
+    /**
+     * This method writes the price as BigDecimal.toString() would. Prices with at most 2 decimals are written from the movie's
+     * price in cents, any other price falls back to BigDecimal.toString().
+     */
+    private static void appendPrice(Appendable out, Movie movie) throws IOException {
+        BigDecimal price = movie.getTicketPrice();
+        int scale = price == null ? -1 : price.scale();
+        if (scale < 0 || scale > 2 || !movie.hasTicketPriceInCents()) {
+            out.append(String.valueOf(price));
+            return;
+        }
+        long unscaled = movie.getTicketPriceInCents() / (scale == 2 ? 1 : scale == 1 ? 10 : 100);
+        if (unscaled < 0) {
+            out.append('-');
+            unscaled = -unscaled;
+        }
+        long divisor = scale == 2 ? 100 : scale == 1 ? 10 : 1;
+        appendLong(out, unscaled / divisor);
+        if (scale > 0) {
+            out.append('.');
+            appendDigits(out, unscaled % divisor, scale);
+        }
+    }
+
+    /**
+     * This method writes the date as LocalDate.toString() would.
+     */
+    private static void appendDate(Appendable out, LocalDate date) throws IOException {
+        if (date == null) {
+            out.append("null");
+            return;
+        }
+        int year = date.getYear();
+        if (Math.abs(year) < 1000) {
+            if (year < 0) {
+                out.append('-');
+            }
+            appendDigits(out, Math.abs(year), 4);
+        } else {
+            if (year > 9999) {
+                out.append('+');
+            }
+            appendLong(out, year);
+        }
+        out.append('-');
+        appendDigits(out, date.getMonthValue(), 2);
+        out.append('-');
+        appendDigits(out, date.getDayOfMonth(), 2);
+    }
+
+    /**
+     * This method writes the date and time as LocalDateTime.toString() would.
+     */
+    private static void appendDateTime(Appendable out, LocalDateTime dateTime) throws IOException {
+        if (dateTime == null) {
+            out.append("null");
+            return;
+        }
+        appendDate(out, dateTime.toLocalDate());
+        out.append('T');
+        appendDigits(out, dateTime.getHour(), 2);
+        out.append(':');
+        appendDigits(out, dateTime.getMinute(), 2);
+        int second = dateTime.getSecond();
+        int nano = dateTime.getNano();
+        if (second > 0 || nano > 0) {
+            out.append(':');
+            appendDigits(out, second, 2);
+            if (nano > 0) {
+                out.append('.');
+                if (nano % 1_000_000 == 0) {
+                    appendDigits(out, nano / 1_000_000, 3);
+                } else if (nano % 1000 == 0) {
+                    appendDigits(out, nano / 1000, 6);
+                } else {
+                    appendDigits(out, nano, 9);
+                }
+            }
+        }
+    }
+
+    private static void appendLong(Appendable out, long value) throws IOException {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                out.append("-9223372036854775808");
+                return;
+            }
+            out.append('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    /**
+     * This method writes a non-negative value on exactly the given number of digits, padded with leading zeros.
+     */
+    private static void appendDigits(Appendable out, long value, int digits) throws IOException {
+        long divisor = 1;
+        for (int i = 1; i < digits; i++) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static String handlePluralWords(long value) {
+        if (value == 1) {
+            return "";
+        }
+        else {
+            return "s";
+        }
+    }
+
+    /**
+     * Appendable encoding characters to UTF-8 straight into a ByteBuffer.
+     */
+    private static final class Utf8ByteBufferAppendable implements Appendable {
+        private final ByteBuffer out;
+        private char highSurrogate;
+
+        private Utf8ByteBufferAppendable(ByteBuffer out) {
+            this.out = out;
+        }
+
+        @Override
+        public Appendable append(CharSequence text) {
+            return text == null ? append("null") : append(text, 0, text.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence text, int start, int end) {
+            if (text == null) {
+                return append("null", start, end);
+            }
+            for (int i = start; i < end; i++) {
+                append(text.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            if (highSurrogate != 0) {
+                char high = highSurrogate;
+                highSurrogate = 0;
+                if (Character.isLowSurrogate(c)) {
+                    int codePoint = Character.toCodePoint(high, c);
+                    out.put((byte) (0xF0 | codePoint >> 18))
+                            .put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                            .put((byte) (0x80 | codePoint >> 6 & 0x3F))
+                            .put((byte) (0x80 | codePoint & 0x3F));
+                    return this;
+                }
+                // unpaired surrogates are replaced the same way String.getBytes(UTF_8) replaces them
+                out.put((byte) '?');
+            }
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c)) {
+                highSurrogate = c;
+            } else if (Character.isLowSurrogate(c)) {
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+            return this;
+        }
+    }
+}
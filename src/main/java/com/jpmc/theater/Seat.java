@@ -0,0 +1,58 @@
+package com.jpmc.theater;
+
+/**
+ * This class represents a seat in an auditorium, identified by its row and its number in the row.
+ * Rows and seat numbers start at 1, the 1st row being the closest to the screen.
+ *
+ * @author coder050519123
+ */
+public final class Seat {
+    private final int row;
+    private final int number;
+
+    /**
+     * Constructs a new Seat.
+     * @param row - the row of the seat, starting at 1
+     * @param number - the number of the seat in its row, starting at 1
+     * @throws IllegalArgumentException if the row or number is less than 1
+     */
+    public Seat(int row, int number) {
+        if (row <= 0 || number <= 0) {
+            throw new IllegalArgumentException("Seat row and number cannot be less than 1!");
+        }
+        this.row = row;
+        this.number = number;
+    }
+
+    /**
+     * @return the row of the seat, starting at 1
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * @return the number of the seat in its row, starting at 1
+     */
+    public int getNumber() {
+        return number;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Seat)) return false;
+        Seat seat = (Seat) o;
+        return row == seat.row && number == seat.number;
+    }
+
+    @Override
+    public int hashCode() {
+        return row * 31 + number;
+    }
+
+    @Override
+    public String toString() {
+        return "Seat {row=" + row + ", number=" + number + '}';
+    }
+}
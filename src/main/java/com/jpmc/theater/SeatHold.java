@@ -0,0 +1,121 @@
+package com.jpmc.theater;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class represents seats held for a customer during checkout, before the reservation is confirmed.
+ * A hold starts HELD and moves exactly once to CONFIRMED, RELEASED, or EXPIRED;
+ * the move is a compare-and-set, so a confirmation racing with the expiry of the same hold has a single winner.
+ * A confirmation whose reservation could not be made durable moves on from CONFIRMED to RELEASED, so the hold never claims a reservation it does not have.
+ *
+ * @author coder050519123
+ */
+public final class SeatHold {
+    /**
+     * The lifecycle states of a hold.
+     */
+    public enum State {
+        HELD, CONFIRMED, RELEASED, EXPIRED
+    }
+
+    private final long holdId;
+    private final Customer customer;
+    private final Showing showing;
+    private final int audienceCount;
+    private final List<Seat> seats;
+    private final long expiresAtMillis;
+    private final AtomicReference<State> state = new AtomicReference<>(State.HELD);
+    private volatile HashedTimingWheel.Timeout<SeatHold> timeout;
+
+    SeatHold(long holdId, Customer customer, Showing showing, int audienceCount, List<Seat> seats, long expiresAtMillis) {
+        this.holdId = holdId;
+        this.customer = customer;
+        this.showing = showing;
+        this.audienceCount = audienceCount;
+        this.seats = List.copyOf(seats);
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    /**
+     * @return the identifier of the hold, unique within its theater
+     */
+    public long getHoldId() {
+        return holdId;
+    }
+
+    /**
+     * @return the customer the seats are held for
+     */
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    /**
+     * @return the showing the seats are held in
+     */
+    public Showing getShowing() {
+        return showing;
+    }
+
+    /**
+     * @return the size of the party
+     */
+    public int getAudienceCount() {
+        return audienceCount;
+    }
+
+    /**
+     * @return the held seats
+     */
+    public List<Seat> getSeats() {
+        return seats;
+    }
+
+    /**
+     * @return the time the hold is released if it is not confirmed before
+     */
+    public Instant getExpiresAt() {
+        return Instant.ofEpochMilli(expiresAtMillis);
+    }
+
+    /**
+     * @return the current state of the hold
+     */
+    public State getState() {
+        return state.get();
+    }
+
+    long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    HashedTimingWheel.Timeout<SeatHold> getTimeout() {
+        return timeout;
+    }
+
+    void setTimeout(HashedTimingWheel.Timeout<SeatHold> timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return true if the hold was still HELD and is now in the target state
+     */
+    boolean complete(State target) {
+        return state.compareAndSet(State.HELD, target);
+    }
+
+    /**
+     * This method releases a confirmed hold whose reservation could not be made durable.
+     * @return true if the hold was CONFIRMED and is now RELEASED
+     */
+    boolean revokeConfirmation() {
+        return state.compareAndSet(State.CONFIRMED, State.RELEASED);
+    }
+
+    @Override
+    public String toString() {
+        return "SeatHold {holdId=" + holdId + ", showing=" + showing.getShowingKey() + ", seats=" + seats + ", state=" + state.get() + '}';
+    }
+}
@@ -0,0 +1,110 @@
+package com.jpmc.theater;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class keeps track of the remaining seats of a showing.
+ * Seats are allocated and released with compare-and-set on a single counter, without any lock,
+ * so reservations for different showings never contend and reservations for the same showing never block each other.
+ * An allocation either takes all of the requested seats or none of them, so a showing can never be oversold.
+ *
+ * @author coder050519123
+ */
+public final class SeatInventory {
+    private final int capacity;
+    private final AtomicInteger remainingSeats;
+
+    /**
+     * Constructs a new SeatInventory with every seat available.
+     * @param capacity - the total number of seats of the showing
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public SeatInventory(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Seat capacity cannot be negative!");
+        }
+        this.capacity = capacity;
+        this.remainingSeats = new AtomicInteger(capacity);
+    }
+
+    /**
+     * @return the total number of seats of the showing
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of seats not allocated yet
+     */
+    public int getRemainingSeats() {
+        return remainingSeats.get();
+    }
+
+    /**
+     * @return the number of seats allocated
+     */
+    public int getAllocatedSeats() {
+        return capacity - remainingSeats.get();
+    }
+
+    /**
+     * @return true if every seat is allocated
+     */
+    public boolean isSoldOut() {
+        return remainingSeats.get() == 0;
+    }
+
+    /**
+     * This method allocates seats if enough of them remain, atomically.
+     * Once the showing cannot serve the request anymore, the call returns without writing to the counter,
+     * so a sold out showing does not slow down under a burst of rejected requests.
+     *
+     * @param seats - the number of seats to allocate
+     * @return true if the seats were allocated, false if not enough seats remain
+     * @throws IllegalArgumentException if the number of seats is less than 1
+     */
+    public boolean tryAllocate(int seats) {
+        if (seats <= 0) {
+            throw new IllegalArgumentException("Number of seats to allocate cannot be less than 1!");
+        }
+        int remaining = remainingSeats.get();
+        while (remaining >= seats) {
+            int witness = remainingSeats.compareAndExchange(remaining, remaining - seats);
+            if (witness == remaining) {
+                return true;
+            }
+            remaining = witness;
+        }
+        return false;
+    }
+
+    /**
+     * This method gives previously allocated seats back to the showing.
+     *
+     * @param seats - the number of seats to release
+     * @throws IllegalArgumentException if the number of seats is less than 1
+     * @throws IllegalStateException if more seats are released than were allocated
+     */
+    public void release(int seats) {
+        if (seats <= 0) {
+            throw new IllegalArgumentException("Number of seats to release cannot be less than 1!");
+        }
+        int remaining = remainingSeats.get();
+        while (true) {
+            if (remaining > capacity - seats) {
+                throw new IllegalStateException("Cannot release more seats than were allocated!");
+            }
+            int witness = remainingSeats.compareAndExchange(remaining, remaining + seats);
+            if (witness == remaining) {
+                return;
+            }
+            remaining = witness;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SeatInventory {capacity=" + capacity + ", remainingSeats=" + remainingSeats.get() + '}';
+    }
+}
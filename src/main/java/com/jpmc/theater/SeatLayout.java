@@ -0,0 +1,158 @@
+package com.jpmc.theater;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This class represents the seating layout of an auditorium: the number of seats of each row.
+ * The layout also decides how the rows of a SeatMap are laid out in 64 bit words (each row starts on a new word),
+ * and in which order rows are preferred when looking for the best available seats.
+ * A layout is immutable and meant to be shared by every showing of its auditorium.
+ *
+ * @author coder050519123
+ */
+public final class SeatLayout {
+    /**
+     * Number of seats per row of layouts created from a capacity only.
+     */
+    public static final int DEFAULT_SEATS_PER_ROW = 20;
+    /**
+     * Layouts created from a capacity up to this one are cached and shared, bigger ones are created on every call.
+     */
+    private static final int MAX_CACHED_CAPACITY = 4096;
+    private static final AtomicReferenceArray<SeatLayout> LAYOUTS_BY_CAPACITY = new AtomicReferenceArray<>(MAX_CACHED_CAPACITY + 1);
+
+    private final int[] seatsPerRow;
+    private final int[] firstWordOfRow;
+    private final int[] preferredRowOrder;
+    private final int wordCount;
+    private final int capacity;
+
+    /**
+     * Constructs a new SeatLayout.
+     * @param seatsPerRow - the number of seats of each row, front row first
+     * @throws IllegalArgumentException if the array is null or a row has less than 1 seat
+     */
+    public SeatLayout(int... seatsPerRow) {
+        if (seatsPerRow == null) {
+            throw new IllegalArgumentException("Seats per row cannot be null!");
+        }
+        this.seatsPerRow = seatsPerRow.clone();
+        this.firstWordOfRow = new int[seatsPerRow.length];
+        int words = 0;
+        int seats = 0;
+        for (int row = 0; row < seatsPerRow.length; row++) {
+            if (seatsPerRow[row] <= 0) {
+                throw new IllegalArgumentException("A row must have at least 1 seat!");
+            }
+            firstWordOfRow[row] = words;
+            words += wordsFor(seatsPerRow[row]);
+            seats += seatsPerRow[row];
+        }
+        this.wordCount = words;
+        this.capacity = seats;
+
+        // rows two thirds back from the screen are the best ones, then rows further and further away from them, the back one first
+        int preferredRow = seatsPerRow.length * 2 / 3;
+        this.preferredRowOrder = new int[seatsPerRow.length];
+        int next = 0;
+        for (int distance = 0; next < seatsPerRow.length; distance++) {
+            if (preferredRow + distance < seatsPerRow.length) {
+                preferredRowOrder[next++] = preferredRow + distance;
+            }
+            if (distance > 0 && preferredRow - distance >= 0) {
+                preferredRowOrder[next++] = preferredRow - distance;
+            }
+        }
+    }
+
+    /**
+     * This method returns a layout of full rows of DEFAULT_SEATS_PER_ROW seats and a last, shorter row for the remaining seats.
+     * Layouts of the usual capacities are created once and shared by every showing asking for the same capacity.
+     * @param capacity - the total number of seats
+     * @return the layout for the capacity
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public static SeatLayout ofCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Seat capacity cannot be negative!");
+        }
+        if (capacity > MAX_CACHED_CAPACITY) {
+            return createOfCapacity(capacity);
+        }
+        SeatLayout layout = LAYOUTS_BY_CAPACITY.get(capacity);
+        if (layout == null) {
+            // two threads may both create the layout, the first one stored is the one shared
+            LAYOUTS_BY_CAPACITY.compareAndSet(capacity, null, createOfCapacity(capacity));
+            layout = LAYOUTS_BY_CAPACITY.get(capacity);
+        }
+        return layout;
+    }
+
+    private static SeatLayout createOfCapacity(int capacity) {
+        int fullRows = capacity / DEFAULT_SEATS_PER_ROW;
+        int lastRowSeats = capacity % DEFAULT_SEATS_PER_ROW;
+        int[] seatsPerRow = new int[fullRows + (lastRowSeats > 0 ? 1 : 0)];
+        Arrays.fill(seatsPerRow, 0, fullRows, DEFAULT_SEATS_PER_ROW);
+        if (lastRowSeats > 0) {
+            seatsPerRow[fullRows] = lastRowSeats;
+        }
+        return new SeatLayout(seatsPerRow);
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return seatsPerRow.length;
+    }
+
+    /**
+     * @param row - the row index, 0 being the front row
+     * @return the number of seats of the row
+     */
+    public int getSeatsInRow(int row) {
+        return seatsPerRow[row];
+    }
+
+    /**
+     * @return the total number of seats
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of 64 bit words a seat map of this layout needs
+     */
+    int getWordCount() {
+        return wordCount;
+    }
+
+    /**
+     * @param row - the row index
+     * @return the index of the first word of the row in a seat map
+     */
+    int getFirstWordOfRow(int row) {
+        return firstWordOfRow[row];
+    }
+
+    /**
+     * @return the row indexes from the most to the least preferred row, shared and not to be modified
+     */
+    int[] getPreferredRowOrder() {
+        return preferredRowOrder;
+    }
+
+    /**
+     * @return the number of 64 bit words needed to hold the given number of seats
+     */
+    static int wordsFor(int seats) {
+        return (seats + Long.SIZE - 1) >>> 6;
+    }
+
+    @Override
+    public String toString() {
+        return "SeatLayout {seatsPerRow=" + Arrays.toString(seatsPerRow) + '}';
+    }
+}
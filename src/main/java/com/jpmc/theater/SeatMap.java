@@ -0,0 +1,273 @@
+package com.jpmc.theater;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * This class keeps track of which seats of a showing are reserved, as a bitset with one bit per seat.
+ * Rows are aligned on 64 bit words, so a 100 seat auditorium of 5 rows only needs 5 longs per showing,
+ * and searching a row jumps from one run of free seats to the next with word operations instead of looking at every seat.
+ * The bits after the last seat of a row are kept set, so they always look reserved.
+ * A seat map is guarded by its own monitor; different showings never contend on it.
+ * Seats are only taken and given back by the theater, together with the showing's SeatInventory, so both always agree.
+ *
+ * @author coder050519123
+ */
+public final class SeatMap {
+    private final SeatLayout layout;
+    private final long[] reservedSeats;
+    private int availableSeats;
+
+    /**
+     * Constructs a new SeatMap with every seat of the layout available.
+     * @param layout - the seating layout of the auditorium
+     * @throws IllegalArgumentException if the layout is null
+     */
+    public SeatMap(SeatLayout layout) {
+        if (layout == null) {
+            throw new IllegalArgumentException("Seat layout cannot be null!");
+        }
+        this.layout = layout;
+        this.reservedSeats = new long[layout.getWordCount()];
+        this.availableSeats = layout.getCapacity();
+        for (int row = 0; row < layout.getRowCount(); row++) {
+            int seats = layout.getSeatsInRow(row);
+            int lastWord = layout.getFirstWordOfRow(row) + SeatLayout.wordsFor(seats) - 1;
+            if ((seats & 63) != 0) {
+                reservedSeats[lastWord] = -1L << (seats & 63);
+            }
+        }
+    }
+
+    /**
+     * @return the seating layout of the map
+     */
+    public SeatLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return the number of seats not reserved yet
+     */
+    public synchronized int getAvailableSeats() {
+        return availableSeats;
+    }
+
+    /**
+     * @param seat - the seat to check
+     * @return true if the seat is reserved
+     * @throws IllegalArgumentException if the seat is not part of the layout
+     */
+    public synchronized boolean isReserved(Seat seat) {
+        validateSeat(seat);
+        return isSet(seat.getRow() - 1, seat.getNumber() - 1);
+    }
+
+    /**
+     * This method reserves the best available seats for a party.
+     * The seats are contiguous whenever possible: the first row, in order of preference, with a block of free seats
+     * big enough gets the party, on the free block closest to the middle of the row.
+     * If no row can seat the whole party together, the party is split over the free seats of the preferred rows.
+     *
+     * @param count - the number of seats to reserve
+     * @return the reserved seats in row and seat order, or an empty list if less than count seats are available
+     * @throws IllegalArgumentException if the count is less than 1
+     */
+    synchronized List<Seat> reserveBestAvailable(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Number of seats to reserve cannot be less than 1!");
+        }
+        if (count > availableSeats) {
+            return List.of();
+        }
+        for (int row : layout.getPreferredRowOrder()) {
+            int start = findBlockClosestToMiddle(row, count);
+            if (start >= 0) {
+                setRange(row, start, start + count);
+                availableSeats -= count;
+                List<Seat> seats = new ArrayList<>(count);
+                for (int seat = start; seat < start + count; seat++) {
+                    seats.add(new Seat(row + 1, seat + 1));
+                }
+                return seats;
+            }
+        }
+        return reserveScattered(count);
+    }
+
+    /**
+     * This method reserves specific seats, all of them or none of them.
+     *
+     * @param seats - the seats to reserve
+     * @return true if every seat was free and is now reserved, false if any seat was already reserved
+     * @throws IllegalArgumentException if a seat is not part of the layout or is listed twice
+     */
+    synchronized boolean reserve(Collection<Seat> seats) {
+        validateDistinct(seats);
+        for (Seat seat : seats) {
+            validateSeat(seat);
+            if (isSet(seat.getRow() - 1, seat.getNumber() - 1)) {
+                return false;
+            }
+        }
+        for (Seat seat : seats) {
+            setRange(seat.getRow() - 1, seat.getNumber() - 1, seat.getNumber());
+        }
+        availableSeats -= seats.size();
+        return true;
+    }
+
+    /**
+     * This method gives reserved seats back to the showing.
+     *
+     * @param seats - the seats to release
+     * @throws IllegalArgumentException if a seat is not part of the layout or is listed twice
+     * @throws IllegalStateException if a seat is not reserved
+     */
+    synchronized void release(Collection<Seat> seats) {
+        validateDistinct(seats);
+        for (Seat seat : seats) {
+            validateSeat(seat);
+            if (!isSet(seat.getRow() - 1, seat.getNumber() - 1)) {
+                throw new IllegalStateException("Cannot release a seat that is not reserved: " + seat);
+            }
+        }
+        for (Seat seat : seats) {
+            int index = seat.getNumber() - 1;
+            reservedSeats[layout.getFirstWordOfRow(seat.getRow() - 1) + (index >>> 6)] &= ~(1L << index);
+        }
+        availableSeats += seats.size();
+    }
+
+    /**
+     * This method looks for count free seats in a row, jumping from one run of free seats to the next.
+     * @return the first seat index of the free block closest to the middle of the row, or -1 if the row has no such block
+     */
+    private int findBlockClosestToMiddle(int row, int count) {
+        int seatsInRow = layout.getSeatsInRow(row);
+        if (count > seatsInRow) {
+            return -1;
+        }
+        int idealStart = (seatsInRow - count) / 2;
+        int bestStart = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        int freeStart = nextFreeSeat(row, 0);
+        while (freeStart < seatsInRow) {
+            int freeEnd = nextReservedSeat(row, freeStart);
+            if (freeEnd - freeStart >= count) {
+                int start = Math.max(freeStart, Math.min(idealStart, freeEnd - count));
+                int distance = Math.abs(start - idealStart);
+                if (distance < bestDistance) {
+                    bestStart = start;
+                    bestDistance = distance;
+                    if (distance == 0) {
+                        break;
+                    }
+                }
+            }
+            freeStart = nextFreeSeat(row, freeEnd);
+        }
+        return bestStart;
+    }
+
+    /**
+     * This method reserves the first free seats of the preferred rows when the party cannot be seated together.
+     */
+    private List<Seat> reserveScattered(int count) {
+        List<Seat> seats = new ArrayList<>(count);
+        for (int row : layout.getPreferredRowOrder()) {
+            int seatsInRow = layout.getSeatsInRow(row);
+            for (int seat = nextFreeSeat(row, 0); seat < seatsInRow && seats.size() < count; seat = nextFreeSeat(row, seat + 1)) {
+                setRange(row, seat, seat + 1);
+                seats.add(new Seat(row + 1, seat + 1));
+            }
+            if (seats.size() == count) {
+                break;
+            }
+        }
+        availableSeats -= count;
+        seats.sort((first, second) -> first.getRow() != second.getRow()
+                ? Integer.compare(first.getRow(), second.getRow()) : Integer.compare(first.getNumber(), second.getNumber()));
+        return seats;
+    }
+
+    /**
+     * @return the index of the first free seat of the row at or after from, or the row length if there is none
+     */
+    private int nextFreeSeat(int row, int from) {
+        int seatsInRow = layout.getSeatsInRow(row);
+        if (from >= seatsInRow) {
+            return seatsInRow;
+        }
+        int firstWord = layout.getFirstWordOfRow(row);
+        int lastWord = firstWord + SeatLayout.wordsFor(seatsInRow) - 1;
+        int word = firstWord + (from >>> 6);
+        long free = ~reservedSeats[word] & (-1L << from);
+        while (free == 0) {
+            if (++word > lastWord) {
+                return seatsInRow;
+            }
+            free = ~reservedSeats[word];
+        }
+        return Math.min(((word - firstWord) << 6) + Long.numberOfTrailingZeros(free), seatsInRow);
+    }
+
+    /**
+     * @return the index of the first reserved seat of the row at or after from, or the row length if there is none
+     */
+    private int nextReservedSeat(int row, int from) {
+        int seatsInRow = layout.getSeatsInRow(row);
+        if (from >= seatsInRow) {
+            return seatsInRow;
+        }
+        int firstWord = layout.getFirstWordOfRow(row);
+        int lastWord = firstWord + SeatLayout.wordsFor(seatsInRow) - 1;
+        int word = firstWord + (from >>> 6);
+        long reserved = reservedSeats[word] & (-1L << from);
+        while (reserved == 0) {
+            if (++word > lastWord) {
+                return seatsInRow;
+            }
+            reserved = reservedSeats[word];
+        }
+        return Math.min(((word - firstWord) << 6) + Long.numberOfTrailingZeros(reserved), seatsInRow);
+    }
+
+    /**
+     * This method marks the seats [from, to) of the row as reserved, a whole word at a time.
+     */
+    private void setRange(int row, int from, int to) {
+        int firstWord = layout.getFirstWordOfRow(row);
+        int fromWord = firstWord + (from >>> 6);
+        int toWord = firstWord + ((to - 1) >>> 6);
+        long fromMask = -1L << from;
+        long toMask = -1L >>> -to;
+        if (fromWord == toWord) {
+            reservedSeats[fromWord] |= fromMask & toMask;
+            return;
+        }
+        reservedSeats[fromWord] |= fromMask;
+        for (int word = fromWord + 1; word < toWord; word++) {
+            reservedSeats[word] = -1L;
+        }
+        reservedSeats[toWord] |= toMask;
+    }
+
+    private boolean isSet(int row, int index) {
+        return (reservedSeats[layout.getFirstWordOfRow(row) + (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    private static void validateDistinct(Collection<Seat> seats) {
+        if (new HashSet<>(seats).size() != seats.size()) {
+            throw new IllegalArgumentException("Seats cannot be listed twice: " + seats);
+        }
+    }
+
+    private void validateSeat(Seat seat) {
+        if (seat == null || seat.getRow() > layout.getRowCount() || seat.getNumber() > layout.getSeatsInRow(seat.getRow() - 1)) {
+            throw new IllegalArgumentException("Seat is not part of the auditorium: " + seat);
+        }
+    }
+}
@@ -1,34 +1,191 @@
 package com.jpmc.theater;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * This class represents the showing of a movie in a theater.
  * It holds the information about a specific movie being shown, including the movie itself,
- * the sequence of the showing within a day, and the start time of the showing.
+ * the sequence of the showing within a day in its auditorium, and the start time of the showing.
+ * Since a showing and its movie do not change, the final showing price is calculated once and cached on the showing.
+ * The cached price is recalculated only when the discount rules or the business date of its calculator change.
+ * A showing scheduled by a Theater is priced by the theater's calculator, so the schedule, its price table, and its renders agree.
  *
  * @author coder050519123
  */
 public class Showing {
+    /**
+     * Auditorium of showings created without one, for theaters with a single screen.
+     */
+    public static final int DEFAULT_AUDITORIUM = 1;
+    /**
+     * Number of seats of showings created without a capacity.
+     */
+    public static final int DEFAULT_CAPACITY = 100;
+    /**
+     * Calculator of showings created without one, with the default discount rules, until a theater schedules them.
+     */
+    private static final MovieDiscountCalculator DEFAULT_CALCULATOR = new MovieDiscountCalculator();
+
     private final Movie movie;
     private final int sequenceOfTheDay;
     private final LocalDateTime showStartTime;
-    private final MovieDiscountCalculator movieDiscountCalculator;
+    private final int auditorium;
+    private final ShowingKey showingKey;
+    private final SeatInventory seatInventory;
+    private final SeatMap seatMap;
+    private volatile MovieDiscountCalculator movieDiscountCalculator;
+    private volatile CachedPrice cachedFinalShowingPrice;
 
     /**
      * Constructs a new Showing object with the provided movie, sequence of the day, and show start time.
-     * This constructor also creates an instance of the MovieDiscountCalculator
+     * The showing is priced with the default discount rules until a theater schedules it
      * @param movie - the movie the showing is about
      * @param sequenceOfTheDay - the showing's sequence of the day (when the movie is shown in the day)
      * @param showStartTime - the start time of the showing
      */
     public Showing(Movie movie, int sequenceOfTheDay, LocalDateTime showStartTime) {
+        this(movie, sequenceOfTheDay, showStartTime, DEFAULT_CALCULATOR);
+    }
+
+    /**
+     * Constructs a new Showing object priced by the provided MovieDiscountCalculator.
+     * Showings sharing a calculator all pick up a change of its discount rules.
+     * @param movie - the movie the showing is about
+     * @param sequenceOfTheDay - the showing's sequence of the day (when the movie is shown in the day)
+     * @param showStartTime - the start time of the showing
+     * @param movieDiscountCalculator - the calculator used to price the showing
+     * @throws IllegalArgumentException if the calculator is null
+     */
+    public Showing(Movie movie, int sequenceOfTheDay, LocalDateTime showStartTime, MovieDiscountCalculator movieDiscountCalculator) {
+        this(movie, sequenceOfTheDay, showStartTime, DEFAULT_AUDITORIUM, movieDiscountCalculator);
+    }
+
+    /**
+     * Constructs a new Showing object in the provided auditorium.
+     * @param movie - the movie the showing is about
+     * @param sequenceOfTheDay - the showing's sequence of the day in its auditorium
+     * @param showStartTime - the start time of the showing
+     * @param auditorium - the auditorium number the showing is in
+     */
+    public Showing(Movie movie, int sequenceOfTheDay, LocalDateTime showStartTime, int auditorium) {
+        this(movie, sequenceOfTheDay, showStartTime, auditorium, DEFAULT_CALCULATOR);
+    }
+
+    /**
+     * Constructs a new Showing object in the provided auditorium, priced by the provided MovieDiscountCalculator.
+     * @param movie - the movie the showing is about
+     * @param sequenceOfTheDay - the showing's sequence of the day in its auditorium
+     * @param showStartTime - the start time of the showing
+     * @param auditorium - the auditorium number the showing is in
+     * @param movieDiscountCalculator - the calculator used to price the showing
+     * @throws IllegalArgumentException if the calculator is null
+     */
+    public Showing(Movie movie, int sequenceOfTheDay, LocalDateTime showStartTime, int auditorium, MovieDiscountCalculator movieDiscountCalculator) {
+        this(movie, sequenceOfTheDay, showStartTime, auditorium, DEFAULT_CAPACITY, movieDiscountCalculator);
+    }
+
+    /**
+     * Constructs a new Showing object in the provided auditorium with the provided number of seats.
+     * @param movie - the movie the showing is about
+     * @param sequenceOfTheDay - the showing's sequence of the day in its auditorium
+     * @param showStartTime - the start time of the showing
+     * @param auditorium - the auditorium number the showing is in
+     * @param capacity - the number of seats that can be reserved for the showing
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public Showing(Movie movie, int sequenceOfTheDay, LocalDateTime showStartTime, int auditorium, int capacity) {
+        this(movie, sequenceOfTheDay, showStartTime, auditorium, capacity, DEFAULT_CALCULATOR);
+    }
+
+    /**
+     * Constructs a new Showing object in the provided auditorium with the provided number of seats, priced by the provided MovieDiscountCalculator.
+     * @param movie - the movie the showing is about
+     * @param sequenceOfTheDay - the showing's sequence of the day in its auditorium
+     * @param showStartTime - the start time of the showing
+     * @param auditorium - the auditorium number the showing is in
+     * @param capacity - the number of seats that can be reserved for the showing, laid out in rows of SeatLayout.DEFAULT_SEATS_PER_ROW
+     * @param movieDiscountCalculator - the calculator used to price the showing
+     * @throws IllegalArgumentException if the capacity is negative or the calculator is null
+     */
+    public Showing(Movie movie, int sequenceOfTheDay, LocalDateTime showStartTime, int auditorium, int capacity,
+                   MovieDiscountCalculator movieDiscountCalculator) {
+        this(movie, sequenceOfTheDay, showStartTime, auditorium, SeatLayout.ofCapacity(capacity), movieDiscountCalculator);
+    }
+
+    /**
+     * Constructs a new Showing object in the provided auditorium with the provided seating layout.
+     * @param movie - the movie the showing is about
+     * @param sequenceOfTheDay - the showing's sequence of the day in its auditorium
+     * @param showStartTime - the start time of the showing
+     * @param auditorium - the auditorium number the showing is in
+     * @param seatLayout - the seating layout of the auditorium, can be shared by every showing of the auditorium
+     * @throws IllegalArgumentException if the seat layout is null
+     */
+    public Showing(Movie movie, int sequenceOfTheDay, LocalDateTime showStartTime, int auditorium, SeatLayout seatLayout) {
+        this(movie, sequenceOfTheDay, showStartTime, auditorium, seatLayout, DEFAULT_CALCULATOR);
+    }
+
+    /**
+     * Constructs a new Showing object in the provided auditorium with the provided seating layout, priced by the provided MovieDiscountCalculator.
+     * @param movie - the movie the showing is about
+     * @param sequenceOfTheDay - the showing's sequence of the day in its auditorium
+     * @param showStartTime - the start time of the showing
+     * @param auditorium - the auditorium number the showing is in
+     * @param seatLayout - the seating layout of the auditorium, can be shared by every showing of the auditorium
+     * @param movieDiscountCalculator - the calculator used to price the showing
+     * @throws IllegalArgumentException if the seat layout or the calculator is null
+     */
+    public Showing(Movie movie, int sequenceOfTheDay, LocalDateTime showStartTime, int auditorium, SeatLayout seatLayout,
+                   MovieDiscountCalculator movieDiscountCalculator) {
+        if (movieDiscountCalculator == null) {
+            throw new IllegalArgumentException("Movie discount calculator cannot be null!");
+        }
         this.movie = movie;
         this.sequenceOfTheDay = sequenceOfTheDay;
         this.showStartTime = showStartTime;
-        this.movieDiscountCalculator = new MovieDiscountCalculator();
+        this.auditorium = auditorium;
+        this.showingKey = showStartTime == null ? null : new ShowingKey(showStartTime.toLocalDate(), auditorium, sequenceOfTheDay);
+        this.seatMap = new SeatMap(seatLayout);
+        this.seatInventory = new SeatInventory(seatLayout.getCapacity());
+        this.movieDiscountCalculator = movieDiscountCalculator;
+    }
+
+    private Showing(Showing original, LocalDateTime showStartTime) {
+        this.movie = original.movie;
+        this.sequenceOfTheDay = original.sequenceOfTheDay;
+        this.showStartTime = showStartTime;
+        this.auditorium = original.auditorium;
+        this.showingKey = new ShowingKey(showStartTime.toLocalDate(), auditorium, sequenceOfTheDay);
+        this.seatMap = original.seatMap;
+        this.seatInventory = original.seatInventory;
+        this.movieDiscountCalculator = original.movieDiscountCalculator;
+    }
+
+    /**
+     * This method makes the showing priced by the calculator of the theater scheduling it.
+     * The cached price stays valid if the new calculator has the same discount rules and business date.
+     * @param movieDiscountCalculator - the theater's calculator
+     */
+    void bindTo(MovieDiscountCalculator movieDiscountCalculator) {
+        this.movieDiscountCalculator = movieDiscountCalculator;
+    }
+
+    /**
+     * This method moves the showing to a new start time. The moved showing keeps the seats already taken,
+     * since it shares the seat inventory and seat map of this showing, and is priced again for its new time.
+     * @param showStartTime - the new start time
+     * @return the moved showing
+     * @throws IllegalArgumentException if the start time is null
+     */
+    Showing withShowStartTime(LocalDateTime showStartTime) {
+        if (showStartTime == null) {
+            throw new IllegalArgumentException("Show start time cannot be null!");
+        }
+        return new Showing(this, showStartTime);
     }
 
     /**
@@ -53,12 +210,104 @@ public class Showing {
     }
 
     /**
-     * This method calculates the final ticket price of the movie dependent on the showing information of the movie.
-     * This method invokes the MovieDiscountCalculator object to calculate the discount applicable for the showing & its movie.
+     * @return the auditorium number the showing is in
+     */
+    @JsonIgnore
+    public int getAuditorium() {
+        return auditorium;
+    }
+
+    /**
+     * @return the unique key (date, auditorium, sequence) of the showing, or null if the showing has no start time
+     */
+    @JsonIgnore
+    public ShowingKey getShowingKey() {
+        return showingKey;
+    }
+
+    /**
+     * @return the remaining seats of the showing
+     */
+    @JsonIgnore
+    public SeatInventory getSeatInventory() {
+        return seatInventory;
+    }
+
+    /**
+     * @return the reserved and available seats of the showing
+     */
+    @JsonIgnore
+    public SeatMap getSeatMap() {
+        return seatMap;
+    }
+
+    /**
+     * This method returns the final ticket price of the movie dependent on the showing information of the movie.
+     * The price is calculated by the MovieDiscountCalculator on the first call, and then served from the cache
+     * for as long as the calculator's discount rules and business date stay the same.
      * @return the final movie ticket price (original price - the discount applicable due to the showing information)
      */
     public BigDecimal getFinalShowingPrice() {
-        BigDecimal ticketDiscount = movieDiscountCalculator.calculateTicketPriceDiscount(this);
-        return this.movie.getTicketPrice().subtract(ticketDiscount).setScale(2, RoundingMode.HALF_UP);
+        return currentPrice().finalShowingPrice;
+    }
+
+    /**
+     * This method returns the final ticket price of the movie in cents, without allocating when the price is cached.
+     * @return the final movie ticket price in cents i.e. 938 for $9.38
+     */
+    @JsonIgnore
+    public long getFinalShowingPriceInCents() {
+        return currentPrice().finalShowingPriceInCents;
+    }
+
+    /**
+     * This method returns the cached price entry, recalculating it if the discount rules or the business date changed.
+     */
+    private CachedPrice currentPrice() {
+        MovieDiscountCalculator movieDiscountCalculator = this.movieDiscountCalculator;
+        DiscountRuleEngine discountRuleEngine = movieDiscountCalculator.getDiscountRuleEngine();
+        LocalDate businessDate = movieDiscountCalculator.getBusinessDate();
+        CachedPrice cachedPrice = cachedFinalShowingPrice;
+        TheaterMetrics metrics = movieDiscountCalculator.getMetrics();
+        if (cachedPrice != null && cachedPrice.isValidFor(discountRuleEngine, businessDate)) {
+            metrics.recordPriceCacheHit();
+            return cachedPrice;
+        }
+
+        long startNanos = metrics.startTimer();
+        long finalShowingPriceInCents = movieDiscountCalculator.calculateFinalPriceInCents(this, discountRuleEngine, businessDate);
+        cachedPrice = new CachedPrice(discountRuleEngine, businessDate, finalShowingPriceInCents);
+        cachedFinalShowingPrice = cachedPrice;
+        metrics.recordPriceCalculation(startNanos);
+        return cachedPrice;
+    }
+
+    /**
+     * Drops the cached final showing price so the next price request recalculates it.
+     * Only needed for custom discount rules whose eligibility depends on something other than the showing and business date.
+     */
+    public void invalidateFinalShowingPrice() {
+        cachedFinalShowingPrice = null;
+    }
+
+    /**
+     * Immutable cache entry holding a final showing price together with the rules and business date it was calculated for.
+     */
+    private static final class CachedPrice {
+        private final DiscountRuleEngine discountRuleEngine;
+        private final LocalDate businessDate;
+        private final long finalShowingPriceInCents;
+        private final BigDecimal finalShowingPrice;
+
+        private CachedPrice(DiscountRuleEngine discountRuleEngine, LocalDate businessDate, long finalShowingPriceInCents) {
+            this.discountRuleEngine = discountRuleEngine;
+            this.businessDate = businessDate;
+            this.finalShowingPriceInCents = finalShowingPriceInCents;
+            this.finalShowingPrice = BigDecimal.valueOf(finalShowingPriceInCents, 2);
+        }
+
+        private boolean isValidFor(DiscountRuleEngine discountRuleEngine, LocalDate businessDate) {
+            return this.discountRuleEngine == discountRuleEngine && this.businessDate.equals(businessDate);
+        }
     }
 }
@@ -0,0 +1,83 @@
+package com.jpmc.theater;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/**
+ * This class represents the unique key of a showing in a theater: its date, auditorium, and sequence of the day.
+ * Keys are ordered by date, then auditorium, then sequence, which is the order the schedule is listed in.
+ *
+ * @author coder050519123
+ */
+public final class ShowingKey implements Comparable<ShowingKey> {
+    private static final Comparator<ShowingKey> ORDER = Comparator.comparing(ShowingKey::getDate)
+            .thenComparingInt(ShowingKey::getAuditorium)
+            .thenComparingInt(ShowingKey::getSequenceOfTheDay);
+
+    private final LocalDate date;
+    private final int auditorium;
+    private final int sequenceOfTheDay;
+    private final int hashCode;
+
+    /**
+     * Constructs a new ShowingKey.
+     * @param date - the date of the showing
+     * @param auditorium - the auditorium number the showing is in
+     * @param sequenceOfTheDay - the showing's sequence of the day in its auditorium
+     * @throws IllegalArgumentException if the date is null
+     */
+    public ShowingKey(LocalDate date, int auditorium, int sequenceOfTheDay) {
+        if (date == null) {
+            throw new IllegalArgumentException("Showing date cannot be null!");
+        }
+        this.date = date;
+        this.auditorium = auditorium;
+        this.sequenceOfTheDay = sequenceOfTheDay;
+        this.hashCode = (date.hashCode() * 31 + auditorium) * 31 + sequenceOfTheDay;
+    }
+
+    /**
+     * @return the date of the showing
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * @return the auditorium number the showing is in
+     */
+    public int getAuditorium() {
+        return auditorium;
+    }
+
+    /**
+     * @return the showing's sequence of the day in its auditorium
+     */
+    public int getSequenceOfTheDay() {
+        return sequenceOfTheDay;
+    }
+
+    @Override
+    public int compareTo(ShowingKey other) {
+        return ORDER.compare(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ShowingKey)) return false;
+        ShowingKey key = (ShowingKey) o;
+        return hashCode == key.hashCode && auditorium == key.auditorium
+                && sequenceOfTheDay == key.sequenceOfTheDay && date.equals(key.date);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return date + "/" + auditorium + "/" + sequenceOfTheDay;
+    }
+}
@@ -0,0 +1,53 @@
+package com.jpmc.theater;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * This class represents a dollar discount for the showing at a specific sequence of the day i.e. $3 off the 1st show.
+ *
+ * @author coder050519123
+ */
+public class ShowingSequenceDiscountRule implements DiscountRule {
+    private final int sequenceOfTheDay;
+    private final BigDecimal amount;
+
+    /**
+     * Constructs a new ShowingSequenceDiscountRule.
+     * @param sequenceOfTheDay - the showing sequence of the day eligible for the discount
+     * @param amount - the dollar amount to take off the ticket price
+     * @throws IllegalArgumentException if the amount is null or negative
+     */
+    public ShowingSequenceDiscountRule(int sequenceOfTheDay, BigDecimal amount) {
+        DiscountType.FIXED_AMOUNT.validateDiscountValue(amount);
+        this.sequenceOfTheDay = sequenceOfTheDay;
+        this.amount = amount;
+    }
+
+    /**
+     * @return the showing sequence of the day eligible for the discount
+     */
+    public int getSequenceOfTheDay() {
+        return sequenceOfTheDay;
+    }
+
+    @Override
+    public DiscountType getDiscountType() {
+        return DiscountType.FIXED_AMOUNT;
+    }
+
+    @Override
+    public BigDecimal getDiscountValue() {
+        return amount;
+    }
+
+    @Override
+    public boolean isApplicable(Showing showing, LocalDate businessDate) {
+        return showing.getSequenceOfTheDay() == sequenceOfTheDay;
+    }
+
+    @Override
+    public String toString() {
+        return "ShowingSequenceDiscountRule {sequenceOfTheDay=" + sequenceOfTheDay + ", amount=" + amount + '}';
+    }
+}
@@ -0,0 +1,78 @@
+package com.jpmc.theater;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * This class represents a percentage discount for showings of the business day starting inside a time window.
+ * Both ends of the window are exclusive i.e. a window of 11:00 to 16:00 does not include a show starting at 11:00.
+ *
+ * @author coder050519123
+ */
+public class ShowingTimeWindowDiscountRule implements DiscountRule {
+    private final LocalTime lowerBound;
+    private final LocalTime upperBound;
+    private final BigDecimal percentage;
+
+    /**
+     * Constructs a new ShowingTimeWindowDiscountRule.
+     * @param lowerBound - the (exclusive) start of the discount window
+     * @param upperBound - the (exclusive) end of the discount window
+     * @param percentage - the fraction of the ticket price to take off i.e. 0.25 for 25% off
+     * @throws IllegalArgumentException if a bound is null, the window is empty, or the percentage is not between 0 and 1
+     */
+    public ShowingTimeWindowDiscountRule(LocalTime lowerBound, LocalTime upperBound, BigDecimal percentage) {
+        if (lowerBound == null || upperBound == null || !lowerBound.isBefore(upperBound)) {
+            throw new IllegalArgumentException("Discount window bounds cannot be null and lower bound must be before upper bound!");
+        }
+        DiscountType.PERCENTAGE.validateDiscountValue(percentage);
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.percentage = percentage;
+    }
+
+    /**
+     * @return the (exclusive) start of the discount window
+     */
+    public LocalTime getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * @return the (exclusive) end of the discount window
+     */
+    public LocalTime getUpperBound() {
+        return upperBound;
+    }
+
+    @Override
+    public DiscountType getDiscountType() {
+        return DiscountType.PERCENTAGE;
+    }
+
+    @Override
+    public BigDecimal getDiscountValue() {
+        return percentage;
+    }
+
+    /**
+     * The showing is eligible if it starts on the business date and strictly inside the window.
+     * The date and time parts are compared directly so no LocalDateTime bounds have to be created per call.
+     */
+    @Override
+    public boolean isApplicable(Showing showing, LocalDate businessDate) {
+        LocalDateTime showStartTime = showing.getShowStartTime();
+        if (showStartTime == null || !showStartTime.toLocalDate().equals(businessDate)) {
+            return false;
+        }
+        LocalTime startTime = showStartTime.toLocalTime();
+        return startTime.isAfter(lowerBound) && startTime.isBefore(upperBound);
+    }
+
+    @Override
+    public String toString() {
+        return "ShowingTimeWindowDiscountRule {lowerBound=" + lowerBound + ", upperBound=" + upperBound + ", percentage=" + percentage + '}';
+    }
+}
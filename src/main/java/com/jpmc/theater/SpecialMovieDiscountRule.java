@@ -0,0 +1,53 @@
+package com.jpmc.theater;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * This class represents a percentage discount for movies carrying a specific special code.
+ *
+ * @author coder050519123
+ */
+public class SpecialMovieDiscountRule implements DiscountRule {
+    private final int specialCode;
+    private final BigDecimal percentage;
+
+    /**
+     * Constructs a new SpecialMovieDiscountRule.
+     * @param specialCode - the movie special code eligible for the discount
+     * @param percentage - the fraction of the ticket price to take off i.e. 0.2 for 20% off
+     * @throws IllegalArgumentException if the percentage is null or not between 0 and 1
+     */
+    public SpecialMovieDiscountRule(int specialCode, BigDecimal percentage) {
+        DiscountType.PERCENTAGE.validateDiscountValue(percentage);
+        this.specialCode = specialCode;
+        this.percentage = percentage;
+    }
+
+    /**
+     * @return the movie special code eligible for the discount
+     */
+    public int getSpecialCode() {
+        return specialCode;
+    }
+
+    @Override
+    public DiscountType getDiscountType() {
+        return DiscountType.PERCENTAGE;
+    }
+
+    @Override
+    public BigDecimal getDiscountValue() {
+        return percentage;
+    }
+
+    @Override
+    public boolean isApplicable(Showing showing, LocalDate businessDate) {
+        return showing.getMovie().getSpecialCode() == specialCode;
+    }
+
+    @Override
+    public String toString() {
+        return "SpecialMovieDiscountRule {specialCode=" + specialCode + ", percentage=" + percentage + '}';
+    }
+}
@@ -1,121 +1,1230 @@
 package com.jpmc.theater;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 /**
- * This class represents the theater containing a schedule of movie showings in the day.
- * The theater object holds a list of showings containing the respective movies.
+ * This class represents the theater containing a schedule of movie showings across days and auditoriums.
+ * The theater object holds its showings in a ScheduleIndex so they can be found by date, auditorium, and sequence.
  *
  * @author coder050519123
  */
 public class Theater {
-    private List<Showing> schedule;
+    /**
+     * Below this number of showings a schedule is priced on the calling thread even when a ForkJoinPool is provided.
+     */
+    private static final int PARALLEL_PRICING_THRESHOLD = 1024;
+
+    /**
+     * How long seats are held during checkout when no hold duration is provided.
+     */
+    public static final Duration DEFAULT_HOLD_DURATION = Duration.ofMinutes(5);
+
+    /**
+     * Precision of seat hold expiry, and number of ticks of the hold timing wheel (a little over 8 minutes per rotation).
+     */
+    private static final long HOLD_TICK_MILLIS = 1000;
+    private static final int HOLD_TICKS_PER_WHEEL = 512;
+
+    /**
+     * Most idempotency keys of reservations remembered at the same time when no limit is provided.
+     */
+    public static final int MAX_IDEMPOTENCY_KEYS = 100_000;
+
+    /**
+     * How long the idempotency key of a reservation is remembered after its first call when no time to live is provided,
+     * long enough for clients retrying after a timeout; a full cache takes new keys again once its oldest keys are this old.
+     */
+    public static final Duration IDEMPOTENCY_KEY_TIME_TO_LIVE = Duration.ofHours(1);
+
+    /**
+     * Number of most recent schedule changes kept for consumers catching up with getScheduleChangesSince().
+     */
+    private static final int SCHEDULE_CHANGE_LOG_CAPACITY = 4096;
+
+    /**
+     * Jackson mapper configuration shared by every theater: mappers and writers are thread-safe once configured,
+     * and keeping them alive keeps their serializer caches warm. Streams handed to the theater are never closed by Jackson,
+     * and the output is only flushed once the whole schedule is written.
+     */
+    private static final ObjectMapper SCHEDULE_JSON_MAPPER = new ObjectMapper()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    private static final JsonFactory SCHEDULE_JSON_FACTORY = SCHEDULE_JSON_MAPPER.getFactory();
+    private static final ObjectWriter SHOWING_JSON_WRITER = SCHEDULE_JSON_MAPPER.writerFor(Showing.class);
+    private static final ScheduleTextRenderer SCHEDULE_TEXT_RENDERER = new ScheduleTextRenderer();
+
+    private volatile ScheduleIndex schedule;
+    private final AtomicLong scheduleVersion = new AtomicLong();
+    private final ScheduleChangeLog scheduleChanges = new ScheduleChangeLog(SCHEDULE_CHANGE_LOG_CAPACITY);
+    private final AtomicReferenceArray<RenderedSchedule> renderedSchedules = new AtomicReferenceArray<>(ScheduleFormat.values().length);
+    private final MovieDiscountCalculator movieDiscountCalculator;
+    private final MovieCatalog movieCatalog = new MovieCatalog();
+    private final Duration holdDuration;
+    private final HashedTimingWheel<SeatHold> holdExpiryWheel;
+    private final AtomicLong holdIds = new AtomicLong();
+    private final AtomicLong reservationIds = new AtomicLong();
+    private final CustomerRegistry customerRegistry = new CustomerRegistry();
+    private final CustomerReservationIndex reservationHistory = new CustomerReservationIndex();
+    private final IdempotencyCache<Reservation> idempotentReservations;
+    private volatile ReservationJournal journal;
+    private volatile AdmissionController admissionController;
+    private volatile TheaterMetrics metrics = TheaterMetrics.DISABLED;
 
     /**
      * Constructs a new Theater object with the provided schedule list of showings
-     * @param schedule - List of movie showings for the day
+     * @param schedule - List of movie showings, keys (date, auditorium, sequence) must be unique, priced by the theater's calculator from now on
+     * @throws IllegalArgumentException if a showing has no start time or two showings share the same key
      */
     public Theater(List<Showing> schedule) {
-        this.schedule = schedule;
+        this(schedule, new MovieDiscountCalculator());
+    }
+
+    /**
+     * Constructs a new Theater object with the provided schedule list of showings and discount calculator
+     * @param schedule - List of movie showings, keys (date, auditorium, sequence) must be unique, priced by the theater's calculator from now on
+     * @param movieDiscountCalculator - the calculator used to price the whole schedule, its clock gives the theater's business date
+     * @throws IllegalArgumentException if the calculator is null, a showing has no start time or two showings share the same key
+     */
+    public Theater(List<Showing> schedule, MovieDiscountCalculator movieDiscountCalculator) {
+        this(schedule, movieDiscountCalculator, DEFAULT_HOLD_DURATION);
+    }
+
+    /**
+     * Constructs a new Theater object with the provided schedule list of showings, discount calculator, and seat hold duration
+     * @param schedule - List of movie showings, keys (date, auditorium, sequence) must be unique, priced by the theater's calculator from now on
+     * @param movieDiscountCalculator - the calculator used to price the whole schedule, its clock gives the theater's business date and hold expiry times
+     * @param holdDuration - how long seats are held during checkout before being released
+     * @throws IllegalArgumentException if the calculator is null, the hold duration is null or not positive,
+     * a showing has no start time or two showings share the same key
+     */
+    public Theater(List<Showing> schedule, MovieDiscountCalculator movieDiscountCalculator, Duration holdDuration) {
+        this(schedule, movieDiscountCalculator, holdDuration, MAX_IDEMPOTENCY_KEYS, IDEMPOTENCY_KEY_TIME_TO_LIVE);
+    }
+
+    /**
+     * Constructs a new Theater object with the provided schedule list of showings, discount calculator, seat hold duration,
+     * and idempotency key limits, sized to the idempotent reservations expected within the time to live (e.g. of a ticket drop)
+     * @param schedule - List of movie showings, keys (date, auditorium, sequence) must be unique, priced by the theater's calculator from now on
+     * @param movieDiscountCalculator - the calculator used to price the whole schedule, its clock gives the theater's business date and hold expiry times
+     * @param holdDuration - how long seats are held during checkout before being released
+     * @param maxIdempotencyKeys - the most idempotency keys of reservations remembered at the same time
+     * @param idempotencyKeyTimeToLive - how long the idempotency key of a reservation is remembered after its first call
+     * @throws IllegalArgumentException if the calculator is null, the hold duration or the time to live is null or not positive,
+     * the maximum number of idempotency keys is less than 1, a showing has no start time or two showings share the same key
+     */
+    public Theater(List<Showing> schedule, MovieDiscountCalculator movieDiscountCalculator, Duration holdDuration,
+                   int maxIdempotencyKeys, Duration idempotencyKeyTimeToLive) {
+        if (movieDiscountCalculator == null) {
+            throw new IllegalArgumentException("Movie discount calculator cannot be null!");
+        }
+        if (holdDuration == null || holdDuration.isNegative() || holdDuration.isZero()) {
+            throw new IllegalArgumentException("Hold duration must be positive!");
+        }
+        this.schedule = new ScheduleIndex(schedule, movieCatalog);
+        this.movieDiscountCalculator = movieDiscountCalculator;
+        bindShowings(this.schedule.showingsView());
+        this.holdDuration = holdDuration;
+        this.holdExpiryWheel = new HashedTimingWheel<>(HOLD_TICK_MILLIS, HOLD_TICKS_PER_WHEEL, movieDiscountCalculator.getClock().millis());
+        this.idempotentReservations = new IdempotencyCache<>(maxIdempotencyKeys, idempotencyKeyTimeToLive, movieDiscountCalculator.getClock());
     }
 
     /**
-     * @return the schedule list of showings for the theater for the day
+     * @return the schedule list of showings for the theater, ordered by date, auditorium, and sequence of the day
      */
     public List<Showing> getSchedule() {
+        return schedule.getShowings();
+    }
+
+    /**
+     * @return the indexed schedule of the theater for lookups by key, date, movie, or start time
+     */
+    public ScheduleIndex getScheduleIndex() {
         return schedule;
     }
 
     /**
-     * @param schedule - method to change the schedule list of the theater for the day
+     * @return the catalog interning the movies of the showings scheduled in the theater, kept across schedule changes
      */
-    public void setSchedule(List<Showing> schedule) {
-        this.schedule = schedule;
+    public MovieCatalog getMovieCatalog() {
+        return movieCatalog;
     }
 
     /**
-     * Method to create a reservation in the theater based on the day's schedule
+     * @param schedule - method to change the schedule list of the theater, the showings are priced by the theater's calculator from now on
+     * @throws IllegalArgumentException if a showing has no start time or two showings share the same key
+     */
+    public synchronized void setSchedule(List<Showing> schedule) {
+        ScheduleIndex index = new ScheduleIndex(schedule, movieCatalog);
+        bindShowings(index.showingsView());
+        this.schedule = index;
+        recordScheduleChange(ScheduleChangeType.REPLACED, null, null);
+    }
+
+    /**
+     * Method to add a showing to the schedule without replacing the rest of it
+     * @param showing - the showing to add, priced by the theater's calculator from now on
+     * @return the change event of the addition
+     * @throws IllegalArgumentException if the showing is null, has no start time, or its key is already scheduled
+     */
+    public synchronized ScheduleChangeEvent addShowing(Showing showing) {
+        if (showing != null && showing.getShowingKey() != null && !schedule.findShowing(showing.getShowingKey()).isPresent()) {
+            showing.bindTo(movieDiscountCalculator);
+        }
+        schedule.add(showing);
+        return recordScheduleChange(ScheduleChangeType.ADDED, showing, null);
+    }
+
+    /**
+     * Method to remove a showing from the schedule. Reservations and holds already made for the showing are kept.
+     * @param key - the key of the showing to cancel
+     * @return the change event of the cancellation
+     * @throws IllegalStateException if no showing is scheduled for the key
+     */
+    public synchronized ScheduleChangeEvent cancelShowing(ShowingKey key) {
+        Showing showing = schedule.remove(key);
+        if (showing == null) {
+            throw new IllegalStateException("Not able to find any showing for given showing " + key);
+        }
+        return recordScheduleChange(ScheduleChangeType.CANCELLED, showing, null);
+    }
+
+    /**
+     * Method to move a showing to a new start time. The showing keeps its auditorium, sequence, and the seats already taken;
+     * its key changes if the new start time is on another date.
+     * @param key - the key of the showing to move
+     * @param showStartTime - the new start time
+     * @return the change event of the move, holding the moved showing
+     * @throws IllegalArgumentException if the start time is null or the new key is already scheduled
+     * @throws IllegalStateException if no showing is scheduled for the key
+     */
+    public synchronized ScheduleChangeEvent retimeShowing(ShowingKey key, LocalDateTime showStartTime) {
+        Showing showing = schedule.findShowing(key)
+                .orElseThrow(() -> new IllegalStateException("Not able to find any showing for given showing " + key));
+        Showing retimed = showing.withShowStartTime(showStartTime);
+        schedule.replace(key, retimed);
+        return recordScheduleChange(ScheduleChangeType.RETIMED, retimed, key);
+    }
+
+    /**
+     * Method to catch up with the schedule from a version already applied, without reloading the whole schedule.
+     * Only the most recent changes are kept: a consumer further behind gets a single REPLACED event and has to reload the schedule.
+     * @param version - the last schedule version the consumer applied
+     * @return the changes made after the version, in version order
+     * @throws IllegalArgumentException if the version is negative or after the current schedule version
+     */
+    public List<ScheduleChangeEvent> getScheduleChangesSince(long version) {
+        return scheduleChanges.since(version);
+    }
+
+    /**
+     * @return the version of the schedule, incremented every time the schedule changes
+     */
+    public long getScheduleVersion() {
+        return scheduleVersion.get();
+    }
+
+    /**
+     * This method makes the showings priced by the theater's calculator, so their prices agree with the price table and the renders.
+     */
+    private void bindShowings(Iterable<Showing> showings) {
+        for (Showing showing : showings) {
+            showing.bindTo(movieDiscountCalculator);
+        }
+    }
+
+    /**
+     * This method records a change already applied to the schedule, callers hold the theater's lock so versions follow each other.
+     */
+    private ScheduleChangeEvent recordScheduleChange(ScheduleChangeType type, Showing showing, ShowingKey previousShowingKey) {
+        // bumped after the change is visible, so a render can never cache the old schedule under the new version
+        ScheduleChangeEvent event = new ScheduleChangeEvent(scheduleVersion.get() + 1, type, showing, previousShowingKey);
+        scheduleChanges.append(event);
+        scheduleVersion.set(event.getVersion());
+        return event;
+    }
+
+    /**
+     * Method to create a reservation in the theater for a showing of the default auditorium on the current business date
      * @param customer - customer initiating reservation request
      * @param sequence - the selected showing sequence
      * @param ticketAmount - the requested party size of the reservation
      * @return the reservation object if all the input parameters are valid
      * @throws IllegalArgumentException if the ticket amount is less than 1
-     * @throws IllegalStateException if the showing sequence cannot be found in the schedule
+     * @throws IllegalStateException if the showing sequence cannot be found in the schedule or does not have enough seats left
+     * @throws UncheckedIOException if the theater journals reservations and the reservation could not be made durable
      */
     public Reservation createReservation(Customer customer, int sequence, int ticketAmount) {
-        if (ticketAmount <= 0) {
-            throw new IllegalArgumentException("Ticket amount cannot be less than 1!");
+        return createReservation(customer, movieDiscountCalculator.getBusinessDate(), Showing.DEFAULT_AUDITORIUM, sequence, ticketAmount);
+    }
+
+    /**
+     * Method to create a reservation in the theater for the showing with the given date, auditorium, and sequence
+     * @param customer - customer initiating reservation request
+     * @param date - the date of the selected showing
+     * @param auditorium - the auditorium of the selected showing
+     * @param sequence - the selected showing sequence
+     * @param ticketAmount - the requested party size of the reservation
+     * @return the reservation object if all the input parameters are valid
+     * @throws IllegalArgumentException if the ticket amount is less than 1 or the date is null
+     * @throws IllegalStateException if the showing cannot be found in the schedule or does not have enough seats left
+     * @throws AdmissionRejectedException if the admission controller rejects the call
+     * @throws UncheckedIOException if the theater journals reservations and the reservation could not be made durable
+     */
+    public Reservation createReservation(Customer customer, LocalDate date, int auditorium, int sequence, int ticketAmount) {
+        return createJournaledReservation(customer, date, auditorium, sequence, ticketAmount).sync();
+    }
+
+    /**
+     * Method to create a reservation as createReservation would, up to appending it to the journal.
+     * The reservation is only handed out by sync, for callers running the fsync on a thread of their own.
+     * @throws IllegalArgumentException if the ticket amount is less than 1 or the date is null
+     * @throws IllegalStateException if the showing cannot be found in the schedule or does not have enough seats left
+     * @throws AdmissionRejectedException if the admission controller rejects the call
+     * @throws UncheckedIOException if the theater journals reservations and the reservation could not be appended
+     */
+    Journaled<Reservation> createJournaledReservation(Customer customer, LocalDate date, int auditorium, int sequence, int ticketAmount) {
+        TheaterMetrics metrics = this.metrics;
+        long startNanos = metrics.startTimer();
+        boolean admitted = false;
+        ShowingKey key;
+        try {
+            key = new ShowingKey(date, auditorium, sequence);
+            admit(customerId(customer), key);
+            admitted = true;
+        } finally {
+            if (!admitted) {
+                metrics.recordReservation(startNanos, false);
+            }
+        }
+        return appendReservation(customer, key, ticketAmount, metrics, startNanos);
+    }
+
+    /**
+     * Method to create a reservation as createReservation would, returning the failure instead of throwing it.
+     * A call shed by the admission controller returns its shared AdmissionRejectedException without building or throwing anything else,
+     * for callers that expect to shed calls often and would rather not pay for an exception on each.
+     * @param request - the reservation asked for
+     * @return the result of the request, with the reservation if made or the exception createReservation would have thrown
+     * @throws IllegalArgumentException if the request is null
+     */
+    public ReservationResult tryCreateReservation(ReservationRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Reservation request cannot be null!");
+        }
+        TheaterMetrics metrics = this.metrics;
+        long startNanos = metrics.startTimer();
+        ShowingKey key = request.getShowingKey();
+        if (key == null || request.getTicketAmount() <= 0) {
+            metrics.recordReservation(startNanos, false);
+            return ReservationResult.failure(request, new IllegalArgumentException("Reservation showing cannot be null and ticket amount cannot be less than 1!"));
+        }
+        Admission admission = tryAdmit(customerId(request.getCustomer()), key);
+        if (admission != Admission.ADMITTED) {
+            metrics.recordReservation(startNanos, false);
+            return ReservationResult.failure(request, AdmissionRejectedException.of(admission));
         }
-        Showing showing;
         try {
-            showing = schedule.get(sequence - 1);
-        } catch (IndexOutOfBoundsException ex) {
-            throw new IllegalStateException("Not able to find any showing for given sequence " + sequence + " and exception is: " + ex.getMessage());
+            return ReservationResult.success(request, appendReservation(request.getCustomer(), key, request.getTicketAmount(), metrics, startNanos).sync());
+        } catch (RuntimeException ex) {
+            return ReservationResult.failure(request, ex);
         }
-        return new Reservation(customer, showing, ticketAmount);
     }
 
     /**
-     * Method to print the theater schedule in a pretty format
+     * Method to create a reservation at most once per idempotency key, for clients retrying after a timeout.
+     * A call with a key seen within the theater's idempotency key time to live returns the reservation of the first call without reserving again,
+     * waiting for it if the first call is still running. A call that throws is not remembered, so it can be retried.
+     * @param idempotencyKey - the key chosen by the client, the same for every retry of the reservation
+     * @param customer - customer initiating reservation request
+     * @param date - the date of the selected showing
+     * @param auditorium - the auditorium of the selected showing
+     * @param sequence - the selected showing sequence
+     * @param ticketAmount - the requested party size of the reservation
+     * @return the reservation made for the key
+     * @throws IllegalArgumentException if the key or the date is null, or the ticket amount is less than 1
+     * @throws IllegalStateException if the key was used for another reservation, too many keys within the time to live
+     * are remembered to take a new one, or the showing cannot be found or does not have enough seats left
+     * @throws UncheckedIOException if the theater journals reservations and the reservation could not be made durable
+     */
+    public Reservation createReservation(String idempotencyKey, Customer customer, LocalDate date, int auditorium, int sequence, int ticketAmount) {
+        ShowingKey key = new ShowingKey(date, auditorium, sequence);
+        return idempotentReservations.execute(idempotencyKey, Arrays.asList(customer, key, ticketAmount),
+                () -> createReservation(customer, date, auditorium, sequence, ticketAmount));
+    }
+
+    /**
+     * Method to create a reservation for a customer of the theater's registry, for the showing with the given date, auditorium, and sequence.
+     * The reservation refers to the customer by handle instead of holding a Customer object.
+     * @param customerHandle - the handle of the customer in the theater's customer registry
+     * @param date - the date of the selected showing
+     * @param auditorium - the auditorium of the selected showing
+     * @param sequence - the selected showing sequence
+     * @param ticketAmount - the requested party size of the reservation
+     * @return the reservation object if all the input parameters are valid
+     * @throws IllegalArgumentException if no customer is registered under the handle, the ticket amount is less than 1, or the date is null
+     * @throws IllegalStateException if the showing cannot be found in the schedule or does not have enough seats left
+     * @throws AdmissionRejectedException if the admission controller rejects the call
+     * @throws UncheckedIOException if the theater journals reservations and the reservation could not be made durable
      */
-    public void printSchedule() {
-        if (schedule.isEmpty()) {
-            System.out.println("No shows scheduled.");
+    public Reservation createReservation(int customerHandle, LocalDate date, int auditorium, int sequence, int ticketAmount) {
+        TheaterMetrics metrics = this.metrics;
+        long startNanos = metrics.startTimer();
+        boolean created = false;
+        try {
+            String customerId = customerRegistry.getId(customerHandle);
+            ShowingKey key = new ShowingKey(date, auditorium, sequence);
+            admit(customerId, key);
+            Showing showing = findShowingToReserve(key, ticketAmount);
+            List<Seat> seats = allocateSeats(showing, key, ticketAmount);
+            Reservation reservation = new Reservation(reservationIds.incrementAndGet(), customerRegistry, customerHandle, showing, ticketAmount, seats);
+            journal(reservation);
+            recordHistory(reservation);
+            created = true;
+            return reservation;
+        } finally {
+            metrics.recordReservation(startNanos, created);
+        }
+    }
+
+    /**
+     * Method to create a batch of reservations at once, for group sales and partner integrations.
+     * The whole batch is validated first, then the requests are applied grouped by showing, and every reservation made
+     * is journaled with a single sync of the journal. A request that fails does not stop the others.
+     * @param requests - the reservations asked for
+     * @return the result of each request, in the order of the requests
+     * @throws IllegalArgumentException if the list of requests is null
+     */
+    public List<ReservationResult> createReservations(List<ReservationRequest> requests) {
+        return createJournaledReservations(requests).sync();
+    }
+
+    /**
+     * Method to create a batch of reservations as createReservations would, up to appending them to the journal.
+     * The results are only handed out by sync, for callers running the fsync on a thread of their own.
+     * @throws IllegalArgumentException if the list of requests is null
+     */
+    Journaled<List<ReservationResult>> createJournaledReservations(List<ReservationRequest> requests) {
+        if (requests == null) {
+            throw new IllegalArgumentException("Reservation requests cannot be null!");
+        }
+        TheaterMetrics metrics = this.metrics;
+        long startNanos = metrics.startTimer();
+        ReservationResult[] results = new ReservationResult[requests.size()];
+        List<PendingReservation> pending = new ArrayList<>(requests.size());
+        for (int i = 0; i < results.length; i++) {
+            ReservationRequest request = requests.get(i);
+            if (request == null || request.getShowingKey() == null) {
+                results[i] = ReservationResult.failure(request, new IllegalArgumentException("Reservation request and its showing cannot be null!"));
+            } else if (request.getTicketAmount() <= 0) {
+                results[i] = ReservationResult.failure(request, new IllegalArgumentException("Ticket amount cannot be less than 1!"));
+            } else {
+                Admission admission = tryAdmit(customerId(request.getCustomer()), request.getShowingKey());
+                Showing showing = schedule.findShowing(request.getShowingKey()).orElse(null);
+                if (admission != Admission.ADMITTED) {
+                    results[i] = ReservationResult.failure(request, AdmissionRejectedException.of(admission));
+                } else if (showing == null) {
+                    results[i] = ReservationResult.failure(request,
+                            new IllegalStateException("Not able to find any showing for given showing " + request.getShowingKey()));
+                } else {
+                    pending.add(new PendingReservation(i, request, showing));
+                }
+            }
+        }
+        // requests of the same showing are applied back to back, in request order
+        pending.sort(Comparator.comparing(reservation -> reservation.request.getShowingKey()));
+
+        List<PendingReservation> made = new ArrayList<>(pending.size());
+        for (PendingReservation reservation : pending) {
+            int ticketAmount = reservation.request.getTicketAmount();
+            List<Seat> seats;
+            try {
+                seats = allocateSeats(reservation.showing, reservation.request.getShowingKey(), ticketAmount);
+            } catch (IllegalStateException ex) {
+                results[reservation.index] = ReservationResult.failure(reservation.request, ex);
+                continue;
+            }
+            reservation.reservation = new Reservation(reservationIds.incrementAndGet(), reservation.request.getCustomer(), reservation.showing, ticketAmount, seats);
+            results[reservation.index] = ReservationResult.success(reservation.request, reservation.reservation);
+            made.add(reservation);
+        }
+        ReservationJournal journal = this.journal;
+        List<PendingReservation> appended = appendToJournal(journal, made, results);
+        return new Journaled<List<ReservationResult>>(appended.isEmpty() ? 0 : appended.get(appended.size() - 1).lsn) {
+            @Override
+            List<ReservationResult> sync() {
+                syncJournal(journal, appended, results);
+                for (ReservationResult result : results) {
+                    if (result.isSuccess()) {
+                        recordHistory(result.getReservation());
+                    }
+                    metrics.recordReservation(startNanos, result.isSuccess());
+                }
+                return Arrays.asList(results);
+            }
+        };
+    }
+
+    /**
+     * This method appends a batch of reservations to the journal, turning the results of reservations
+     * that could not be appended into failures and giving their seats back.
+     * @return the reservations appended, in LSN order
+     */
+    private List<PendingReservation> appendToJournal(ReservationJournal journal, List<PendingReservation> made, ReservationResult[] results) {
+        if (journal == null) {
+            return List.of();
+        }
+        List<PendingReservation> appended = new ArrayList<>(made.size());
+        for (PendingReservation pending : made) {
+            try {
+                pending.lsn = journal.append(pending.reservation);
+                appended.add(pending);
+            } catch (IOException | RuntimeException ex) {
+                releaseSeats(pending.reservation);
+                results[pending.index] = ReservationResult.failure(pending.request, journalFailure(pending.reservation, ex));
+            }
+        }
+        return appended;
+    }
+
+    /**
+     * This method makes the appended reservations of a batch durable with a single sync. If the sync fails, every reservation
+     * of the batch is aborted in the journal first, as a single reservation would be, and its result turned into a failure.
+     */
+    private void syncJournal(ReservationJournal journal, List<PendingReservation> appended, ReservationResult[] results) {
+        if (appended.isEmpty()) {
             return;
         }
-        System.out.println(LocalDate.now());
-        System.out.println("===================================================");
-        schedule.forEach(s ->
-                System.out.println(s.getSequenceOfTheDay() + ": " + s.getShowStartTime() + " " + s.getMovie().getTitle() + " " + convertMovieDurationToReadableFormat(s.getMovie().getRunningTime()) + " $" + s.getMovie().getTicketPrice())
-        );
-        System.out.println("===================================================");
+        try {
+            journal.sync(appended.get(appended.size() - 1).lsn);
+        } catch (IOException | RuntimeException ex) {
+            for (PendingReservation pending : appended) {
+                RuntimeException failure = journalFailure(pending.reservation, ex);
+                if (abort(journal, pending.lsn, failure)) {
+                    releaseSeats(pending.reservation);
+                }
+                results[pending.index] = ReservationResult.failure(pending.request, failure);
+            }
+        }
+    }
+
+    private static RuntimeException journalFailure(Reservation reservation, Exception ex) {
+        if (ex instanceof IOException) {
+            return new UncheckedIOException("Could not journal reservation " + reservation.getReservationId(), (IOException) ex);
+        }
+        return (RuntimeException) ex;
+    }
+
+    /**
+     * Method to page through the reservations of a customer, ordered by show time
+     * @param customer - the customer to list the reservations of, identified by id
+     * @param cursor - CustomerReservationIndex.FIRST_PAGE, or the next cursor of the previous page
+     * @param limit - the most reservations to return
+     * @return the page of the customer's reservations after the cursor
+     * @throws IllegalArgumentException if the customer is null or the limit is less than 1
+     */
+    public ReservationPage findReservations(Customer customer, long cursor, int limit) {
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer cannot be null!");
+        }
+        return reservationHistory.findReservations(customer.getId(), cursor, limit);
+    }
+
+    /**
+     * @return the index of the reservations made in the theater by customer id
+     */
+    public CustomerReservationIndex getReservationHistory() {
+        return reservationHistory;
+    }
+
+    /**
+     * @return the registry of the theater's customers, whose handles can be used to create reservations
+     */
+    public CustomerRegistry getCustomerRegistry() {
+        return customerRegistry;
+    }
+
+    /**
+     * Method to shed reservation calls over budget: once set, every reservation and hold asks the controller to admit it first,
+     * and calls it rejects fail with an AdmissionRejectedException without touching the schedule.
+     * Reservations of the batch are admitted one by one. Retries of an idempotent reservation already made are not charged.
+     * @param admissionController - the controller admitting reservation calls, null to admit every call
+     */
+    public void setAdmissionController(AdmissionController admissionController) {
+        this.admissionController = admissionController;
     }
 
     /**
-     * Method to print the theater schedule in a JSON format
+     * @return the controller admitting reservation calls, null if every call is admitted
+     */
+    public AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
+    /**
+     * Method to instrument the theater: reservation calls and JSON schedule prints are timed and counted, showing price lookups
+     * through the theater's discount calculator are recorded, and the seats sold and active holds gauges are registered.
+     * @param metrics - the metrics to record to, TheaterMetrics.DISABLED to stop recording
+     * @throws IllegalArgumentException if the metrics are null
+     */
+    public void setMetrics(TheaterMetrics metrics) {
+        if (metrics == null) {
+            throw new IllegalArgumentException("Metrics cannot be null!");
+        }
+        metrics.registerGauge(TheaterMetrics.SEATS_SOLD, this::countSeatsSold);
+        metrics.registerGauge(TheaterMetrics.ACTIVE_HOLDS, this::getActiveHoldCount);
+        movieDiscountCalculator.setMetrics(metrics);
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return the metrics the theater records to, TheaterMetrics.DISABLED if it is not instrumented
+     */
+    public TheaterMetrics getMetrics() {
+        return metrics;
+    }
+
+    private long countSeatsSold() {
+        long seatsSold = 0;
+        for (Showing showing : schedule.getShowings()) {
+            seatsSold += showing.getSeatInventory().getAllocatedSeats();
+        }
+        return seatsSold;
+    }
+
+    /**
+     * Method to hold seats during checkout for a showing of the default auditorium on the current business date
+     * @param customer - customer initiating the checkout
+     * @param sequence - the selected showing sequence
+     * @param ticketAmount - the requested party size
+     * @return the hold, to be confirmed or released before it expires
+     * @throws IllegalArgumentException if the ticket amount is less than 1
+     * @throws IllegalStateException if the showing sequence cannot be found in the schedule or does not have enough seats left
+     */
+    public SeatHold holdSeats(Customer customer, int sequence, int ticketAmount) {
+        return holdSeats(customer, movieDiscountCalculator.getBusinessDate(), Showing.DEFAULT_AUDITORIUM, sequence, ticketAmount);
+    }
+
+    /**
+     * Method to hold seats during checkout for the showing with the given date, auditorium, and sequence.
+     * The seats are taken right away and given back automatically once the hold duration goes by without a confirmation.
+     * @param customer - customer initiating the checkout
+     * @param date - the date of the selected showing
+     * @param auditorium - the auditorium of the selected showing
+     * @param sequence - the selected showing sequence
+     * @param ticketAmount - the requested party size
+     * @return the hold, to be confirmed or released before it expires
+     * @throws IllegalArgumentException if the ticket amount is less than 1 or the date is null
+     * @throws IllegalStateException if the showing cannot be found in the schedule or does not have enough seats left
+     * @throws AdmissionRejectedException if the admission controller rejects the call
+     */
+    public SeatHold holdSeats(Customer customer, LocalDate date, int auditorium, int sequence, int ticketAmount) {
+        long now = movieDiscountCalculator.getClock().millis();
+        expireHolds(now);
+        ShowingKey key = new ShowingKey(date, auditorium, sequence);
+        admit(customerId(customer), key);
+        Showing showing = findShowingToReserve(key, ticketAmount);
+        List<Seat> seats = allocateSeats(showing, key, ticketAmount);
+        SeatHold hold = new SeatHold(holdIds.incrementAndGet(), customer, showing, ticketAmount, seats, now + holdDuration.toMillis());
+        hold.setTimeout(holdExpiryWheel.schedule(hold, hold.getExpiresAtMillis()));
+        return hold;
+    }
+
+    /**
+     * Method to turn a hold into a reservation for the held seats
+     * @param hold - the hold to confirm
+     * @return the reservation of the held seats
+     * @throws IllegalArgumentException if the hold is null
+     * @throws IllegalStateException if the hold expired, was released, or was already confirmed
+     * @throws UncheckedIOException if the theater journals reservations and the reservation could not be made durable,
+     * the hold is RELEASED then
+     */
+    public Reservation confirmHold(SeatHold hold) {
+        if (hold == null) {
+            throw new IllegalArgumentException("Seat hold cannot be null!");
+        }
+        TheaterMetrics metrics = this.metrics;
+        long startNanos = metrics.startTimer();
+        boolean created = false;
+        try {
+            long now = movieDiscountCalculator.getClock().millis();
+            expireHolds(now);
+            // the wheel only expires holds once their tick is over, a hold past its deadline within the current tick expires here
+            if (now >= hold.getExpiresAtMillis() && hold.complete(SeatHold.State.EXPIRED)) {
+                holdExpiryWheel.cancel(hold.getTimeout());
+                releaseSeats(hold);
+            }
+            if (!hold.complete(SeatHold.State.CONFIRMED)) {
+                throw new IllegalStateException("Cannot confirm a seat hold in state " + hold.getState() + ": " + hold);
+            }
+            holdExpiryWheel.cancel(hold.getTimeout());
+            Reservation reservation = new Reservation(reservationIds.incrementAndGet(), hold.getCustomer(), hold.getShowing(), hold.getAudienceCount(), hold.getSeats());
+            try {
+                journal(reservation);
+            } catch (RuntimeException ex) {
+                // the journal gave the seats back (or keeps them until a restart if even the abort failed), the hold has nothing left to confirm
+                hold.revokeConfirmation();
+                throw ex;
+            }
+            recordHistory(reservation);
+            created = true;
+            return reservation;
+        } finally {
+            metrics.recordReservation(startNanos, created);
+        }
+    }
+
+    /**
+     * Method to give held seats back to the showing, when checkout is abandoned
+     * @param hold - the hold to release
+     * @return true if the seats were released, false if the hold was not held anymore
+     * @throws IllegalArgumentException if the hold is null
+     */
+    public boolean releaseHold(SeatHold hold) {
+        if (hold == null) {
+            throw new IllegalArgumentException("Seat hold cannot be null!");
+        }
+        if (!hold.complete(SeatHold.State.RELEASED)) {
+            return false;
+        }
+        holdExpiryWheel.cancel(hold.getTimeout());
+        releaseSeats(hold);
+        return true;
+    }
+
+    /**
+     * Method to release every hold that expired by now according to the theater's clock.
+     * Holds also expire whenever seats are held or confirmed; this method lets a single periodic task keep expiry timely when the theater is idle.
+     * @return the number of holds released
+     */
+    public int expireHolds() {
+        return expireHolds(movieDiscountCalculator.getClock().millis());
+    }
+
+    /**
+     * @return the number of holds that are neither confirmed, released, nor expired yet
+     */
+    public int getActiveHoldCount() {
+        return holdExpiryWheel.size();
+    }
+
+    /**
+     * Method to restore the reservations of a journal after a restart, then journal every new reservation to it.
+     * Each recorded reservation takes its recorded seats again (or the best available ones if the record has no seats)
+     * in its showing; records of showings that are not in the schedule anymore are skipped.
+     * New reservation ids continue after the highest recorded id.
+     * @param journal - the journal to restore from and append to
+     * @return the restored reservations in journal order
+     * @throws IllegalArgumentException if the journal is null
+     * @throws IllegalStateException if the theater already has a journal, or a recorded reservation no longer fits its showing
+     * @throws UncheckedIOException if the journal cannot be read
+     */
+    public synchronized List<Reservation> attachJournal(ReservationJournal journal) {
+        if (journal == null) {
+            throw new IllegalArgumentException("Reservation journal cannot be null!");
+        }
+        if (this.journal != null) {
+            throw new IllegalStateException("Theater already has a reservation journal!");
+        }
+        List<Reservation> restored = new ArrayList<>();
+        try {
+            journal.replay(record -> schedule.findShowing(record.getShowingKey())
+                    .ifPresent(showing -> restored.add(restoreReservation(record, showing))));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not replay the reservation journal", ex);
+        }
+        this.journal = journal;
+        return restored;
+    }
+
+    private Reservation restoreReservation(JournalRecord record, Showing showing) {
+        ShowingKey key = record.getShowingKey();
+        List<Seat> seats = record.getSeats();
+        if (seats.isEmpty()) {
+            seats = allocateSeats(showing, key, record.getAudienceCount());
+        } else if (!showing.getSeatInventory().tryAllocate(record.getAudienceCount())) {
+            throw new IllegalStateException("Not enough seats left for showing " + key + " to restore " + record);
+        } else if (!showing.getSeatMap().reserve(seats)) {
+            showing.getSeatInventory().release(record.getAudienceCount());
+            throw new IllegalStateException("Seats already taken in showing " + key + " to restore " + record);
+        }
+        reservationIds.accumulateAndGet(record.getReservationId(), Math::max);
+        Reservation reservation = new Reservation(record.getReservationId(), record.getCustomer(), showing, record.getAudienceCount(), seats);
+        recordHistory(reservation);
+        return reservation;
+    }
+
+    /**
+     * This method makes the reservation durable before it is handed out, giving its seats back if the journal fails.
+     */
+    private void journal(Reservation reservation) {
+        ReservationJournal journal = this.journal;
+        syncJournal(journal, reservation, appendToJournal(journal, reservation));
+    }
+
+    /**
+     * This method appends the reservation to the journal, giving its seats back if the append fails.
+     * @return the LSN to sync, 0 if the theater does not journal reservations
+     */
+    private long appendToJournal(ReservationJournal journal, Reservation reservation) {
+        if (journal == null) {
+            return 0;
+        }
+        try {
+            return journal.append(reservation);
+        } catch (IOException | RuntimeException ex) {
+            releaseSeats(reservation);
+            throw journalFailure(reservation, ex);
+        }
+    }
+
+    /**
+     * This method syncs an appended reservation, giving its seats back if the sync fails.
+     * The reservation is aborted in the journal first, so it does not come back after a restart.
+     */
+    private void syncJournal(ReservationJournal journal, Reservation reservation, long lsn) {
+        if (lsn == 0) {
+            return;
+        }
+        try {
+            journal.sync(lsn);
+        } catch (IOException | RuntimeException ex) {
+            RuntimeException failure = journalFailure(reservation, ex);
+            if (abort(journal, lsn, failure)) {
+                releaseSeats(reservation);
+            }
+            throw failure;
+        }
+    }
+
+    /**
+     * This method aborts a reservation whose sync failed. If even the abort fails, the reservation may be restored
+     * after a restart, so its seats stay taken rather than being sold twice, and the abort failure is added to the journal failure.
+     * @return true if the reservation is aborted and its seats can be given back
+     */
+    private static boolean abort(ReservationJournal journal, long lsn, RuntimeException failure) {
+        try {
+            journal.abort(lsn);
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            failure.addSuppressed(ex);
+            return false;
+        }
+    }
+
+    /**
+     * This method adds a reservation handed out to the history of its customer, reservations without a customer id have no history.
+     */
+    private void recordHistory(Reservation reservation) {
+        Customer customer = reservation.getCustomer();
+        if (customer != null && customer.getId() != null) {
+            reservationHistory.add(reservation);
+        }
+    }
+
+    private static String customerId(Customer customer) {
+        return customer == null ? null : customer.getId();
+    }
+
+    private Admission tryAdmit(String customerId, ShowingKey key) {
+        AdmissionController admissionController = this.admissionController;
+        return admissionController == null ? Admission.ADMITTED : admissionController.tryAdmit(customerId, key);
+    }
+
+    /**
+     * This method reserves seats for an admitted call and appends the reservation to the journal.
+     * Syncing hands out the reservation, records it in the customer's history, and records the call in the metrics.
+     */
+    private Journaled<Reservation> appendReservation(Customer customer, ShowingKey key, int ticketAmount, TheaterMetrics metrics, long startNanos) {
+        ReservationJournal journal = this.journal;
+        boolean appended = false;
+        Reservation reservation;
+        long lsn;
+        try {
+            Showing showing = findShowingToReserve(key, ticketAmount);
+            List<Seat> seats = allocateSeats(showing, key, ticketAmount);
+            reservation = new Reservation(reservationIds.incrementAndGet(), customer, showing, ticketAmount, seats);
+            lsn = appendToJournal(journal, reservation);
+            appended = true;
+        } finally {
+            if (!appended) {
+                metrics.recordReservation(startNanos, false);
+            }
+        }
+        return new Journaled<Reservation>(lsn) {
+            @Override
+            Reservation sync() {
+                boolean created = false;
+                try {
+                    syncJournal(journal, reservation, lsn);
+                    recordHistory(reservation);
+                    created = true;
+                    return reservation;
+                } finally {
+                    metrics.recordReservation(startNanos, created);
+                }
+            }
+        };
+    }
+
+    private void admit(String customerId, ShowingKey key) {
+        Admission admission = tryAdmit(customerId, key);
+        if (admission != Admission.ADMITTED) {
+            throw AdmissionRejectedException.of(admission);
+        }
+    }
+
+    private int expireHolds(long now) {
+        return holdExpiryWheel.advance(now, hold -> {
+            if (hold.complete(SeatHold.State.EXPIRED)) {
+                releaseSeats(hold);
+            }
+        });
+    }
+
+    private Showing findShowingToReserve(ShowingKey key, int ticketAmount) {
+        if (ticketAmount <= 0) {
+            throw new IllegalArgumentException("Ticket amount cannot be less than 1!");
+        }
+        return schedule.findShowing(key)
+                .orElseThrow(() -> new IllegalStateException("Not able to find any showing for given showing " + key));
+    }
+
+    private static List<Seat> allocateSeats(Showing showing, ShowingKey key, int ticketAmount) {
+        if (!showing.getSeatInventory().tryAllocate(ticketAmount)) {
+            throw new IllegalStateException("Not enough seats left for showing " + key + " to reserve " + ticketAmount + " tickets");
+        }
+        List<Seat> seats = showing.getSeatMap().reserveBestAvailable(ticketAmount);
+        if (seats.isEmpty()) {
+            showing.getSeatInventory().release(ticketAmount);
+            throw new IllegalStateException("Not able to assign " + ticketAmount + " seats for showing " + key);
+        }
+        return seats;
+    }
+
+    private static void releaseSeats(Reservation reservation) {
+        reservation.getShowing().getSeatMap().release(reservation.getSeats());
+        reservation.getShowing().getSeatInventory().release(reservation.getAudienceCount());
+    }
+
+    private static void releaseSeats(SeatHold hold) {
+        hold.getShowing().getSeatMap().release(hold.getSeats());
+        hold.getShowing().getSeatInventory().release(hold.getAudienceCount());
+    }
+
+    /**
+     * Method to calculate the final price of every showing of the schedule in one pass on the calling thread.
+     * The discount rules and business date are read once for the whole schedule, using the theater's discount calculator.
+     * @return the immutable price table of the schedule
+     * @throws IllegalArgumentException if a showing or its movie is invalid
+     */
+    public SchedulePriceTable calculateSchedulePrices() {
+        return calculateSchedulePrices(null);
+    }
+
+    /**
+     * Method to calculate the final price of every showing of the schedule in one pass,
+     * splitting big schedules across the provided ForkJoinPool.
+     * @param pool - the pool to fan out over, or null to price on the calling thread
+     * @return the immutable price table of the schedule
+     * @throws IllegalArgumentException if a showing or its movie is invalid
+     */
+    public SchedulePriceTable calculateSchedulePrices(ForkJoinPool pool) {
+        Showing[] showings = schedule.showingsView().toArray(new Showing[0]);
+        long[] finalPricesInCents = new long[showings.length];
+        SchedulePricingTask pricingTask = new SchedulePricingTask(movieDiscountCalculator, movieDiscountCalculator.getDiscountRuleEngine(),
+                movieDiscountCalculator.getBusinessDate(), showings, finalPricesInCents, 0, showings.length);
+
+        if (pool == null || showings.length < PARALLEL_PRICING_THRESHOLD) {
+            pricingTask.compute();
+        } else {
+            pool.invoke(pricingTask);
+        }
+        return new SchedulePriceTable(pricingTask.businessDate, showings, finalPricesInCents);
+    }
+
+    /**
+     * Method to print the theater schedule in a pretty format, in the charset of System.out
+     */
+    public void printSchedule() {
+        System.out.print(renderedSchedule(ScheduleFormat.TEXT).text());
+        System.out.flush();
+    }
+
+    /**
+     * Method to print the theater schedule in a JSON format, in the charset of System.out
      */
     public void printScheduleToJson() {
-        ObjectMapper mapper = new ObjectMapper();
-        Map<String, List<Showing>> scheduleMap = new HashMap<>();
-        scheduleMap.put(LocalDate.now().toString(), schedule);
+        TheaterMetrics metrics = this.metrics;
+        long startNanos = metrics.startTimer();
         try {
-            String scheduleJsonWithDate = mapper.writeValueAsString(scheduleMap);
-            System.out.println(scheduleJsonWithDate);
-        } catch (JsonProcessingException ex) {
+            System.out.println(renderedSchedule(ScheduleFormat.JSON).text());
+        } catch (UncheckedIOException ex) {
             System.out.println("Could not convert schedule list with date to JSON: " + ex.getMessage());
         }
+        metrics.recordScheduleJsonPrint(startNanos);
+    }
+
+    /**
+     * Method to get the theater schedule rendered in the given format, as printed by printSchedule() and printScheduleToJson().
+     * The rendered bytes are cached until the schedule version, the business date, or the discount rules change,
+     * so every call in between shares a single render; concurrent calls on a stale cache wait for one render instead of each rendering.
+     * @param format - the format to render the schedule in
+     * @return a read-only buffer over the shared UTF-8 bytes of the schedule, positioned at 0
+     * @throws IllegalArgumentException if the format is null
+     * @throws UncheckedIOException if the schedule cannot be rendered in JSON
+     */
+    public ByteBuffer renderSchedule(ScheduleFormat format) {
+        if (format == null) {
+            throw new IllegalArgumentException("Schedule format cannot be null!");
+        }
+        return ByteBuffer.wrap(renderedSchedule(format).bytes).asReadOnlyBuffer();
+    }
+
+    private RenderedSchedule renderedSchedule(ScheduleFormat format) {
+        long version = scheduleVersion.get();
+        LocalDate businessDate = movieDiscountCalculator.getBusinessDate();
+        DiscountRuleEngine discountRuleEngine = movieDiscountCalculator.getDiscountRuleEngine();
+        RenderedSchedule rendered = renderedSchedules.get(format.ordinal());
+        if (rendered != null && rendered.isCurrent(version, businessDate, discountRuleEngine)) {
+            return rendered;
+        }
+        synchronized (renderedSchedules) {
+            rendered = renderedSchedules.get(format.ordinal());
+            if (rendered == null || !rendered.isCurrent(version, businessDate, discountRuleEngine)) {
+                rendered = new RenderedSchedule(version, businessDate, discountRuleEngine, render(format, schedule, businessDate));
+                renderedSchedules.set(format.ordinal(), rendered);
+            }
+            return rendered;
+        }
+    }
+
+    private byte[] render(ScheduleFormat format, ScheduleIndex schedule, LocalDate businessDate) {
+        if (format == ScheduleFormat.JSON) {
+            ByteArrayOutputStream json = new ByteArrayOutputStream();
+            try (JsonGenerator generator = SCHEDULE_JSON_FACTORY.createGenerator(json, JsonEncoding.UTF8)) {
+                writeScheduleJson(generator, schedule, businessDate);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not convert schedule list with date to JSON", ex);
+            }
+            return json.toByteArray();
+        }
+        ByteBuffer text = ByteBuffer.allocate(64 + schedule.size() * 96);
+        while (true) {
+            try {
+                SCHEDULE_TEXT_RENDERER.render(schedule.showingsView(), businessDate, text);
+                return Arrays.copyOf(text.array(), text.position());
+            } catch (BufferOverflowException ex) {
+                text = ByteBuffer.allocate(text.capacity() * 2);
+            }
+        }
+    }
+
+    /**
+     * Method to write the theater schedule in the format of printSchedule() into an Appendable, without intermediate Strings
+     * @param out - the destination of the text
+     * @throws IOException if the Appendable cannot be written to
+     */
+    public void writeSchedule(Appendable out) throws IOException {
+        SCHEDULE_TEXT_RENDERER.render(schedule.showingsView(), movieDiscountCalculator.getBusinessDate(), out);
+    }
+
+    /**
+     * Method to write the theater schedule in the format of printSchedule() into a ByteBuffer in UTF-8, without intermediate Strings
+     * @param out - the destination of the text, its position is moved past the written bytes
+     * @throws BufferOverflowException if the buffer does not have enough room left, part of the schedule may have been written
+     */
+    public void writeSchedule(ByteBuffer out) {
+        SCHEDULE_TEXT_RENDERER.render(schedule.showingsView(), movieDiscountCalculator.getBusinessDate(), out);
+    }
+
+    /**
+     * Method to write the theater schedule in a JSON format, as an object with the business date as its only field
+     * and the list of showings as its value. The showings are streamed one at a time, so the memory used does not
+     * grow with the size of the schedule. The stream is flushed but not closed.
+     * @param out - the stream to write UTF-8 JSON to
+     * @throws IOException if the stream cannot be written to
+     */
+    public void writeScheduleJson(OutputStream out) throws IOException {
+        try (JsonGenerator generator = SCHEDULE_JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            writeScheduleJson(generator);
+        }
+    }
+
+    /**
+     * Method to write the theater schedule in a JSON format, as an object with the business date as its only field
+     * and the list of showings as its value. The showings are streamed one at a time, so the memory used does not
+     * grow with the size of the schedule. The writer is flushed but not closed.
+     * @param writer - the writer to write JSON to
+     * @throws IOException if the writer cannot be written to
+     */
+    public void writeScheduleJson(Writer writer) throws IOException {
+        try (JsonGenerator generator = SCHEDULE_JSON_FACTORY.createGenerator(writer)) {
+            writeScheduleJson(generator);
+        }
+    }
+
+    private void writeScheduleJson(JsonGenerator generator) throws IOException {
+        writeScheduleJson(generator, schedule, movieDiscountCalculator.getBusinessDate());
+    }
+
+    private static void writeScheduleJson(JsonGenerator generator, ScheduleIndex schedule, LocalDate businessDate) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(businessDate.toString());
+        generator.writeStartArray();
+        for (Showing showing : schedule.showingsView()) {
+            SHOWING_JSON_WRITER.writeValue(generator, showing);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
     }
 
     /**
      * Method to handle the movie's duration to be printed in a readable format
      */
     public String convertMovieDurationToReadableFormat(Duration duration) {
-        long hour = duration.toHours();
-        long remainingMin = duration.toMinutes() - TimeUnit.HOURS.toMinutes(duration.toHours());
+        return ScheduleTextRenderer.formatDuration(duration);
+    }
 
-        return String.format("(%s hour%s %s minute%s)", hour, handlePluralWords(hour), remainingMin, handlePluralWords(remainingMin));
+    /**
+     * Outcome of a reservation call whose reservations are appended to the journal but not synced yet.
+     * The outcome is only handed out by sync, once its reservations are durable, and sync is called once.
+     */
+    abstract static class Journaled<T> {
+        private final long lsn;
+
+        private Journaled(long lsn) {
+            this.lsn = lsn;
+        }
+
+        /**
+         * @return the LSN sync waits for, 0 if the call appended nothing and sync does no I/O
+         */
+        long getLsn() {
+            return lsn;
+        }
+
+        /**
+         * This method makes the reservations of the call durable and hands out its outcome.
+         * @return the outcome of the call
+         * @throws UncheckedIOException if a single reservation could not be made durable, its seats are given back
+         */
+        abstract T sync();
     }
 
     /**
-     * Method to add plurality to the duration of the movie
+     * Request of a reservation batch that passed validation, with its position in the batch, its showing, and the reservation once made.
      */
-    private String handlePluralWords(long value) {
-        if (value == 1) {
-            return "";
+    private static final class PendingReservation {
+        private final int index;
+        private final ReservationRequest request;
+        private final Showing showing;
+        private Reservation reservation;
+        private long lsn;
+
+        private PendingReservation(int index, ReservationRequest request, Showing showing) {
+            this.index = index;
+            this.request = request;
+            this.showing = showing;
         }
-        else {
-            return "s";
+    }
+
+    /**
+     * Schedule rendered in one format, with the schedule version, business date, and discount rules it was rendered for.
+     */
+    private static final class RenderedSchedule {
+        private final long version;
+        private final LocalDate businessDate;
+        private final DiscountRuleEngine discountRuleEngine;
+        private final byte[] bytes;
+        private volatile String text;
+
+        private RenderedSchedule(long version, LocalDate businessDate, DiscountRuleEngine discountRuleEngine, byte[] bytes) {
+            this.version = version;
+            this.businessDate = businessDate;
+            this.discountRuleEngine = discountRuleEngine;
+            this.bytes = bytes;
+        }
+
+        private boolean isCurrent(long version, LocalDate businessDate, DiscountRuleEngine discountRuleEngine) {
+            return this.version == version && this.discountRuleEngine == discountRuleEngine && this.businessDate.equals(businessDate);
+        }
+
+        /**
+         * @return the rendered schedule decoded once, for print streams encoding it in their own charset
+         */
+        private String text() {
+            String text = this.text;
+            if (text == null) {
+                text = new String(bytes, StandardCharsets.UTF_8);
+                this.text = text;
+            }
+            return text;
+        }
+    }
+
+    /**
+     * Fork/join task pricing a range of the schedule with one snapshot of the discount rules and business date.
+     * It is serializable only through RecursiveAction and is never serialized.
+     */
+    @SuppressWarnings("serial")
+    private static final class SchedulePricingTask extends RecursiveAction {
+        private final MovieDiscountCalculator movieDiscountCalculator;
+        private final DiscountRuleEngine discountRuleEngine;
+        private final LocalDate businessDate;
+        private final Showing[] showings;
+        private final long[] finalPricesInCents;
+        private final int from;
+        private final int to;
+
+        private SchedulePricingTask(MovieDiscountCalculator movieDiscountCalculator, DiscountRuleEngine discountRuleEngine, LocalDate businessDate,
+                                    Showing[] showings, long[] finalPricesInCents, int from, int to) {
+            this.movieDiscountCalculator = movieDiscountCalculator;
+            this.discountRuleEngine = discountRuleEngine;
+            this.businessDate = businessDate;
+            this.showings = showings;
+            this.finalPricesInCents = finalPricesInCents;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PARALLEL_PRICING_THRESHOLD && getPool() != null) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SchedulePricingTask(movieDiscountCalculator, discountRuleEngine, businessDate, showings, finalPricesInCents, from, middle),
+                        new SchedulePricingTask(movieDiscountCalculator, discountRuleEngine, businessDate, showings, finalPricesInCents, middle, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                finalPricesInCents[i] = movieDiscountCalculator.calculateFinalPriceInCents(showings[i], discountRuleEngine, businessDate);
+            }
         }
     }
 
@@ -0,0 +1,336 @@
+package com.jpmc.theater;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * This class represents a chain of theaters partitioned across shards, each shard running the calls to its theaters
+ * on a single thread of its own. Calls to one theater are routed by theater id to the shard owning it and return CompletableFutures;
+ * queries across the chain, e.g. where a movie is playing tonight, are sent to every shard and gathered into one answer.
+ * <p>
+ * Each theater keeps its own showings, seat inventory, and reservations, and the routing table is built once and never changes,
+ * so shards share no mutable state: a reservation only touches the theater it reserves in, on the thread owning that theater,
+ * and adding shards adds threads working in parallel. Theaters are assigned to shards round-robin in the order of their ids,
+ * so the shards differ by at most one theater.
+ * <p>
+ * The shard thread never waits for an fsync. A reservation of a theater with a journal takes its seats and is appended
+ * on the shard thread, then synced by a second thread of the shard before its future completes, while the shard thread goes on
+ * with the next calls. Reservations appended while a sync runs are made durable together by the next one (group commit).
+ * The chain does not hand its theaters out, calls to them go through the shard owning them. Seat inventories live on the showings,
+ * so the chain refuses a theater given under two ids and showings scheduled by two of its theaters; showings scheduled later
+ * must not be shared with another theater either.
+ *
+ * @author coder050519123
+ */
+public final class TheaterChain implements AutoCloseable {
+    private final Map<String, Theater> theaters;
+    private final Map<String, Shard> shardsByTheaterId;
+    private final Shard[] shards;
+
+    /**
+     * Constructs a new TheaterChain with a shard per available processor, or fewer if the chain has fewer theaters.
+     * @param theaters - the theaters of the chain by theater id
+     * @throws IllegalArgumentException if the theaters are null or empty, a theater id or theater is null,
+     * a theater is given under two ids, or two theaters schedule the same showing
+     */
+    public TheaterChain(Map<String, Theater> theaters) {
+        this(theaters, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a new TheaterChain with the provided number of shards, or fewer if the chain has fewer theaters.
+     * @param theaters - the theaters of the chain by theater id
+     * @param shardCount - the number of shards, i.e. of threads running calls to the theaters
+     * @throws IllegalArgumentException if the theaters are null or empty, a theater id or theater is null, a theater is given under two ids,
+     * two theaters schedule the same showing, or the number of shards is less than 1
+     */
+    public TheaterChain(Map<String, Theater> theaters, int shardCount) {
+        if (theaters == null || theaters.isEmpty()) {
+            throw new IllegalArgumentException("Theaters cannot be null or empty!");
+        }
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Number of shards cannot be less than 1!");
+        }
+        TreeMap<String, Theater> sortedTheaters = new TreeMap<>();
+        Set<Theater> distinctTheaters = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Showing> distinctShowings = Collections.newSetFromMap(new IdentityHashMap<>());
+        theaters.forEach((theaterId, theater) -> {
+            if (theaterId == null || theater == null) {
+                throw new IllegalArgumentException("Theater id and theater cannot be null!");
+            }
+            if (!distinctTheaters.add(theater)) {
+                throw new IllegalArgumentException("Theater cannot be part of the chain under two ids!");
+            }
+            for (Showing showing : theater.getScheduleIndex().showingsView()) {
+                if (!distinctShowings.add(showing)) {
+                    throw new IllegalArgumentException("Showings cannot be shared by theaters of the chain!");
+                }
+            }
+            sortedTheaters.put(theaterId, theater);
+        });
+        Shard[] shards = new Shard[Math.min(shardCount, sortedTheaters.size())];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i);
+        }
+        Map<String, Shard> shardsByTheaterId = new HashMap<>();
+        int next = 0;
+        for (Map.Entry<String, Theater> entry : sortedTheaters.entrySet()) {
+            Shard shard = shards[next++ % shards.length];
+            shard.theaters.put(entry.getKey(), entry.getValue());
+            shardsByTheaterId.put(entry.getKey(), shard);
+        }
+        this.theaters = Collections.unmodifiableMap(sortedTheaters);
+        this.shardsByTheaterId = shardsByTheaterId;
+        this.shards = shards;
+    }
+
+    /**
+     * @return the ids of the theaters of the chain, in order
+     */
+    public Set<String> getTheaterIds() {
+        return theaters.keySet();
+    }
+
+    /**
+     * @return the number of shards running calls to the theaters
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @param theaterId - the id of the theater
+     * @return the index of the shard owning the theater, between 0 and getShardCount() - 1
+     * @throws IllegalArgumentException if no theater of the chain has the id
+     */
+    public int getShardOf(String theaterId) {
+        return shardOf(theaterId).index;
+    }
+
+    /**
+     * Method to create a reservation in a theater of the chain, as Theater.createReservation would, on the shard owning the theater
+     * @param theaterId - the id of the theater of the showing
+     * @param customer - customer initiating reservation request
+     * @param date - the date of the selected showing
+     * @param auditorium - the auditorium of the selected showing
+     * @param sequence - the selected showing sequence
+     * @param ticketAmount - the requested party size of the reservation
+     * @return the future reservation, completed exceptionally with IllegalArgumentException if no theater of the chain has the id,
+     * or with the exception the theater throws
+     */
+    public CompletableFuture<Reservation> createReservation(String theaterId, Customer customer, LocalDate date, int auditorium, int sequence, int ticketAmount) {
+        return routeJournaled(theaterId, theater -> theater.createJournaledReservation(customer, date, auditorium, sequence, ticketAmount));
+    }
+
+    /**
+     * Method to create a batch of reservations in a theater of the chain, as Theater.createReservations would, on the shard owning the theater
+     * @param theaterId - the id of the theater of the showings
+     * @param requests - the reservations asked for
+     * @return the future results of the requests, in the order of the requests, completed exceptionally with IllegalArgumentException
+     * if no theater of the chain has the id
+     */
+    public CompletableFuture<List<ReservationResult>> createReservations(String theaterId, List<ReservationRequest> requests) {
+        return routeJournaled(theaterId, theater -> theater.createJournaledReservations(requests));
+    }
+
+    /**
+     * @param theaterId - the id of the theater of the showing
+     * @param key - the showing key to look up
+     * @return the future showing with the given key, if scheduled in the theater, completed exceptionally with IllegalArgumentException
+     * if no theater of the chain has the id
+     */
+    public CompletableFuture<Optional<Showing>> findShowing(String theaterId, ShowingKey key) {
+        return route(theaterId, theater -> theater.getScheduleIndex().findShowing(key));
+    }
+
+    /**
+     * Method to find where a movie is playing on a date across the chain, asking every shard at once
+     * @param movie - the movie to look for
+     * @param date - the date of the showings
+     * @return the future showings of the movie on the date by theater id, in the order of the ids, without the theaters not playing it
+     */
+    public CompletableFuture<Map<String, List<Showing>>> findShowingsOf(Movie movie, LocalDate date) {
+        return scatter(theater -> {
+            List<Showing> showings = new ArrayList<>();
+            for (Showing showing : theater.getScheduleIndex().findShowingsOf(movie)) {
+                if (showing.getShowingKey().getDate().equals(date)) {
+                    showings.add(showing);
+                }
+            }
+            return showings;
+        });
+    }
+
+    /**
+     * Method to find the showings starting in a time range across the chain, asking every shard at once
+     * @param from - the earliest start time (inclusive)
+     * @param to - the latest start time (exclusive)
+     * @return the future showings starting in the range by theater id, in the order of the ids, without the theaters having none
+     */
+    public CompletableFuture<Map<String, List<Showing>>> findShowingsStartingBetween(LocalDateTime from, LocalDateTime to) {
+        return scatter(theater -> theater.getScheduleIndex().findShowingsStartingBetween(from, to));
+    }
+
+    /**
+     * Shuts down the shard threads; calls already submitted still complete, later calls complete exceptionally.
+     * Reservations appended once the journal thread of their shard is shut down are synced on the shard thread.
+     */
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+            shard.journalExecutor.shutdown();
+        }
+    }
+
+    private Shard shardOf(String theaterId) {
+        Shard shard = theaterId == null ? null : shardsByTheaterId.get(theaterId);
+        if (shard == null) {
+            throw new IllegalArgumentException("Theater cannot be found in the chain!");
+        }
+        return shard;
+    }
+
+    private <T> CompletableFuture<T> route(String theaterId, Function<Theater, T> call) {
+        Shard shard;
+        try {
+            shard = shardOf(theaterId);
+        } catch (IllegalArgumentException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        Theater theater = shard.theaters.get(theaterId);
+        return shard.supply(() -> call.apply(theater));
+    }
+
+    private <T> CompletableFuture<T> routeJournaled(String theaterId, Function<Theater, Theater.Journaled<T>> call) {
+        Shard shard;
+        try {
+            shard = shardOf(theaterId);
+        } catch (IllegalArgumentException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        Theater theater = shard.theaters.get(theaterId);
+        return shard.supplyJournaled(() -> call.apply(theater));
+    }
+
+    /**
+     * This method runs the query on every theater, each shard querying its own theaters, and gathers the non-empty answers by theater id.
+     */
+    private CompletableFuture<Map<String, List<Showing>>> scatter(Function<Theater, List<Showing>> query) {
+        List<CompletableFuture<Map<String, List<Showing>>>> answers = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            answers.add(shard.supply(() -> {
+                Map<String, List<Showing>> found = new LinkedHashMap<>();
+                shard.theaters.forEach((theaterId, theater) -> {
+                    List<Showing> showings = query.apply(theater);
+                    if (!showings.isEmpty()) {
+                        found.put(theaterId, showings);
+                    }
+                });
+                return found;
+            }));
+        }
+        return CompletableFuture.allOf(answers.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            Map<String, List<Showing>> gathered = new TreeMap<>();
+            for (CompletableFuture<Map<String, List<Showing>>> answer : answers) {
+                gathered.putAll(answer.join());
+            }
+            return Collections.unmodifiableMap(gathered);
+        });
+    }
+
+    /**
+     * Theaters of one shard, the single daemon thread running the calls to them, and the daemon thread syncing their journals.
+     * The theaters are only added while the chain is constructed, before the shard runs anything.
+     */
+    private static final class Shard {
+        private final int index;
+        private final Map<String, Theater> theaters = new LinkedHashMap<>();
+        private final ExecutorService executor;
+        private final ExecutorService journalExecutor;
+
+        private Shard(int index) {
+            this.index = index;
+            this.executor = newDaemonExecutor("theater-shard-" + index);
+            this.journalExecutor = newDaemonExecutor("theater-journal-" + index);
+        }
+
+        private static ExecutorService newDaemonExecutor(String name) {
+            return Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        private <T> CompletableFuture<T> supply(Supplier<T> work) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            try {
+                executor.execute(() -> {
+                    try {
+                        future.complete(work.get());
+                    } catch (Throwable ex) {
+                        future.completeExceptionally(ex);
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                future.completeExceptionally(new IllegalStateException("Theater chain is closed!", ex));
+            }
+            return future;
+        }
+
+        /**
+         * This method runs the call up to its journal append on the shard thread, and leaves its sync to the journal thread.
+         */
+        private <T> CompletableFuture<T> supplyJournaled(Supplier<Theater.Journaled<T>> work) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            try {
+                executor.execute(() -> {
+                    Theater.Journaled<T> journaled;
+                    try {
+                        journaled = work.get();
+                    } catch (Throwable ex) {
+                        future.completeExceptionally(ex);
+                        return;
+                    }
+                    if (journaled.getLsn() == 0) {
+                        sync(journaled, future);
+                        return;
+                    }
+                    try {
+                        journalExecutor.execute(() -> sync(journaled, future));
+                    } catch (RejectedExecutionException ex) {
+                        sync(journaled, future);
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                future.completeExceptionally(new IllegalStateException("Theater chain is closed!", ex));
+            }
+            return future;
+        }
+
+        private static <T> void sync(Theater.Journaled<T> journaled, CompletableFuture<T> future) {
+            try {
+                future.complete(journaled.sync());
+            } catch (Throwable ex) {
+                future.completeExceptionally(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.jpmc.theater;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * This class instruments the hot paths of a theater: counters, latency histograms of pricing, reservations, and JSON
+ * schedule printing, and gauges read when a snapshot is taken. Counters are LongAdders and histograms are striped,
+ * so recording threads do not contend; both are merged when read.
+ * <p>
+ * The shared DISABLED instance records nothing: its timers do not read the clock and its gauges are not kept,
+ * so an uninstrumented theater only pays for a field read and a branch per call.
+ *
+ * @author coder050519123
+ */
+public final class TheaterMetrics {
+    /**
+     * Metrics recording nothing, used by theaters and calculators until metrics are set.
+     */
+    public static final TheaterMetrics DISABLED = new TheaterMetrics(false);
+
+    /**
+     * Counter of final showing prices calculated because the showing's cached price was missing or stale.
+     */
+    public static final String PRICE_CALCULATIONS = "pricing.calculations";
+    /**
+     * Counter of showing prices served from the showing's cache.
+     */
+    public static final String PRICE_CACHE_HITS = "pricing.cache.hits";
+    /**
+     * Histogram of the time taken to calculate a final showing price.
+     */
+    public static final String PRICE_CALCULATION_LATENCY = "pricing.calculation.latency";
+    /**
+     * Counter of reservations created, by single calls, batches, and confirmed holds.
+     */
+    public static final String RESERVATIONS_CREATED = "reservations.created";
+    /**
+     * Counter of reservation calls that threw, batch requests that failed, and hold confirmations that failed.
+     */
+    public static final String RESERVATIONS_FAILED = "reservations.failed";
+    /**
+     * Histogram of the time taken by reservation calls, failed ones included; each request of a batch takes the time of its whole batch.
+     */
+    public static final String RESERVATION_LATENCY = "reservations.latency";
+    /**
+     * Counter of schedules printed in JSON.
+     */
+    public static final String SCHEDULE_JSON_PRINTS = "schedule.json.prints";
+    /**
+     * Histogram of the time taken to print the schedule in JSON.
+     */
+    public static final String SCHEDULE_JSON_LATENCY = "schedule.json.latency";
+    /**
+     * Gauge of the seats taken by reservations and holds over the theater's schedule.
+     */
+    public static final String SEATS_SOLD = "theater.seats.sold";
+    /**
+     * Gauge of the seat holds waiting for confirmation.
+     */
+    public static final String ACTIVE_HOLDS = "theater.holds.active";
+
+    private final boolean enabled;
+    private final LongAdder priceCalculations = new LongAdder();
+    private final LongAdder priceCacheHits = new LongAdder();
+    private final LongAdder reservationsCreated = new LongAdder();
+    private final LongAdder reservationsFailed = new LongAdder();
+    private final LongAdder scheduleJsonPrints = new LongAdder();
+    private final LatencyHistogram priceCalculationLatency;
+    private final LatencyHistogram reservationLatency;
+    private final LatencyHistogram scheduleJsonLatency;
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs new enabled TheaterMetrics.
+     */
+    public TheaterMetrics() {
+        this(true);
+    }
+
+    private TheaterMetrics(boolean enabled) {
+        this.enabled = enabled;
+        this.priceCalculationLatency = enabled ? new LatencyHistogram() : null;
+        this.reservationLatency = enabled ? new LatencyHistogram() : null;
+        this.scheduleJsonLatency = enabled ? new LatencyHistogram() : null;
+    }
+
+    /**
+     * @return true if the metrics record, false for DISABLED
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Method to register a gauge, read each time a snapshot is taken. A gauge registered under the same name is replaced.
+     * @param name - the name of the gauge in snapshots
+     * @param gauge - the current value of the gauge
+     * @throws IllegalArgumentException if the name or the gauge is null
+     */
+    public void registerGauge(String name, LongSupplier gauge) {
+        if (name == null || gauge == null) {
+            throw new IllegalArgumentException("Gauge name and gauge cannot be null!");
+        }
+        if (enabled) {
+            gauges.put(name, gauge);
+        }
+    }
+
+    /**
+     * @return the start time of a timed call, to pass to the matching record method
+     */
+    long startTimer() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    void recordPriceCalculation(long startNanos) {
+        if (enabled) {
+            priceCalculations.increment();
+            priceCalculationLatency.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    void recordPriceCacheHit() {
+        if (enabled) {
+            priceCacheHits.increment();
+        }
+    }
+
+    void recordReservation(long startNanos, boolean created) {
+        if (enabled) {
+            (created ? reservationsCreated : reservationsFailed).increment();
+            reservationLatency.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    void recordScheduleJsonPrint(long startNanos) {
+        if (enabled) {
+            scheduleJsonPrints.increment();
+            scheduleJsonLatency.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Method to read every counter, gauge, and histogram at once, for scraping.
+     * @return the current values, empty for DISABLED
+     */
+    public MetricsSnapshot snapshot() {
+        Map<String, Long> counters = new TreeMap<>();
+        Map<String, Long> gaugeValues = new TreeMap<>();
+        Map<String, HistogramSnapshot> histograms = new TreeMap<>();
+        if (enabled) {
+            counters.put(PRICE_CALCULATIONS, priceCalculations.sum());
+            counters.put(PRICE_CACHE_HITS, priceCacheHits.sum());
+            counters.put(RESERVATIONS_CREATED, reservationsCreated.sum());
+            counters.put(RESERVATIONS_FAILED, reservationsFailed.sum());
+            counters.put(SCHEDULE_JSON_PRINTS, scheduleJsonPrints.sum());
+            gauges.forEach((name, gauge) -> gaugeValues.put(name, gauge.getAsLong()));
+            histograms.put(PRICE_CALCULATION_LATENCY, priceCalculationLatency.snapshot());
+            histograms.put(RESERVATION_LATENCY, reservationLatency.snapshot());
+            histograms.put(SCHEDULE_JSON_LATENCY, scheduleJsonLatency.snapshot());
+        }
+        return new MetricsSnapshot(counters, gaugeValues, histograms);
+    }
+}
@@ -0,0 +1,184 @@
+package com.jpmc.theater;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * This class describes how fast calls arrive during a load test: a sequence of segments whose rate, in calls per second,
+ * goes linearly from a start rate to an end rate. Steps, ramps, and spikes are built from such segments and can be chained.
+ * <p>
+ * Arrivals are spaced so that exactly one call arrives per unit of area under the rate curve, which keeps a ramp's
+ * arrivals on the ramp instead of rounding its rate to whole steps.
+ *
+ * @author coder050519123
+ */
+public final class ArrivalCurve {
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Elapsed nanoseconds at the end of each segment.
+     */
+    private final double[] ends;
+    /**
+     * Rate of each segment at its start and end, in calls per nanosecond.
+     */
+    private final double[] startRates;
+    private final double[] endRates;
+
+    private ArrivalCurve(double[] ends, double[] startRates, double[] endRates) {
+        this.ends = ends;
+        this.startRates = startRates;
+        this.endRates = endRates;
+    }
+
+    /**
+     * @param callsPerSecond - the arrival rate
+     * @param duration - how long calls arrive
+     * @return a curve of calls arriving at a constant rate
+     * @throws IllegalArgumentException if the rate is negative or the duration is null or not positive
+     */
+    public static ArrivalCurve constant(double callsPerSecond, Duration duration) {
+        return ramp(callsPerSecond, callsPerSecond, duration);
+    }
+
+    /**
+     * @param fromCallsPerSecond - the arrival rate at the start of the ramp
+     * @param toCallsPerSecond - the arrival rate at the end of the ramp
+     * @param duration - how long the ramp lasts
+     * @return a curve whose rate goes linearly from one rate to the other
+     * @throws IllegalArgumentException if a rate is negative or the duration is null or not positive
+     */
+    public static ArrivalCurve ramp(double fromCallsPerSecond, double toCallsPerSecond, Duration duration) {
+        if (!(fromCallsPerSecond >= 0) || !(toCallsPerSecond >= 0)) {
+            throw new IllegalArgumentException("Calls per second cannot be negative!");
+        }
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Duration must be positive!");
+        }
+        return new ArrivalCurve(new double[] {duration.toNanos()},
+                new double[] {fromCallsPerSecond / NANOS_PER_SECOND}, new double[] {toCallsPerSecond / NANOS_PER_SECOND});
+    }
+
+    /**
+     * @param stepDuration - how long each rate lasts
+     * @param callsPerSecond - the arrival rate of each step, in order
+     * @return a curve holding each rate for the step duration
+     * @throws IllegalArgumentException if there is no rate, a rate is negative, or the step duration is null or not positive
+     */
+    public static ArrivalCurve step(Duration stepDuration, double... callsPerSecond) {
+        if (callsPerSecond == null || callsPerSecond.length == 0) {
+            throw new IllegalArgumentException("Step rates cannot be empty!");
+        }
+        ArrivalCurve curve = constant(callsPerSecond[0], stepDuration);
+        for (int i = 1; i < callsPerSecond.length; i++) {
+            curve = curve.then(constant(callsPerSecond[i], stepDuration));
+        }
+        return curve;
+    }
+
+    /**
+     * @param baseCallsPerSecond - the arrival rate around the spike
+     * @param spikeCallsPerSecond - the arrival rate during the spike, e.g. 50 million for 50k calls in 1 ms
+     * @param before - how long the base rate lasts before the spike
+     * @param spike - how long the spike lasts
+     * @param after - how long the base rate lasts after the spike
+     * @return a curve at the base rate with a spike in the middle
+     * @throws IllegalArgumentException if a rate is negative or a duration is null or not positive
+     */
+    public static ArrivalCurve spike(double baseCallsPerSecond, double spikeCallsPerSecond, Duration before, Duration spike, Duration after) {
+        return constant(baseCallsPerSecond, before)
+                .then(constant(spikeCallsPerSecond, spike))
+                .then(constant(baseCallsPerSecond, after));
+    }
+
+    /**
+     * @param next - the curve to follow this one
+     * @return a new curve running this curve, then the next one
+     * @throws IllegalArgumentException if the next curve is null
+     */
+    public ArrivalCurve then(ArrivalCurve next) {
+        if (next == null) {
+            throw new IllegalArgumentException("Next arrival curve cannot be null!");
+        }
+        int segments = ends.length;
+        double[] chainedEnds = Arrays.copyOf(ends, segments + next.ends.length);
+        double[] chainedStartRates = Arrays.copyOf(startRates, chainedEnds.length);
+        double[] chainedEndRates = Arrays.copyOf(endRates, chainedEnds.length);
+        double offset = ends[segments - 1];
+        for (int i = 0; i < next.ends.length; i++) {
+            chainedEnds[segments + i] = offset + next.ends[i];
+            chainedStartRates[segments + i] = next.startRates[i];
+            chainedEndRates[segments + i] = next.endRates[i];
+        }
+        return new ArrivalCurve(chainedEnds, chainedStartRates, chainedEndRates);
+    }
+
+    /**
+     * @return how long calls arrive
+     */
+    public Duration getDuration() {
+        return Duration.ofNanos((long) ends[ends.length - 1]);
+    }
+
+    /**
+     * @param elapsed - the time since the start of the curve
+     * @return the arrival rate at that time in calls per second, 0 past the end of the curve
+     */
+    public double getCallsPerSecond(Duration elapsed) {
+        double time = elapsed.toNanos();
+        for (int segment = 0; segment < ends.length; segment++) {
+            if (time < ends[segment]) {
+                return rateAt(segment, time) * NANOS_PER_SECOND;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return the number of calls arriving over the whole curve, i.e. the area under its rate
+     */
+    public double getExpectedCalls() {
+        double calls = 0;
+        for (int segment = 0; segment < ends.length; segment++) {
+            calls += (startRates[segment] + endRates[segment]) / 2 * (ends[segment] - segmentStart(segment));
+        }
+        return calls;
+    }
+
+    /**
+     * This method finds when the call after the one arriving at the given time arrives.
+     * @param elapsedNanos - the arrival time of the previous call, 0 for the first call
+     * @return the arrival time of the next call in nanoseconds since the start, or -1 if no call arrives before the end
+     */
+    double nextArrival(double elapsedNanos) {
+        double needed = 1;
+        for (int segment = 0; segment < ends.length; segment++) {
+            if (elapsedNanos >= ends[segment]) {
+                continue;
+            }
+            double from = Math.max(elapsedNanos, segmentStart(segment));
+            double length = ends[segment] - from;
+            double rate = rateAt(segment, from);
+            double slope = slope(segment);
+            double available = rate * length + slope * length * length / 2;
+            if (available >= needed) {
+                double delta = slope == 0 ? needed / rate : (Math.sqrt(Math.max(0, rate * rate + 2 * slope * needed)) - rate) / slope;
+                return from + Math.min(length, delta);
+            }
+            needed -= available;
+        }
+        return -1;
+    }
+
+    private double segmentStart(int segment) {
+        return segment == 0 ? 0 : ends[segment - 1];
+    }
+
+    private double slope(int segment) {
+        return (endRates[segment] - startRates[segment]) / (ends[segment] - segmentStart(segment));
+    }
+
+    private double rateAt(int segment, double time) {
+        return startRates[segment] + slope(segment) * (time - segmentStart(segment));
+    }
+}
@@ -0,0 +1,177 @@
+package com.jpmc.theater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit tests for the AsyncReservationService class.
+ */
+public class AsyncReservationServiceTests {
+    private static final LocalDate SHOW_DATE = LocalDate.of(2023, 6, 23);
+
+    private final Movie movie = new Movie("Test Movie 1", "Test Movie Desc 1", Duration.ofMinutes(100), BigDecimal.valueOf(20), 0);
+    private final Customer customer = new Customer("John Doe", "customer-random-id");
+
+    /**
+     * This is a case to check that asynchronous reservations never oversell a showing and never run over the concurrency per showing.
+     * Test data includes:
+     * - Showing of 100 seats, 2000 reservations of 1 ticket submitted at once on 16 threads, with at most 2 running per showing
+     * Expected result:
+     * - Exactly 100 reservations succeed, the others fail with an IllegalStateException, no more than 2 ran at the same time,
+     *   and the showing's queue is gone once everything completed
+     */
+    @Test
+    public void testCreateReservation_BoundedPerShowing() throws InterruptedException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Theater theater = new Theater(List.of(new Showing(movie, 1, LocalDateTime.of(SHOW_DATE, LocalTime.of(9, 0)), 1, 100))) {
+            @Override
+            public Reservation createReservation(Customer customer, LocalDate date, int auditorium, int sequence, int ticketAmount) {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    return super.createReservation(customer, date, auditorium, sequence, ticketAmount);
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+        };
+        ExecutorService threads = Executors.newFixedThreadPool(16);
+        AsyncReservationService service = new AsyncReservationService(theater, threads, 2);
+
+        List<CompletableFuture<Reservation>> reservations = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            reservations.add(service.createReservation(customer, SHOW_DATE, 1, 1, 1));
+        }
+        CompletableFuture.allOf(reservations.toArray(new CompletableFuture[0])).exceptionally(ex -> null).join();
+        threads.shutdown();
+        Assertions.assertTrue(threads.awaitTermination(10, TimeUnit.SECONDS));
+
+        long succeeded = reservations.stream().filter(reservation -> !reservation.isCompletedExceptionally()).count();
+        Assertions.assertEquals(100, succeeded);
+        CompletionException failure = Assertions.assertThrows(CompletionException.class, () -> reservations.get(1999).join());
+        Assertions.assertTrue(failure.getCause() instanceof IllegalStateException);
+        Assertions.assertTrue(maxRunning.get() <= 2);
+        Assertions.assertEquals(0, service.getBusyShowingCount());
+    }
+
+    /**
+     * This is a case to check the queries and pricing of the default executor.
+     * Test data includes:
+     * - Theater with one showing, the service running on its own executor
+     * Expected result:
+     * - The futures complete with what the theater returns, a null date fails the future with an IllegalArgumentException
+     */
+    @Test
+    public void testQueriesAndPricing_DefaultExecutor() {
+        Showing showing = new Showing(movie, 1, LocalDateTime.of(SHOW_DATE, LocalTime.of(9, 0)));
+        try (AsyncReservationService service = new AsyncReservationService(new Theater(List.of(showing)))) {
+            Assertions.assertSame(showing, service.findShowing(showing.getShowingKey()).join().orElseThrow());
+            Assertions.assertEquals(List.of(showing), service.findShowingsOn(SHOW_DATE).join());
+            Assertions.assertEquals(showing.getFinalShowingPrice(), service.calculateSchedulePrices().join().getFinalShowingPrice(showing));
+            Assertions.assertEquals(2, service.createReservation(customer, SHOW_DATE, 1, 1, 2).join().getAudienceCount());
+
+            CompletionException failure = Assertions.assertThrows(CompletionException.class,
+                    () -> service.createReservation(customer, null, 1, 1, 2).join());
+            Assertions.assertTrue(failure.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    /**
+     * This is a case to check that closing the service lets the reservations waiting for their showing complete.
+     * Test data includes:
+     * - Service on its own executor, 20 reservations of one showing with the first 4 blocked in the theater, then the service closed
+     * Expected result:
+     * - A reservation made after close is rejected, and the 20 reservations made before all succeed once the theater is released
+     */
+    @Test
+    public void testClose_WaitingReservationsStillComplete() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Theater theater = new Theater(List.of(new Showing(movie, 1, LocalDateTime.of(SHOW_DATE, LocalTime.of(9, 0)), 1, 100))) {
+            @Override
+            public Reservation createReservation(Customer customer, LocalDate date, int auditorium, int sequence, int ticketAmount) {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                return super.createReservation(customer, date, auditorium, sequence, ticketAmount);
+            }
+        };
+        AsyncReservationService service = new AsyncReservationService(theater);
+        List<CompletableFuture<Reservation>> reservations = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            reservations.add(service.createReservation(customer, SHOW_DATE, 1, 1, 1));
+        }
+        service.close();
+
+        CompletionException rejected = Assertions.assertThrows(CompletionException.class,
+                () -> service.createReservation(customer, SHOW_DATE, 1, 1, 1).join());
+        Assertions.assertTrue(rejected.getCause() instanceof RejectedExecutionException);
+        release.countDown();
+        for (CompletableFuture<Reservation> reservation : reservations) {
+            Assertions.assertEquals(1, reservation.join().getAudienceCount());
+        }
+    }
+
+    /**
+     * This is a case to check that a lane draining on a rejecting executor does not recurse.
+     * Test data includes:
+     * - Executor running the first reservation of a showing and rejecting everything afterwards, 100000 reservations waiting behind it
+     * Expected result:
+     * - The first reservation succeeds, every waiting one fails with the RejectedExecutionException without overflowing the stack,
+     *   and the showing's queue is gone
+     */
+    @Test
+    public void testExecute_RejectingExecutor_DrainsWithoutRecursion() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean rejecting = new AtomicBoolean();
+        AtomicReference<Thread> worker = new AtomicReference<>();
+        Theater theater = new Theater(List.of(new Showing(movie, 1, LocalDateTime.of(SHOW_DATE, LocalTime.of(9, 0)), 1, 100)));
+        AsyncReservationService service = new AsyncReservationService(theater, task -> {
+            if (!rejecting.compareAndSet(false, true)) {
+                throw new RejectedExecutionException("Executor is shut down!");
+            }
+            Thread thread = new Thread(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                task.run();
+            });
+            worker.set(thread);
+            thread.start();
+        }, 1);
+
+        List<CompletableFuture<Reservation>> reservations = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            reservations.add(service.createReservation(customer, SHOW_DATE, 1, 1, 1));
+        }
+        release.countDown();
+        CompletableFuture.allOf(reservations.toArray(new CompletableFuture[0])).exceptionally(ex -> null).get(60, TimeUnit.SECONDS);
+        worker.get().join(TimeUnit.SECONDS.toMillis(60));
+
+        Assertions.assertEquals(1, reservations.get(0).join().getAudienceCount());
+        CompletionException failure = Assertions.assertThrows(CompletionException.class, () -> reservations.get(99_999).join());
+        Assertions.assertTrue(failure.getCause() instanceof RejectedExecutionException);
+        Assertions.assertEquals(0, service.getBusyShowingCount());
+    }
+}
@@ -35,4 +35,34 @@ public class CustomerTests {
         String expectedString = "Customer {id=customer-id, name='Sample Customer'}";
         Assertions.assertEquals(expectedString, customer.toString());
     }
+
+    /**
+     * This is a test to check that the CustomerRegistry gives each customer id one dense handle.
+     * Test data includes:
+     * - 5000 customers registered in a registry sized for 16, one of them registered again, one with non Latin-1 text, one without a name
+     * Expected result:
+     * - Handles follow registration order, registering an id again returns its handle, and every id and name reads back unchanged
+     */
+    @Test
+    public void testCustomerRegistry_RegisterAndFind() {
+        CustomerRegistry registry = new CustomerRegistry(16);
+        for (int i = 0; i < 5000; i++) {
+            Assertions.assertEquals(i, registry.register("customer-" + i, "Customer " + i));
+        }
+        Assertions.assertEquals(42, registry.register(new Customer("Someone Else", "customer-42")));
+        int wide = registry.register("customer-\u5f20", "\u5f20\u4f1f");
+        int unnamed = registry.register("customer-unnamed", null);
+
+        Assertions.assertEquals(5002, registry.size());
+        for (int i = 0; i < 5000; i += 7) {
+            Assertions.assertEquals(i, registry.findHandle("customer-" + i));
+            Assertions.assertEquals(new Customer("Customer " + i, "customer-" + i), registry.getCustomer(i));
+        }
+        Assertions.assertEquals("\u5f20\u4f1f", registry.getName(registry.findHandle("customer-\u5f20")));
+        Assertions.assertEquals("customer-\u5f20", registry.getId(wide));
+        Assertions.assertNull(registry.getName(unnamed));
+        Assertions.assertEquals(CustomerRegistry.NO_HANDLE, registry.findHandle("customer-5000"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> registry.getId(5002));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> registry.register(null, "No Id"));
+    }
 }
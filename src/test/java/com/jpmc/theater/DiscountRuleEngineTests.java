@@ -0,0 +1,200 @@
+package com.jpmc.theater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the DiscountRuleEngine class and the built-in DiscountRule implementations.
+ */
+public class DiscountRuleEngineTests {
+    private static final LocalDate BUSINESS_DATE = LocalDate.of(2023, 6, 23);
+
+    /**
+     * This is a case to check that an engine without rules never gives a discount.
+     * Test data includes:
+     * - Engine with an empty rule list
+     * - Showing eligible for every default discount
+     * Expected result:
+     * - The calculated discount should be $0
+     */
+    @Test
+    public void testCalculateDiscount_NoRules_NoDiscount() {
+        DiscountRuleEngine engine = new DiscountRuleEngine(Collections.emptyList());
+        Showing showing = newShowing(BigDecimal.valueOf(20), 1, 1, LocalTime.of(12, 0));
+
+        Assertions.assertEquals(0, engine.calculateDiscount(showing, BUSINESS_DATE).compareTo(BigDecimal.ZERO));
+    }
+
+    /**
+     * This is a case to check that a custom rule can be plugged into the engine next to the default ones.
+     * Test data includes:
+     * - Default rules plus a custom $6 discount for movies with special code 9
+     * - Showing of a $20 movie with special code 9 on the 1st slot of the day
+     * Expected result:
+     * - The custom $6 discount beats the $3 first showing discount
+     */
+    @Test
+    public void testCalculateDiscount_CustomRule_BiggestDiscountWins() {
+        List<DiscountRule> rules = new ArrayList<>(MovieDiscountCalculator.getDefaultDiscountRules());
+        rules.add(new DiscountRule() {
+            @Override
+            public DiscountType getDiscountType() {
+                return DiscountType.FIXED_AMOUNT;
+            }
+
+            @Override
+            public BigDecimal getDiscountValue() {
+                return BigDecimal.valueOf(6);
+            }
+
+            @Override
+            public boolean isApplicable(Showing showing, LocalDate businessDate) {
+                return showing.getMovie().getSpecialCode() == 9;
+            }
+        });
+        DiscountRuleEngine engine = new DiscountRuleEngine(rules);
+
+        Assertions.assertEquals(0, engine.calculateDiscount(newShowing(BigDecimal.valueOf(20), 9, 1, LocalTime.of(9, 0)), BUSINESS_DATE).compareTo(BigDecimal.valueOf(6)));
+        Assertions.assertEquals(0, engine.calculateDiscount(newShowing(BigDecimal.valueOf(20), 0, 1, LocalTime.of(9, 0)), BUSINESS_DATE).compareTo(BigDecimal.valueOf(3)));
+    }
+
+    /**
+     * This is a case to check that rules which cannot beat the current best discount are never evaluated.
+     * Test data includes:
+     * - A $5 discount for every showing, and 500 counting rules giving $1 to $4.99 off or 1% to 20% off a $10 ticket
+     * Expected result:
+     * - The discount is $5 and none of the 500 smaller rules had their condition checked
+     */
+    @Test
+    public void testCalculateDiscount_SmallerRulesSkipped() {
+        AtomicInteger evaluations = new AtomicInteger();
+        List<DiscountRule> rules = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            rules.add(new CountingRule(DiscountType.FIXED_AMOUNT, BigDecimal.valueOf(100 + i * 399 / 249, 2), evaluations));
+            rules.add(new CountingRule(DiscountType.PERCENTAGE, BigDecimal.valueOf(1 + i * 19 / 249, 2), evaluations));
+        }
+        rules.add(new ShowingSequenceDiscountRule(3, BigDecimal.valueOf(5)));
+        DiscountRuleEngine engine = new DiscountRuleEngine(rules);
+
+        BigDecimal discount = engine.calculateDiscount(newShowing(BigDecimal.valueOf(10), 0, 3, LocalTime.of(20, 0)), BUSINESS_DATE);
+        Assertions.assertEquals(0, discount.compareTo(BigDecimal.valueOf(5)));
+        Assertions.assertEquals(0, evaluations.get());
+    }
+
+    /**
+     * This is a case to check that the built-in rules are looked up instead of checked, so their number does not change the work per showing.
+     * Test data includes:
+     * - 5 then 500 built-in rules (sequence, special code, and time window rules of growing values),
+     *   plus a custom 60% rule that never applies
+     * Expected result:
+     * - The best built-in discount is found with both rule sets, in BigDecimal and in cents,
+     *   and only the custom rule had its condition checked, once per price
+     */
+    @Test
+    public void testCalculateDiscount_ManyRules_ConstantEvaluations() {
+        Showing showing = newShowing(BigDecimal.valueOf(20), 7, 3, LocalTime.of(14, 0));
+        for (int ruleCount : new int[] {5, 500}) {
+            AtomicInteger evaluations = new AtomicInteger();
+            List<DiscountRule> rules = new ArrayList<>();
+            rules.add(new CountingRule(DiscountType.PERCENTAGE, new BigDecimal("0.6"), evaluations));
+            for (int i = 0; rules.size() < ruleCount; i++) {
+                rules.add(new ShowingSequenceDiscountRule(i % 10, BigDecimal.valueOf(100 + i, 2)));
+                rules.add(new SpecialMovieDiscountRule(i % 20, BigDecimal.valueOf(10 + i % 400, 3)));
+                rules.add(new ShowingTimeWindowDiscountRule(LocalTime.of(i % 12, 0), LocalTime.of(12 + i % 12, 30), BigDecimal.valueOf(i % 450, 3)));
+            }
+            DiscountRuleEngine engine = new DiscountRuleEngine(rules);
+            BigDecimal expectedDiscount = BigDecimal.ZERO;
+            for (DiscountRule rule : rules.subList(1, rules.size())) {
+                if (rule.isApplicable(showing, BUSINESS_DATE)) {
+                    BigDecimal discount = rule.getDiscountType() == DiscountType.FIXED_AMOUNT ? rule.getDiscountValue()
+                            : showing.getMovie().getTicketPrice().multiply(rule.getDiscountValue());
+                    expectedDiscount = expectedDiscount.max(discount);
+                }
+            }
+
+            Assertions.assertEquals(0, engine.calculateDiscount(showing, BUSINESS_DATE).compareTo(expectedDiscount));
+            Assertions.assertEquals(BigDecimal.valueOf(20).subtract(expectedDiscount).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact(),
+                    engine.calculateFinalPriceInCents(showing, BUSINESS_DATE));
+            Assertions.assertEquals(2, evaluations.get());
+        }
+    }
+
+    /**
+     * This is a case to check the exclusive bounds of the time window rule and that it only applies on the business date.
+     * Test data includes:
+     * - 25% discount between 11 am and 4 pm
+     * Expected result:
+     * - Shows at 11:00 and 16:00 or on another day are not eligible, a show at 11:01 on the business date is
+     */
+    @Test
+    public void testTimeWindowRule_ExclusiveBoundsOnBusinessDate() {
+        ShowingTimeWindowDiscountRule rule = new ShowingTimeWindowDiscountRule(LocalTime.of(11, 0), LocalTime.of(16, 0), new BigDecimal("0.25"));
+
+        Assertions.assertFalse(rule.isApplicable(newShowing(BigDecimal.TEN, 0, 3, LocalTime.of(11, 0)), BUSINESS_DATE));
+        Assertions.assertFalse(rule.isApplicable(newShowing(BigDecimal.TEN, 0, 3, LocalTime.of(16, 0)), BUSINESS_DATE));
+        Assertions.assertTrue(rule.isApplicable(newShowing(BigDecimal.TEN, 0, 3, LocalTime.of(11, 1)), BUSINESS_DATE));
+        Assertions.assertFalse(rule.isApplicable(newShowing(BigDecimal.TEN, 0, 3, LocalTime.of(11, 1)), BUSINESS_DATE.plusDays(1)));
+    }
+
+    /**
+     * This is a case to check that invalid rules are rejected.
+     * Test data includes:
+     * - Null rule list, a negative amount, a percentage above 100%, and an empty time window
+     * Expected result:
+     * - Each case should throw an Illegal Argument Exception
+     */
+    @Test
+    public void testInvalidRules_ThrowIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new DiscountRuleEngine(null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ShowingSequenceDiscountRule(1, BigDecimal.valueOf(-1)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SpecialMovieDiscountRule(1, new BigDecimal("1.5")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ShowingTimeWindowDiscountRule(LocalTime.NOON, LocalTime.NOON, BigDecimal.ONE));
+    }
+
+    private static Showing newShowing(BigDecimal ticketPrice, int specialCode, int sequence, LocalTime startTime) {
+        Movie movie = new Movie("Test Movie", "Test Movie Desc", Duration.ofMinutes(90), ticketPrice, specialCode);
+        return new Showing(movie, sequence, LocalDateTime.of(BUSINESS_DATE, startTime));
+    }
+
+    /**
+     * Discount rule that never applies and counts how many times its condition was checked.
+     */
+    private static class CountingRule implements DiscountRule {
+        private final DiscountType discountType;
+        private final BigDecimal discountValue;
+        private final AtomicInteger evaluations;
+
+        CountingRule(DiscountType discountType, BigDecimal discountValue, AtomicInteger evaluations) {
+            this.discountType = discountType;
+            this.discountValue = discountValue;
+            this.evaluations = evaluations;
+        }
+
+        @Override
+        public DiscountType getDiscountType() {
+            return discountType;
+        }
+
+        @Override
+        public BigDecimal getDiscountValue() {
+            return discountValue;
+        }
+
+        @Override
+        public boolean isApplicable(Showing showing, LocalDate businessDate) {
+            evaluations.incrementAndGet();
+            return false;
+        }
+    }
+}
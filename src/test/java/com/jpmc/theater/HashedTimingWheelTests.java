@@ -0,0 +1,81 @@
+package com.jpmc.theater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for the HashedTimingWheel class.
+ */
+public class HashedTimingWheelTests {
+    /**
+     * This is a case to check that tasks expire on the first tick at or after their deadline, never before.
+     * Test data includes:
+     * - Wheel of 8 ticks of 100 ms, tasks due at 150 ms, 210 ms, and 2000 ms (more than 2 rotations away)
+     * Expected result:
+     * - Each task expires once time reaches the end of its deadline tick, in a single advance call
+     */
+    @Test
+    public void testAdvance_ExpiresTasksAtTheirDeadlineTick() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(100, 8, 0);
+        List<String> expired = new ArrayList<>();
+        wheel.schedule("a", 150);
+        wheel.schedule("b", 210);
+        wheel.schedule("c", 2000);
+
+        Assertions.assertEquals(0, wheel.advance(199, expired::add));
+        Assertions.assertEquals(1, wheel.advance(200, expired::add));
+        Assertions.assertEquals(List.of("a"), expired);
+        Assertions.assertEquals(0, wheel.advance(299, expired::add));
+        Assertions.assertEquals(1, wheel.advance(300, expired::add));
+        Assertions.assertEquals(0, wheel.advance(1999, expired::add));
+        Assertions.assertEquals(1, wheel.advance(2000, expired::add));
+        Assertions.assertEquals(List.of("a", "b", "c"), expired);
+        Assertions.assertEquals(0, wheel.size());
+    }
+
+    /**
+     * This is a case to check cancelling tasks and scheduling deadlines in the past.
+     * Test data includes:
+     * - Wheel of 4 ticks of 10 ms, 3 tasks in the same bucket with the middle one cancelled, and a task due in the past
+     * Expected result:
+     * - The cancelled task never expires and cannot be cancelled twice, the late task expires on the next tick
+     */
+    @Test
+    public void testCancelAndLateDeadline() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(10, 4, 0);
+        List<String> expired = new ArrayList<>();
+        wheel.schedule("a", 50);
+        HashedTimingWheel.Timeout<String> cancelled = wheel.schedule("b", 50);
+        wheel.schedule("c", 50);
+
+        Assertions.assertTrue(wheel.cancel(cancelled));
+        Assertions.assertFalse(wheel.cancel(cancelled));
+        Assertions.assertEquals(2, wheel.advance(55, expired::add));
+        Assertions.assertFalse(expired.contains("b"));
+
+        wheel.schedule("late", 10);
+        Assertions.assertEquals(0, wheel.advance(59, expired::add));
+        Assertions.assertEquals(1, wheel.advance(60, expired::add));
+        Assertions.assertEquals("late", expired.get(2));
+    }
+
+    /**
+     * This is a case to check a long pause between two advance calls with many pending tasks.
+     * Test data includes:
+     * - Wheel of 16 ticks of 1 ms, 10000 tasks due over the first 10 seconds, advanced straight to 1 hour
+     * Expected result:
+     * - Every task expires in one call and the wheel is empty
+     */
+    @Test
+    public void testAdvance_LongPause() {
+        HashedTimingWheel<Integer> wheel = new HashedTimingWheel<>(1, 16, 0);
+        for (int i = 0; i < 10_000; i++) {
+            wheel.schedule(i, i);
+        }
+        Assertions.assertEquals(10_000, wheel.advance(3_600_000, task -> { }));
+        Assertions.assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,104 @@
+package com.jpmc.theater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the IdempotencyCache class.
+ */
+public class IdempotencyCacheTests {
+    private final MutableClock clock = new MutableClock(LocalDateTime.of(2023, 6, 23, 7, 0).toInstant(ZoneOffset.UTC));
+
+    /**
+     * This is a case to check that an action throwing an Error is forgotten, and the retry waiting for it is not stuck.
+     * Test data includes:
+     * - Action of a key blocked while a retry of the key waits for it, past the time to live, then throwing an AssertionError
+     * Expected result:
+     * - The running key is not expired, both calls throw the AssertionError, the action ran once, and a later retry runs it again
+     */
+    @Test
+    public void testExecute_ActionThrowsError_KeyForgotten() throws Exception {
+        IdempotencyCache<String> cache = new IdempotencyCache<>(16, Duration.ofMinutes(1), clock);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = threads.submit(() -> cache.execute("request-1", "party of 2", () -> {
+                runs.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new AssertionError("Action failure");
+            }));
+            Assertions.assertTrue(started.await(10, TimeUnit.SECONDS));
+            clock.advance(Duration.ofMinutes(2));
+            Future<String> retry = threads.submit(() -> cache.execute("request-1", "party of 2", () -> {
+                runs.incrementAndGet();
+                return "retried";
+            }));
+            // gives the retry the time to find the running key and wait for it
+            Thread.sleep(200);
+            release.countDown();
+
+            ExecutionException failure = Assertions.assertThrows(ExecutionException.class, () -> first.get(10, TimeUnit.SECONDS));
+            Assertions.assertTrue(failure.getCause() instanceof AssertionError);
+            failure = Assertions.assertThrows(ExecutionException.class, () -> retry.get(10, TimeUnit.SECONDS));
+            Assertions.assertTrue(failure.getCause() instanceof AssertionError);
+            Assertions.assertEquals(1, runs.get());
+            Assertions.assertEquals(0, cache.size());
+            Assertions.assertEquals("again", cache.execute("request-1", "party of 2", () -> "again"));
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    /**
+     * This is a case to check that live keys are never evicted to make room for new ones.
+     * Test data includes:
+     * - Cache of 16 keys, one per segment, 64 keys asked for within the time to live, then retried, then asked for after it
+     * Expected result:
+     * - Keys finding their segment full are rejected with an IllegalStateException, every remembered key still returns its first result,
+     *   and the rejected keys are taken once the remembered ones expired
+     */
+    @Test
+    public void testExecute_FullSegment_RejectsNewKeys() {
+        IdempotencyCache<String> cache = new IdempotencyCache<>(16, Duration.ofMinutes(1), clock);
+        List<String> remembered = new ArrayList<>();
+        List<String> rejected = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            String key = "request-" + i;
+            try {
+                Assertions.assertEquals("first " + key, cache.execute(key, "party of 2", () -> "first " + key));
+                remembered.add(key);
+            } catch (IllegalStateException ex) {
+                rejected.add(key);
+            }
+        }
+
+        Assertions.assertFalse(rejected.isEmpty());
+        Assertions.assertEquals(remembered.size(), cache.size());
+        for (String key : remembered) {
+            Assertions.assertEquals("first " + key, cache.execute(key, "party of 2", () -> "second " + key));
+        }
+        clock.advance(Duration.ofMinutes(1));
+        String late = rejected.get(0);
+        Assertions.assertEquals("late " + late, cache.execute(late, "party of 2", () -> "late " + late));
+    }
+}
@@ -0,0 +1,197 @@
+package com.jpmc.theater;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class load tests a theater in process, e.g. a ticket drop of 50k customers on one showing or an hours long soak.
+ * <p>
+ * Calls arrive on the schedule of the scenario's arrival curve whether earlier calls completed or not (an open model),
+ * and run on a fixed pool of worker threads; calls the workers cannot keep up with wait in the pool's queue.
+ * Each call is a reservation or a price lookup on one of the target showings, made by a random customer of the scenario
+ * with a random party size. The same seed gives the same sequence of calls.
+ *
+ * @author coder050519123
+ */
+public final class LoadGenerator {
+    /**
+     * Length of the throughput intervals when none is provided.
+     */
+    public static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(1);
+
+    private final Theater theater;
+    private final ShowingKey[] showings;
+    private final int workers;
+    private final Duration interval;
+
+    /**
+     * Constructs a new LoadGenerator reporting throughput per DEFAULT_INTERVAL.
+     * @param theater - the theater to load
+     * @param showings - the showings calls are spread over, a single one for a ticket drop
+     * @param workers - the number of threads running the calls
+     * @throws IllegalArgumentException if the theater is null, the showings are null or empty, or the number of workers is less than 1
+     */
+    public LoadGenerator(Theater theater, List<ShowingKey> showings, int workers) {
+        this(theater, showings, workers, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Constructs a new LoadGenerator.
+     * @param theater - the theater to load
+     * @param showings - the showings calls are spread over, a single one for a ticket drop
+     * @param workers - the number of threads running the calls
+     * @param interval - the length of the throughput intervals of the report
+     * @throws IllegalArgumentException if the theater is null, the showings are null or empty, the number of workers is less than 1,
+     * or the interval is null or not positive
+     */
+    public LoadGenerator(Theater theater, List<ShowingKey> showings, int workers, Duration interval) {
+        if (theater == null) {
+            throw new IllegalArgumentException("Theater cannot be null!");
+        }
+        ShowingKey[] keys = showings == null ? new ShowingKey[0] : showings.toArray(new ShowingKey[0]);
+        if (keys.length == 0 || Arrays.asList(keys).contains(null)) {
+            throw new IllegalArgumentException("Showings cannot be null or empty!");
+        }
+        if (workers < 1) {
+            throw new IllegalArgumentException("Number of workers cannot be less than 1!");
+        }
+        if (interval == null || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Interval must be positive!");
+        }
+        this.theater = theater;
+        this.showings = keys;
+        this.workers = workers;
+        this.interval = interval;
+    }
+
+    /**
+     * Method to run a load test, returning once every call completed.
+     * @param scenario - the traffic to send
+     * @param seed - the seed of the calls' customers, party sizes, showings, and kinds
+     * @return the report of the test
+     * @throws IllegalArgumentException if the scenario is null
+     */
+    public LoadReport run(LoadScenario scenario, long seed) {
+        if (scenario == null) {
+            throw new IllegalArgumentException("Load scenario cannot be null!");
+        }
+        Customer[] customers = new Customer[scenario.getCustomers()];
+        for (int i = 0; i < customers.length; i++) {
+            customers[i] = new Customer("Load Customer " + i, "load-customer-" + i);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(workers, new WorkerThreads());
+        SplittableRandom random = new SplittableRandom(seed);
+        ArrivalCurve arrivals = scenario.getArrivals();
+        long intervalNanos = interval.toNanos();
+        Run run = new Run(System.nanoTime(), arrivals.getDuration().toNanos() / intervalNanos + 1, intervalNanos);
+        for (double arrival = arrivals.nextArrival(0); arrival >= 0; arrival = arrivals.nextArrival(arrival)) {
+            long scheduledNanos = run.startNanos + (long) arrival;
+            Customer customer = customers[random.nextInt(customers.length)];
+            ShowingKey key = showings[random.nextInt(showings.length)];
+            boolean pricing = random.nextDouble() < scenario.getPricingShare();
+            int partySize = scenario.nextPartySize(random);
+            for (long now = System.nanoTime(); now < scheduledNanos; now = System.nanoTime()) {
+                LockSupport.parkNanos(scheduledNanos - now);
+            }
+            executor.execute(() -> call(run, scheduledNanos, customer, key, pricing, partySize));
+        }
+        executor.shutdown();
+        boolean interrupted = false;
+        while (!executor.isTerminated()) {
+            try {
+                executor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        long[] completions = new long[run.completions.length()];
+        for (int i = 0; i < completions.length; i++) {
+            completions[i] = run.completions.get(i);
+        }
+        return new LoadReport(Duration.ofNanos(run.lastCompletion.get() - run.startNanos), interval,
+                run.created.sum(), run.rejected.sum(), run.failed.sum(), run.priceLookups.sum(),
+                run.latency.snapshot(), run.serviceTime.snapshot(), completions);
+    }
+
+    private void call(Run run, long scheduledNanos, Customer customer, ShowingKey key, boolean pricing, int partySize) {
+        long startNanos = System.nanoTime();
+        try {
+            if (pricing) {
+                theater.getScheduleIndex().findShowing(key).ifPresent(Showing::getFinalShowingPriceInCents);
+                run.priceLookups.increment();
+            } else {
+                theater.createReservation(customer, key.getDate(), key.getAuditorium(), key.getSequenceOfTheDay(), partySize);
+                run.created.increment();
+            }
+        } catch (AdmissionRejectedException ex) {
+            run.rejected.increment();
+        } catch (IllegalStateException ex) {
+            // a sold out showing turns the call down, a showing missing from the schedule is a failure of the scenario
+            if (theater.getScheduleIndex().findShowing(key).isPresent()) {
+                run.rejected.increment();
+            } else {
+                run.failed.increment();
+            }
+        } catch (RuntimeException ex) {
+            run.failed.increment();
+        }
+        long endNanos = System.nanoTime();
+        run.latency.record(endNanos - scheduledNanos);
+        run.serviceTime.record(endNanos - startNanos);
+        int index = (int) Math.min(run.completions.length() - 1, (endNanos - run.startNanos) / run.intervalNanos);
+        run.completions.incrementAndGet(index);
+        run.lastCompletion.accumulateAndGet(endNanos, (last, end) -> end - last > 0 ? end : last);
+    }
+
+    /**
+     * Counters of one load test, shared by its workers.
+     */
+    private static final class Run {
+        private final LongAdder created = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder priceLookups = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LatencyHistogram serviceTime = new LatencyHistogram();
+        private final AtomicLongArray completions;
+        private final AtomicLong lastCompletion;
+        private final long startNanos;
+        private final long intervalNanos;
+
+        private Run(long startNanos, long intervals, long intervalNanos) {
+            this.completions = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE - 8, intervals));
+            this.lastCompletion = new AtomicLong(startNanos);
+            this.startNanos = startNanos;
+            this.intervalNanos = intervalNanos;
+        }
+    }
+
+    /**
+     * Daemon worker threads, so a test abandoned halfway does not keep the JVM alive.
+     */
+    private static final class WorkerThreads implements ThreadFactory {
+        private final AtomicInteger threadIds = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "load-generator-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
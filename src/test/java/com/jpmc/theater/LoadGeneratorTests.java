@@ -0,0 +1,99 @@
+package com.jpmc.theater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for the ArrivalCurve and LoadGenerator classes.
+ */
+public class LoadGeneratorTests {
+    /**
+     * This is a case to check that calls arrive at the rate of the curve.
+     * Test data includes:
+     * - A 1 second ramp from 0 to 1000 calls per second, steps of 100 and 300 calls per second, and a spike of 50k calls in 1 ms
+     * Expected result:
+     * - The number of arrivals matches the area under each curve, and arrivals of the ramp follow its rate
+     */
+    @Test
+    public void testArrivalCurve_ArrivalsFollowTheRate() {
+        ArrivalCurve ramp = ArrivalCurve.ramp(0, 1000, Duration.ofSeconds(1));
+        Assertions.assertEquals(500, ramp.getExpectedCalls(), 1e-6);
+        Assertions.assertEquals(500, countArrivals(ramp), 1);
+        Assertions.assertEquals(250, ramp.getCallsPerSecond(Duration.ofMillis(250)), 1e-6);
+        // half of the calls of a ramp from 0 arrive in its last 29% (1 - 1/sqrt(2))
+        int earlyArrivals = 0;
+        for (double arrival = ramp.nextArrival(0); arrival >= 0 && arrival < Duration.ofMillis(707).toNanos(); arrival = ramp.nextArrival(arrival)) {
+            earlyArrivals++;
+        }
+        Assertions.assertEquals(250, earlyArrivals, 1);
+
+        ArrivalCurve steps = ArrivalCurve.step(Duration.ofMillis(500), 100, 300);
+        Assertions.assertEquals(Duration.ofSeconds(1), steps.getDuration());
+        Assertions.assertEquals(200, countArrivals(steps), 1);
+        Assertions.assertEquals(300, steps.getCallsPerSecond(Duration.ofMillis(750)), 1e-6);
+
+        ArrivalCurve drop = ArrivalCurve.spike(10, 50_000_000, Duration.ofSeconds(1), Duration.ofMillis(1), Duration.ofSeconds(1));
+        Assertions.assertEquals(50_020, countArrivals(drop), 1);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ArrivalCurve.constant(-1, Duration.ofSeconds(1)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ArrivalCurve.step(Duration.ofSeconds(1)));
+    }
+
+    /**
+     * This is a case to check a ticket drop on a single showing.
+     * Test data includes:
+     * - Theater with a showing of 100 seats, 2000 calls per second for 250 ms by 50 customers in parties of 1 or 2,
+     *   a quarter of them price lookups, run by 4 workers
+     * - A second run of 20 reservations on a showing missing from the schedule
+     * Expected result:
+     * - Every scheduled call is reported once, the showing sells out without overbooking, the other reservations are rejected,
+     *   and latencies from the scheduled arrival are never below the service times
+     * - Every reservation of the second run is counted as failed, not rejected
+     */
+    @Test
+    public void testLoadGenerator_TicketDrop() {
+        Movie movie = new Movie("Test Movie", "Test Movie Desc", Duration.ofMinutes(100), BigDecimal.valueOf(20), 0);
+        Showing showing = new Showing(movie, 1, LocalDateTime.of(LocalDate.now(), LocalTime.of(20, 0)), 1, 100);
+        Theater theater = new Theater(List.of(showing));
+        LoadGenerator generator = new LoadGenerator(theater, List.of(showing.getShowingKey()), 4, Duration.ofMillis(50));
+        LoadScenario scenario = new LoadScenario(ArrivalCurve.constant(2000, Duration.ofMillis(250)), 50, new double[] {1, 1}, 0.25);
+
+        LoadReport report = generator.run(scenario, 42);
+
+        Assertions.assertEquals(500, report.getCalls(), 1);
+        Assertions.assertEquals(report.getCalls(), report.getLatency().getCount());
+        Assertions.assertEquals(report.getCalls(), Arrays.stream(report.getCompletionsPerInterval()).sum());
+        Assertions.assertEquals(6, report.getCompletionsPerInterval().length);
+        Assertions.assertEquals(0, report.getReservationsFailed());
+        Assertions.assertTrue(report.getPriceLookups() > 0);
+        Assertions.assertTrue(report.getReservationsRejected() > 0);
+        Assertions.assertTrue(showing.getSeatInventory().isSoldOut());
+        Assertions.assertTrue(report.getReservationsCreated() <= 100);
+        Assertions.assertTrue(report.getLatency().getMax() >= report.getServiceTime().getMax());
+        Assertions.assertTrue(report.toString().startsWith("calls " + report.getCalls() + "\n"));
+        Assertions.assertTrue(report.toString().contains("latency.p99 "));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LoadScenario(ArrivalCurve.constant(1, Duration.ofSeconds(1)), 1, new double[] {0}, 0));
+
+        ShowingKey unscheduled = new ShowingKey(LocalDate.now(), 1, 2);
+        LoadReport unknown = new LoadGenerator(theater, List.of(unscheduled), 1, Duration.ofMillis(50))
+                .run(new LoadScenario(ArrivalCurve.constant(1000, Duration.ofMillis(20)), 5, new double[] {1}, 0), 42);
+        Assertions.assertEquals(20, unknown.getCalls(), 1);
+        Assertions.assertEquals(unknown.getCalls(), unknown.getReservationsFailed());
+        Assertions.assertEquals(0, unknown.getReservationsRejected());
+    }
+
+    private static int countArrivals(ArrivalCurve curve) {
+        int arrivals = 0;
+        for (double arrival = curve.nextArrival(0); arrival >= 0; arrival = curve.nextArrival(arrival)) {
+            arrivals++;
+        }
+        return arrivals;
+    }
+}
@@ -0,0 +1,145 @@
+package com.jpmc.theater;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class is the outcome of a load test: call counts by outcome, latency percentiles, and throughput over time.
+ * <p>
+ * Latency is measured from the time each call was scheduled to arrive, not from the time it started running,
+ * so calls delayed behind a saturated theater count their wait (the coordinated omission correction); the service time,
+ * from start to end of each call, is reported next to it. Its string form lists one value per line under stable names,
+ * so reports of two releases can be diffed.
+ *
+ * @author coder050519123
+ */
+public final class LoadReport {
+    private final Duration elapsed;
+    private final Duration interval;
+    private final long reservationsCreated;
+    private final long reservationsRejected;
+    private final long reservationsFailed;
+    private final long priceLookups;
+    private final HistogramSnapshot latency;
+    private final HistogramSnapshot serviceTime;
+    private final long[] completionsPerInterval;
+
+    LoadReport(Duration elapsed, Duration interval, long reservationsCreated, long reservationsRejected, long reservationsFailed,
+               long priceLookups, HistogramSnapshot latency, HistogramSnapshot serviceTime, long[] completionsPerInterval) {
+        this.elapsed = elapsed;
+        this.interval = interval;
+        this.reservationsCreated = reservationsCreated;
+        this.reservationsRejected = reservationsRejected;
+        this.reservationsFailed = reservationsFailed;
+        this.priceLookups = priceLookups;
+        this.latency = latency;
+        this.serviceTime = serviceTime;
+        this.completionsPerInterval = completionsPerInterval;
+    }
+
+    /**
+     * @return the time from the start of the test to the end of its last call
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return the number of calls made
+     */
+    public long getCalls() {
+        return reservationsCreated + reservationsRejected + reservationsFailed + priceLookups;
+    }
+
+    /**
+     * @return the number of reservations created
+     */
+    public long getReservationsCreated() {
+        return reservationsCreated;
+    }
+
+    /**
+     * @return the number of calls turned down by the theater, i.e. shed by its admission controller or short of seats on a scheduled showing
+     */
+    public long getReservationsRejected() {
+        return reservationsRejected;
+    }
+
+    /**
+     * @return the number of calls that threw any other exception, e.g. for a showing missing from the schedule
+     */
+    public long getReservationsFailed() {
+        return reservationsFailed;
+    }
+
+    /**
+     * @return the number of price lookups completed
+     */
+    public long getPriceLookups() {
+        return priceLookups;
+    }
+
+    /**
+     * @return the latencies of the calls from their scheduled arrival, corrected for coordinated omission
+     */
+    public HistogramSnapshot getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return the latencies of the calls from the time they started running
+     */
+    public HistogramSnapshot getServiceTime() {
+        return serviceTime;
+    }
+
+    /**
+     * @return the length of the throughput intervals
+     */
+    public Duration getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return the number of calls completed in each interval since the start, the last one including calls completed after the curve ended
+     */
+    public long[] getCompletionsPerInterval() {
+        return completionsPerInterval.clone();
+    }
+
+    /**
+     * @return the values of the report by stable name, latencies in nanoseconds
+     */
+    public Map<String, Long> getSummary() {
+        Map<String, Long> summary = new LinkedHashMap<>();
+        summary.put("calls", getCalls());
+        summary.put("reservations.created", reservationsCreated);
+        summary.put("reservations.rejected", reservationsRejected);
+        summary.put("reservations.failed", reservationsFailed);
+        summary.put("pricing.lookups", priceLookups);
+        summary.put("elapsed.millis", elapsed.toMillis());
+        summary.put("throughput.per.second", elapsed.isZero() ? 0 : getCalls() * 1_000_000_000L / elapsed.toNanos());
+        putPercentiles(summary, "latency", latency);
+        putPercentiles(summary, "service.time", serviceTime);
+        return summary;
+    }
+
+    private static void putPercentiles(Map<String, Long> summary, String name, HistogramSnapshot histogram) {
+        summary.put(name + ".p50", histogram.getValueAtPercentile(50));
+        summary.put(name + ".p90", histogram.getValueAtPercentile(90));
+        summary.put(name + ".p99", histogram.getValueAtPercentile(99));
+        summary.put(name + ".p999", histogram.getValueAtPercentile(99.9));
+        summary.put(name + ".max", histogram.getMax());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        getSummary().forEach((name, value) -> text.append(name).append(' ').append(value).append('\n'));
+        for (int i = 0; i < completionsPerInterval.length; i++) {
+            text.append("completions.interval.").append(i).append(' ').append(completionsPerInterval[i]).append('\n');
+        }
+        return text.toString();
+    }
+}
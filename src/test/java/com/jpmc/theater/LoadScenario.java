@@ -0,0 +1,100 @@
+package com.jpmc.theater;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * This class describes the traffic of a load test: when calls arrive, how many distinct customers make them,
+ * how big their parties are, and which share of the calls only look up a showing price instead of reserving.
+ *
+ * @author coder050519123
+ */
+public final class LoadScenario {
+    private final ArrivalCurve arrivals;
+    private final int customers;
+    private final double[] partySizeThresholds;
+    private final double pricingShare;
+
+    /**
+     * Constructs a new LoadScenario.
+     * @param arrivals - when calls arrive
+     * @param customers - the number of distinct customers making the calls, each call is made by one of them at random
+     * @param partySizeWeights - the relative weight of each party size, the first weight for parties of 1, the next for parties of 2, etc.
+     * @param pricingShare - the share of calls looking up a price, between 0 and 1; the other calls reserve
+     * @throws IllegalArgumentException if the arrival curve is null, the number of customers is less than 1,
+     * the party size weights are empty, negative, or all 0, or the pricing share is not between 0 and 1
+     */
+    public LoadScenario(ArrivalCurve arrivals, int customers, double[] partySizeWeights, double pricingShare) {
+        if (arrivals == null) {
+            throw new IllegalArgumentException("Arrival curve cannot be null!");
+        }
+        if (customers < 1) {
+            throw new IllegalArgumentException("Number of customers cannot be less than 1!");
+        }
+        if (partySizeWeights == null || partySizeWeights.length == 0) {
+            throw new IllegalArgumentException("Party size weights cannot be empty!");
+        }
+        if (!(pricingShare >= 0 && pricingShare <= 1)) {
+            throw new IllegalArgumentException("Pricing share must be between 0 and 1!");
+        }
+        double[] thresholds = new double[partySizeWeights.length];
+        double total = 0;
+        for (int i = 0; i < partySizeWeights.length; i++) {
+            if (!(partySizeWeights[i] >= 0)) {
+                throw new IllegalArgumentException("Party size weights cannot be negative!");
+            }
+            total += partySizeWeights[i];
+            thresholds[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Party size weights cannot all be 0!");
+        }
+        for (int i = 0; i < thresholds.length; i++) {
+            thresholds[i] /= total;
+        }
+        this.arrivals = arrivals;
+        this.customers = customers;
+        this.partySizeThresholds = thresholds;
+        this.pricingShare = pricingShare;
+    }
+
+    /**
+     * @return when calls arrive
+     */
+    public ArrivalCurve getArrivals() {
+        return arrivals;
+    }
+
+    /**
+     * @return the number of distinct customers making the calls
+     */
+    public int getCustomers() {
+        return customers;
+    }
+
+    /**
+     * @return the share of calls looking up a price
+     */
+    public double getPricingShare() {
+        return pricingShare;
+    }
+
+    /**
+     * @return the largest party size drawn
+     */
+    public int getMaxPartySize() {
+        return partySizeThresholds.length;
+    }
+
+    /**
+     * @param random - the source of randomness of the load test
+     * @return a party size drawn from the weights
+     */
+    int nextPartySize(SplittableRandom random) {
+        double draw = random.nextDouble();
+        int index = Arrays.binarySearch(partySizeThresholds, draw);
+        // the insertion point of a draw between two thresholds is the first threshold above it
+        int partySize = (index >= 0 ? index + 1 : -index - 1) + 1;
+        return Math.min(partySize, partySizeThresholds.length);
+    }
+}
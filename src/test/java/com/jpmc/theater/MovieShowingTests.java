@@ -4,11 +4,15 @@ import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 /**
  * Integration tests for the Movie and Showing classes.
@@ -77,4 +81,83 @@ public class MovieShowingTests {
 
         assertEquals(0, showing.getFinalShowingPrice().compareTo(BigDecimal.valueOf(10)));
     }
+
+    /**
+     * This is a test case to check that the final showing price is calculated once and then served from the cache.
+     * Test data includes:
+     * - Movie is a regular movie with ticket price of $12.5
+     * - Showing is 2nd of day and start time is 10 am
+     * Expected result:
+     * - Two price requests return the very same $10.5 price object
+     */
+    @Test
+    public void testGetFinalShowingPrice_CachedBetweenCalls() {
+        Movie spiderMan = new Movie("Spider-Man: No Way Home", "Spiderman Movie Test Description", Duration.ofMinutes(90), BigDecimal.valueOf(12.5), 0);
+        Showing showing = new Showing(spiderMan, 2, LocalDateTime.of(LocalDate.now(), LocalTime.of(10, 0)));
+
+        BigDecimal firstPrice = showing.getFinalShowingPrice();
+        assertEquals(0, firstPrice.compareTo(BigDecimal.valueOf(10.5)));
+        assertSame(firstPrice, showing.getFinalShowingPrice());
+    }
+
+    /**
+     * This is a test case to check that the cached final showing price is dropped when the discount rules change.
+     * Test data includes:
+     * - Movie is a regular movie with ticket price of $12.5 shown 2nd of day at 10 am
+     * - The calculator's rules are replaced by an empty rule set after the first price request
+     * Expected result:
+     * - The final showing price goes from $10.5 to the full $12.5
+     */
+    @Test
+    public void testGetFinalShowingPrice_RecalculatedWhenRulesChange() {
+        MovieDiscountCalculator calculator = new MovieDiscountCalculator();
+        Movie spiderMan = new Movie("Spider-Man: No Way Home", "Spiderman Movie Test Description", Duration.ofMinutes(90), BigDecimal.valueOf(12.5), 0);
+        Showing showing = new Showing(spiderMan, 2, LocalDateTime.of(LocalDate.now(), LocalTime.of(10, 0)), calculator);
+
+        assertEquals(0, showing.getFinalShowingPrice().compareTo(BigDecimal.valueOf(10.5)));
+        calculator.setDiscountRuleEngine(new DiscountRuleEngine(List.of()));
+        assertEquals(0, showing.getFinalShowingPrice().compareTo(BigDecimal.valueOf(12.5)));
+    }
+
+    /**
+     * This is a test case to check that the cached final showing price is dropped when the business date rolls over.
+     * Test data includes:
+     * - Movie is a regular movie with ticket price of $12.5 shown 4th of day at 1 pm on June 23rd
+     * - The calculator's clock moves from June 23rd to June 24th
+     * Expected result:
+     * - The 25% mid-day discount ($9.38) only applies while June 23rd is the business date ($12.5 afterwards)
+     */
+    @Test
+    public void testGetFinalShowingPrice_RecalculatedWhenBusinessDateChanges() {
+        MutableClock clock = new MutableClock(Instant.parse("2023-06-23T08:00:00Z"));
+        MovieDiscountCalculator calculator = new MovieDiscountCalculator(new DiscountRuleEngine(MovieDiscountCalculator.getDefaultDiscountRules()), clock);
+        Movie spiderMan = new Movie("Spider-Man: No Way Home", "Spiderman Movie Test Description", Duration.ofMinutes(90), BigDecimal.valueOf(12.5), 0);
+        Showing showing = new Showing(spiderMan, 4, LocalDateTime.of(2023, 6, 23, 13, 0), calculator);
+
+        BigDecimal firstPrice = showing.getFinalShowingPrice();
+        assertEquals(0, firstPrice.compareTo(BigDecimal.valueOf(9.38)));
+        clock.advance(Duration.ofHours(2));
+        assertSame(firstPrice, showing.getFinalShowingPrice());
+        clock.advance(Duration.ofDays(1));
+        assertEquals(0, showing.getFinalShowingPrice().compareTo(BigDecimal.valueOf(12.5)));
+    }
+
+    /**
+     * This is a test case to check that an explicit invalidation forces the final showing price to be recalculated.
+     * Test data includes:
+     * - Movie is a regular movie with ticket price of $12.5 shown 5th of day at 6 pm
+     * Expected result:
+     * - The price is equal but no longer the same cached object after invalidation
+     */
+    @Test
+    public void testInvalidateFinalShowingPrice() {
+        Movie spiderMan = new Movie("Spider-Man: No Way Home", "Spiderman Movie Test Description", Duration.ofMinutes(90), BigDecimal.valueOf(12.5), 0);
+        Showing showing = new Showing(spiderMan, 5, LocalDateTime.of(LocalDate.now(), LocalTime.of(18, 0)));
+
+        BigDecimal firstPrice = showing.getFinalShowingPrice();
+        showing.invalidateFinalShowingPrice();
+        BigDecimal secondPrice = showing.getFinalShowingPrice();
+        assertNotSame(firstPrice, secondPrice);
+        assertEquals(0, firstPrice.compareTo(secondPrice));
+    }
 }
@@ -5,6 +5,10 @@ import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
 
 /**
  * Unit tests for the Movie class.
@@ -41,4 +45,61 @@ public class MovieTests {
         Assertions.assertTrue(firstMovie.equals(secondMovie) && secondMovie.equals(firstMovie));
         Assertions.assertEquals(firstMovie.hashCode(), secondMovie.hashCode());
     }
+
+    /**
+     * This is a test to check that a MovieCatalog interns equal movies into one entry with a stable id.
+     * Test data includes:
+     * - Two equal movies whose ticket prices only differ in trailing zeros, and a third movie sharing their description
+     * Expected result:
+     * - Equal movies are interned into the same entry with id 0, equal to the original movies and with the same hash code,
+     *   the third movie gets id 1 and shares the description of the first entry
+     */
+    @Test
+    public void testMovieCatalog_Intern() {
+        MovieCatalog catalog = new MovieCatalog();
+        Movie firstMovie = new Movie("Sample Movie", "Sample movie description.", Duration.ofMinutes(85), new BigDecimal("12.5"), 0);
+        Movie secondMovie = new Movie("Sample Movie", new String("Sample movie description."), Duration.ofMinutes(85), new BigDecimal("12.50"), 0);
+        Movie imaxMovie = new Movie("Sample Movie IMAX", new String("Sample movie description."), Duration.ofMinutes(85), BigDecimal.valueOf(18), 0);
+
+        Movie interned = catalog.intern(firstMovie);
+        Assertions.assertSame(interned, catalog.intern(secondMovie));
+        Assertions.assertSame(interned, catalog.intern(interned));
+        Assertions.assertEquals(0, interned.getCatalogId());
+        Assertions.assertEquals(Movie.NO_CATALOG_ID, firstMovie.getCatalogId());
+        Assertions.assertTrue(interned.equals(secondMovie) && secondMovie.equals(interned));
+        Assertions.assertEquals(secondMovie.hashCode(), interned.hashCode());
+
+        Movie internedImax = catalog.intern(imaxMovie);
+        Assertions.assertEquals(1, internedImax.getCatalogId());
+        Assertions.assertNotEquals(interned, internedImax);
+        Assertions.assertSame(interned.getDescription(), internedImax.getDescription());
+        Assertions.assertSame(internedImax, catalog.getMovie(1));
+        Assertions.assertEquals(2, catalog.size());
+        Assertions.assertTrue(catalog.contains(interned));
+        Assertions.assertFalse(catalog.contains(imaxMovie));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> catalog.getMovie(2));
+    }
+
+    /**
+     * This is a test to check that movies without a ticket price can be compared and scheduled.
+     * Test data includes:
+     * - Two equal movies without a ticket price, a movie with a price, and a theater scheduling both unpriced movies
+     * Expected result:
+     * - The unpriced movies are equal with the same hash code, not equal to the priced one, and the theater accepts the schedule
+     */
+    @Test
+    public void testMovie_Equals_NullTicketPrice() {
+        Movie firstMovie = new Movie("Sample Movie", "Sample movie description.", Duration.ofMinutes(90), null, 0);
+        Movie secondMovie = new Movie("Sample Movie", "Sample movie description.", Duration.ofMinutes(90), null, 0);
+        Movie pricedMovie = new Movie("Sample Movie", "Sample movie description.", Duration.ofMinutes(90), BigDecimal.valueOf(10), 0);
+        Assertions.assertEquals(firstMovie, secondMovie);
+        Assertions.assertEquals(firstMovie.hashCode(), secondMovie.hashCode());
+        Assertions.assertNotEquals(firstMovie, pricedMovie);
+        Assertions.assertNotEquals(pricedMovie, firstMovie);
+
+        LocalDate showDate = LocalDate.of(2023, 6, 23);
+        Theater theater = new Theater(List.of(new Showing(firstMovie, 1, LocalDateTime.of(showDate, LocalTime.of(9, 0))),
+                new Showing(secondMovie, 2, LocalDateTime.of(showDate, LocalTime.of(12, 0)))));
+        Assertions.assertEquals(2, theater.getScheduleIndex().findShowingsOf(firstMovie).size());
+    }
 }
@@ -0,0 +1,50 @@
+package com.jpmc.theater;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Test clock that only moves when a test advances it.
+ */
+public class MutableClock extends Clock {
+    private volatile Instant instant;
+    private final ZoneId zone;
+
+    /**
+     * Constructs a new MutableClock in UTC starting at the given instant.
+     * @param instant - the initial time of the clock
+     */
+    public MutableClock(Instant instant) {
+        this(instant, ZoneOffset.UTC);
+    }
+
+    private MutableClock(Instant instant, ZoneId zone) {
+        this.instant = instant;
+        this.zone = zone;
+    }
+
+    /**
+     * @param duration - how far to move the clock forward
+     */
+    public void advance(Duration duration) {
+        instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new MutableClock(instant, zone);
+    }
+
+    @Override
+    public Instant instant() {
+        return instant;
+    }
+}
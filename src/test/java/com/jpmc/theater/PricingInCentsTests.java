@@ -0,0 +1,136 @@
+package com.jpmc.theater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Differential tests checking the cents pricing path against the BigDecimal pricing path.
+ */
+public class PricingInCentsTests {
+    private static final LocalDate BUSINESS_DATE = LocalDate.of(2023, 6, 23);
+    private static final LocalTime[] START_TIMES = {
+            LocalTime.of(9, 0), LocalTime.of(10, 59), LocalTime.of(11, 0), LocalTime.of(11, 1), LocalTime.of(13, 0),
+            LocalTime.of(15, 59), LocalTime.of(16, 0), LocalTime.of(16, 1), LocalTime.of(23, 0)
+    };
+
+    /**
+     * This is a case to compare both pricing paths over the whole default rule space.
+     * Test data includes:
+     * - Every ticket price from $0 to $30 in 1 cent steps, regular and special movies
+     * - Every showing sequence from 1 to 8, start times around the 11 am - 4 pm window, on and off the business date
+     * - Party sizes from 1 to 10
+     * Expected result:
+     * - The final price and reservation total in cents match the BigDecimal results for every combination
+     */
+    @Test
+    public void testDefaultRules_CentsPathMatchesBigDecimalPath() {
+        DiscountRuleEngine engine = new DiscountRuleEngine(MovieDiscountCalculator.getDefaultDiscountRules());
+        Assertions.assertTrue(engine.supportsPricingInCents());
+
+        for (int ticketPriceInCents = 0; ticketPriceInCents <= 3000; ticketPriceInCents++) {
+            for (int specialCode = 0; specialCode <= 1; specialCode++) {
+                Movie movie = new Movie("Test Movie", "Test Movie Desc", Duration.ofMinutes(90), BigDecimal.valueOf(ticketPriceInCents, 2), specialCode);
+                for (int sequence = 1; sequence <= 8; sequence++) {
+                    for (LocalTime startTime : START_TIMES) {
+                        assertSamePrice(engine, new Showing(movie, sequence, LocalDateTime.of(BUSINESS_DATE, startTime)));
+                        assertSamePrice(engine, new Showing(movie, sequence, LocalDateTime.of(BUSINESS_DATE.minusDays(1), startTime)));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * This is a case to compare both pricing paths over randomly generated rule sets.
+     * Test data includes:
+     * - 300 rule sets of 1 to 20 rules with random amounts (up to 4 decimals), percentages (in basis points) and conditions
+     * - Random ticket prices from $0 to $1000
+     * Expected result:
+     * - The final price in cents matches the BigDecimal result for every showing
+     */
+    @Test
+    public void testRandomRules_CentsPathMatchesBigDecimalPath() {
+        Random random = new Random(20230623L);
+        for (int ruleSet = 0; ruleSet < 300; ruleSet++) {
+            List<DiscountRule> rules = new ArrayList<>();
+            int ruleCount = 1 + random.nextInt(20);
+            for (int i = 0; i < ruleCount; i++) {
+                rules.add(randomRule(random));
+            }
+            DiscountRuleEngine engine = new DiscountRuleEngine(rules);
+            Assertions.assertTrue(engine.supportsPricingInCents());
+
+            for (int i = 0; i < 200; i++) {
+                Movie movie = new Movie("Test Movie", "Test Movie Desc", Duration.ofMinutes(90), BigDecimal.valueOf(random.nextInt(100_001), 2), random.nextInt(3));
+                LocalTime startTime = START_TIMES[random.nextInt(START_TIMES.length)];
+                assertSamePrice(engine, new Showing(movie, 1 + random.nextInt(10), LocalDateTime.of(BUSINESS_DATE, startTime)));
+            }
+        }
+    }
+
+    /**
+     * This is a case to check that prices which are not whole cents still go through the BigDecimal path.
+     * Test data includes:
+     * - Regular movie with a ticket price of $12.345 shown 4th of day at 1 pm (25% off)
+     * Expected result:
+     * - The final showing price is $9.26 ($9.25875 rounded HALF_UP)
+     */
+    @Test
+    public void testFractionalCentTicketPrice_FallsBackToBigDecimalPath() {
+        Movie movie = new Movie("Test Movie", "Test Movie Desc", Duration.ofMinutes(90), new BigDecimal("12.345"), 0);
+        Showing showing = new Showing(movie, 4, LocalDateTime.of(LocalDate.now(), LocalTime.of(13, 0)));
+
+        Assertions.assertThrows(IllegalStateException.class, movie::getTicketPriceInCents);
+        Assertions.assertEquals(926, showing.getFinalShowingPriceInCents());
+        Assertions.assertEquals(0, showing.getFinalShowingPrice().compareTo(new BigDecimal("9.26")));
+    }
+
+    /**
+     * This is a case to check the HALF_UP rounding helper on both sides of zero.
+     * Expected result:
+     * - Halves round away from zero, like BigDecimal's HALF_UP rounding mode
+     */
+    @Test
+    public void testRoundHalfUp() {
+        Assertions.assertEquals(1, DiscountRuleEngine.roundHalfUp(5_000, 10_000));
+        Assertions.assertEquals(0, DiscountRuleEngine.roundHalfUp(4_999, 10_000));
+        Assertions.assertEquals(-1, DiscountRuleEngine.roundHalfUp(-5_000, 10_000));
+        Assertions.assertEquals(0, DiscountRuleEngine.roundHalfUp(-4_999, 10_000));
+    }
+
+    private static void assertSamePrice(DiscountRuleEngine engine, Showing showing) {
+        BigDecimal ticketPrice = showing.getMovie().getTicketPrice();
+        BigDecimal expectedPrice = ticketPrice.subtract(engine.calculateDiscount(showing, BUSINESS_DATE)).setScale(2, RoundingMode.HALF_UP);
+        long actualPriceInCents = engine.calculateFinalPriceInCents(showing, BUSINESS_DATE);
+        Assertions.assertEquals(expectedPrice, BigDecimal.valueOf(actualPriceInCents, 2), showing.getMovie().getTicketPrice() + " " + showing.getShowStartTime());
+
+        for (int audienceCount = 1; audienceCount <= 10; audienceCount++) {
+            BigDecimal expectedTotal = expectedPrice.multiply(BigDecimal.valueOf(audienceCount)).setScale(2, RoundingMode.HALF_UP);
+            Assertions.assertEquals(expectedTotal, BigDecimal.valueOf(actualPriceInCents * audienceCount, 2));
+        }
+    }
+
+    private static DiscountRule randomRule(Random random) {
+        BigDecimal amount = BigDecimal.valueOf(random.nextInt(2_000_000), 4);
+        BigDecimal percentage = BigDecimal.valueOf(random.nextInt(10_001), 4);
+        switch (random.nextInt(3)) {
+            case 0:
+                return new ShowingSequenceDiscountRule(1 + random.nextInt(10), amount);
+            case 1:
+                return new SpecialMovieDiscountRule(random.nextInt(3), percentage);
+            default:
+                LocalTime lowerBound = LocalTime.of(random.nextInt(12), random.nextInt(60));
+                return new ShowingTimeWindowDiscountRule(lowerBound, lowerBound.plusHours(1 + random.nextInt(11)), percentage);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.jpmc.theater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Unit tests for the ReservationEngine class.
+ */
+public class ReservationEngineTests {
+    private static final LocalDate SHOW_DATE = LocalDate.of(2023, 6, 23);
+
+    private final Movie movie = new Movie("Test Movie 1", "Test Movie Desc 1", Duration.ofMinutes(100), BigDecimal.valueOf(20), 0);
+    private final Customer customer = new Customer("John Doe", "customer-random-id");
+
+    /**
+     * This is a case to check that the engine never oversells hot showings under contention.
+     * Test data includes:
+     * - 2 showings of 100 seats in an engine of 2 partitions with rings of 64 commands,
+     *   8 threads each sending 500 reservations of 1 ticket alternating between the showings
+     * Expected result:
+     * - Exactly 100 reservations succeed per showing, the others fail with an IllegalStateException,
+     *   and the seats taken match the reservations made
+     */
+    @Test
+    public void testCreateReservation_ConcurrentCallers() throws Exception {
+        Showing first = new Showing(movie, 1, LocalDateTime.of(SHOW_DATE, LocalTime.of(9, 0)), 1, 100);
+        Showing second = new Showing(movie, 1, LocalDateTime.of(SHOW_DATE, LocalTime.of(9, 0)), 2, 100);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<Reservation>> reservations = new ArrayList<>();
+        try (ReservationEngine engine = new ReservationEngine(new Theater(List.of(first, second)), 2, 64)) {
+            List<Future<List<CompletableFuture<Reservation>>>> sent = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                sent.add(callers.submit(() -> {
+                    List<CompletableFuture<Reservation>> own = new ArrayList<>();
+                    for (int i = 0; i < 500; i++) {
+                        own.add(engine.createReservation(customer, SHOW_DATE, 1 + i % 2, 1, 1));
+                    }
+                    return own;
+                }));
+            }
+            for (Future<List<CompletableFuture<Reservation>>> own : sent) {
+                reservations.addAll(own.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            callers.shutdown();
+        }
+
+        CompletableFuture.allOf(reservations.toArray(new CompletableFuture[0])).exceptionally(ex -> null).get(10, TimeUnit.SECONDS);
+        int succeeded = 0;
+        for (CompletableFuture<Reservation> reservation : reservations) {
+            if (!reservation.isCompletedExceptionally()) {
+                succeeded++;
+            } else {
+                CompletionException failure = Assertions.assertThrows(CompletionException.class, reservation::join);
+                Assertions.assertTrue(failure.getCause() instanceof IllegalStateException);
+            }
+        }
+        Assertions.assertEquals(200, succeeded);
+        Assertions.assertTrue(first.getSeatInventory().isSoldOut() && second.getSeatInventory().isSoldOut());
+        Assertions.assertEquals(0, first.getSeatMap().getAvailableSeats() + second.getSeatMap().getAvailableSeats());
+    }
+
+    /**
+     * This is a case to check invalid commands and commands sent after the engine is closed.
+     * Test data includes:
+     * - Engine of 1 partition, a reservation of 0 tickets, a reservation without a date, and a reservation after close
+     * Expected result:
+     * - The invalid reservations fail with an IllegalArgumentException, the reservation after close with an IllegalStateException
+     */
+    @Test
+    public void testCreateReservation_InvalidAndClosed() {
+        Theater theater = new Theater(List.of(new Showing(movie, 1, LocalDateTime.of(SHOW_DATE, LocalTime.of(9, 0)))));
+        ReservationEngine engine = new ReservationEngine(theater, 1);
+
+        Assertions.assertEquals(2, engine.createReservation(customer, SHOW_DATE, 1, 1, 2).join().getAudienceCount());
+        CompletionException invalid = Assertions.assertThrows(CompletionException.class, () -> engine.createReservation(customer, SHOW_DATE, 1, 1, 0).join());
+        Assertions.assertTrue(invalid.getCause() instanceof IllegalArgumentException);
+        invalid = Assertions.assertThrows(CompletionException.class, () -> engine.createReservation(customer, null, 1, 1, 2).join());
+        Assertions.assertTrue(invalid.getCause() instanceof IllegalArgumentException);
+
+        engine.close();
+        CompletionException closed = Assertions.assertThrows(CompletionException.class, () -> engine.createReservation(customer, SHOW_DATE, 1, 1, 2).join());
+        Assertions.assertTrue(closed.getCause() instanceof IllegalStateException);
+    }
+
+    /**
+     * This is a case to check that a writer survives an Error of the theater and completes futures off its own thread.
+     * Test data includes:
+     * - Engine of 1 partition over a theater whose first batch throws an Error, then a reservation with a stage chained on it
+     * Expected result:
+     * - The first reservation fails with the Error, the next one succeeds, and the chained stage does not run on the writer thread
+     */
+    @Test
+    public void testCreateReservation_ErrorKeepsWriterAlive() throws Exception {
+        AtomicBoolean failed = new AtomicBoolean();
+        Theater theater = new Theater(List.of(new Showing(movie, 1, LocalDateTime.of(SHOW_DATE, LocalTime.of(9, 0))))) {
+            @Override
+            public List<ReservationResult> createReservations(List<ReservationRequest> requests) {
+                if (failed.compareAndSet(false, true)) {
+                    throw new AssertionError("Theater failure");
+                }
+                return super.createReservations(requests);
+            }
+        };
+        try (ReservationEngine engine = new ReservationEngine(theater, 1)) {
+            CompletionException failure = Assertions.assertThrows(CompletionException.class,
+                    () -> engine.createReservation(customer, SHOW_DATE, 1, 1, 2).join());
+            Assertions.assertTrue(failure.getCause() instanceof AssertionError);
+
+            CompletableFuture<String> thread = engine.createReservation(customer, SHOW_DATE, 1, 1, 2)
+                    .thenApply(reservation -> Thread.currentThread().getName());
+            Assertions.assertFalse(thread.get(10, TimeUnit.SECONDS).startsWith("reservation-engine-"));
+        }
+    }
+}
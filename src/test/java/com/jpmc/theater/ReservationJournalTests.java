@@ -0,0 +1,462 @@
+package com.jpmc.theater;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Unit and Integration tests for the ReservationJournal class.
+ */
+public class ReservationJournalTests {
+    private static final LocalDate SHOW_DATE = LocalDate.of(2023, 6, 23);
+
+    private Path journalDirectory;
+    private Movie movie;
+    private Customer customer;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        journalDirectory = Files.createTempDirectory("reservation-journal");
+        movie = new Movie("Test Movie 1", "Test Movie Desc 1", Duration.ofMinutes(100), BigDecimal.valueOf(20), 0);
+        customer = new Customer("John Doe", "customer-random-id");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(journalDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    /**
+     * This is a case to check that a restarted theater gets its reservations back from the journal
+     * Test data includes:
+     * - Theater journaling 3 reservations, one of them from a confirmed hold, then a new theater with the same schedule
+     * Expected result:
+     * - The new theater restores the 3 reservations with their ids, customers, and seats, the seats are taken again,
+     *   and new reservations continue the ids
+     */
+    @Test
+    public void testAttachJournal_RestoresReservationsAfterRestart() throws IOException {
+        List<Reservation> created = new ArrayList<>();
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory)) {
+            Theater theater = new Theater(newSchedule());
+            Assertions.assertTrue(theater.attachJournal(journal).isEmpty());
+            created.add(theater.createReservation(customer, SHOW_DATE, 1, 1, 3));
+            created.add(theater.createReservation(new Customer("Jane Doe", null), SHOW_DATE, 2, 1, 2));
+            created.add(theater.confirmHold(theater.holdSeats(customer, SHOW_DATE, 1, 1, 4)));
+            Assertions.assertEquals(3, journal.getDurableLsn());
+        }
+
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory)) {
+            Theater theater = new Theater(newSchedule());
+            List<Reservation> restored = theater.attachJournal(journal);
+
+            Assertions.assertEquals(3, journal.getRecoveredRecordCount());
+            Assertions.assertEquals(3, restored.size());
+            for (int i = 0; i < created.size(); i++) {
+                Assertions.assertEquals(created.get(i).getReservationId(), restored.get(i).getReservationId());
+                Assertions.assertEquals(created.get(i).getCustomer(), restored.get(i).getCustomer());
+                Assertions.assertEquals(created.get(i).getSeats(), restored.get(i).getSeats());
+                Assertions.assertEquals(created.get(i).getShowing().getShowingKey(), restored.get(i).getShowing().getShowingKey());
+                Assertions.assertTrue(restored.get(i).getShowing().getSeatMap().isReserved(restored.get(i).getSeats().get(0)));
+            }
+            Assertions.assertEquals(93, restored.get(0).getShowing().getSeatInventory().getRemainingSeats());
+            Assertions.assertEquals(4, theater.createReservation(customer, SHOW_DATE, 1, 1, 1).getReservationId());
+            Assertions.assertThrows(IllegalStateException.class, () -> theater.attachJournal(journal));
+        }
+    }
+
+    /**
+     * This is a case to check that a reservation that cannot be journaled is not handed out
+     * Test data includes:
+     * - Customer with a name longer than the records of a journal segment of 4 records can hold
+     * Expected result:
+     * - The reservation throws an IllegalArgumentException and its seats are given back
+     */
+    @Test
+    public void testCreateReservation_JournalRejectsRecord_ReleasesSeats() throws IOException {
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory, 4)) {
+            Theater theater = new Theater(newSchedule());
+            theater.attachJournal(journal);
+            Customer longNamedCustomer = new Customer(String.join("", Collections.nCopies(2000, "x")), "customer-random-id");
+
+            Assertions.assertThrows(IllegalArgumentException.class, () -> theater.createReservation(longNamedCustomer, SHOW_DATE, 1, 1, 2));
+            Showing showing = theater.getScheduleIndex().findShowing(SHOW_DATE, 1, 1).orElseThrow();
+            Assertions.assertEquals(100, showing.getSeatInventory().getRemainingSeats());
+            Assertions.assertEquals(100, showing.getSeatMap().getAvailableSeats());
+            Assertions.assertEquals(0, journal.getLastLsn());
+        }
+    }
+
+    /**
+     * This is a case to check customers too long for a single record
+     * Test data includes:
+     * - Segments of 4 records, a reservation of a customer with a short name, then 3 of customers with 500 byte names taking 3 records each,
+     *   the last one not fitting the rest of the second segment, then a corrupted continuation record of the last reservation
+     * Expected result:
+     * - The second segment is padded and every customer comes back whole after a restart, and the torn last reservation
+     *   is dropped as a whole, its first record included
+     */
+    @Test
+    public void testAttachJournal_LongCustomerNames_SpanSeveralRecords() throws IOException {
+        List<Customer> customers = new ArrayList<>(List.of(customer));
+        for (int i = 0; i < 3; i++) {
+            customers.add(new Customer(String.join("", Collections.nCopies(500, String.valueOf(i))), "customer-" + i));
+        }
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory, 4)) {
+            Theater theater = new Theater(newSchedule());
+            theater.attachJournal(journal);
+            for (Customer reserving : customers) {
+                theater.createReservation(reserving, SHOW_DATE, 1, 1, 1);
+            }
+            Assertions.assertEquals(11, journal.getDurableLsn());
+        }
+        Assertions.assertEquals(3, countSegmentFiles());
+
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory, 4)) {
+            List<Reservation> restored = new Theater(newSchedule()).attachJournal(journal);
+            Assertions.assertEquals(11, journal.getRecoveredRecordCount());
+            Assertions.assertEquals(4, restored.size());
+            for (int i = 0; i < customers.size(); i++) {
+                Assertions.assertEquals(customers.get(i).getName(), restored.get(i).getCustomer().getName());
+                Assertions.assertEquals(customers.get(i).getId(), restored.get(i).getCustomer().getId());
+            }
+        }
+
+        corruptRecord(10);
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory, 4)) {
+            Assertions.assertEquals(8, journal.getRecoveredRecordCount());
+            Assertions.assertEquals(3, new Theater(newSchedule()).attachJournal(journal).size());
+        }
+    }
+
+    /**
+     * This is a case to check that a reservation whose sync failed does not come back after a restart
+     * Test data includes:
+     * - Journal whose first force fails, then a reservation made once the disk works again,
+     *   then a reservation whose sync and abort both fail
+     * Expected result:
+     * - The first reservation fails and gives its seats back, the one whose abort failed keeps its seats until the restart,
+     *   and after the restart only the reservation that succeeded is restored
+     */
+    @Test
+    public void testCreateReservation_SyncFails_NotRestoredAfterRestart() throws IOException {
+        AtomicInteger failuresLeft = new AtomicInteger(1);
+        Reservation kept;
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory, 4, segment -> {
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IOException("Disk failure");
+            }
+            segment.force();
+        })) {
+            Theater theater = new Theater(newSchedule());
+            theater.attachJournal(journal);
+            Showing showing = theater.getScheduleIndex().findShowing(SHOW_DATE, 1, 1).orElseThrow();
+
+            Assertions.assertThrows(UncheckedIOException.class, () -> theater.createReservation(customer, SHOW_DATE, 1, 1, 3));
+            Assertions.assertEquals(100, showing.getSeatInventory().getRemainingSeats());
+            Assertions.assertEquals(100, showing.getSeatMap().getAvailableSeats());
+            kept = theater.createReservation(customer, SHOW_DATE, 1, 1, 2);
+            Assertions.assertEquals(2, journal.getDurableLsn());
+
+            failuresLeft.set(2);
+            UncheckedIOException failure = Assertions.assertThrows(UncheckedIOException.class,
+                    () -> theater.createReservation(customer, SHOW_DATE, 1, 1, 4));
+            Assertions.assertEquals(1, failure.getSuppressed().length);
+            Assertions.assertEquals(94, showing.getSeatInventory().getRemainingSeats());
+        }
+
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory, 4)) {
+            List<Reservation> restored = new Theater(newSchedule()).attachJournal(journal);
+            Assertions.assertEquals(3, journal.getRecoveredRecordCount());
+            Assertions.assertEquals(1, restored.size());
+            Assertions.assertEquals(kept.getReservationId(), restored.get(0).getReservationId());
+            Assertions.assertEquals(98, restored.get(0).getShowing().getSeatInventory().getRemainingSeats());
+        }
+    }
+
+    /**
+     * This is a case to check that a hold whose confirmation could not be journaled does not stay confirmed
+     * Test data includes:
+     * - Journal whose first force fails, a hold of 3 seats confirmed while the disk fails, then a hold confirmed once it works again
+     * Expected result:
+     * - The failed confirmation gives the seats back and leaves the hold RELEASED, so it can neither be confirmed nor released again,
+     *   and the second hold is confirmed and journaled
+     */
+    @Test
+    public void testConfirmHold_SyncFails_HoldReleased() throws IOException {
+        AtomicInteger failuresLeft = new AtomicInteger(1);
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory, 4, segment -> {
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IOException("Disk failure");
+            }
+            segment.force();
+        })) {
+            Theater theater = new Theater(newSchedule());
+            theater.attachJournal(journal);
+            Showing showing = theater.getScheduleIndex().findShowing(SHOW_DATE, 1, 1).orElseThrow();
+
+            SeatHold failed = theater.holdSeats(customer, SHOW_DATE, 1, 1, 3);
+            Assertions.assertThrows(UncheckedIOException.class, () -> theater.confirmHold(failed));
+            Assertions.assertEquals(SeatHold.State.RELEASED, failed.getState());
+            Assertions.assertEquals(100, showing.getSeatInventory().getRemainingSeats());
+            Assertions.assertEquals(100, showing.getSeatMap().getAvailableSeats());
+            Assertions.assertThrows(IllegalStateException.class, () -> theater.confirmHold(failed));
+            Assertions.assertFalse(theater.releaseHold(failed));
+
+            SeatHold confirmed = theater.holdSeats(customer, SHOW_DATE, 1, 1, 2);
+            Assertions.assertEquals(2, theater.confirmHold(confirmed).getAudienceCount());
+            Assertions.assertEquals(SeatHold.State.CONFIRMED, confirmed.getState());
+            Assertions.assertEquals(98, showing.getSeatInventory().getRemainingSeats());
+            Assertions.assertEquals(2, journal.getDurableLsn());
+        }
+    }
+
+    /**
+     * This is a case to check a batch of reservations journaled with one sync
+     * Test data includes:
+     * - Batch mixing both auditoriums, an invalid party size, an unknown showing, a party too big for the seats left,
+     *   and a customer with a name longer than a journal record can hold
+     * Expected result:
+     * - Results follow the request order, failed requests report the exception a single call would throw and keep no seats,
+     *   and every reservation made is journaled and durable, the long named customer in 2 records
+     */
+    @Test
+    public void testCreateReservations_BatchJournaledWithOneSync() throws IOException {
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory)) {
+            Theater theater = new Theater(newSchedule());
+            theater.attachJournal(journal);
+            Customer longNamedCustomer = new Customer(String.join("", Collections.nCopies(200, "x")), "customer-random-id");
+
+            List<ReservationResult> results = theater.createReservations(List.of(
+                    new ReservationRequest(customer, SHOW_DATE, 2, 1, 4),
+                    new ReservationRequest(customer, SHOW_DATE, 1, 1, 0),
+                    new ReservationRequest(customer, SHOW_DATE, 1, 1, 60),
+                    new ReservationRequest(customer, SHOW_DATE, 3, 1, 2),
+                    new ReservationRequest(customer, SHOW_DATE, 1, 1, 60),
+                    new ReservationRequest(longNamedCustomer, SHOW_DATE, 1, 1, 10),
+                    new ReservationRequest(customer, SHOW_DATE, 1, 1, 30)));
+
+            Assertions.assertEquals(7, results.size());
+            Assertions.assertEquals(2, results.get(0).getReservation().getShowing().getAuditorium());
+            Assertions.assertTrue(results.get(1).getFailure() instanceof IllegalArgumentException);
+            Assertions.assertEquals(60, results.get(2).getReservation().getAudienceCount());
+            Assertions.assertTrue(results.get(3).getFailure() instanceof IllegalStateException);
+            Assertions.assertTrue(results.get(4).getFailure() instanceof IllegalStateException);
+            Assertions.assertEquals(longNamedCustomer, results.get(5).getReservation().getCustomer());
+            Assertions.assertTrue(results.get(6).isSuccess());
+
+            Showing showing = theater.getScheduleIndex().findShowing(SHOW_DATE, 1, 1).orElseThrow();
+            Assertions.assertEquals(0, showing.getSeatInventory().getRemainingSeats());
+            Assertions.assertEquals(0, showing.getSeatMap().getAvailableSeats());
+            Assertions.assertEquals(5, journal.getLastLsn());
+            Assertions.assertEquals(5, journal.getDurableLsn());
+        }
+    }
+
+    /**
+     * This is a case to check that a batch whose shared sync failed does not come back after a restart
+     * Test data includes:
+     * - Journal whose first force fails, and a batch of 3 reservations over both auditoriums
+     * Expected result:
+     * - Every reservation of the batch fails with the journal failure and gives its seats back,
+     *   and none of them is restored after a restart
+     */
+    @Test
+    public void testCreateReservations_SyncFails_NotRestoredAfterRestart() throws IOException {
+        AtomicInteger failuresLeft = new AtomicInteger(1);
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory, 4, segment -> {
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IOException("Disk failure");
+            }
+            segment.force();
+        })) {
+            Theater theater = new Theater(newSchedule());
+            theater.attachJournal(journal);
+            List<ReservationResult> results = theater.createReservations(List.of(
+                    new ReservationRequest(customer, SHOW_DATE, 1, 1, 3),
+                    new ReservationRequest(customer, SHOW_DATE, 2, 1, 4),
+                    new ReservationRequest(customer, SHOW_DATE, 1, 1, 5)));
+
+            for (ReservationResult result : results) {
+                Assertions.assertTrue(result.getFailure() instanceof UncheckedIOException);
+            }
+            for (Showing showing : theater.getSchedule()) {
+                Assertions.assertEquals(100, showing.getSeatInventory().getRemainingSeats());
+                Assertions.assertEquals(100, showing.getSeatMap().getAvailableSeats());
+            }
+            Assertions.assertEquals(3, journal.getLastLsn());
+        }
+
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory, 4)) {
+            Assertions.assertEquals(3, journal.getRecoveredRecordCount());
+            Assertions.assertTrue(new Theater(newSchedule()).attachJournal(journal).isEmpty());
+        }
+    }
+
+    /**
+     * This is a case to check that a torn tail is detected and truncated when the journal is opened
+     * Test data includes:
+     * - 10 records in segments of 4 records, then a corrupted byte in record 8, or record 7 corrupted while record 8 is intact
+     * Expected result:
+     * - The journal recovers the records before the corrupted one, appends resume at its LSN,
+     *   and a record after the tear never comes back once new records are appended
+     */
+    @Test
+    public void testOpen_TruncatesTornTail() throws IOException {
+        Theater theater = new Theater(newSchedule());
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory, 4)) {
+            theater.attachJournal(journal);
+            for (int i = 0; i < 10; i++) {
+                theater.createReservation(customer, SHOW_DATE, 1, 1, 1);
+            }
+        }
+        Assertions.assertEquals(3, countSegmentFiles());
+
+        Reservation appended = new Reservation(11, customer, theater.getSchedule().get(0), 1, List.of(new Seat(1, 1)));
+        corruptRecord(8);
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory, 4)) {
+            Assertions.assertEquals(7, journal.getRecoveredRecordCount());
+            Assertions.assertEquals(2, countSegmentFiles());
+            Assertions.assertEquals(8, journal.append(appended));
+        }
+
+        corruptRecord(7);
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory, 4)) {
+            Assertions.assertEquals(6, journal.getRecoveredRecordCount());
+            Assertions.assertEquals(7, journal.append(appended));
+        }
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory, 4)) {
+            Assertions.assertEquals(7, journal.getRecoveredRecordCount());
+            List<Long> lsns = new ArrayList<>();
+            journal.replay(record -> lsns.add(record.getLsn()));
+            Assertions.assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), lsns);
+        }
+    }
+
+    /**
+     * This is a case to check group commit under concurrent appends
+     * Test data includes:
+     * - 8 threads each appending and syncing 250 reservations
+     * Expected result:
+     * - Every record is durable, and the journal replays 2000 records with LSNs following each other
+     */
+    @Test
+    public void testSync_ConcurrentGroupCommit() throws Exception {
+        Reservation reservation = new Reservation(1, customer, newSchedule().get(0), 1, List.of(new Seat(1, 1)));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory, 512)) {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 250; i++) {
+                        journal.sync(journal.append(reservation));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            Assertions.assertEquals(2000, journal.getDurableLsn());
+            long[] expectedLsn = {1};
+            Assertions.assertEquals(2000, journal.replay(record -> Assertions.assertEquals(expectedLsn[0]++, record.getLsn())));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * This is a case to measure how fast the journal appends and recovers
+     * Test data includes:
+     * - 100000 reservations appended to 64 MiB segments with a single sync at the end
+     * Expected result:
+     * - The journal is reopened and replayed into a theater in well under 10 seconds, with every reservation restored
+     */
+    @Test
+    public void testRecoveryTime() throws IOException {
+        int records = 100_000;
+        SeatLayout layout = new SeatLayout(100, 100, 100, 100, 100, 100, 100, 100, 100, 100);
+        List<Showing> schedule = new ArrayList<>();
+        for (int auditorium = 1; auditorium <= 100; auditorium++) {
+            schedule.add(new Showing(movie, 1, LocalDateTime.of(SHOW_DATE, LocalTime.of(9, 0)), auditorium, layout));
+        }
+
+        long appendNanos;
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < records; i++) {
+                Showing showing = schedule.get(i % schedule.size());
+                Seat seat = new Seat(1 + (i / schedule.size()) / 100, 1 + (i / schedule.size()) % 100);
+                journal.append(new Reservation(i + 1, customer, showing, 1, List.of(seat)));
+            }
+            journal.sync(journal.getLastLsn());
+            appendNanos = System.nanoTime() - start;
+        }
+
+        long start = System.nanoTime();
+        List<Reservation> restored;
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory)) {
+            restored = new Theater(schedule).attachJournal(journal);
+        }
+        long recoveryNanos = System.nanoTime() - start;
+
+        Assertions.assertEquals(records, restored.size());
+        Assertions.assertTrue(TimeUnit.NANOSECONDS.toSeconds(recoveryNanos) < 10,
+                "Recovery of " + records + " records took " + TimeUnit.NANOSECONDS.toMillis(recoveryNanos) + " ms, appending them took "
+                        + TimeUnit.NANOSECONDS.toMillis(appendNanos) + " ms");
+    }
+
+    private List<Showing> newSchedule() {
+        return List.of(
+                new Showing(movie, 1, LocalDateTime.of(SHOW_DATE, LocalTime.of(9, 0)), 1, 100),
+                new Showing(movie, 1, LocalDateTime.of(SHOW_DATE, LocalTime.of(9, 0)), 2, 100));
+    }
+
+    private long countSegmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            return files.count();
+        }
+    }
+
+    /**
+     * Flips a byte in the customer part of the record with the given LSN, assuming segments of 4 records.
+     */
+    private void corruptRecord(long lsn) throws IOException {
+        long firstLsn = (lsn - 1) / 4 * 4 + 1;
+        Path segmentFile = journalDirectory.resolve(String.format("%020d.journal", firstLsn));
+        try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = (lsn - firstLsn) * ReservationJournal.RECORD_SIZE + 100;
+            ByteBuffer value = ByteBuffer.allocate(1);
+            channel.read(value, position);
+            value.flip();
+            value.put(0, (byte) ~value.get(0));
+            channel.write(value, position);
+        }
+    }
+}
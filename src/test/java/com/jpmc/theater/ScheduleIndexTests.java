@@ -0,0 +1,164 @@
+package com.jpmc.theater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Unit tests for the ScheduleIndex class.
+ */
+public class ScheduleIndexTests {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2023, 6, 23);
+    private static final LocalDate SECOND_DAY = FIRST_DAY.plusDays(1);
+
+    private Movie turningRed;
+    private Movie theBatMan;
+    private Showing firstDayRoomOneFirst;
+    private Showing firstDayRoomOneSecond;
+    private Showing firstDayRoomTwoFirst;
+    private Showing secondDayRoomOneFirst;
+    private ScheduleIndex index;
+
+    /**
+     * This method sets up the environment before each test case runs.
+     */
+    @BeforeEach
+    public void setUp() {
+        turningRed = new Movie("Turning Red", "This is a Disney movie.", Duration.ofMinutes(85), BigDecimal.valueOf(11), 0);
+        theBatMan = new Movie("The Batman", "This is a DC Comics movie", Duration.ofMinutes(95), BigDecimal.valueOf(9), 0);
+
+        firstDayRoomOneFirst = new Showing(turningRed, 1, LocalDateTime.of(FIRST_DAY, LocalTime.of(9, 0)), 1);
+        firstDayRoomOneSecond = new Showing(theBatMan, 2, LocalDateTime.of(FIRST_DAY, LocalTime.of(11, 0)), 1);
+        firstDayRoomTwoFirst = new Showing(theBatMan, 1, LocalDateTime.of(FIRST_DAY, LocalTime.of(9, 0)), 2);
+        secondDayRoomOneFirst = new Showing(turningRed, 1, LocalDateTime.of(SECOND_DAY, LocalTime.of(9, 0)), 1);
+
+        index = new ScheduleIndex(List.of(secondDayRoomOneFirst, firstDayRoomTwoFirst, firstDayRoomOneSecond, firstDayRoomOneFirst));
+    }
+
+    /**
+     * This is a case to check the lookup by date, auditorium, and sequence.
+     * Test data includes:
+     * - 4 showings over 2 days and 2 auditoriums, with the same sequence used in both auditoriums and both days
+     * Expected result:
+     * - Each key resolves to its own showing, and an unknown key resolves to nothing
+     */
+    @Test
+    public void testFindShowing_ByKey() {
+        Assertions.assertSame(firstDayRoomOneFirst, index.findShowing(FIRST_DAY, 1, 1).orElseThrow());
+        Assertions.assertSame(firstDayRoomTwoFirst, index.findShowing(FIRST_DAY, 2, 1).orElseThrow());
+        Assertions.assertSame(secondDayRoomOneFirst, index.findShowing(SECOND_DAY, 1, 1).orElseThrow());
+        Assertions.assertFalse(index.findShowing(SECOND_DAY, 2, 1).isPresent());
+    }
+
+    /**
+     * This is a case to check the ordering of the whole schedule and of a single day.
+     * Expected result:
+     * - Showings are ordered by date, auditorium, then sequence regardless of the order they were added in
+     */
+    @Test
+    public void testGetShowings_OrderedByKey() {
+        Assertions.assertEquals(List.of(firstDayRoomOneFirst, firstDayRoomOneSecond, firstDayRoomTwoFirst, secondDayRoomOneFirst), index.getShowings());
+        Assertions.assertEquals(List.of(firstDayRoomOneFirst, firstDayRoomOneSecond, firstDayRoomTwoFirst), index.findShowingsOn(FIRST_DAY));
+        Assertions.assertEquals(4, index.size());
+    }
+
+    /**
+     * This is a case to check the lookups by movie and by start time range.
+     * Expected result:
+     * - The Batman is shown twice on the first day, and 2 showings start in the 9 am to 11 am range of the first day
+     */
+    @Test
+    public void testFindShowings_ByMovieAndStartTime() {
+        Assertions.assertEquals(List.of(firstDayRoomOneSecond, firstDayRoomTwoFirst), index.findShowingsOf(theBatMan));
+        Assertions.assertEquals(List.of(firstDayRoomOneFirst, secondDayRoomOneFirst), index.findShowingsOf(turningRed));
+        Assertions.assertEquals(List.of(firstDayRoomOneFirst, firstDayRoomTwoFirst),
+                index.findShowingsStartingBetween(LocalDateTime.of(FIRST_DAY, LocalTime.of(9, 0)), LocalDateTime.of(FIRST_DAY, LocalTime.of(11, 0))));
+    }
+
+    /**
+     * This is a case to check that movies are interned as their showings enter the index.
+     * Test data includes:
+     * - Showings of 2 movies, each showing holding its own movie instance, in an index sharing a catalog
+     * Expected result:
+     * - The catalog holds one entry per movie, and the showings are found by an equal movie instance or by the catalog entry
+     */
+    @Test
+    public void testAdd_InternsMovies() {
+        MovieCatalog catalog = new MovieCatalog();
+        Movie batManCopy = new Movie("The Batman", "This is a DC Comics movie", Duration.ofMinutes(95), BigDecimal.valueOf(9), 0);
+        ScheduleIndex interned = new ScheduleIndex(List.of(firstDayRoomOneFirst, firstDayRoomOneSecond,
+                new Showing(batManCopy, 1, LocalDateTime.of(FIRST_DAY, LocalTime.of(9, 0)), 2)), catalog);
+
+        Assertions.assertEquals(2, catalog.size());
+        Assertions.assertEquals(2, interned.findShowingsOf(theBatMan).size());
+        Assertions.assertEquals(2, interned.findShowingsOf(catalog.intern(batManCopy)).size());
+        Assertions.assertEquals(List.of(firstDayRoomOneFirst), interned.findShowingsOf(catalog.getMovie(0)));
+        interned.remove(firstDayRoomOneFirst.getShowingKey());
+        Assertions.assertTrue(interned.findShowingsOf(turningRed).isEmpty());
+    }
+
+    /**
+     * This is a case to check that removing a showing removes it from every index.
+     * Expected result:
+     * - The removed showing cannot be found by key, movie, or start time anymore
+     */
+    @Test
+    public void testRemove_RemovedFromEveryIndex() {
+        Assertions.assertSame(firstDayRoomOneSecond, index.remove(firstDayRoomOneSecond.getShowingKey()));
+
+        Assertions.assertFalse(index.findShowing(firstDayRoomOneSecond.getShowingKey()).isPresent());
+        Assertions.assertEquals(List.of(firstDayRoomTwoFirst), index.findShowingsOf(theBatMan));
+        Assertions.assertTrue(index.findShowingsStartingBetween(LocalDateTime.of(FIRST_DAY, LocalTime.of(11, 0)), LocalDateTime.of(FIRST_DAY, LocalTime.of(12, 0))).isEmpty());
+        Assertions.assertNull(index.remove(firstDayRoomOneSecond.getShowingKey()));
+    }
+
+    /**
+     * This is a case to check that replacing a showing updates every index.
+     * Test data includes:
+     * - The 11:00 showing of the first day moved to 13:00 the same day, then to the second day, then onto a scheduled key
+     * Expected result:
+     * - The same key is overwritten in place and a new key replaces the old one, in every index,
+     *   and a key already scheduled or an unknown key is rejected without changing the index
+     */
+    @Test
+    public void testReplace_UpdatesEveryIndex() {
+        ShowingKey key = firstDayRoomOneSecond.getShowingKey();
+        Showing sameDay = firstDayRoomOneSecond.withShowStartTime(LocalDateTime.of(FIRST_DAY, LocalTime.of(13, 0)));
+        Assertions.assertSame(firstDayRoomOneSecond, index.replace(key, sameDay));
+        Assertions.assertSame(sameDay, index.findShowing(key).orElseThrow());
+        Assertions.assertEquals(List.of(sameDay, firstDayRoomTwoFirst), index.findShowingsOf(theBatMan));
+        Assertions.assertTrue(index.findShowingsStartingBetween(LocalDateTime.of(FIRST_DAY, LocalTime.of(11, 0)), LocalDateTime.of(FIRST_DAY, LocalTime.of(12, 0))).isEmpty());
+        Assertions.assertEquals(List.of(sameDay), index.findShowingsStartingBetween(LocalDateTime.of(FIRST_DAY, LocalTime.of(13, 0)), LocalDateTime.of(FIRST_DAY, LocalTime.of(14, 0))));
+
+        Showing nextDay = sameDay.withShowStartTime(LocalDateTime.of(SECOND_DAY, LocalTime.of(13, 0)));
+        Assertions.assertSame(sameDay, index.replace(key, nextDay));
+        Assertions.assertFalse(index.findShowing(key).isPresent());
+        Assertions.assertSame(nextDay, index.findShowing(SECOND_DAY, 1, 2).orElseThrow());
+        Assertions.assertEquals(List.of(firstDayRoomTwoFirst, nextDay), index.findShowingsOf(theBatMan));
+        Assertions.assertEquals(4, index.size());
+
+        Showing taken = firstDayRoomOneFirst.withShowStartTime(LocalDateTime.of(SECOND_DAY, LocalTime.of(10, 0)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> index.replace(firstDayRoomOneFirst.getShowingKey(), taken));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> index.replace(key, nextDay));
+        Assertions.assertEquals(List.of(firstDayRoomOneFirst, firstDayRoomTwoFirst, secondDayRoomOneFirst, nextDay), index.getShowings());
+    }
+
+    /**
+     * This is a case to check that two showings with the same key are rejected.
+     * Expected result:
+     * - Creating the index throws an Illegal Argument Exception
+     */
+    @Test
+    public void testDuplicateKey_ThrowsIllegalArgumentException() {
+        Showing duplicate = new Showing(theBatMan, 1, LocalDateTime.of(FIRST_DAY, LocalTime.of(20, 0)), 1);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ScheduleIndex(List.of(firstDayRoomOneFirst, duplicate)));
+    }
+}
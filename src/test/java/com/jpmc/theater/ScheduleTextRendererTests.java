@@ -0,0 +1,99 @@
+package com.jpmc.theater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for the ScheduleTextRenderer class.
+ */
+public class ScheduleTextRendererTests {
+    /**
+     * This is a case to check that the renderer output is the same as concatenating the toString() of each value
+     * Test data includes:
+     * - Showings with running times of 0 to 3 hours, years before 1000 and after 9999, times with seconds and fractions,
+     *   prices with 0 to 3 decimals and a negative scale, and titles with accented letters and emojis
+     * Expected result:
+     * - The Appendable output is the same text as the legacy format, and the ByteBuffer output is the same text in UTF-8
+     */
+    @Test
+    public void testRender_SameAsLegacyFormat() throws IOException {
+        List<Showing> showings = new ArrayList<>();
+        LocalDateTime[] startTimes = {
+                LocalDateTime.of(2023, 6, 23, 8, 0), LocalDateTime.of(999, 1, 2, 23, 59, 1),
+                LocalDateTime.of(10000, 12, 31, 0, 5, 0, 120_000_000), LocalDateTime.of(2023, 6, 23, 9, 0, 0, 1_000),
+                LocalDateTime.of(2023, 6, 23, 10, 0, 59, 7), LocalDateTime.of(-5, 3, 4, 5, 6)
+        };
+        BigDecimal[] prices = {
+                BigDecimal.valueOf(20), BigDecimal.valueOf(12.5), new BigDecimal("9.99"), new BigDecimal("0.05"),
+                new BigDecimal("7.125"), new BigDecimal("1E+3")
+        };
+        String[] titles = {"Turning Red", "Am\u00e9lie", "Spider-Man \ud83d\udd77 No Way Home", "Cr\u00e8me br\u00fbl\u00e9e", "", "The Batman"};
+        for (int i = 0; i < 36; i++) {
+            Movie movie = new Movie(titles[i % titles.length], "desc", Duration.ofMinutes(i * 5L), prices[i % prices.length], 0);
+            showings.add(new Showing(movie, i + 1, startTimes[i / 6]));
+        }
+        LocalDate businessDate = LocalDate.of(2023, 6, 23);
+        ScheduleTextRenderer renderer = new ScheduleTextRenderer();
+
+        StringBuilder rendered = new StringBuilder();
+        renderer.render(showings, businessDate, rendered);
+        ByteBuffer renderedBytes = ByteBuffer.allocate(8192);
+        renderer.render(showings, businessDate, renderedBytes);
+
+        String expected = legacyFormat(showings, businessDate);
+        Assertions.assertEquals(expected, rendered.toString());
+        renderedBytes.flip();
+        Assertions.assertEquals(ByteBuffer.wrap(expected.getBytes(StandardCharsets.UTF_8)), renderedBytes);
+    }
+
+    /**
+     * This is a case to check rendering an empty schedule and a buffer that is too small
+     * Test data includes:
+     * - No showings, then 1 showing rendered into a 10 byte buffer
+     * Expected result:
+     * - The empty schedule message, then a BufferOverflowException
+     */
+    @Test
+    public void testRender_EmptyScheduleAndBufferOverflow() throws IOException {
+        ScheduleTextRenderer renderer = new ScheduleTextRenderer("\n");
+        StringBuilder rendered = new StringBuilder();
+        renderer.render(List.of(), LocalDate.of(2023, 6, 23), rendered);
+        Assertions.assertEquals("No shows scheduled.\n", rendered.toString());
+
+        Showing showing = new Showing(new Movie("Test Movie 1", "desc", Duration.ofMinutes(90), BigDecimal.TEN, 0), 1,
+                LocalDateTime.of(LocalDate.of(2023, 6, 23), LocalTime.of(9, 0)));
+        Assertions.assertThrows(BufferOverflowException.class, () -> renderer.render(List.of(showing), LocalDate.of(2023, 6, 23), ByteBuffer.allocate(10)));
+        Assertions.assertEquals("(1 hour 30 minutes)", ScheduleTextRenderer.formatDuration(Duration.ofMinutes(90)));
+        Assertions.assertEquals("(2 hours 1 minute)", ScheduleTextRenderer.formatDuration(Duration.ofMinutes(121)));
+    }
+
+    /**
+     * The schedule format as it was built before the renderer, with string concatenation.
+     */
+    private static String legacyFormat(List<Showing> showings, LocalDate businessDate) {
+        StringBuilder text = new StringBuilder();
+        text.append(businessDate).append(System.lineSeparator());
+        text.append("===================================================").append(System.lineSeparator());
+        for (Showing s : showings) {
+            long hour = s.getMovie().getRunningTime().toHours();
+            long remainingMin = s.getMovie().getRunningTime().toMinutes() - hour * 60;
+            String duration = String.format("(%s hour%s %s minute%s)", hour, hour == 1 ? "" : "s", remainingMin, remainingMin == 1 ? "" : "s");
+            text.append(s.getSequenceOfTheDay() + ": " + s.getShowStartTime() + " " + s.getMovie().getTitle() + " " + duration + " $" + s.getMovie().getTicketPrice())
+                    .append(System.lineSeparator());
+        }
+        text.append("===================================================").append(System.lineSeparator());
+        return text.toString();
+    }
+}
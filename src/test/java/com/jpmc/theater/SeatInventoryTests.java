@@ -0,0 +1,96 @@
+package com.jpmc.theater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the SeatInventory class.
+ */
+public class SeatInventoryTests {
+    /**
+     * This is a case to check allocating and releasing seats.
+     * Test data includes:
+     * - Inventory of 10 seats
+     * Expected result:
+     * - 6 + 4 seats are allocated, the 11th seat is rejected, and released seats can be allocated again
+     */
+    @Test
+    public void testAllocateAndRelease() {
+        SeatInventory inventory = new SeatInventory(10);
+
+        Assertions.assertTrue(inventory.tryAllocate(6));
+        Assertions.assertFalse(inventory.tryAllocate(5));
+        Assertions.assertTrue(inventory.tryAllocate(4));
+        Assertions.assertTrue(inventory.isSoldOut());
+        Assertions.assertFalse(inventory.tryAllocate(1));
+
+        inventory.release(3);
+        Assertions.assertEquals(3, inventory.getRemainingSeats());
+        Assertions.assertEquals(7, inventory.getAllocatedSeats());
+        Assertions.assertTrue(inventory.tryAllocate(3));
+    }
+
+    /**
+     * This is a case to check invalid allocations and releases.
+     * Test data includes:
+     * - Negative capacity, zero seat allocation, and a release of seats that were never allocated
+     * Expected result:
+     * - Illegal Argument Exception for invalid inputs, Illegal State Exception for releasing too many seats
+     */
+    @Test
+    public void testInvalidInputs() {
+        SeatInventory inventory = new SeatInventory(10);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SeatInventory(-1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> inventory.tryAllocate(0));
+        Assertions.assertThrows(IllegalStateException.class, () -> inventory.release(1));
+    }
+
+    /**
+     * This is a case to check that concurrent reservations can never oversell a showing.
+     * Test data includes:
+     * - Inventory of 1000 seats and 8 threads each trying to allocate 1 or 2 seats 1000 times
+     * Expected result:
+     * - Exactly 1000 seats are allocated in total and the inventory is sold out
+     */
+    @Test
+    public void testConcurrentAllocation_NeverOversells() throws Exception {
+        SeatInventory inventory = new SeatInventory(1000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> allocatedPerThread = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                int seatsPerCall = 1 + thread % 2;
+                allocatedPerThread.add(executor.submit(() -> {
+                    start.await();
+                    int allocated = 0;
+                    for (int i = 0; i < 1000; i++) {
+                        if (inventory.tryAllocate(seatsPerCall)) {
+                            allocated += seatsPerCall;
+                        }
+                    }
+                    return allocated;
+                }));
+            }
+            start.countDown();
+
+            int totalAllocated = 0;
+            for (Future<Integer> allocated : allocatedPerThread) {
+                totalAllocated += allocated.get(30, TimeUnit.SECONDS);
+            }
+            Assertions.assertEquals(1000, totalAllocated);
+            Assertions.assertTrue(inventory.isSoldOut());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.jpmc.theater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for the SeatMap and SeatLayout classes.
+ */
+public class SeatMapTests {
+    /**
+     * This is a case to check that a party is seated together in the middle of the preferred row.
+     * Test data includes:
+     * - Layout of 6 rows of 10 seats, party of 4
+     * Expected result:
+     * - The party gets seats 4 to 7 of the 5th row, two thirds back from the screen
+     */
+    @Test
+    public void testReserveBestAvailable_MiddleOfPreferredRow() {
+        SeatMap seatMap = new SeatMap(new SeatLayout(10, 10, 10, 10, 10, 10));
+
+        List<Seat> seats = seatMap.reserveBestAvailable(4);
+
+        Assertions.assertEquals(List.of(new Seat(5, 4), new Seat(5, 5), new Seat(5, 6), new Seat(5, 7)), seats);
+        Assertions.assertEquals(56, seatMap.getAvailableSeats());
+    }
+
+    /**
+     * This is a case to check that a party goes to the free block closest to the middle, or to the next preferred row.
+     * Test data includes:
+     * - Layout of 3 rows of 10 seats, the middle of the preferred row already taken
+     * Expected result:
+     * - A party of 3 sits right next to the taken block, a party of 5 moves to the next preferred row
+     */
+    @Test
+    public void testReserveBestAvailable_ClosestFreeBlock() {
+        SeatMap seatMap = new SeatMap(new SeatLayout(10, 10, 10));
+        Assertions.assertTrue(seatMap.reserve(List.of(new Seat(3, 4), new Seat(3, 5), new Seat(3, 6), new Seat(3, 7))));
+
+        Assertions.assertEquals(List.of(new Seat(3, 1), new Seat(3, 2), new Seat(3, 3)), seatMap.reserveBestAvailable(3));
+        Assertions.assertEquals(2, seatMap.reserveBestAvailable(5).get(0).getRow());
+        Assertions.assertFalse(seatMap.isReserved(new Seat(1, 1)));
+    }
+
+    /**
+     * This is a case to check rows longer than a 64 bit word.
+     * Test data includes:
+     * - Layout of a single row of 150 seats, seats 1 to 60 and 100 to 150 taken
+     * Expected result:
+     * - A party of 39 is seated on the free block crossing the word boundary, and a party of 1 no longer fits
+     */
+    @Test
+    public void testReserveBestAvailable_RowsSpanningWords() {
+        SeatMap seatMap = new SeatMap(new SeatLayout(150));
+        List<Seat> taken = new ArrayList<>();
+        for (int number = 1; number <= 150; number++) {
+            if (number <= 60 || number >= 100) {
+                taken.add(new Seat(1, number));
+            }
+        }
+        Assertions.assertTrue(seatMap.reserve(taken));
+
+        List<Seat> seats = seatMap.reserveBestAvailable(39);
+        Assertions.assertEquals(new Seat(1, 61), seats.get(0));
+        Assertions.assertEquals(new Seat(1, 99), seats.get(38));
+        Assertions.assertEquals(0, seatMap.getAvailableSeats());
+        Assertions.assertTrue(seatMap.reserveBestAvailable(1).isEmpty());
+
+        seatMap.release(seats);
+        Assertions.assertEquals(seats, seatMap.reserveBestAvailable(39));
+    }
+
+    /**
+     * This is a case to check the fallback when no row can seat the party together.
+     * Test data includes:
+     * - Layout of 2 rows of 4 seats, one seat taken in each row, party of 4
+     * Expected result:
+     * - The party gets the 4 remaining seats scattered over the preferred rows, and the map is then sold out
+     */
+    @Test
+    public void testReserveBestAvailable_ScatteredFallback() {
+        SeatMap seatMap = new SeatMap(new SeatLayout(4, 4));
+        Assertions.assertTrue(seatMap.reserve(List.of(new Seat(1, 2), new Seat(2, 3))));
+
+        List<Seat> seats = seatMap.reserveBestAvailable(4);
+
+        Assertions.assertEquals(4, seats.size());
+        Assertions.assertEquals(List.of(new Seat(1, 1), new Seat(2, 1), new Seat(2, 2), new Seat(2, 4)), seats);
+        Assertions.assertEquals(2, seatMap.getAvailableSeats());
+        Assertions.assertTrue(seatMap.reserveBestAvailable(3).isEmpty());
+    }
+
+    /**
+     * This is a case to check reserving and releasing specific seats.
+     * Test data includes:
+     * - Layout of 1 row of 5 seats
+     * Expected result:
+     * - Reservations are all or nothing, seats outside of the layout or listed twice and releases of free seats are rejected
+     */
+    @Test
+    public void testReserveAndRelease_SpecificSeats() {
+        SeatMap seatMap = new SeatMap(new SeatLayout(5));
+
+        Assertions.assertTrue(seatMap.reserve(List.of(new Seat(1, 1), new Seat(1, 5))));
+        Assertions.assertFalse(seatMap.reserve(List.of(new Seat(1, 2), new Seat(1, 5))));
+        Assertions.assertFalse(seatMap.isReserved(new Seat(1, 2)));
+        Assertions.assertEquals(3, seatMap.getAvailableSeats());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> seatMap.reserve(List.of(new Seat(1, 6))));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> seatMap.reserve(List.of(new Seat(2, 1))));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> seatMap.reserve(List.of(new Seat(1, 3), new Seat(1, 3))));
+        Assertions.assertThrows(IllegalStateException.class, () -> seatMap.release(List.of(new Seat(1, 2))));
+
+        seatMap.release(List.of(new Seat(1, 5)));
+        Assertions.assertFalse(seatMap.isReserved(new Seat(1, 5)));
+        Assertions.assertEquals(4, seatMap.getAvailableSeats());
+    }
+
+    /**
+     * This is a case to check layouts created from a capacity only.
+     * Test data includes:
+     * - Capacity of 0, 45, and a negative capacity
+     * Expected result:
+     * - Rows of 20 seats and a shorter last row, preferred from two thirds back, the same layout shared for the same capacity,
+     *   and an IllegalArgumentException for the negative capacity
+     */
+    @Test
+    public void testSeatLayout_OfCapacity() {
+        SeatLayout layout = SeatLayout.ofCapacity(45);
+
+        Assertions.assertEquals(3, layout.getRowCount());
+        Assertions.assertEquals(5, layout.getSeatsInRow(2));
+        Assertions.assertEquals(45, layout.getCapacity());
+        Assertions.assertSame(layout, SeatLayout.ofCapacity(45));
+        Assertions.assertArrayEquals(new int[] {3, 4, 2, 1, 0}, SeatLayout.ofCapacity(100).getPreferredRowOrder());
+        Assertions.assertEquals(0, SeatLayout.ofCapacity(0).getCapacity());
+        Assertions.assertTrue(new SeatMap(SeatLayout.ofCapacity(0)).reserveBestAvailable(1).isEmpty());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SeatLayout.ofCapacity(-1));
+    }
+}
@@ -0,0 +1,199 @@
+package com.jpmc.theater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for the TheaterChain class.
+ */
+public class TheaterChainTests {
+    private static final LocalDate SHOW_DATE = LocalDate.of(2023, 6, 23);
+
+    private final Movie movie = new Movie("Test Movie 1", "Test Movie Desc 1", Duration.ofMinutes(100), BigDecimal.valueOf(20), 0);
+    private final Movie otherMovie = new Movie("Test Movie 2", "Test Movie Desc 2", Duration.ofMinutes(90), BigDecimal.valueOf(10), 0);
+    private final Customer customer = new Customer("John Doe", "customer-random-id");
+
+    /**
+     * This is a case to check that reservations are routed to the theater owning the showing, on the thread of its shard.
+     * Test data includes:
+     * - Chain of 5 theaters on 2 shards, each theater with a showing of 10 seats, 15 reservations of 1 ticket in each theater
+     * Expected result:
+     * - Theaters are spread round-robin over the shards, each showing sells out on its own without touching the others,
+     *   the calls run on the shard threads, and an unknown theater id or a closed chain fail the future
+     */
+    @Test
+    public void testCreateReservation_RoutedByTheaterId() {
+        Map<String, Theater> theaters = new LinkedHashMap<>();
+        Map<String, String> threads = new ConcurrentHashMap<>();
+        for (int i = 4; i >= 0; i--) {
+            String theaterId = "theater-" + i;
+            theaters.put(theaterId, new Theater(List.of(new Showing(movie, 1, LocalDateTime.of(SHOW_DATE, LocalTime.of(9, 0)), 1, 10))) {
+                @Override
+                Journaled<Reservation> createJournaledReservation(Customer customer, LocalDate date, int auditorium, int sequence, int ticketAmount) {
+                    threads.merge(theaterId, Thread.currentThread().getName(), (first, next) -> first.equals(next) ? first : "several threads");
+                    return super.createJournaledReservation(customer, date, auditorium, sequence, ticketAmount);
+                }
+            });
+        }
+        TheaterChain chain = new TheaterChain(theaters, 2);
+        Assertions.assertEquals(2, chain.getShardCount());
+        Assertions.assertEquals(List.of("theater-0", "theater-1", "theater-2", "theater-3", "theater-4"), new ArrayList<>(chain.getTheaterIds()));
+        Assertions.assertEquals(0, chain.getShardOf("theater-0"));
+        Assertions.assertEquals(1, chain.getShardOf("theater-1"));
+        Assertions.assertEquals(0, chain.getShardOf("theater-4"));
+
+        List<CompletableFuture<Reservation>> reservations = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            for (String theaterId : chain.getTheaterIds()) {
+                reservations.add(chain.createReservation(theaterId, customer, SHOW_DATE, 1, 1, 1));
+            }
+        }
+        CompletableFuture.allOf(reservations.toArray(new CompletableFuture[0])).exceptionally(ex -> null).join();
+        Assertions.assertEquals(50, reservations.stream().filter(reservation -> !reservation.isCompletedExceptionally()).count());
+        for (Theater theater : theaters.values()) {
+            Assertions.assertTrue(theater.getSchedule().get(0).getSeatInventory().isSoldOut());
+        }
+        Assertions.assertEquals(Map.of("theater-0", "theater-shard-0", "theater-1", "theater-shard-1", "theater-2", "theater-shard-0",
+                "theater-3", "theater-shard-1", "theater-4", "theater-shard-0"), threads);
+        Assertions.assertEquals(List.of(), chain.createReservations("theater-3", List.of()).join());
+
+        CompletionException unknown = Assertions.assertThrows(CompletionException.class,
+                () -> chain.createReservation("theater-5", customer, SHOW_DATE, 1, 1, 1).join());
+        Assertions.assertTrue(unknown.getCause() instanceof IllegalArgumentException);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> chain.getShardOf(null));
+        chain.close();
+        CompletionException closed = Assertions.assertThrows(CompletionException.class,
+                () -> chain.findShowing("theater-0", new ShowingKey(SHOW_DATE, 1, 1)).join());
+        Assertions.assertTrue(closed.getCause() instanceof IllegalStateException);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TheaterChain(Map.of()));
+    }
+
+    /**
+     * This is a case to check that theaters of a chain share no mutable state.
+     * Test data includes:
+     * - The same theater under two ids, two theaters scheduling the same showing, and two theaters scheduling equal but distinct showings
+     * Expected result:
+     * - The first two chains are refused with an IllegalArgumentException, the last one is accepted
+     */
+    @Test
+    public void testConstructor_SharedTheatersAndShowingsRefused() {
+        Showing showing = new Showing(movie, 1, LocalDateTime.of(SHOW_DATE, LocalTime.of(9, 0)));
+        Theater theater = new Theater(List.of(showing));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TheaterChain(Map.of("downtown", theater, "uptown", theater), 2));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new TheaterChain(Map.of("downtown", theater, "uptown", new Theater(List.of(showing))), 2));
+
+        Theater other = new Theater(List.of(new Showing(movie, 1, LocalDateTime.of(SHOW_DATE, LocalTime.of(9, 0)))));
+        try (TheaterChain chain = new TheaterChain(Map.of("downtown", theater, "uptown", other), 2)) {
+            Assertions.assertEquals(2, chain.getShardCount());
+        }
+    }
+
+    /**
+     * This is a case to check the queries across the chain.
+     * Test data includes:
+     * - Chain of 3 theaters on 3 shards: the first plays the movie twice on the show date, the second plays another movie,
+     *   the third plays the movie the next day
+     * Expected result:
+     * - Only the first theater is found playing the movie on the show date, and every theater with a showing in the morning of the show date
+     *   is found by start time, in the order of the theater ids
+     */
+    @Test
+    public void testFindShowings_ScatterGather() {
+        Showing first = new Showing(movie, 1, LocalDateTime.of(SHOW_DATE, LocalTime.of(9, 0)));
+        Showing second = new Showing(movie, 2, LocalDateTime.of(SHOW_DATE, LocalTime.of(19, 0)));
+        Showing other = new Showing(otherMovie, 1, LocalDateTime.of(SHOW_DATE, LocalTime.of(10, 0)));
+        Showing nextDay = new Showing(movie, 1, LocalDateTime.of(SHOW_DATE.plusDays(1), LocalTime.of(9, 0)));
+        Map<String, Theater> theaters = Map.of(
+                "downtown", new Theater(List.of(first, second)),
+                "midtown", new Theater(List.of(other)),
+                "uptown", new Theater(List.of(nextDay)));
+
+        try (TheaterChain chain = new TheaterChain(theaters, 8)) {
+            Assertions.assertEquals(3, chain.getShardCount());
+            Assertions.assertEquals(Map.of("downtown", List.of(first, second)), chain.findShowingsOf(movie, SHOW_DATE).join());
+            Assertions.assertEquals(Map.of("uptown", List.of(nextDay)), chain.findShowingsOf(movie, SHOW_DATE.plusDays(1)).join());
+
+            Map<String, List<Showing>> morning = chain.findShowingsStartingBetween(LocalDateTime.of(SHOW_DATE, LocalTime.MIDNIGHT),
+                    LocalDateTime.of(SHOW_DATE, LocalTime.NOON)).join();
+            Assertions.assertEquals(List.of("downtown", "midtown"), new ArrayList<>(morning.keySet()));
+            Assertions.assertEquals(List.of(first), morning.get("downtown"));
+            Assertions.assertEquals(List.of(other), morning.get("midtown"));
+        }
+    }
+
+    /**
+     * This is a case to check that journal syncs run off the shard thread.
+     * Test data includes:
+     * - Chain of 1 theater journaling its reservations, whose journal blocks its first sync until released,
+     *   a reservation, a lookup and a second reservation sent while the sync is blocked, then a batch
+     * Expected result:
+     * - The lookup completes while the first reservation waits for its sync, every sync runs on the journal thread of the shard,
+     *   the second reservation is made durable by the sync following the blocked one, and every reservation completes
+     */
+    @Test
+    public void testCreateReservation_SyncedOffTheShardThread() throws Exception {
+        Path journalDirectory = Files.createTempDirectory("reservation-journal");
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> syncThreads = new CopyOnWriteArrayList<>();
+        try (ReservationJournal journal = new ReservationJournal(journalDirectory, 64, segment -> {
+            syncThreads.add(Thread.currentThread().getName());
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            segment.force();
+        })) {
+            Theater theater = new Theater(List.of(new Showing(movie, 1, LocalDateTime.of(SHOW_DATE, LocalTime.of(9, 0)), 1, 10)));
+            theater.attachJournal(journal);
+            try (TheaterChain chain = new TheaterChain(Map.of("downtown", theater), 1)) {
+                CompletableFuture<Reservation> first = chain.createReservation("downtown", customer, SHOW_DATE, 1, 1, 2);
+                Optional<Showing> found = chain.findShowing("downtown", new ShowingKey(SHOW_DATE, 1, 1)).get(10, TimeUnit.SECONDS);
+                Assertions.assertTrue(found.isPresent());
+                CompletableFuture<Reservation> second = chain.createReservation("downtown", customer, SHOW_DATE, 1, 1, 3);
+                // the second reservation is appended on the shard thread while the first sync is still blocked
+                chain.findShowing("downtown", new ShowingKey(SHOW_DATE, 1, 1)).get(10, TimeUnit.SECONDS);
+                Assertions.assertFalse(first.isDone());
+                Assertions.assertEquals(2, journal.getLastLsn());
+                Assertions.assertEquals(0, journal.getDurableLsn());
+
+                release.countDown();
+                Assertions.assertEquals(2, first.get(10, TimeUnit.SECONDS).getAudienceCount());
+                Assertions.assertEquals(3, second.get(10, TimeUnit.SECONDS).getAudienceCount());
+                List<ReservationResult> batch = chain.createReservations("downtown",
+                        List.of(new ReservationRequest(customer, SHOW_DATE, 1, 1, 1))).get(10, TimeUnit.SECONDS);
+                Assertions.assertTrue(batch.get(0).isSuccess());
+                Assertions.assertEquals(3, journal.getDurableLsn());
+                Assertions.assertEquals(4, found.get().getSeatInventory().getRemainingSeats());
+                Assertions.assertEquals(List.of("theater-journal-0"), syncThreads.stream().distinct().collect(Collectors.toList()));
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(journalDirectory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.jpmc.theater;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for the TheaterMetrics and LatencyHistogram classes.
+ */
+public class TheaterMetricsTests {
+    /**
+     * This is a case to check the log-linear buckets and percentiles of a latency histogram.
+     * Test data includes:
+     * - Values below 16 ns, on bucket edges, past 2^40 ns, and 1000 latencies of 1 to 1000 \u00b5s recorded from 4 threads
+     * Expected result:
+     * - Small values get exact buckets, buckets are at most 1/16 wider than their lower bound,
+     *   and the merged percentiles are within a bucket of the exact ones
+     */
+    @Test
+    public void testLatencyHistogram_PercentilesWithinBucketPrecision() throws InterruptedException {
+        Assertions.assertEquals(15, LatencyHistogram.bucketOf(15));
+        Assertions.assertEquals(16, LatencyHistogram.bucketOf(16));
+        Assertions.assertEquals(LatencyHistogram.bucketOf(32), LatencyHistogram.bucketOf(33));
+        Assertions.assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+        for (long value = 1; value < 1L << 40; value = value * 3 + 1) {
+            long upperBound = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketOf(value));
+            Assertions.assertTrue(upperBound >= value && upperBound <= value + value / 16, "value " + value);
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            threads.add(new Thread(() -> {
+                for (int micros = 1 + offset; micros <= 1000; micros += 4) {
+                    histogram.record(micros * 1000L);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        Assertions.assertEquals(1000, snapshot.getCount());
+        Assertions.assertEquals(500_500_000L, snapshot.getSum());
+        Assertions.assertEquals(1_000_000, snapshot.getMax());
+        Assertions.assertEquals(1_000_000, snapshot.getValueAtPercentile(100));
+        Assertions.assertTrue(Math.abs(snapshot.getValueAtPercentile(50) - 500_000) <= 500_000 / 16);
+        Assertions.assertTrue(Math.abs(snapshot.getValueAtPercentile(99) - 990_000) <= 990_000 / 16);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> snapshot.getValueAtPercentile(101));
+        Assertions.assertEquals(0, new LatencyHistogram().snapshot().getValueAtPercentile(99));
+    }
+
+    /**
+     * This is a case to check that an instrumented theater records its hot paths and gauges.
+     * Test data includes:
+     * - Theater instrumented with new metrics, a showing built without a calculator and bound to the theater's, 2 reservations, a failed one,
+     *   a confirmed hold, a held hold, a batch of 2 requests one of which fails, a JSON schedule print, and 3 price lookups
+     * Expected result:
+     * - The counters, gauges, and histograms of the snapshot match the calls, batch requests and the confirmed hold counted one by one,
+     *   and the DISABLED metrics keep nothing
+     */
+    @Test
+    public void testTheaterMetrics_SnapshotOfInstrumentedTheater() {
+        Movie movie = new Movie("Test Movie", "Test Movie Desc", Duration.ofMinutes(100), BigDecimal.valueOf(20), 0);
+        Showing showing = new Showing(movie, 1, LocalDateTime.of(LocalDate.now(), LocalTime.of(8, 0)));
+        Theater theater = new Theater(List.of(showing));
+        Customer customer = new Customer("John Doe", "customer-random-id");
+        TheaterMetrics metrics = new TheaterMetrics();
+        theater.setMetrics(metrics);
+
+        theater.createReservation(customer, 1, 2);
+        theater.createReservation(customer, 1, 3);
+        Assertions.assertThrows(IllegalStateException.class, () -> theater.createReservation(customer, 9, 1));
+        theater.confirmHold(theater.holdSeats(customer, 1, 2));
+        theater.holdSeats(customer, 1, 1);
+        List<ReservationResult> batch = theater.createReservations(List.of(
+                new ReservationRequest(customer, showing.getShowingKey(), 1), new ReservationRequest(customer, showing.getShowingKey(), 0)));
+        Assertions.assertTrue(batch.get(0).isSuccess());
+        PrintStream originalSystemOut = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        try {
+            theater.printScheduleToJson();
+        } finally {
+            System.setOut(originalSystemOut);
+        }
+        showing.invalidateFinalShowingPrice();
+        showing.getFinalShowingPrice();
+        showing.getFinalShowingPrice();
+        showing.getFinalShowingPriceInCents();
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        Assertions.assertEquals(4, snapshot.getCounter(TheaterMetrics.RESERVATIONS_CREATED));
+        Assertions.assertEquals(2, snapshot.getCounter(TheaterMetrics.RESERVATIONS_FAILED));
+        Assertions.assertEquals(6, snapshot.getHistogram(TheaterMetrics.RESERVATION_LATENCY).getCount());
+        Assertions.assertEquals(1, snapshot.getCounter(TheaterMetrics.SCHEDULE_JSON_PRINTS));
+        Assertions.assertEquals(1, snapshot.getHistogram(TheaterMetrics.SCHEDULE_JSON_LATENCY).getCount());
+        Assertions.assertTrue(snapshot.getCounter(TheaterMetrics.PRICE_CALCULATIONS) >= 1);
+        Assertions.assertTrue(snapshot.getCounter(TheaterMetrics.PRICE_CACHE_HITS) >= 2);
+        Assertions.assertEquals(snapshot.getCounter(TheaterMetrics.PRICE_CALCULATIONS),
+                snapshot.getHistogram(TheaterMetrics.PRICE_CALCULATION_LATENCY).getCount());
+        Assertions.assertEquals(9, snapshot.getGauge(TheaterMetrics.SEATS_SOLD));
+        Assertions.assertEquals(1, snapshot.getGauge(TheaterMetrics.ACTIVE_HOLDS));
+        Assertions.assertTrue(snapshot.toString().contains(TheaterMetrics.SEATS_SOLD + " 9\n"));
+
+        theater.setMetrics(TheaterMetrics.DISABLED);
+        theater.createReservation(customer, 1, 1);
+        Assertions.assertEquals(4, metrics.snapshot().getCounter(TheaterMetrics.RESERVATIONS_CREATED));
+        Assertions.assertTrue(TheaterMetrics.DISABLED.snapshot().getGauges().isEmpty());
+        Assertions.assertTrue(TheaterMetrics.DISABLED.snapshot().getCounters().isEmpty());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> theater.setMetrics(null));
+    }
+}
@@ -4,16 +4,27 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.StringWriter;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneOffset;
 
 /**
  * Unit and Integration tests for Theater class.
@@ -77,6 +88,8 @@ public class TheaterTests {
         Assertions.assertEquals(customer, reservation.getCustomer());
         Assertions.assertEquals(schedule.get(sequence - 1).getMovie(), reservation.getShowing().getMovie());
         Assertions.assertEquals(ticketAmount, reservation.getAudienceCount());
+        Assertions.assertEquals(ticketAmount, reservation.getSeats().size());
+        Assertions.assertTrue(reservation.getShowing().getSeatMap().isReserved(reservation.getSeats().get(0)));
     }
 
     /**
@@ -107,6 +120,378 @@ public class TheaterTests {
         Assertions.assertThrows(IllegalArgumentException.class, () -> theater.createReservation(customer, sequence, ticketAmount));
     }
 
+    /**
+     * This is a case to test reservations resolved by date, auditorium, and sequence in a multi-day, multi-auditorium schedule
+     * Test data includes:
+     * - Theater with the 2 default showings today in auditorium 1, plus the 1st showing of tomorrow in auditorium 1 and 2
+     * Expected result:
+     * - Each reservation gets the showing of its own date and auditorium, and an unscheduled auditorium throws an IllegalStateException
+     */
+    @Test
+    public void testCreateReservation_ByDateAuditoriumAndSequence() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        Showing tomorrowRoomOne = new Showing(schedule.get(0).getMovie(), 1, LocalDateTime.of(tomorrow, LocalTime.of(8, 0)), 1);
+        Showing tomorrowRoomTwo = new Showing(schedule.get(1).getMovie(), 1, LocalDateTime.of(tomorrow, LocalTime.of(8, 0)), 2);
+        List<Showing> multiDaySchedule = new ArrayList<>(schedule);
+        multiDaySchedule.add(tomorrowRoomTwo);
+        multiDaySchedule.add(tomorrowRoomOne);
+        theater.setSchedule(multiDaySchedule);
+
+        Assertions.assertSame(schedule.get(0), theater.createReservation(customer, 1, 2).getShowing());
+        Assertions.assertSame(tomorrowRoomOne, theater.createReservation(customer, tomorrow, 1, 1, 2).getShowing());
+        Assertions.assertSame(tomorrowRoomTwo, theater.createReservation(customer, tomorrow, 2, 1, 2).getShowing());
+        Assertions.assertThrows(IllegalStateException.class, () -> theater.createReservation(customer, tomorrow, 3, 1, 2));
+        Assertions.assertEquals(4, theater.getSchedule().size());
+    }
+
+    /**
+     * This is a case to test a reservation made for a customer of the theater's registry
+     * Test data includes:
+     * - Customer registered in the theater's customer registry, and an unregistered handle
+     * Expected result:
+     * - The reservation refers to the customer by handle and reads the customer back, an unregistered handle throws an IllegalArgumentException
+     */
+    @Test
+    public void testCreateReservation_RegisteredCustomer() {
+        int handle = theater.getCustomerRegistry().register(customer);
+        Reservation reservation = theater.createReservation(handle, LocalDate.now(), Showing.DEFAULT_AUDITORIUM, 2, 3);
+
+        Assertions.assertEquals(handle, reservation.getCustomerHandle());
+        Assertions.assertEquals(customer, reservation.getCustomer());
+        Assertions.assertEquals(CustomerRegistry.NO_HANDLE, theater.createReservation(customer, 1, 1).getCustomerHandle());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> theater.createReservation(handle + 1, LocalDate.now(), Showing.DEFAULT_AUDITORIUM, 2, 3));
+    }
+
+    /**
+     * This is a case to test paging through the reservation history of a customer
+     * Test data includes:
+     * - Reservations of the customer for the 10:00 showing, then the 8:00 showing, then a held and confirmed 10:00 showing,
+     *   and a reservation of another customer
+     * Expected result:
+     * - Pages of 2 list the customer's reservations by show time then reservation order, a reservation added after the first page
+     *   shows up on the next page, and the other customer only sees their own reservation
+     */
+    @Test
+    public void testFindReservations_PagedByShowTime() {
+        Customer otherCustomer = new Customer("Jane Doe", "other-customer-id");
+        Reservation late = theater.createReservation(customer, 2, 1);
+        Reservation early = theater.createReservation(customer, 1, 1);
+        theater.createReservation(otherCustomer, 1, 1);
+
+        ReservationPage firstPage = theater.findReservations(customer, CustomerReservationIndex.FIRST_PAGE, 2);
+        Assertions.assertEquals(List.of(early, late), firstPage.getReservations());
+        Assertions.assertFalse(firstPage.hasMore());
+
+        Reservation confirmed = theater.confirmHold(theater.holdSeats(customer, 2, 1));
+        ReservationPage nextPage = theater.findReservations(customer, firstPage.getNextCursor(), 2);
+        Assertions.assertEquals(List.of(confirmed), nextPage.getReservations());
+        Assertions.assertTrue(theater.findReservations(customer, nextPage.getNextCursor(), 2).getReservations().isEmpty());
+        Assertions.assertEquals(3, theater.getReservationHistory().countReservations(customer.getId()));
+        Assertions.assertEquals(1, theater.findReservations(otherCustomer, CustomerReservationIndex.FIRST_PAGE, 10).getReservations().size());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> theater.findReservations(customer, CustomerReservationIndex.FIRST_PAGE, 0));
+    }
+
+    /**
+     * This is a case to test a theater whose idempotency keys are sized to its traffic
+     * Test data includes:
+     * - Theater remembering at most 16 keys for 10 minutes on a test clock, 64 keyed reservations of 1 ticket,
+     *   then retries of the remembered keys and a rejected key asked for again once the time to live went by
+     * Expected result:
+     * - Keys beyond the limit are rejected with an IllegalStateException without taking seats, remembered keys still return their reservation,
+     *   and the rejected key is taken once the remembered ones expired
+     */
+    @Test
+    public void testCreateReservation_IdempotencyKeysSaturateThenExpire() {
+        MutableClock clock = new MutableClock(LocalDateTime.of(2023, 6, 23, 7, 0).toInstant(ZoneOffset.UTC));
+        LocalDate showDate = LocalDate.of(2023, 6, 23);
+        Showing showing = new Showing(schedule.get(0).getMovie(), 1, LocalDateTime.of(showDate, LocalTime.of(8, 0)), 1, 100);
+        Theater idempotentTheater = new Theater(List.of(showing),
+                new MovieDiscountCalculator(new DiscountRuleEngine(MovieDiscountCalculator.getDefaultDiscountRules()), clock),
+                Theater.DEFAULT_HOLD_DURATION, 16, Duration.ofMinutes(10));
+
+        Map<String, Reservation> remembered = new LinkedHashMap<>();
+        List<String> rejected = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            String key = "request-" + i;
+            try {
+                remembered.put(key, idempotentTheater.createReservation(key, customer, showDate, 1, 1, 1));
+            } catch (IllegalStateException ex) {
+                rejected.add(key);
+            }
+        }
+        Assertions.assertFalse(rejected.isEmpty());
+        Assertions.assertEquals(100 - remembered.size(), showing.getSeatInventory().getRemainingSeats());
+        remembered.forEach((key, reservation) ->
+                Assertions.assertSame(reservation, idempotentTheater.createReservation(key, customer, showDate, 1, 1, 1)));
+
+        clock.advance(Duration.ofMinutes(10));
+        Assertions.assertEquals(1, idempotentTheater.createReservation(rejected.get(0), customer, showDate, 1, 1, 1).getAudienceCount());
+        Assertions.assertEquals(99 - remembered.size(), showing.getSeatInventory().getRemainingSeats());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Theater(List.of(), new MovieDiscountCalculator(),
+                Theater.DEFAULT_HOLD_DURATION, 0, Duration.ofMinutes(10)));
+    }
+
+    /**
+     * This is a case to test paging through reservations whose ids differ by a multiple of 2^32
+     * Test data includes:
+     * - Reservations of the customer for the same showing with ids 2^32 + 1, 2, and 1, added in that order, read in pages of 1,
+     *   then a reservation for an earlier showing, read in pages of 2
+     * Expected result:
+     * - Reservations are ordered by full id, the two sharing a key come on the same page, a page ends before them rather than between them,
+     *   and no reservation is skipped
+     */
+    @Test
+    public void testFindReservations_IdsSharingLowBits() {
+        CustomerReservationIndex index = new CustomerReservationIndex();
+        Showing showing = schedule.get(0);
+        Reservation wrapped = new Reservation((1L << 32) + 1, customer, showing, 1, List.of());
+        Reservation second = new Reservation(2, customer, showing, 1, List.of());
+        Reservation first = new Reservation(1, customer, showing, 1, List.of());
+        index.add(wrapped);
+        index.add(second);
+        index.add(first);
+
+        ReservationPage firstPage = index.findReservations(customer.getId(), CustomerReservationIndex.FIRST_PAGE, 1);
+        Assertions.assertEquals(List.of(first, wrapped), firstPage.getReservations());
+        Assertions.assertTrue(firstPage.hasMore());
+        ReservationPage nextPage = index.findReservations(customer.getId(), firstPage.getNextCursor(), 1);
+        Assertions.assertEquals(List.of(second), nextPage.getReservations());
+        Assertions.assertFalse(nextPage.hasMore());
+
+        Reservation earlier = new Reservation(3, customer,
+                new Showing(showing.getMovie(), 9, LocalDateTime.of(LocalDate.now(), LocalTime.of(7, 0))), 1, List.of());
+        index.add(earlier);
+        ReservationPage shortPage = index.findReservations(customer.getId(), CustomerReservationIndex.FIRST_PAGE, 2);
+        Assertions.assertEquals(List.of(earlier), shortPage.getReservations());
+        Assertions.assertEquals(List.of(first, wrapped), index.findReservations(customer.getId(), shortPage.getNextCursor(), 2).getReservations());
+    }
+
+    /**
+     * This is a case to test reservations retried with the same idempotency key
+     * Test data includes:
+     * - Theater whose calculator reads a test clock, a reservation retried with its key, the key reused for another party size,
+     *   a reservation failing while seats are held then retried with its key once they are released, and a retry after the key expired
+     * Expected result:
+     * - A retry returns the first reservation without taking seats, a key reused for another reservation throws an IllegalStateException,
+     *   a failed call is executed again on retry, and an expired key reserves again
+     */
+    @Test
+    public void testCreateReservation_IdempotencyKey() {
+        MutableClock clock = new MutableClock(LocalDateTime.of(2023, 6, 23, 7, 0).toInstant(ZoneOffset.UTC));
+        LocalDate showDate = LocalDate.of(2023, 6, 23);
+        Showing smallShowing = new Showing(schedule.get(0).getMovie(), 1, LocalDateTime.of(showDate, LocalTime.of(8, 0)), 1, 5);
+        Theater idempotentTheater = new Theater(List.of(smallShowing),
+                new MovieDiscountCalculator(new DiscountRuleEngine(MovieDiscountCalculator.getDefaultDiscountRules()), clock));
+
+        Reservation reservation = idempotentTheater.createReservation("request-1", customer, showDate, 1, 1, 2);
+        Assertions.assertSame(reservation, idempotentTheater.createReservation("request-1", customer, showDate, 1, 1, 2));
+        Assertions.assertEquals(3, smallShowing.getSeatInventory().getRemainingSeats());
+        Assertions.assertThrows(IllegalStateException.class, () -> idempotentTheater.createReservation("request-1", customer, showDate, 1, 1, 3));
+
+        SeatHold hold = idempotentTheater.holdSeats(customer, showDate, 1, 1, 2);
+        Assertions.assertThrows(IllegalStateException.class, () -> idempotentTheater.createReservation("request-2", customer, showDate, 1, 1, 2));
+        idempotentTheater.releaseHold(hold);
+        Assertions.assertEquals(2, idempotentTheater.createReservation("request-2", customer, showDate, 1, 1, 2).getAudienceCount());
+        Assertions.assertEquals(1, smallShowing.getSeatInventory().getRemainingSeats());
+
+        clock.advance(Theater.IDEMPOTENCY_KEY_TIME_TO_LIVE);
+        Assertions.assertThrows(IllegalStateException.class, () -> idempotentTheater.createReservation("request-1", customer, showDate, 1, 1, 2));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> idempotentTheater.createReservation(null, customer, showDate, 1, 1, 2));
+    }
+
+    /**
+     * This is a case to test that reservation calls over budget are shed by the theater's admission controller
+     * Test data includes:
+     * - Theater whose controller allows bursts of 2 calls per customer and 3 calls per showing on a test clock,
+     *   single reservations, a hold, and a batch by two customers before and after the buckets refill
+     * Expected result:
+     * - Calls over the customer's or the showing's budget throw the same shared AdmissionRejectedException without taking seats,
+     *   calls go through again once the clock moves, and rejected batch requests fail on their own
+     */
+    @Test
+    public void testCreateReservation_AdmissionControl() {
+        MutableClock clock = new MutableClock(LocalDateTime.of(2023, 6, 23, 7, 0).toInstant(ZoneOffset.UTC));
+        AdmissionController admissionController = new AdmissionController(clock, 2, 2, 10, 3, 1024);
+        theater.setAdmissionController(admissionController);
+        Customer otherCustomer = new Customer("Jane Doe", "other-customer-id");
+        LocalDate showDate = LocalDate.now();
+        int remainingSeats = schedule.get(0).getSeatInventory().getRemainingSeats();
+
+        theater.createReservation(customer, showDate, 1, 1, 1);
+        theater.holdSeats(customer, showDate, 1, 1, 1);
+        AdmissionRejectedException customerRejected = Assertions.assertThrows(AdmissionRejectedException.class,
+                () -> theater.createReservation(customer, showDate, 1, 1, 1));
+        Assertions.assertEquals(Admission.CUSTOMER_OVER_BUDGET, customerRejected.getAdmission());
+        Assertions.assertSame(customerRejected, Assertions.assertThrows(AdmissionRejectedException.class,
+                () -> theater.holdSeats(customer, showDate, 1, 1, 1)));
+
+        theater.createReservation(otherCustomer, showDate, 1, 1, 1);
+        AdmissionRejectedException showingRejected = Assertions.assertThrows(AdmissionRejectedException.class,
+                () -> theater.createReservation(otherCustomer, showDate, 1, 1, 1));
+        Assertions.assertEquals(Admission.SHOWING_OVER_BUDGET, showingRejected.getAdmission());
+        Assertions.assertEquals(remainingSeats - 3, schedule.get(0).getSeatInventory().getRemainingSeats());
+        Assertions.assertEquals(Admission.ADMITTED, admissionController.tryAdmit(null, schedule.get(1).getShowingKey()));
+
+        clock.advance(Duration.ofSeconds(1));
+        ReservationRequest request = new ReservationRequest(otherCustomer, showDate, 1, 1, 1);
+        List<ReservationResult> results = theater.createReservations(List.of(request, request, request));
+        Assertions.assertTrue(results.get(0).isSuccess());
+        Assertions.assertTrue(results.get(1).isSuccess());
+        Assertions.assertSame(customerRejected, results.get(2).getFailure());
+        theater.createReservation(customer, showDate, 1, 1, 1);
+        Assertions.assertSame(showingRejected, Assertions.assertThrows(AdmissionRejectedException.class,
+                () -> theater.createReservation(customer, showDate, 1, 1, 1)));
+        ReservationResult shed = theater.tryCreateReservation(request);
+        Assertions.assertFalse(shed.isSuccess());
+        Assertions.assertSame(customerRejected, shed.getFailure());
+        Assertions.assertEquals(6, admissionController.getRejectedCallCount());
+        customerRejected.addSuppressed(new IllegalStateException("Suppressed failure"));
+        Assertions.assertEquals(0, customerRejected.getSuppressed().length);
+        Assertions.assertEquals(0, customerRejected.getStackTrace().length);
+
+        theater.setAdmissionController(null);
+        theater.createReservation(customer, showDate, 1, 1, 1);
+        Assertions.assertTrue(theater.tryCreateReservation(request).isSuccess());
+        Assertions.assertEquals(remainingSeats - 8, schedule.get(0).getSeatInventory().getRemainingSeats());
+    }
+
+    /**
+     * This is a case to test that every customer gets a budget of its own while the controller has buckets to spare
+     * Test data includes:
+     * - Controller with 4 buckets per table allowing 1 call per second per customer, 5 customers calling twice, then again a second later
+     * Expected result:
+     * - The first 4 customers are each admitted once whatever their hashes, the fifth shares a bucket already drawn on and is rejected,
+     *   and once the buckets refill the fifth takes one over and is admitted
+     */
+    @Test
+    public void testTryAdmit_BudgetPerCustomer() {
+        MutableClock clock = new MutableClock(LocalDateTime.of(2023, 6, 23, 7, 0).toInstant(ZoneOffset.UTC));
+        AdmissionController admissionController = new AdmissionController(clock, 1, 1, 1000, 1000, 4);
+        ShowingKey key = schedule.get(0).getShowingKey();
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertEquals(Admission.ADMITTED, admissionController.tryAdmit("customer-" + i, key));
+            Assertions.assertEquals(Admission.CUSTOMER_OVER_BUDGET, admissionController.tryAdmit("customer-" + i, key));
+        }
+        Assertions.assertEquals(Admission.CUSTOMER_OVER_BUDGET, admissionController.tryAdmit("customer-4", key));
+
+        clock.advance(Duration.ofSeconds(1));
+        Assertions.assertEquals(Admission.ADMITTED, admissionController.tryAdmit("customer-4", key));
+        Assertions.assertEquals(Admission.CUSTOMER_OVER_BUDGET, admissionController.tryAdmit("customer-4", key));
+    }
+
+    /**
+     * This is a case to test that a showing cannot be reserved beyond its capacity
+     * Test data includes:
+     * - Theater with a single showing of 5 seats
+     * Expected result:
+     * - A reservation of 3 tickets succeeds, the next one of 3 tickets throws an IllegalStateException, and 2 more tickets still succeed
+     */
+    @Test
+    public void testCreateReservation_SoldOut_ThrowsIllegalStateException() {
+        Showing smallShowing = new Showing(schedule.get(0).getMovie(), 1, LocalDateTime.of(LocalDate.now(), LocalTime.of(8, 0)), 1, 5);
+        theater.setSchedule(List.of(smallShowing));
+
+        theater.createReservation(customer, 1, 3);
+        Assertions.assertThrows(IllegalStateException.class, () -> theater.createReservation(customer, 1, 3));
+        theater.createReservation(customer, 1, 2);
+        Assertions.assertTrue(smallShowing.getSeatInventory().isSoldOut());
+        Assertions.assertEquals(0, smallShowing.getSeatMap().getAvailableSeats());
+    }
+
+    /**
+     * This is a case to test the schedule change feed
+     * Test data includes:
+     * - Theater with the 2 default showings, a showing added, the 1st showing moved to tomorrow, the added showing cancelled
+     * Expected result:
+     * - Each change bumps the version by 1, a consumer catches up from any version with the events after it,
+     *   the moved showing keeps its taken seats, and moving onto a scheduled key leaves the schedule unchanged
+     */
+    @Test
+    public void testScheduleChangeFeed() {
+        long start = theater.getScheduleVersion();
+        Showing added = new Showing(schedule.get(0).getMovie(), 3, LocalDateTime.of(LocalDate.now(), LocalTime.of(12, 0)));
+        ShowingKey firstKey = schedule.get(0).getShowingKey();
+        theater.createReservation(customer, 1, 2);
+
+        Assertions.assertEquals(ScheduleChangeType.ADDED, theater.addShowing(added).getType());
+        ScheduleChangeEvent retimed = theater.retimeShowing(firstKey, LocalDateTime.of(LocalDate.now().plusDays(1), LocalTime.of(9, 0)));
+        theater.cancelShowing(added.getShowingKey());
+
+        Assertions.assertEquals(start + 3, theater.getScheduleVersion());
+        Assertions.assertEquals(firstKey, retimed.getPreviousShowingKey());
+        Assertions.assertEquals(LocalDate.now().plusDays(1), retimed.getShowingKey().getDate());
+        Assertions.assertEquals(98, retimed.getShowing().getSeatInventory().getRemainingSeats());
+        Assertions.assertTrue(theater.getScheduleIndex().findShowing(retimed.getShowingKey()).isPresent());
+        Assertions.assertFalse(theater.getScheduleIndex().findShowing(firstKey).isPresent());
+
+        List<ScheduleChangeEvent> changes = theater.getScheduleChangesSince(start + 1);
+        Assertions.assertEquals(2, changes.size());
+        Assertions.assertSame(retimed, changes.get(0));
+        Assertions.assertEquals(ScheduleChangeType.CANCELLED, changes.get(1).getType());
+        Assertions.assertEquals(start + 3, changes.get(1).getVersion());
+        Assertions.assertTrue(theater.getScheduleChangesSince(start + 3).isEmpty());
+
+        ShowingKey secondKey = schedule.get(1).getShowingKey();
+        theater.addShowing(new Showing(schedule.get(1).getMovie(), 2, LocalDateTime.of(LocalDate.now().plusDays(1), LocalTime.of(11, 0))));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> theater.retimeShowing(secondKey, LocalDateTime.of(LocalDate.now().plusDays(1), LocalTime.of(13, 0))));
+        Assertions.assertSame(schedule.get(1), theater.getScheduleIndex().findShowing(secondKey).orElseThrow());
+        Assertions.assertEquals(start + 4, theater.getScheduleVersion());
+        Assertions.assertThrows(IllegalStateException.class, () -> theater.cancelShowing(added.getShowingKey()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> theater.getScheduleChangesSince(start + 5));
+    }
+
+    /**
+     * This is a case to test the seat hold lifecycle during checkout
+     * Test data includes:
+     * - Theater with a single showing of 5 seats, holds of 2 minutes driven by a test clock
+     * Expected result:
+     * - Held seats cannot be reserved by others, a confirmed hold becomes a reservation of the held seats,
+     *   a released hold and an expired hold give their seats back, a hold past its deadline cannot be confirmed
+     *   even before the expiry wheel reaches it, and a hold can only complete once
+     */
+    @Test
+    public void testSeatHoldLifecycle() {
+        MutableClock clock = new MutableClock(LocalDateTime.of(2023, 6, 23, 7, 0).toInstant(ZoneOffset.UTC));
+        Showing smallShowing = new Showing(schedule.get(0).getMovie(), 1, LocalDateTime.of(2023, 6, 23, 8, 0), 1, 5);
+        Theater holdTheater = new Theater(List.of(smallShowing),
+                new MovieDiscountCalculator(new DiscountRuleEngine(MovieDiscountCalculator.getDefaultDiscountRules()), clock), Duration.ofMinutes(2));
+
+        SeatHold confirmed = holdTheater.holdSeats(customer, 1, 2);
+        SeatHold released = holdTheater.holdSeats(customer, 1, 2);
+        Assertions.assertThrows(IllegalStateException.class, () -> holdTheater.createReservation(customer, 1, 2));
+        Assertions.assertEquals(2, holdTheater.getActiveHoldCount());
+
+        Reservation reservation = holdTheater.confirmHold(confirmed);
+        Assertions.assertEquals(confirmed.getSeats(), reservation.getSeats());
+        Assertions.assertEquals(SeatHold.State.CONFIRMED, confirmed.getState());
+        Assertions.assertThrows(IllegalStateException.class, () -> holdTheater.confirmHold(confirmed));
+        Assertions.assertFalse(holdTheater.releaseHold(confirmed));
+
+        Assertions.assertTrue(holdTheater.releaseHold(released));
+        Assertions.assertFalse(holdTheater.releaseHold(released));
+        Assertions.assertEquals(3, smallShowing.getSeatInventory().getRemainingSeats());
+
+        SeatHold expired = holdTheater.holdSeats(customer, 1, 3);
+        clock.advance(Duration.ofSeconds(119));
+        Assertions.assertEquals(0, holdTheater.expireHolds());
+        clock.advance(Duration.ofSeconds(1));
+        Assertions.assertEquals(1, holdTheater.expireHolds());
+        Assertions.assertEquals(SeatHold.State.EXPIRED, expired.getState());
+        Assertions.assertThrows(IllegalStateException.class, () -> holdTheater.confirmHold(expired));
+        Assertions.assertEquals(3, smallShowing.getSeatMap().getAvailableSeats());
+        Assertions.assertEquals(0, holdTheater.getActiveHoldCount());
+        Assertions.assertEquals(1, holdTheater.createReservation(customer, 1, 1).getSeats().size());
+
+        clock.advance(Duration.ofMillis(500));
+        SeatHold late = holdTheater.holdSeats(customer, 1, 2);
+        clock.advance(Duration.ofMinutes(2));
+        Assertions.assertThrows(IllegalStateException.class, () -> holdTheater.confirmHold(late));
+        Assertions.assertEquals(SeatHold.State.EXPIRED, late.getState());
+        Assertions.assertEquals(2, smallShowing.getSeatInventory().getRemainingSeats());
+        Assertions.assertEquals(0, holdTheater.getActiveHoldCount());
+    }
+
     /**
      * This is an integration test to create a reservation from the theater and calculate the total fee for the reservation
      * Test data includes:
@@ -124,6 +509,79 @@ public class TheaterTests {
         Assertions.assertEquals(0, reservation.calculateTotalReservationFee().compareTo(BigDecimal.valueOf(70.4)));
     }
 
+    /**
+     * This is a case to test pricing the whole schedule in one pass
+     * Test data includes:
+     * - Theater with 2 movies in schedule, 1st showing of a $20 movie and 2nd showing of a $22 special movie
+     * Expected result:
+     * - The price table holds both showings priced the same as each showing prices itself ($17 and $17.60)
+     */
+    @Test
+    public void testCalculateSchedulePrices_MatchesShowingPrices() {
+        SchedulePriceTable priceTable = theater.calculateSchedulePrices();
+
+        Assertions.assertEquals(2, priceTable.size());
+        Assertions.assertEquals(LocalDate.now(), priceTable.getBusinessDate());
+        Assertions.assertEquals(1700, priceTable.getFinalShowingPriceInCents(schedule.get(0)));
+        Assertions.assertEquals(0, priceTable.getFinalShowingPrice(schedule.get(1)).compareTo(schedule.get(1).getFinalShowingPrice()));
+        Map<Showing, BigDecimal> prices = priceTable.toMap();
+        Assertions.assertEquals(schedule, List.copyOf(prices.keySet()));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> prices.clear());
+    }
+
+    /**
+     * This is a case to test that the showings of a theater are priced by the theater's calculator
+     * Test data includes:
+     * - Showings created without a calculator, scheduled by a theater whose calculator has no discount rules,
+     *   a showing added later, and the rules of the calculator changed to the default rules
+     * Expected result:
+     * - The showings and the price table agree on the theater's prices before and after the rules change
+     */
+    @Test
+    public void testCalculateSchedulePrices_ShowingsBoundToTheaterCalculator() {
+        MovieDiscountCalculator calculator = new MovieDiscountCalculator(new DiscountRuleEngine(List.of()));
+        Theater rulelessTheater = new Theater(schedule, calculator);
+        Showing added = new Showing(schedule.get(0).getMovie(), 3, LocalDateTime.of(LocalDate.now(), LocalTime.of(12, 0)));
+        rulelessTheater.addShowing(added);
+
+        Assertions.assertEquals(2000, schedule.get(0).getFinalShowingPriceInCents());
+        Assertions.assertEquals(2000, added.getFinalShowingPriceInCents());
+        Assertions.assertEquals(2200, rulelessTheater.calculateSchedulePrices().getFinalShowingPriceInCents(schedule.get(1)));
+
+        calculator.setDiscountRuleEngine(new DiscountRuleEngine(MovieDiscountCalculator.getDefaultDiscountRules()));
+        Assertions.assertEquals(1700, schedule.get(0).getFinalShowingPriceInCents());
+        Assertions.assertEquals(1500, added.getFinalShowingPriceInCents());
+        Assertions.assertEquals(1700, rulelessTheater.calculateSchedulePrices().getFinalShowingPriceInCents(schedule.get(0)));
+    }
+
+    /**
+     * This is a case to test that a big schedule priced over a ForkJoinPool gets the same prices as on the calling thread
+     * Test data includes:
+     * - Theater with 10000 showings of movies with different prices, sequences, start times and auditoriums
+     * Expected result:
+     * - Every showing has the same price in both tables, and a showing outside of the schedule is rejected
+     */
+    @Test
+    public void testCalculateSchedulePrices_ForkJoinPool_MatchesSequentialPrices() {
+        List<Showing> bigSchedule = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            Movie movie = new Movie("Movie " + i, "Movie Desc " + i, Duration.ofMinutes(90), BigDecimal.valueOf(500 + i, 2), i % 3);
+            bigSchedule.add(new Showing(movie, 1 + i % 9, LocalDateTime.of(LocalDate.now(), LocalTime.of(i % 24, i % 60)), 1 + i / 9));
+        }
+        Theater bigTheater = new Theater(bigSchedule);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            SchedulePriceTable sequentialPrices = bigTheater.calculateSchedulePrices();
+            SchedulePriceTable parallelPrices = bigTheater.calculateSchedulePrices(pool);
+            for (Showing showing : bigSchedule) {
+                Assertions.assertEquals(sequentialPrices.getFinalShowingPriceInCents(showing), parallelPrices.getFinalShowingPriceInCents(showing));
+            }
+            Assertions.assertThrows(IllegalArgumentException.class, () -> parallelPrices.getFinalShowingPrice(schedule.get(0)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     /**
      * This is a test to see if the schedule print method works as expected
      * This uses PrintStream and ByteArrayOutputStream
@@ -163,20 +621,120 @@ public class TheaterTests {
         Assertions.assertEquals(expectedResult, output);
     }
 
+    /**
+     * This is a test to see that the schedule is printed in the charset of System.out
+     * Test data includes:
+     * - Theater with a movie titled with an accented letter, printed to a stream encoding ISO-8859-1
+     * Expected result:
+     * - The printed bytes decode as ISO-8859-1 to the rendered schedule, while the render stays in UTF-8
+     */
+    @Test
+    public void testPrintMovieSchedule_PrintStreamCharset() throws IOException {
+        Movie movie = new Movie("Am\u00e9lie", "Test Movie Desc", Duration.ofMinutes(100), BigDecimal.valueOf(20), 0);
+        Theater accentedTheater = new Theater(List.of(new Showing(movie, 1, LocalDateTime.of(LocalDate.now(), LocalTime.of(8, 0)))));
+        ByteArrayOutputStream latinStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(latinStream, true, StandardCharsets.ISO_8859_1.name()));
+
+        accentedTheater.printSchedule();
+
+        String rendered = StandardCharsets.UTF_8.decode(accentedTheater.renderSchedule(ScheduleFormat.TEXT)).toString();
+        Assertions.assertTrue(rendered.contains(" Am\u00e9lie "));
+        Assertions.assertEquals(rendered, latinStream.toString(StandardCharsets.ISO_8859_1.name()));
+    }
+
     /**
      * This is a test to see if the schedule print to JSON method works as expected
      * This uses PrintStream and ByteArrayOutputStream
      * Test data includes:
      * - Theater with 2 movies in the schedule
      * Expected result:
-     * - The method should return with the correct schedule printed with 2 movies but in a JSON format and encapsulated by the date
+     * - The method should return with the correct schedule printed with 2 movies but in a JSON format and encapsulated by the date,
+     *   each showing serialized the same way Jackson serializes it on its own (property order is left to Jackson)
      */
     @Test
-    public void testPrintMovieScheduleToJson() {
+    public void testPrintMovieScheduleToJson() throws IOException {
         theater.printScheduleToJson();
         String output = outputStream.toString();
 
-        String expectedResult = "{\"2023-06-23\":[{\"movie\":{\"title\":\"Test Movie 1\",\"description\":\"Test Movie Desc 1\",\"runningTime\":{\"seconds\":6000,\"nano\":0,\"negative\":false,\"zero\":false,\"units\":[\"SECONDS\",\"NANOS\"]},\"ticketPrice\":20,\"specialCode\":0},\"sequenceOfTheDay\":1,\"showStartTime\":{\"year\":2023,\"monthValue\":6,\"dayOfMonth\":23,\"hour\":8,\"minute\":0,\"second\":0,\"nano\":0,\"dayOfWeek\":\"FRIDAY\",\"dayOfYear\":174,\"month\":\"JUNE\",\"chronology\":{\"id\":\"ISO\",\"calendarType\":\"iso8601\"}},\"finalShowingPrice\":17.00},{\"movie\":{\"title\":\"Test Movie 2\",\"description\":\"Test Movie Desc 2\",\"runningTime\":{\"seconds\":6000,\"nano\":0,\"negative\":false,\"zero\":false,\"units\":[\"SECONDS\",\"NANOS\"]},\"ticketPrice\":22,\"specialCode\":1},\"sequenceOfTheDay\":2,\"showStartTime\":{\"year\":2023,\"monthValue\":6,\"dayOfMonth\":23,\"hour\":10,\"minute\":0,\"second\":0,\"nano\":0,\"dayOfWeek\":\"FRIDAY\",\"dayOfYear\":174,\"month\":\"JUNE\",\"chronology\":{\"id\":\"ISO\",\"calendarType\":\"iso8601\"}},\"finalShowingPrice\":17.60}]}";
-        Assertions.assertEquals(expectedResult, output.trim());
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode printed = mapper.readTree(output);
+        Assertions.assertEquals(1, printed.size());
+        JsonNode showings = printed.get(LocalDate.now().toString());
+        Assertions.assertEquals(mapper.readTree(mapper.writeValueAsString(schedule)), showings);
+        Assertions.assertEquals("Test Movie 1", showings.get(0).get("movie").get("title").asText());
+        Assertions.assertEquals(2, showings.get(1).get("sequenceOfTheDay").asInt());
+        Assertions.assertTrue(output.contains("\"finalShowingPrice\":17.00"));
+        Assertions.assertTrue(output.contains("\"finalShowingPrice\":17.60"));
+        Assertions.assertTrue(output.endsWith(System.lineSeparator()));
+    }
+
+    /**
+     * This is a test to see that the schedule can be streamed as JSON to a Writer or an OutputStream
+     * Test data includes:
+     * - Theater with 2 movies in the schedule
+     * Expected result:
+     * - Both outputs are the same document, and neither the writer nor the stream is closed
+     */
+    @Test
+    public void testWriteScheduleJson_WriterAndStream() throws IOException {
+        StringWriter writer = new StringWriter();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+        theater.writeScheduleJson(writer);
+        theater.writeScheduleJson(stream);
+        writer.write("!");
+        stream.write('!');
+
+        Assertions.assertEquals(writer.toString(), stream.toString(StandardCharsets.UTF_8.name()));
+        Assertions.assertTrue(writer.toString().startsWith("{\"" + LocalDate.now() + "\":[{"));
+    }
+
+    /**
+     * This is a test to see that rendered schedules are cached until the schedule version changes
+     * Test data includes:
+     * - Theater with 2 movies in the schedule, a showing added to the index behind the theater's back, then a new schedule
+     * Expected result:
+     * - The text render is read-only, matches the printed schedule, and ignores the unversioned change,
+     *   while setSchedule bumps the version and the next render shows the new schedule
+     */
+    @Test
+    public void testRenderSchedule_CachedUntilScheduleChanges() {
+        ByteBuffer firstRender = theater.renderSchedule(ScheduleFormat.TEXT);
+        theater.printSchedule();
+
+        Assertions.assertTrue(firstRender.isReadOnly());
+        Assertions.assertEquals(outputStream.toString(), StandardCharsets.UTF_8.decode(firstRender.duplicate()).toString());
+
+        theater.getScheduleIndex().add(new Showing(schedule.get(0).getMovie(), 3, LocalDateTime.of(LocalDate.now(), LocalTime.of(12, 0))));
+        Assertions.assertEquals(firstRender, theater.renderSchedule(ScheduleFormat.TEXT));
+
+        long version = theater.getScheduleVersion();
+        theater.setSchedule(theater.getSchedule());
+        Assertions.assertEquals(version + 1, theater.getScheduleVersion());
+        Assertions.assertTrue(StandardCharsets.UTF_8.decode(theater.renderSchedule(ScheduleFormat.TEXT)).toString().contains("3: "));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> theater.renderSchedule(null));
+    }
+
+    /**
+     * This is a test to see that rendered schedules are dropped when the business date rolls over or the discount rules change
+     * Test data includes:
+     * - Theater whose calculator reads a test clock, rendering its JSON schedule before and after midnight
+     * Expected result:
+     * - The JSON render is keyed by the new business date after midnight, and rendered again after the rules change
+     */
+    @Test
+    public void testRenderSchedule_DroppedOnBusinessDateRollover() {
+        MutableClock clock = new MutableClock(LocalDateTime.of(2023, 6, 23, 23, 0).toInstant(ZoneOffset.UTC));
+        MovieDiscountCalculator calculator = new MovieDiscountCalculator(new DiscountRuleEngine(MovieDiscountCalculator.getDefaultDiscountRules()), clock);
+        Theater clockedTheater = new Theater(schedule, calculator);
+
+        Assertions.assertTrue(StandardCharsets.UTF_8.decode(clockedTheater.renderSchedule(ScheduleFormat.JSON)).toString().startsWith("{\"2023-06-23\""));
+        clock.advance(Duration.ofHours(2));
+        ByteBuffer nextDay = clockedTheater.renderSchedule(ScheduleFormat.JSON);
+        Assertions.assertTrue(StandardCharsets.UTF_8.decode(nextDay.duplicate()).toString().startsWith("{\"2023-06-24\""));
+
+        clockedTheater.getScheduleIndex().remove(schedule.get(1).getShowingKey());
+        calculator.setDiscountRuleEngine(new DiscountRuleEngine(List.of()));
+        Assertions.assertNotEquals(nextDay, clockedTheater.renderSchedule(ScheduleFormat.JSON));
     }
 }